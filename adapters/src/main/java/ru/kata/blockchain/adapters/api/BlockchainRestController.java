@@ -1,72 +1,115 @@
 package ru.kata.blockchain.adapters.api;
 
-import com.google.common.collect.ImmutableList;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.kata.blockchain.application.usecase.AddBlockUseCase;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.kata.blockchain.application.usecase.CreateTransactionUseCase;
+import ru.kata.blockchain.application.usecase.FindTransactionUseCase;
+import ru.kata.blockchain.application.usecase.GetTransactionProofUseCase;
 import ru.kata.blockchain.application.usecase.ValidateTransactionUseCase;
 import ru.kata.blockchain.domain.block.Block;
 import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.error.ErrorCodes;
 import ru.kata.blockchain.domain.service.AccountStateService;
+import ru.kata.blockchain.domain.service.MempoolAddResult;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.transaction.ConfirmedTransaction;
 import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionProof;
 import ru.kata.blockchain.domain.validation.ValidationResult;
 import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
 import ru.kata.blockchain.domain.vo.WalletAddress;
-import ru.kata.blockchain.adapters.dto.BlockDto;
 import ru.kata.blockchain.adapters.dto.CreateTransactionRequestDto;
 import ru.kata.blockchain.adapters.dto.TransactionDto;
-import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.adapters.producer.BlockProducer;
 
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+
+import static ru.kata.blockchain.application.logging.HotPathLogging.HOT_PATH;
 
 /**
  * REST-контроллер для работы с блокчейном.
  * <p>
  * Данный контроллер предоставляет API для взаимодействия с системой:
  * <ul>
- *     <li>{@code POST /api/transaction} — создание транзакции, её валидация и добавление в новый блок.</li>
- *     <li>{@code GET /api/blockchain} — получение полной цепочки блоков.</li>
+ *     <li>{@code POST /api/transaction} — создание транзакции, её валидация и помещение в мемпул.</li>
+ *     <li>{@code POST /api/transactions} — то же для пакета до {@value #MAX_BATCH_SIZE} транзакций: подписи пакета
+ *     проверяются параллельно, результаты возвращаются в порядке запросов.</li>
+ *     <li>{@code GET /api/transaction/{txId}} — поиск подтверждённой транзакции и глубины её подтверждения.</li>
+ *     <li>{@code GET /api/transaction/{txId}/proof} — заголовок блока и ветвь Меркла для лёгкого клиента.</li>
+ *     <li>{@code GET /api/blockchain?fromIndex=&limit=} — постраничное получение цепочки блоков.</li>
+ *     <li>{@code GET /api/blockchain/stream?fromIndex=} — потоковая выдача цепочки в формате NDJSON.</li>
  *     <li>{@code GET /api/balance/{address}} — получение текущего баланса кошелька по адресу.</li>
  * </ul>
  *
- * - Контроллер использует DTO для обмена данными с клиентом: {@link CreateTransactionRequestDto}, {@link TransactionDto}, {@link BlockDto}.
+ * - Контроллер использует DTO для обмена данными с клиентом: {@link CreateTransactionRequestDto}, {@link TransactionDto}.
  * <p>
- * - Внутри метода {@code createTransaction} формируется новый блок на основе последнего блока в цепочке.
+ * - Метод {@code createTransaction} только принимает транзакцию в мемпул и возвращает её TxId со статусом {@code PENDING};
+ * блоки из транзакций мемпула собирает {@link BlockProducer}; отказ мемпула учитывается в {@link PipelineMetrics}.
  * <p>
- * - Для вычисления хэша блока используется {@link HashFactory}.
+ * - Поступление запросов пишется в лог на уровне DEBUG; итог приёма транзакции — сообщением горячего пути
+ * {@link ru.kata.blockchain.application.logging.HotPathLogging#HOT_PATH}, которое прореживается фильтром логирования.
  */
 @RestController
 @RequestMapping("/api")
 @Slf4j
 public class BlockchainRestController {
+    static final String NEXT_FROM_INDEX_HEADER = "X-Next-From-Index";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+    private static final int STREAM_BATCH_SIZE = 256;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String PENDING_STATUS = "PENDING";
 
-    private final AddBlockUseCase addBlockUseCase;
     private final CreateTransactionUseCase createTransactionUseCase;
     private final ValidateTransactionUseCase validateTransactionUseCase;
+    private final FindTransactionUseCase findTransactionUseCase;
+    private final GetTransactionProofUseCase getTransactionProofUseCase;
     private final AccountStateService accountStateService;
+    private final MempoolService mempoolService;
+    private final BlockProducer blockProducer;
     private final BlockRepository blockRepository;
+    private final PipelineMetrics pipelineMetrics;
+    private final ObjectWriter blockWriter;
 
     @Autowired
-    public BlockchainRestController(AddBlockUseCase addBlockUseCase,
-                                    CreateTransactionUseCase createTransactionUseCase,
+    public BlockchainRestController(CreateTransactionUseCase createTransactionUseCase,
                                     ValidateTransactionUseCase validateTransactionUseCase,
+                                    FindTransactionUseCase findTransactionUseCase,
+                                    GetTransactionProofUseCase getTransactionProofUseCase,
                                     AccountStateService accountStateService,
-                                    BlockRepository blockRepository) {
-        this.addBlockUseCase = addBlockUseCase;
+                                    MempoolService mempoolService,
+                                    BlockProducer blockProducer,
+                                    BlockRepository blockRepository,
+                                    PipelineMetrics pipelineMetrics,
+                                    ObjectMapper objectMapper) {
         this.createTransactionUseCase = createTransactionUseCase;
         this.validateTransactionUseCase = validateTransactionUseCase;
+        this.findTransactionUseCase = findTransactionUseCase;
+        this.getTransactionProofUseCase = getTransactionProofUseCase;
         this.accountStateService = accountStateService;
+        this.mempoolService = mempoolService;
+        this.blockProducer = blockProducer;
         this.blockRepository = blockRepository;
+        this.pipelineMetrics = pipelineMetrics;
+        this.blockWriter = objectMapper.writerFor(Block.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @PostMapping("/transaction")
     public ResponseEntity<?> createTransaction(@RequestBody CreateTransactionRequestDto request) {
-        log.info("Received transaction request: from={}, to={}, amount={}",
-                request.transactionDto().from(), request.transactionDto().to(), request.transactionDto().amount());
+        log.atDebug().addKeyValue("from", request.transactionDto().from()).addKeyValue("to", request.transactionDto().to())
+                .addKeyValue("amount", request.transactionDto().amount()).log("Received transaction request");
 
         try {
             final TransactionDto transactionDto = request.transactionDto();
@@ -77,53 +120,200 @@ public class BlockchainRestController {
                     request.privateKey(),
                     transactionDto.publicKey()
             );
-            log.debug("Transaction created successfully: {}", createdTransaction);
+            log.debug("Transaction created successfully");
 
             final ValidationResult result = validateTransactionUseCase.validateTransaction(createdTransaction);
             if (!"OK".equals(result.status())) {
-                log.warn("Transaction validation failed: {}", result);
+                log.debug("Transaction validation failed: errors={}", result.errors());
                 return ResponseEntity.badRequest().body(result);
             }
             log.debug("Transaction validation passed");
 
-            final Block latest = blockRepository.findLatest().get();
-            log.debug("Latest block retrieved: index={}", latest.index());
-
-            final BlockDto blockDto = new BlockDto(latest.index() + 1, Instant.now(), ImmutableList.of(createdTransaction), latest.hash());
-            final HashFactory hashFactory = new HashFactory();
-            final Block newBlock = new Block(
-                    blockDto.getIndex(),
-                    blockDto.getTimestamp(),
-                    blockDto.getTransactions(),
-                    blockDto.getPreviousHash(),
-                    blockDto.getNonce(),
-                    hashFactory.createHash(blockDto)
-            );
-            log.debug("New block created: index={}", newBlock.index());
-
-            addBlockUseCase.addBlock(newBlock);
-            log.info("Block added successfully: index={}, hash={}", newBlock.index(), newBlock.hash());
+            final ValidationResult admission = admit(createdTransaction, result);
+            if (!PENDING_STATUS.equals(admission.status())) {
+                return ResponseEntity.badRequest().body(admission);
+            }
 
-            return ResponseEntity.ok(newBlock);
+            blockProducer.onTransactionAdmitted();
+            return ResponseEntity.accepted().body(admission);
         } catch (Exception e) {
             log.error("Error processing transaction: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Принимает пакет транзакций. Все транзакции пакета создаются и подписываются до проверки; если хотя бы одну
+     * создать не удалось, пакет отклоняется целиком. Проверка — {@link ValidateTransactionUseCase#validateTransactions};
+     * прошедшие её транзакции помещаются в мемпул по порядку.
+     *
+     * @return результат по каждой транзакции в порядке запросов: {@code PENDING} с TxId или {@code ERROR} с кодами ошибок
+     */
+    @PostMapping("/transactions")
+    public ResponseEntity<?> createTransactions(@RequestBody List<CreateTransactionRequestDto> requests) {
+        log.debug("Received transaction batch request: size={}", requests.size());
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        final List<Transaction> transactions = new ArrayList<>(requests.size());
+        try {
+            for (CreateTransactionRequestDto request : requests) {
+                final TransactionDto transactionDto = request.transactionDto();
+                transactions.add(createTransactionUseCase.createTransaction(
+                        new WalletAddress(transactionDto.from()),
+                        new WalletAddress(transactionDto.to()),
+                        new Amount(transactionDto.amount()),
+                        request.privateKey(),
+                        transactionDto.publicKey()
+                ));
+            }
+        } catch (Exception e) {
+            log.error("Error processing transaction batch: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        final List<ValidationResult> validated = validateTransactionUseCase.validateTransactions(transactions);
+        final List<ValidationResult> results = new ArrayList<>(validated.size());
+        boolean admitted = false;
+        for (int i = 0; i < validated.size(); i++) {
+            final ValidationResult result = admit(transactions.get(i), validated.get(i));
+            admitted |= PENDING_STATUS.equals(result.status());
+            results.add(result);
+        }
+        if (admitted) {
+            blockProducer.onTransactionAdmitted();
+        }
+        return ResponseEntity.accepted().body(results);
+    }
+
+    @GetMapping("/transaction/{txId}")
+    public ResponseEntity<?> getTransaction(@PathVariable String txId) {
+        log.debug("Received transaction lookup request: txId={}", txId);
+        if (!Hash.isValidHex(txId)) {
+            log.warn(HOT_PATH, "Invalid txId format: {}", txId);
+            return ResponseEntity.badRequest().body("TxId must be 64 hex characters [0-9a-f]");
+        }
+        final Optional<ConfirmedTransaction> transaction = findTransactionUseCase.findTransaction(txId);
+        if (transaction.isEmpty()) {
+            log.debug("Transaction not found: txId={}", txId);
+            return ResponseEntity.notFound().build();
+        }
+        log.debug("Transaction found: txId={}, blockIndex={}, confirmations={}",
+                txId, transaction.get().blockIndex(), transaction.get().confirmations());
+        return ResponseEntity.ok(transaction.get());
+    }
+
+    /**
+     * Доказательство включения подтверждённой транзакции: заголовок блока и ветвь дерева Меркла.
+     * Клиент проверяет его без загрузки блоков ({@link TransactionProof#verify()}).
+     */
+    @GetMapping("/transaction/{txId}/proof")
+    public ResponseEntity<?> getTransactionProof(@PathVariable String txId) {
+        log.debug("Received transaction proof request: txId={}", txId);
+        if (!Hash.isValidHex(txId)) {
+            log.warn(HOT_PATH, "Invalid txId format: {}", txId);
+            return ResponseEntity.badRequest().body("TxId must be 64 hex characters [0-9a-f]");
+        }
+        final Optional<TransactionProof> proof = getTransactionProofUseCase.getProof(txId);
+        if (proof.isEmpty()) {
+            log.debug("Transaction not found: txId={}", txId);
+            return ResponseEntity.notFound().build();
+        }
+        log.debug("Transaction proof built: txId={}, blockIndex={}, branch={}",
+                txId, proof.get().header().index(), proof.get().proof().branch().size());
+        return ResponseEntity.ok(proof.get());
+    }
+
+    /**
+     * Страница цепочки: блоки с номерами {@code [fromIndex, fromIndex + limit)}. Если за страницей есть ещё блоки,
+     * номер следующего блока возвращается в заголовке {@value #NEXT_FROM_INDEX_HEADER}.
+     */
     @GetMapping("/blockchain")
-    public ResponseEntity<List<Block>> getBlockchain() {
-        log.info("Received request for full blockchain");
-        final List<Block> blockchain = blockRepository.findAll();
-        log.debug("Blockchain retrieved successfully: {}, blockchain: {}", blockchain,  blockchain.size());
-        return ResponseEntity.ok(blockchain);
+    public ResponseEntity<?> getBlockchain(@RequestParam(defaultValue = "0") long fromIndex,
+                                           @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Received blockchain page request: fromIndex={}, limit={}", fromIndex, limit);
+        if (fromIndex < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.warn("Invalid blockchain page request: fromIndex={}, limit={}", fromIndex, limit);
+            return ResponseEntity.badRequest().body("fromIndex must be >= 0 and limit must be in [1, " + MAX_PAGE_SIZE + "]");
+        }
+        final List<Block> page = blockRepository.findRange(fromIndex, rangeEnd(fromIndex, limit));
+        log.debug("Blockchain page retrieved: fromIndex={}, size={}", fromIndex, page.size());
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        final long latestIndex = blockRepository.findLatest().map(Block::index).orElse(-1L);
+        if (!page.isEmpty() && page.getLast().index() < latestIndex) {
+            response.header(NEXT_FROM_INDEX_HEADER, Long.toString(page.getLast().index() + 1));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Цепочка, начиная с блока {@code fromIndex}, в формате NDJSON: один блок JSON на строку.
+     * Блоки читаются из репозитория пачками по {@value #STREAM_BATCH_SIZE} и сразу пишутся в ответ,
+     * поэтому память не зависит от длины цепочки. Отдаются блоки, существовавшие на момент запроса.
+     */
+    @GetMapping(value = "/blockchain/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamBlockchain(@RequestParam(defaultValue = "0") long fromIndex) {
+        log.debug("Received blockchain stream request: fromIndex={}", fromIndex);
+        final long latestIndex = blockRepository.findLatest().map(Block::index).orElse(-1L);
+        final StreamingResponseBody body = out -> {
+            long next = Math.max(fromIndex, 0);
+            long written = 0;
+            while (next <= latestIndex) {
+                final List<Block> batch = blockRepository.findRange(next, Math.min(latestIndex + 1, rangeEnd(next, STREAM_BATCH_SIZE)));
+                for (Block block : batch) {
+                    blockWriter.writeValue(out, block);
+                    out.write('\n');
+                }
+                out.flush();
+                written += batch.size();
+                next = rangeEnd(next, STREAM_BATCH_SIZE);
+            }
+            log.debug("Blockchain streamed: fromIndex={}, blocks={}", fromIndex, written);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private static ErrorCodes mempoolError(MempoolAddResult admission) {
+        if (admission == MempoolAddResult.DUPLICATE) {
+            return ErrorCodes.DUPLICATE_TRANSACTION;
+        }
+        if (admission == MempoolAddResult.INSUFFICIENT_FUNDS) {
+            return ErrorCodes.INSUFFICIENT_FUNDS;
+        }
+        return ErrorCodes.MEMPOOL_FULL;
+    }
+
+    /**
+     * Помещает в мемпул транзакцию, прошедшую проверку; результат непрошедшей возвращается как есть.
+     */
+    private ValidationResult admit(Transaction transaction, ValidationResult result) {
+        if (!"OK".equals(result.status())) {
+            return result;
+        }
+        final MempoolAddResult admission = mempoolService.add(result.txId(), transaction,
+                () -> accountStateService.getBalance(transaction.from()));
+        if (admission != MempoolAddResult.ADDED) {
+            log.warn(HOT_PATH, "Transaction was not admitted to the mempool: txId={}, result={}", result.txId(), admission);
+            final ErrorCodes error = mempoolError(admission);
+            pipelineMetrics.recordRejection(error);
+            return new ValidationResult("ERROR", null, List.of(error));
+        }
+        log.info(HOT_PATH, "Transaction admitted to the mempool: txId={}", result.txId());
+        return new ValidationResult(PENDING_STATUS, result.txId(), List.of());
+    }
+
+    private static long rangeEnd(long fromIndex, int limit) {
+        if (fromIndex > Long.MAX_VALUE - limit) {
+            return Long.MAX_VALUE;
+        }
+        return fromIndex + limit;
     }
 
     @GetMapping("/balance/{address}")
-    public ResponseEntity<Double> getBalance(@PathVariable String address) {
-        log.info("Received balance request for address: {}", address);
+    public ResponseEntity<Long> getBalance(@PathVariable String address) {
+        log.debug("Received balance request for address: {}", address);
         final WalletAddress walletAddress = new WalletAddress(address);
-        final double balance = accountStateService.getBalance(walletAddress);
+        final long balance = accountStateService.getBalance(walletAddress);
         log.debug("Balance for address {}: {}", address, balance);
         return ResponseEntity.ok(balance);
     }
@@ -18,7 +18,7 @@ import java.time.Instant;
  *     <li>{@code timestamp} — метка времени создания блока;</li>
  *     <li>{@code transactions} — список транзакций, включенных в блок;</li>
  *     <li>{@code previousHash} — хэш предыдущего блока;</li>
- *     <li>{@code nonce} — случайное число (для POW, по умолчанию 1).</li>
+ *     <li>{@code nonce} — число, подобранное доказательством работы (по умолчанию 1).</li>
  * </ul>
  */
 @Getter
@@ -28,7 +28,7 @@ public class BlockDto {
     private Instant timestamp;
     private ImmutableList<Transaction> transactions;
     private Hash previousHash;
-    private final long nonce = 1L;
+    private long nonce = 1L;
 
     public BlockDto(long index, Instant timestamp, ImmutableList<Transaction> transactions, Hash previousHash) {
         this.index = index;
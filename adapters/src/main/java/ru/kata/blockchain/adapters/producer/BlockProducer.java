@@ -0,0 +1,223 @@
+package ru.kata.blockchain.adapters.producer;
+
+import com.google.common.collect.ImmutableList;
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.adapters.dto.BlockDto;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.application.usecase.AddBlockUseCase;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.MiningService;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.service.PipelineStage;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Производитель блоков: собирает проверенные транзакции из мемпула в блоки.
+ * <p>
+ * Блок запечатывается раз в {@code interval} или раньше, как только в мемпуле набралось
+ * {@code maxTransactions} транзакций или {@code maxBytes} байт ({@link #onTransactionAdmitted()}).
+ * В блок попадают до {@code maxTransactions} транзакций в порядке поступления, но не больше {@code maxBytes} байт.
+ * <p>
+ * {@code nonce} блока подбирается доказательством работы ({@link MiningService}); если добычу отменили,
+ * потому что в цепочке уже появился блок с тем же номером, транзакции остаются в мемпуле.
+ * <p>
+ * Если цепочка пуста, при запуске (и перед первым блоком) в неё добавляется {@link GenesisBlock}.
+ * <p>
+ * Блоки собираются в одном потоке, поэтому каждый следующий блок строится на только что сохранённом.
+ * Транзакции блока удаляет из мемпула реестр балансов при фиксации блока; если блок не был добавлен,
+ * транзакции остаются в пуле и попадут в следующий блок. Транзакция, TxId которой уже подтверждён
+ * ({@link TransactionIndex}), в блок не включается и удаляется из мемпула: повтор TxId в цепочке запрещён.
+ * <p>
+ * Время расчёта корня Меркла блока публикуется через {@link PipelineMetrics} как этап {@link PipelineStage#BLOCK_HASH}.
+ */
+@Slf4j
+public class BlockProducer implements Closeable {
+    private final MempoolService mempoolService;
+    private final BlockRepository blockRepository;
+    private final AddBlockUseCase addBlockUseCase;
+    private final HashFactory hashFactory;
+    private final MiningService miningService;
+    private final TransactionIndex transactionIndex;
+    private final long intervalMillis;
+    private final int maxTransactions;
+    private final long maxBytes;
+    private final PipelineMetrics pipelineMetrics;
+    private final AtomicBoolean sealRequested = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "block-producer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BlockProducer(MempoolService mempoolService,
+                         BlockRepository blockRepository,
+                         AddBlockUseCase addBlockUseCase,
+                         HashFactory hashFactory,
+                         MiningService miningService,
+                         TransactionIndex transactionIndex,
+                         long intervalMillis,
+                         int maxTransactions,
+                         long maxBytes) {
+        this(mempoolService, blockRepository, addBlockUseCase, hashFactory, miningService, transactionIndex, intervalMillis,
+                maxTransactions, maxBytes, PipelineMetrics.NOOP);
+    }
+
+    public BlockProducer(MempoolService mempoolService,
+                         BlockRepository blockRepository,
+                         AddBlockUseCase addBlockUseCase,
+                         HashFactory hashFactory,
+                         MiningService miningService,
+                         TransactionIndex transactionIndex,
+                         long intervalMillis,
+                         int maxTransactions,
+                         long maxBytes,
+                         PipelineMetrics pipelineMetrics) {
+        this.mempoolService = mempoolService;
+        this.blockRepository = blockRepository;
+        this.addBlockUseCase = addBlockUseCase;
+        this.hashFactory = hashFactory;
+        this.miningService = miningService;
+        this.transactionIndex = transactionIndex;
+        this.intervalMillis = intervalMillis;
+        this.maxTransactions = maxTransactions;
+        this.maxBytes = maxBytes;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    public void start() {
+        if (blockRepository.findLatest().isEmpty()) {
+            addGenesisBlock();
+        }
+        executor.scheduleWithFixedDelay(this::sealScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Block producer started: interval={} ms, maxTransactions={}, maxBytes={}", intervalMillis, maxTransactions, maxBytes);
+    }
+
+    /**
+     * Сообщает о новой транзакции в мемпуле: если набран полный блок, он запечатывается, не дожидаясь интервала.
+     */
+    public void onTransactionAdmitted() {
+        if (isFullBlockPending() && sealRequested.compareAndSet(false, true)) {
+            executor.execute(this::sealScheduled);
+        }
+    }
+
+    /**
+     * Собирает и добавляет в цепочку блок из транзакций мемпула.
+     *
+     * @return добавленный блок или пусто, если мемпул пуст или блок не был добавлен
+     */
+    public Optional<Block> sealBlock() {
+        final List<Transaction> transactions = new ArrayList<>();
+        final List<Hash> leaves = new ArrayList<>();
+        selectUnconfirmed(mempoolService.getPendingTransactions(maxTransactions, maxBytes), transactions, leaves);
+        if (transactions.isEmpty()) {
+            return Optional.empty();
+        }
+        final Optional<Block> latest = blockRepository.findLatest().or(this::addGenesisBlock);
+        if (latest.isEmpty()) {
+            log.warn("Cannot seal a block: the genesis block was not added, {} transaction(s) stay pending", transactions.size());
+            return Optional.empty();
+        }
+        final BlockDto blockDto = new BlockDto(latest.get().index() + 1, Instant.now(), ImmutableList.copyOf(transactions),
+                latest.get().hash());
+        final long hashStart = System.nanoTime();
+        final Hash merkleRoot = MerkleTree.root(leaves);
+        pipelineMetrics.recordSince(PipelineStage.BLOCK_HASH, hashStart);
+        final Optional<BlockHeader> header = miningService.mine(new BlockHeader(blockDto.getIndex(), blockDto.getTimestamp(),
+                blockDto.getPreviousHash(), merkleRoot, 0));
+        if (header.isEmpty()) {
+            log.info("Mining of block {} was cancelled, {} transaction(s) stay pending", blockDto.getIndex(), transactions.size());
+            return Optional.empty();
+        }
+        blockDto.setNonce(header.get().nonce());
+        final Block block = new Block(
+                blockDto.getIndex(),
+                blockDto.getTimestamp(),
+                blockDto.getTransactions(),
+                blockDto.getPreviousHash(),
+                blockDto.getNonce(),
+                header.get().hash()
+        );
+        addBlockUseCase.addBlock(block);
+        if (!blockRepository.findLatest().map(Block::hash).equals(Optional.of(block.hash()))) {
+            log.warn("Sealed block was not added to the chain: index={}", block.index());
+            return Optional.empty();
+        }
+        log.info("Block sealed: index={}, transactions={}, hash={}", block.index(), transactions.size(), block.hash());
+        return Optional.of(block);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(intervalMillis + 1000, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sealScheduled() {
+        sealRequested.set(false);
+        try {
+            while (sealBlock().isPresent() && isFullBlockPending()) {
+                log.debug("Mempool still holds a full block, sealing the next one");
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to seal a block, pending transactions will be retried", e);
+        }
+    }
+
+    /**
+     * Отбирает из {@code pending} транзакции, TxId которых ещё не подтверждён, и листья Меркла для них;
+     * подтверждённые удаляются из мемпула.
+     */
+    private void selectUnconfirmed(List<Transaction> pending, List<Transaction> transactions, List<Hash> leaves) {
+        for (Transaction transaction : pending) {
+            final Hash txId = hashFactory.txId(transaction);
+            if (transactionIndex.find(txId.value()).isPresent()) {
+                log.warn("Dropping a pending transaction that is already confirmed: txId={}", txId);
+                mempoolService.remove(txId.value());
+                continue;
+            }
+            transactions.add(transaction);
+            leaves.add(MerkleTree.transactionLeaf(txId, hashFactory.wtxId(transaction)));
+        }
+    }
+
+    /**
+     * Добавляет genesis-блок в пустую цепочку.
+     *
+     * @return последний блок цепочки после добавления
+     */
+    private Optional<Block> addGenesisBlock() {
+        addBlockUseCase.addBlock(GenesisBlock.create());
+        final Optional<Block> latest = blockRepository.findLatest();
+        latest.ifPresent(genesis -> log.info("Genesis block created: hash={}", genesis.hash()));
+        return latest;
+    }
+
+    private boolean isFullBlockPending() {
+        return mempoolService.size() >= maxTransactions || mempoolService.sizeInBytes() >= maxBytes;
+    }
+}
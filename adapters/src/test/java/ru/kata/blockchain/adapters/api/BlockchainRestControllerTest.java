@@ -0,0 +1,238 @@
+package ru.kata.blockchain.adapters.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.kata.blockchain.adapters.dto.CreateTransactionRequestDto;
+import ru.kata.blockchain.adapters.dto.TransactionDto;
+import ru.kata.blockchain.adapters.producer.BlockProducer;
+import ru.kata.blockchain.application.usecase.CreateTransactionUseCase;
+import ru.kata.blockchain.application.usecase.FindTransactionUseCase;
+import ru.kata.blockchain.application.usecase.GetTransactionProofUseCase;
+import ru.kata.blockchain.application.usecase.ValidateTransactionUseCase;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.MerkleProof;
+import ru.kata.blockchain.domain.error.ErrorCodes;
+import ru.kata.blockchain.domain.service.AccountStateService;
+import ru.kata.blockchain.domain.service.MempoolAddResult;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionProof;
+import ru.kata.blockchain.domain.validation.ValidationResult;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlockchainRestControllerTest {
+
+    private static final String TX_ID = "a".repeat(64);
+    private static final WalletAddress FROM = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress TO = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+
+    private BlockRepository blockRepository;
+    private CreateTransactionUseCase createTransactionUseCase;
+    private ValidateTransactionUseCase validateTransactionUseCase;
+    private GetTransactionProofUseCase getTransactionProofUseCase;
+    private MempoolService mempoolService;
+    private BlockProducer blockProducer;
+    private PipelineMetrics pipelineMetrics;
+    private BlockchainRestController controller;
+
+    @BeforeEach
+    void setUp() {
+        blockRepository = mock(BlockRepository.class);
+        createTransactionUseCase = mock(CreateTransactionUseCase.class);
+        validateTransactionUseCase = mock(ValidateTransactionUseCase.class);
+        getTransactionProofUseCase = mock(GetTransactionProofUseCase.class);
+        mempoolService = mock(MempoolService.class);
+        blockProducer = mock(BlockProducer.class);
+        pipelineMetrics = mock(PipelineMetrics.class);
+        final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(new GuavaModule());
+        controller = new BlockchainRestController(
+                createTransactionUseCase,
+                validateTransactionUseCase,
+                mock(FindTransactionUseCase.class),
+                getTransactionProofUseCase,
+                mock(AccountStateService.class),
+                mempoolService,
+                blockProducer,
+                blockRepository,
+                pipelineMetrics,
+                objectMapper);
+    }
+
+    @Test
+    void shouldAdmitValidTransactionToMempoolAndReturnPending() {
+        final Transaction transaction = givenValidTransaction();
+        when(mempoolService.add(eq(TX_ID), eq(transaction), any())).thenReturn(MempoolAddResult.ADDED);
+
+        final ResponseEntity<?> response = controller.createTransaction(request());
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(new ValidationResult("PENDING", TX_ID, List.of()), response.getBody());
+        verify(blockProducer).onTransactionAdmitted();
+        verifyNoInteractions(blockRepository);
+    }
+
+    @Test
+    void shouldRejectTransactionWhenMempoolIsFull() {
+        final Transaction transaction = givenValidTransaction();
+        when(mempoolService.add(eq(TX_ID), eq(transaction), any())).thenReturn(MempoolAddResult.FULL);
+
+        final ResponseEntity<?> response = controller.createTransaction(request());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(new ValidationResult("ERROR", null, List.of(ErrorCodes.MEMPOOL_FULL)), response.getBody());
+        verifyNoInteractions(blockProducer);
+        verify(pipelineMetrics).recordRejection(ErrorCodes.MEMPOOL_FULL);
+    }
+
+    @Test
+    void shouldRejectTransactionWhenMempoolReservationExceedsBalance() {
+        final Transaction transaction = givenValidTransaction();
+        when(mempoolService.add(eq(TX_ID), eq(transaction), any())).thenReturn(MempoolAddResult.INSUFFICIENT_FUNDS);
+
+        final ResponseEntity<?> response = controller.createTransaction(request());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(new ValidationResult("ERROR", null, List.of(ErrorCodes.INSUFFICIENT_FUNDS)), response.getBody());
+        verifyNoInteractions(blockProducer);
+        verify(pipelineMetrics).recordRejection(ErrorCodes.INSUFFICIENT_FUNDS);
+    }
+
+    @Test
+    void shouldValidateBatchTogetherAndAdmitPassedTransactionsInOrder() {
+        final Transaction first = new Transaction(FROM, TO, new Amount(10), new byte[]{1}, mock(PublicKey.class));
+        final Transaction second = new Transaction(FROM, TO, new Amount(20), new byte[]{2}, mock(PublicKey.class));
+        when(createTransactionUseCase.createTransaction(any(), any(), any(), any(), any())).thenReturn(first, second);
+        final ValidationResult rejected = new ValidationResult("ERROR", null, List.of(ErrorCodes.INSUFFICIENT_FUNDS));
+        when(validateTransactionUseCase.validateTransactions(List.of(first, second)))
+                .thenReturn(List.of(new ValidationResult("OK", TX_ID, List.of()), rejected));
+        when(mempoolService.add(eq(TX_ID), eq(first), any())).thenReturn(MempoolAddResult.ADDED);
+
+        final ResponseEntity<?> response = controller.createTransactions(List.of(request(), request()));
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(List.of(new ValidationResult("PENDING", TX_ID, List.of()), rejected), response.getBody());
+        verify(mempoolService, never()).add(any(), eq(second), any());
+        verify(validateTransactionUseCase, never()).validateTransaction(any());
+        verify(blockProducer).onTransactionAdmitted();
+    }
+
+    @Test
+    void shouldRejectEmptyOrOversizedBatch() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.createTransactions(List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.createTransactions(
+                Collections.nCopies(BlockchainRestController.MAX_BATCH_SIZE + 1, request())).getStatusCode());
+        verifyNoInteractions(createTransactionUseCase, validateTransactionUseCase, mempoolService);
+    }
+
+    @Test
+    void shouldReturnPageWithNextCursor() {
+        when(blockRepository.findRange(1, 3)).thenReturn(List.of(block(1), block(2)));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(block(5)));
+
+        final ResponseEntity<?> response = controller.getBlockchain(1, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(block(1), block(2)), response.getBody());
+        assertEquals("3", response.getHeaders().getFirst(BlockchainRestController.NEXT_FROM_INDEX_HEADER));
+    }
+
+    @Test
+    void shouldOmitNextCursorOnLastPage() {
+        when(blockRepository.findRange(4, 104)).thenReturn(List.of(block(4), block(5)));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(block(5)));
+
+        final ResponseEntity<?> response = controller.getBlockchain(4, BlockchainRestController.DEFAULT_PAGE_SIZE);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(BlockchainRestController.NEXT_FROM_INDEX_HEADER));
+    }
+
+    @Test
+    void shouldRejectInvalidPageParameters() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getBlockchain(-1, 10).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getBlockchain(0, 0).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getBlockchain(0, BlockchainRestController.MAX_PAGE_SIZE + 1).getStatusCode());
+        verifyNoInteractions(blockRepository);
+    }
+
+    @Test
+    void shouldStreamBlocksAsNdjsonUpToLatestBlock() throws IOException {
+        when(blockRepository.findLatest()).thenReturn(Optional.of(block(2)));
+        when(blockRepository.findRange(anyLong(), anyLong())).thenReturn(List.of(block(1), block(2)));
+
+        final StreamingResponseBody body = controller.streamBlockchain(1).getBody();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNotNull(body);
+        body.writeTo(out);
+
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"index\":1,"), lines[0]);
+        assertTrue(lines[1].startsWith("{\"index\":2,"), lines[1]);
+        verify(blockRepository).findRange(1, 3);
+    }
+
+    @Test
+    void shouldReturnTransactionProof() {
+        final BlockHeader header = new BlockHeader(2, Instant.EPOCH, new Hash("0".repeat(64)), new Hash(TX_ID), 1);
+        final TransactionProof proof = new TransactionProof(TX_ID, new Hash(TX_ID), header, header.hash(), new MerkleProof(0, 1, List.of()), 1);
+        when(getTransactionProofUseCase.getProof(TX_ID)).thenReturn(Optional.of(proof));
+
+        final ResponseEntity<?> response = controller.getTransactionProof(TX_ID);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(proof, response.getBody());
+    }
+
+    @Test
+    void shouldRejectMalformedTxIdAndReportMissingProof() {
+        when(getTransactionProofUseCase.getProof(TX_ID)).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getTransactionProof("xyz").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getTransactionProof(TX_ID).getStatusCode());
+        verify(getTransactionProofUseCase, never()).getProof("xyz");
+    }
+
+    private Transaction givenValidTransaction() {
+        final Transaction transaction = new Transaction(FROM, TO, new Amount(10), new byte[]{1}, mock(PublicKey.class));
+        when(createTransactionUseCase.createTransaction(any(), any(), any(), any(), any())).thenReturn(transaction);
+        when(validateTransactionUseCase.validateTransaction(transaction)).thenReturn(new ValidationResult("OK", TX_ID, List.of()));
+        return transaction;
+    }
+
+    private static CreateTransactionRequestDto request() {
+        return new CreateTransactionRequestDto(new TransactionDto(FROM.value(), TO.value(), 10, mock(PublicKey.class)),
+                mock(PrivateKey.class));
+    }
+
+    private static Block block(long index) {
+        return new Block(index, Instant.ofEpochSecond(1_700_000_000L + index), ImmutableList.of(),
+                new Hash("0".repeat(64)), 1, new Hash(String.format("%064x", index)));
+    }
+}
@@ -1,47 +1,80 @@
 package ru.kata.blockchain.adapters.factory;
 
-import ru.kata.blockchain.domain.vo.Hash;
 import ru.kata.blockchain.adapters.dto.BlockDto;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Objects;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Фабрика для генерации криптографических хэшей блоков.
  * <p>
  * Назначение класса — создание объекта {@link Hash},
- * который представляет собой SHA-256 хэш, вычисленный на
- * основании данных блока.
+ * который представляет собой SHA-256 хэш заголовка блока.
  *
  * <p>Работа метода {@link #createHash(BlockDto)}:</p>
  * <ol>
- *     <li>Из объекта {@link BlockDto} берутся поля:
- *     index, timestamp, previousHash, nonce.</li>
- *     <li>Значения этих полей объединяются в хэш-число с помощью {@link Objects#hash(Object...)}.</li>
- *     <li>Результат дополнительно хэшируется алгоритмом {@code SHA-256}.</li>
- *     <li>Байтовый массив переводится в шестнадцатеричную строку длиной 64 символа.</li>
- *     <li>Возвращается объект {@link Hash}.</li>
+ *     <li>Для транзакций блока считаются листья {@link MerkleTree#transactionLeaf(Hash, Hash)} из TxId и wtxId,
+ *     по ним строится корень Меркла ({@link MerkleTree}).</li>
+ *     <li>Из полей index, timestamp, previousHash, nonce и корня Меркла собирается {@link BlockHeader}.</li>
+ *     <li>Возвращается SHA-256 канонического представления заголовка.</li>
  * </ol>
+ * Тот же хэш по уже собранному блоку возвращает {@link #createHash(Block)} — так проверяется целостность блока.
+ * Через wtxId корень фиксирует подписи и открытые ключи транзакций: хэш блока зависит от заголовка, но посчитать
+ * корень без всех транзакций блока нельзя.
  */
 public class HashFactory {
+    private final TxIdCalculatorService txIdCalculatorService;
+    private final SerializerService serializerService;
+
+    public HashFactory(TxIdCalculatorService txIdCalculatorService, SerializerService serializerService) {
+        this.txIdCalculatorService = txIdCalculatorService;
+        this.serializerService = serializerService;
+    }
 
     public Hash createHash(BlockDto blockDto) {
-        try {
-            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            final Integer newHash = Objects.hash(blockDto.getIndex(), blockDto.getTimestamp(), blockDto.getTimestamp(),
-                    blockDto.getPreviousHash(), blockDto.getNonce());
-            final byte[] hashBytes = digest.digest(newHash.toString().getBytes());
-
-            final StringBuilder stringBuilderToHexHash = new StringBuilder();
-            for (byte b : hashBytes) {
-                stringBuilderToHexHash.append(String.format("%02x", b));
-            }
-            return new Hash(stringBuilderToHexHash.toString());
-
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        return headerHash(blockDto.getIndex(), blockDto.getTimestamp(), blockDto.getTransactions(),
+                blockDto.getPreviousHash(), blockDto.getNonce());
+    }
+
+    public Hash createHash(Block block) {
+        return headerHash(block.index(), block.timestamp(), block.transactions(), block.previousHash(), block.nonce());
+    }
+
+    /**
+     * Корень Меркла над листьями транзакций в порядке их следования в блоке.
+     */
+    public Hash merkleRoot(List<Transaction> transactions) {
+        final List<Hash> leaves = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            leaves.add(MerkleTree.transactionLeaf(txId(transaction), wtxId(transaction)));
         }
+        return MerkleTree.root(leaves);
+    }
+
+    /**
+     * TxId транзакции — хэш неподписанных полей, его подписывает отправитель.
+     */
+    public Hash txId(Transaction transaction) {
+        return new Hash(txIdCalculatorService.calculateTxId(
+                serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount())));
     }
-}
 
+    /**
+     * wtxId транзакции — хэш её канонической сериализации вместе с подписью и открытым ключом.
+     */
+    public Hash wtxId(Transaction transaction) {
+        return new Hash(txIdCalculatorService.calculateTxId(serializerService.getSerializedTransaction(transaction)));
+    }
+
+    private Hash headerHash(long index, Instant timestamp, List<Transaction> transactions, Hash previousHash, long nonce) {
+        return new BlockHeader(index, timestamp, previousHash, merkleRoot(transactions), nonce).hash();
+    }
+}
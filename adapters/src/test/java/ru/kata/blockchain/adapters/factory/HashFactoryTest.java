@@ -2,14 +2,22 @@ package ru.kata.blockchain.adapters.factory;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
 import ru.kata.blockchain.domain.vo.Hash;
 import ru.kata.blockchain.adapters.dto.BlockDto;
+import ru.kata.blockchain.domain.vo.WalletAddress;
 import com.google.common.collect.ImmutableList;
 
+import java.security.PublicKey;
 import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class HashFactoryTest {
 
@@ -17,7 +25,15 @@ class HashFactoryTest {
 
     @BeforeEach
     void setUp() {
-        hashFactory = new HashFactory();
+        final SerializerService serializerService = mock(SerializerService.class);
+        when(serializerService.getUnassignedPayload(any(), any(), any()))
+                .thenAnswer(invocation -> new byte[]{(byte) invocation.<Amount>getArgument(2).value()});
+        when(serializerService.getSerializedTransaction(any()))
+                .thenAnswer(invocation -> invocation.<Transaction>getArgument(0).signature());
+        final TxIdCalculatorService txIdCalculatorService = mock(TxIdCalculatorService.class);
+        when(txIdCalculatorService.calculateTxId(any()))
+                .thenAnswer(invocation -> String.format("%064x", invocation.<byte[]>getArgument(0)[0]));
+        hashFactory = new HashFactory(txIdCalculatorService, serializerService);
     }
 
     @Test
@@ -71,4 +87,47 @@ class HashFactoryTest {
 
         assertEquals(hash1.value(), hash2.value(), "Хэши одинаковых блоков должны совпадать");
     }
+
+    @Test
+    void createHashCoversTransactions() {
+        final Instant timestamp = Instant.now();
+        final Hash previousHash = new Hash("0".repeat(64));
+
+        final Hash withFirst = hashFactory.createHash(new BlockDto(1, timestamp, ImmutableList.of(transfer(1)), previousHash));
+        final Hash withSecond = hashFactory.createHash(new BlockDto(1, timestamp, ImmutableList.of(transfer(2)), previousHash));
+        final Hash withBoth = hashFactory.createHash(new BlockDto(1, timestamp, ImmutableList.of(transfer(1), transfer(2)), previousHash));
+        final Hash reordered = hashFactory.createHash(new BlockDto(1, timestamp, ImmutableList.of(transfer(2), transfer(1)), previousHash));
+
+        assertNotEquals(withFirst, withSecond);
+        assertNotEquals(withFirst, withBoth);
+        assertNotEquals(withBoth, reordered);
+    }
+
+    @Test
+    void createHashCoversSignaturesWithTheSameTxId() {
+        final Instant timestamp = Instant.now();
+        final Hash previousHash = new Hash("0".repeat(64));
+        final Transaction signed = transfer(1);
+        final Transaction resigned = new Transaction(signed.from(), signed.to(), signed.amount(), new byte[]{2}, signed.publicKey());
+
+        assertEquals(hashFactory.txId(signed), hashFactory.txId(resigned));
+        assertNotEquals(hashFactory.createHash(new BlockDto(1, timestamp, ImmutableList.of(signed), previousHash)),
+                hashFactory.createHash(new BlockDto(1, timestamp, ImmutableList.of(resigned), previousHash)));
+    }
+
+    @Test
+    void createHashOfBlockMatchesHashOfItsDto() {
+        final BlockDto blockDto = new BlockDto(7, Instant.ofEpochSecond(1_700_000_000L, 42),
+                ImmutableList.of(transfer(1), transfer(2), transfer(3)), new Hash("a".repeat(64)));
+        final Hash hash = hashFactory.createHash(blockDto);
+        final Block block = new Block(blockDto.getIndex(), blockDto.getTimestamp(), blockDto.getTransactions(),
+                blockDto.getPreviousHash(), blockDto.getNonce(), hash);
+
+        assertEquals(hash, hashFactory.createHash(block));
+    }
+
+    private static Transaction transfer(long amount) {
+        return new Transaction(new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice"),
+                new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob"), new Amount(amount), new byte[]{1}, mock(PublicKey.class));
+    }
 }
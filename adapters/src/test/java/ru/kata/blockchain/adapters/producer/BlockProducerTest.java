@@ -0,0 +1,200 @@
+package ru.kata.blockchain.adapters.producer;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.application.usecase.AddBlockUseCase;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.MiningService;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlockProducerTest {
+    private static final WalletAddress FROM = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress TO = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+    private static final long WTXID_SEED = 1_000_000;
+
+    private MempoolService mempoolService;
+    private BlockRepository blockRepository;
+    private TransactionIndex transactionIndex;
+    private MiningService miningService;
+    private BlockProducer blockProducer;
+
+    @BeforeEach
+    void setUp() {
+        mempoolService = mock(MempoolService.class);
+        blockRepository = mock(BlockRepository.class);
+        final HashFactory hashFactory = mock(HashFactory.class);
+        when(hashFactory.txId(any())).thenAnswer(invocation -> txId(invocation.<Transaction>getArgument(0).amount().value()));
+        when(hashFactory.wtxId(any())).thenAnswer(invocation -> wtxId(invocation.<Transaction>getArgument(0).amount().value()));
+        final SerializerService serializerService = mock(SerializerService.class);
+        when(serializerService.getUnassignedPayload(any(), any(), any()))
+                .thenAnswer(invocation -> Long.toString(invocation.<Amount>getArgument(2).value()).getBytes(StandardCharsets.UTF_8));
+        when(serializerService.getSerializedTransaction(any())).thenAnswer(invocation ->
+                Long.toString(WTXID_SEED + invocation.<Transaction>getArgument(0).amount().value()).getBytes(StandardCharsets.UTF_8));
+        final TxIdCalculatorService txIdCalculatorService = mock(TxIdCalculatorService.class);
+        when(txIdCalculatorService.calculateTxId(any()))
+                .thenAnswer(invocation -> txId(Long.parseLong(new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8))).value());
+        transactionIndex = mock(TransactionIndex.class);
+        final AddBlockUseCase addBlockUseCase = new AddBlockUseCase(blockRepository, txIdCalculatorService, serializerService,
+                () -> Difficulty.MAX_TARGET, transactionIndex, mempoolService);
+        miningService = mock(MiningService.class);
+        when(miningService.mine(any())).thenAnswer(invocation -> {
+            final BlockHeader template = invocation.getArgument(0);
+            return Optional.of(new BlockHeader(template.index(), template.timestamp(), template.previousHash(), template.merkleRoot(), 42));
+        });
+        blockProducer = new BlockProducer(mempoolService, blockRepository, addBlockUseCase, hashFactory,
+                miningService, transactionIndex, 60_000, 3, 4096);
+    }
+
+    @Test
+    void shouldSealPendingTransactionsIntoOneBlock() {
+        final Block latest = new Block(4, Instant.EPOCH, ImmutableList.of(), new Hash("0".repeat(64)), 1, new Hash("1".repeat(64)));
+        final List<Transaction> pending = List.of(transfer(1), transfer(2), transfer(3));
+        when(mempoolService.getPendingTransactions(3, 4096)).thenReturn(pending);
+        final AtomicReference<Block> head = new AtomicReference<>(latest);
+        when(blockRepository.findLatest()).thenAnswer(invocation -> Optional.of(head.get()));
+        doAnswer(invocation -> {
+            head.set(invocation.getArgument(0));
+            return true;
+        }).when(blockRepository).saveIfNext(any());
+
+        final Block block = blockProducer.sealBlock().orElseThrow();
+
+        assertEquals(5, block.index());
+        assertEquals(latest.hash(), block.previousHash());
+        assertEquals(pending, block.transactions());
+        assertEquals(42, block.nonce());
+        assertEquals(new BlockHeader(5, block.timestamp(), latest.hash(), merkleRoot(1, 2, 3), 42).hash(), block.hash());
+        verify(blockRepository).saveIfNext(block);
+        verify(transactionIndex).indexBlock(block, List.of(txId(1), txId(2), txId(3)));
+    }
+
+    @Test
+    void shouldDropAlreadyConfirmedTransactionsInsteadOfSealingThem() {
+        final Block latest = new Block(4, Instant.EPOCH, ImmutableList.of(), new Hash("0".repeat(64)), 1, new Hash("1".repeat(64)));
+        final Transaction unconfirmed = transfer(2);
+        when(mempoolService.getPendingTransactions(3, 4096)).thenReturn(List.of(transfer(1), unconfirmed));
+        when(transactionIndex.find(txId(1).value())).thenReturn(Optional.of(new TransactionLocation(3, 0)));
+        final AtomicReference<Block> head = new AtomicReference<>(latest);
+        when(blockRepository.findLatest()).thenAnswer(invocation -> Optional.of(head.get()));
+        doAnswer(invocation -> {
+            head.set(invocation.getArgument(0));
+            return true;
+        }).when(blockRepository).saveIfNext(any());
+
+        final Block block = blockProducer.sealBlock().orElseThrow();
+
+        assertEquals(List.of(unconfirmed), block.transactions());
+        assertEquals(new BlockHeader(5, block.timestamp(), latest.hash(), merkleRoot(2), 42).hash(), block.hash());
+        verify(mempoolService).remove(txId(1).value());
+        verify(mempoolService, never()).remove(txId(2).value());
+    }
+
+    @Test
+    void shouldNotSealBlockWhenAllPendingTransactionsAreConfirmed() {
+        when(mempoolService.getPendingTransactions(3, 4096)).thenReturn(List.of(transfer(1)));
+        when(transactionIndex.find(txId(1).value())).thenReturn(Optional.of(new TransactionLocation(3, 0)));
+
+        assertTrue(blockProducer.sealBlock().isEmpty());
+        verify(mempoolService).remove(txId(1).value());
+        verifyNoInteractions(blockRepository);
+    }
+
+    @Test
+    void shouldNotSealEmptyBlock() {
+        when(mempoolService.getPendingTransactions(3, 4096)).thenReturn(List.of());
+
+        assertTrue(blockProducer.sealBlock().isEmpty());
+        verifyNoInteractions(blockRepository);
+    }
+
+    @Test
+    void shouldSealFirstBlockOnGenesisWhenChainIsEmpty() {
+        final List<Transaction> pending = List.of(transfer(1));
+        when(mempoolService.getPendingTransactions(3, 4096)).thenReturn(pending);
+        final AtomicReference<Block> head = new AtomicReference<>();
+        when(blockRepository.findLatest()).thenAnswer(invocation -> Optional.ofNullable(head.get()));
+        doAnswer(invocation -> {
+            head.set(invocation.getArgument(0));
+            return true;
+        }).when(blockRepository).saveIfNext(any());
+
+        final Block block = blockProducer.sealBlock().orElseThrow();
+
+        assertEquals(1, block.index());
+        assertEquals(GenesisBlock.create().hash(), block.previousHash());
+        assertEquals(pending, block.transactions());
+        final InOrder order = inOrder(blockRepository);
+        order.verify(blockRepository).saveIfNext(GenesisBlock.create());
+        order.verify(blockRepository).saveIfNext(block);
+    }
+
+    @Test
+    void shouldCreateGenesisBlockOnStartWhenChainIsEmpty() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+
+        blockProducer.start();
+        blockProducer.close();
+
+        verify(blockRepository).saveIfNext(GenesisBlock.create());
+    }
+
+    @Test
+    void shouldKeepTransactionsPendingWhenMiningIsCancelled() {
+        final Block latest = new Block(4, Instant.EPOCH, ImmutableList.of(), new Hash("0".repeat(64)), 1, new Hash("1".repeat(64)));
+        when(mempoolService.getPendingTransactions(3, 4096)).thenReturn(List.of(transfer(1)));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(latest));
+        doReturn(Optional.empty()).when(miningService).mine(any());
+
+        assertTrue(blockProducer.sealBlock().isEmpty());
+        verify(blockRepository, never()).saveIfNext(any());
+    }
+
+    private static Hash merkleRoot(long... amounts) {
+        return MerkleTree.root(Arrays.stream(amounts).mapToObj(amount -> MerkleTree.transactionLeaf(txId(amount), wtxId(amount))).toList());
+    }
+
+    /**
+     * wtxId перевода в тестах — TxId суммы, сдвинутой на {@link #WTXID_SEED}; так его считают и фабрика, и {@link AddBlockUseCase}.
+     */
+    private static Hash wtxId(long amount) {
+        return txId(WTXID_SEED + amount);
+    }
+
+    /**
+     * TxId перевода в тестах определяется его суммой, поэтому переводы с разными суммами различимы.
+     */
+    private static Hash txId(long amount) {
+        return new Hash(String.format("%064x", amount));
+    }
+
+    private static Transaction transfer(long amount) {
+        return new Transaction(FROM, TO, new Amount(amount), new byte[]{1}, mock(PublicKey.class));
+    }
+}
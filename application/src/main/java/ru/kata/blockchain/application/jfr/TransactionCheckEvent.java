@@ -0,0 +1,30 @@
+package ru.kata.blockchain.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR об одной проверке транзакции в {@code ValidateTransactionUseCase}.
+ * <p>
+ * {@code check} — тег этапа ({@code PipelineStage#getTag()}), {@code error} — код ошибки, найденной проверкой,
+ * или {@code null}, если проверка пройдена. Пока событие не включено ни в одной записи JFR, проверки не создают его объектов.
+ */
+@Name("ru.kata.blockchain.TransactionCheck")
+@Label("Transaction Check")
+@Category({"Blockchain", "Validation"})
+@Description("Single validation check of a transaction")
+@StackTrace(false)
+public class TransactionCheckEvent extends Event {
+    @Label("Transaction Id")
+    public String txId;
+
+    @Label("Check")
+    public String check;
+
+    @Label("Error Code")
+    public String error;
+}
@@ -0,0 +1,27 @@
+package ru.kata.blockchain.application.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Соглашения логирования на горячем пути — там, где сообщение пишется для каждой транзакции или запроса.
+ * <p>
+ * Подробности по каждой транзакции пишутся на уровне DEBUG через fluent API SLF4J ({@code log.atDebug().addKeyValue(...)}):
+ * если уровень выключен, builder ничего не делает, а значения полей не превращаются в строки.
+ * Вместо {@code toString()} блоков и транзакций в поля пишутся TxId, номер блока, хэш и размеры.
+ * <p>
+ * Итоговые сообщения INFO и WARN по каждой транзакции помечаются маркером {@link #HOT_PATH}: фильтр логирования
+ * приложения пропускает из них ограниченное число в секунду для каждого шаблона сообщения, остальные отбрасывает
+ * до создания события. Такие сообщения пишутся только классическими методами с маркером
+ * ({@code log.info(HOT_PATH, "...: txId={}", txId)}): fluent API передаёт маркер фильтрам Logback уже после
+ * проверки уровня, и прореживание к нему не применяется.
+ */
+public final class HotPathLogging {
+    /**
+     * Маркер сообщений горячего пути, которые можно прореживать.
+     */
+    public static final Marker HOT_PATH = MarkerFactory.getMarker("HOT_PATH");
+
+    private HotPathLogging() {
+    }
+}
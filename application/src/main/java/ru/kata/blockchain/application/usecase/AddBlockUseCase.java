@@ -1,13 +1,31 @@
 package ru.kata.blockchain.application.usecase;
 
 import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.BlockHeader;
 import ru.kata.blockchain.domain.block.BlockRepository;
 import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.MiningTargetService;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.service.PipelineStage;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Use case для добавления нового блока в блокчейн.
  * <p>
- * Проверяет корректность предыдущего хеша и индекса нового блока
+ * Проверяет корректность предыдущего хеша, индекса и доказательства работы нового блока
  * перед сохранением его в репозиторий.
  * </p>
  *
@@ -15,28 +33,140 @@ import ru.kata.blockchain.domain.block.Block;
  * <ul>
  *     <li>Поле {@code previousHash} нового блока должно совпадать с {@code hash} последнего блока.</li>
  *     <li>Индекс нового блока должен быть на единицу больше индекса последнего блока.</li>
+ *     <li>Поле {@code hash} должно совпадать с хэшем заголовка ({@link BlockHeader}), пересчитанным по полям блока
+ *     и корню Меркла его транзакций.</li>
+ *     <li>Хэш заголовка должен удовлетворять текущей цели сложности ({@link Difficulty#meets},
+ *     {@link MiningTargetService}).</li>
+ *     <li>TxId транзакций блока не повторяются ни внутри блока, ни среди подтверждённых ({@link TransactionIndex}).</li>
+ *     <li>В пустую цепочку добавляется только genesis-блок ({@link GenesisBlock}); он зафиксирован протоколом,
+ *     поэтому доказательство работы для него не проверяется.</li>
  * </ul>
  *
  * <p>
- * Если условия выполняются — блок сохраняется в {@link BlockRepository}, иначе — игнорируется.
+ * Если условия выполняются — блок сохраняется в {@link BlockRepository}, индексируется в {@link TransactionIndex}
+ * и его транзакции удаляются из мемпула ({@link MempoolService#removeCommitted}) по TxId, посчитанным для корня
+ * Меркла, иначе — игнорируется. Индексация и удаление выполняются в потоке, добавившем блок, а не в потоке
+ * фиксации хранилища, и уже после того, как слушатели фиксации применили блок к балансам. Сохранение идёт через
+ * {@link BlockRepository#saveIfNext}: сцепление с последним блоком перепроверяется атомарно с добавлением,
+ * поэтому блок, проверенный против уже устаревшей вершины цепочки, не будет добавлен.
+ * Длительность сохранения публикуется через {@link PipelineMetrics} как этап {@link PipelineStage#BLOCK_SAVE}.
  * </p>
  */
 @Slf4j
 public class AddBlockUseCase {
     private final BlockRepository blockRepository;
+    private final TxIdCalculatorService txIdCalculatorService;
+    private final SerializerService serializerService;
+    private final MiningTargetService miningTargetService;
+    private final TransactionIndex transactionIndex;
+    private final MempoolService mempoolService;
+    private final PipelineMetrics pipelineMetrics;
+
+    public AddBlockUseCase(BlockRepository blockRepository,
+                           TxIdCalculatorService txIdCalculatorService,
+                           SerializerService serializerService,
+                           MiningTargetService miningTargetService,
+                           TransactionIndex transactionIndex,
+                           MempoolService mempoolService) {
+        this(blockRepository, txIdCalculatorService, serializerService, miningTargetService, transactionIndex, mempoolService,
+                PipelineMetrics.NOOP);
+    }
 
-    public AddBlockUseCase(BlockRepository blockRepository) {
+    public AddBlockUseCase(BlockRepository blockRepository,
+                           TxIdCalculatorService txIdCalculatorService,
+                           SerializerService serializerService,
+                           MiningTargetService miningTargetService,
+                           TransactionIndex transactionIndex,
+                           MempoolService mempoolService,
+                           PipelineMetrics pipelineMetrics) {
         this.blockRepository = blockRepository;
+        this.txIdCalculatorService = txIdCalculatorService;
+        this.serializerService = serializerService;
+        this.miningTargetService = miningTargetService;
+        this.transactionIndex = transactionIndex;
+        this.mempoolService = mempoolService;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     public void addBlock(Block block) {
-        log.info("Attempt to add a new block with the index: {}", block.index());
-        final Block latestBlock = blockRepository.findLatest().get();
-        log.debug("Last block in the chain: index={}, hash={}", latestBlock.index(), latestBlock.hash());
-        if (latestBlock.hash().equals(block.previousHash()) &&
-                latestBlock.index() + 1 == block.index()) {
-            blockRepository.save(block);
-            log.info("The block with the index {} has been successfully validated and saved.", block.index());
+        log.debug("Attempt to add a new block with the index: {}", block.index());
+        final Optional<Block> latest = blockRepository.findLatest();
+        if (latest.isEmpty() && !GenesisBlock.isGenesis(block)) {
+            log.warn("The blockchain is empty, only the genesis block can be added: index={}", block.index());
+            return;
+        }
+        if (latest.isPresent() && !isNextBlock(latest.get(), block)) {
+            return;
+        }
+        final List<Hash> txIds = txIds(block.transactions());
+        if (latest.isPresent() && !(hasValidProofOfWork(block, txIds) && hasOnlyNewTransactions(block, txIds))) {
+            return;
+        }
+        final long saveStart = System.nanoTime();
+        final boolean saved = blockRepository.saveIfNext(block);
+        pipelineMetrics.recordSince(PipelineStage.BLOCK_SAVE, saveStart);
+        if (!saved) {
+            log.warn("The chain was extended by another block while this one was validated: index={}", block.index());
+            return;
+        }
+        transactionIndex.indexBlock(block, txIds);
+        mempoolService.removeCommitted(txIds);
+        log.info("The block with the index {} has been successfully validated and saved.", block.index());
+    }
+
+    private boolean hasValidProofOfWork(Block block, List<Hash> txIds) {
+        final Hash headerHash = new BlockHeader(block.index(), block.timestamp(), block.previousHash(),
+                MerkleTree.root(merkleLeaves(block.transactions(), txIds)), block.nonce()).hash();
+        if (!headerHash.equals(block.hash())) {
+            log.warn("The block hash does not match its header: index={}, hash={}", block.index(), block.hash());
+            return false;
+        }
+        final Hash target = miningTargetService.currentTarget();
+        if (!Difficulty.meets(headerHash, target)) {
+            log.warn("The block hash does not meet the mining target: index={}, hash={}, difficulty={}",
+                    block.index(), block.hash(), Difficulty.difficulty(target));
+            return false;
+        }
+        return true;
+    }
+
+    private boolean hasOnlyNewTransactions(Block block, List<Hash> txIds) {
+        if (new HashSet<>(txIds).size() != txIds.size()) {
+            log.warn("The block contains a repeated transaction: index={}", block.index());
+            return false;
+        }
+        for (Hash txId : txIds) {
+            if (transactionIndex.find(txId.value()).isPresent()) {
+                log.warn("The block contains an already confirmed transaction: index={}, txId={}", block.index(), txId);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Hash> txIds(List<Transaction> transactions) {
+        final List<Hash> txIds = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            txIds.add(new Hash(txIdCalculatorService.calculateTxId(
+                    serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount()))));
         }
+        return txIds;
+    }
+
+    /**
+     * Листья дерева Меркла: к TxId добавляется wtxId — хэш полной сериализации транзакции с подписью и ключом.
+     */
+    private List<Hash> merkleLeaves(List<Transaction> transactions, List<Hash> txIds) {
+        final List<Hash> leaves = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            final Hash wtxId = new Hash(txIdCalculatorService.calculateTxId(serializerService.getSerializedTransaction(transactions.get(i))));
+            leaves.add(MerkleTree.transactionLeaf(txIds.get(i), wtxId));
+        }
+        return leaves;
+    }
+
+    private static boolean isNextBlock(Block latestBlock, Block block) {
+        log.debug("Last block in the chain: index={}, hash={}", latestBlock.index(), latestBlock.hash());
+        return latestBlock.hash().equals(block.previousHash()) && latestBlock.index() + 1 == block.index();
     }
 }
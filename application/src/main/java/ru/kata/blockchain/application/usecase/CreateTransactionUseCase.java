@@ -2,6 +2,9 @@ package ru.kata.blockchain.application.usecase;
 
 import lombok.extern.slf4j.Slf4j;
 import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.error.ErrorCodes;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.service.PipelineStage;
 import ru.kata.blockchain.domain.service.SerializerService;
 import ru.kata.blockchain.domain.transaction.Transaction;
 import ru.kata.blockchain.domain.vo.Amount;
@@ -10,6 +13,7 @@ import ru.kata.blockchain.domain.vo.WalletAddress;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 
+import static ru.kata.blockchain.application.logging.HotPathLogging.HOT_PATH;
 
 /**
  * UseCase для создания транзакции
@@ -24,20 +28,29 @@ import java.security.PublicKey;
  * Проверка корректности
  * Проверяем данные на null, проверка на положительность баланса в Amount, верификация подписи реализована
  *
+ * Метрики
+ * Длительность создания и подписи публикуется через порт PipelineMetrics, неверная подпись учитывается как отклонение
  */
 @Slf4j
 public class CreateTransactionUseCase {
     private final CryptoService cryptoService;
     private final SerializerService serializerService;
+    private final PipelineMetrics pipelineMetrics;
 
     public CreateTransactionUseCase(CryptoService cryptoService, SerializerService serializerService) {
+        this(cryptoService, serializerService, PipelineMetrics.NOOP);
+    }
+
+    public CreateTransactionUseCase(CryptoService cryptoService, SerializerService serializerService, PipelineMetrics pipelineMetrics) {
         this.cryptoService = cryptoService;
         this.serializerService = serializerService;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     public Transaction createTransaction(WalletAddress from, WalletAddress to, Amount amount,
                                          PrivateKey privateKey, PublicKey publicKey) {
-        log.info("Transaction creation attempt: from={}, to={}, amount={}", from, to, amount);
+        log.atDebug().addKeyValue("from", from).addKeyValue("to", to).addKeyValue("amount", amount)
+                .log("Transaction creation attempt");
 
         if (from == null || to == null || amount == null || privateKey == null || publicKey == null) {
             log.error("Transaction creation error: one or more fields were null.");
@@ -46,17 +59,24 @@ public class CreateTransactionUseCase {
 
         log.debug("All transaction fields are present. Validation has been completed.");
 
-        final byte[] signature = cryptoService.sign(serializerService.getUnassignedPayload(from, to, amount), privateKey);
+        final long createStart = System.nanoTime();
+        final byte[] payload = serializerService.getUnassignedPayload(from, to, amount);
+        final long signStart = System.nanoTime();
+        final byte[] signature = cryptoService.sign(payload, privateKey);
+        pipelineMetrics.recordSince(PipelineStage.SIGN, signStart);
         log.debug("The signature for the transaction has been successfully generated.");
         final Transaction transaction = new Transaction(from, to, amount, signature, publicKey);
 
         if (!transaction.isValidSignature(cryptoService, serializerService)) {
             log.error("Critical ERROR: The created transaction has an invalid signature! The transaction will be rejected.");
+            pipelineMetrics.recordRejection(ErrorCodes.INVALID_SIGNATURE);
             throw new IllegalStateException("Invalid signature. Transaction rejected");
         }
 
         log.debug("Transaction signature verification was successful.");
-        log.info("The transaction has been successfully created and verified.");
+        pipelineMetrics.recordSince(PipelineStage.CREATE, createStart);
+        log.info(HOT_PATH, "The transaction has been successfully created and verified: from={}, to={}, amount={}",
+                from, to, amount.value());
 
         return transaction;
     }
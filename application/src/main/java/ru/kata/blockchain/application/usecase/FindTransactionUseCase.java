@@ -0,0 +1,49 @@
+package ru.kata.blockchain.application.usecase;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.transaction.ConfirmedTransaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+
+import java.util.Optional;
+
+/**
+ * Use case для поиска подтверждённой транзакции по её идентификатору (TxId).
+ * <p>
+ * Положение транзакции берётся из {@link TransactionIndex}, блок — из {@link BlockRepository} по номеру,
+ * поэтому поиск не перебирает цепочку. Глубина подтверждения считается от последнего блока цепочки.
+ */
+@Slf4j
+public class FindTransactionUseCase {
+    private final TransactionIndex transactionIndex;
+    private final BlockRepository blockRepository;
+
+    public FindTransactionUseCase(TransactionIndex transactionIndex, BlockRepository blockRepository) {
+        this.transactionIndex = transactionIndex;
+        this.blockRepository = blockRepository;
+    }
+
+    public Optional<ConfirmedTransaction> findTransaction(String txId) {
+        final Optional<TransactionLocation> location = transactionIndex.find(txId);
+        if (location.isEmpty()) {
+            log.debug("Transaction not found in index: txId={}", txId);
+            return Optional.empty();
+        }
+        final Optional<Block> block = blockRepository.findByIndex(location.get().blockIndex());
+        final Optional<Block> latest = blockRepository.findLatest();
+        if (block.isEmpty() || latest.isEmpty()) {
+            log.warn("Indexed transaction points to a missing block: txId={}, location={}", txId, location.get());
+            return Optional.empty();
+        }
+        final int position = location.get().position();
+        return Optional.of(new ConfirmedTransaction(
+                txId,
+                block.get().transactions().get(position),
+                block.get().index(),
+                block.get().hash(),
+                position,
+                latest.get().index() - block.get().index() + 1));
+    }
+}
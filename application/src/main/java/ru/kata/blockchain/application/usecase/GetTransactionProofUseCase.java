@@ -0,0 +1,99 @@
+package ru.kata.blockchain.application.usecase;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.MerkleProof;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+import ru.kata.blockchain.domain.transaction.TransactionProof;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Use case для выдачи доказательства включения подтверждённой транзакции: заголовок блока и ветвь дерева Меркла.
+ * <p>
+ * Положение транзакции берётся из {@link TransactionIndex}, блок — из {@link BlockRepository} по номеру.
+ * Уровни дерева Меркла блока ({@link MerkleTree}) кэшируются по хэшу блока, до {@code cachedBlocks} блоков
+ * с вытеснением давно не использованных: повторные запросы по транзакциям одного блока не хешируют его заново.
+ */
+@Slf4j
+public class GetTransactionProofUseCase {
+    private final TransactionIndex transactionIndex;
+    private final BlockRepository blockRepository;
+    private final TxIdCalculatorService txIdCalculatorService;
+    private final SerializerService serializerService;
+    private final Cache<Hash, MerkleTree> merkleTrees;
+
+    public GetTransactionProofUseCase(TransactionIndex transactionIndex,
+                                      BlockRepository blockRepository,
+                                      TxIdCalculatorService txIdCalculatorService,
+                                      SerializerService serializerService,
+                                      long cachedBlocks) {
+        this.transactionIndex = transactionIndex;
+        this.blockRepository = blockRepository;
+        this.txIdCalculatorService = txIdCalculatorService;
+        this.serializerService = serializerService;
+        this.merkleTrees = CacheBuilder.newBuilder().maximumSize(cachedBlocks).build();
+    }
+
+    public Optional<TransactionProof> getProof(String txId) {
+        final Optional<TransactionLocation> location = transactionIndex.find(txId);
+        if (location.isEmpty()) {
+            log.debug("Transaction not found in index: txId={}", txId);
+            return Optional.empty();
+        }
+        final Optional<Block> block = blockRepository.findByIndex(location.get().blockIndex());
+        final Optional<Block> latest = blockRepository.findLatest();
+        if (block.isEmpty() || latest.isEmpty()) {
+            log.warn("Indexed transaction points to a missing block: txId={}, location={}", txId, location.get());
+            return Optional.empty();
+        }
+        final MerkleTree tree = merkleTree(block.get());
+        final MerkleProof proof = tree.proof(location.get().position());
+        final Transaction transaction = block.get().transactions().get(location.get().position());
+        final BlockHeader header = new BlockHeader(block.get().index(), block.get().timestamp(), block.get().previousHash(),
+                tree.root(), block.get().nonce());
+        return Optional.of(new TransactionProof(
+                txId,
+                wtxId(transaction),
+                header,
+                block.get().hash(),
+                proof,
+                latest.get().index() - block.get().index() + 1));
+    }
+
+    private MerkleTree merkleTree(Block block) {
+        try {
+            return merkleTrees.get(block.hash(), () -> buildMerkleTree(block));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to build Merkle tree for block " + block.index(), e.getCause());
+        }
+    }
+
+    private MerkleTree buildMerkleTree(Block block) {
+        final List<Hash> leaves = new ArrayList<>(block.transactions().size());
+        for (Transaction transaction : block.transactions()) {
+            final Hash txId = new Hash(txIdCalculatorService.calculateTxId(
+                    serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount())));
+            leaves.add(MerkleTree.transactionLeaf(txId, wtxId(transaction)));
+        }
+        log.debug("Merkle tree built: blockIndex={}, transactions={}", block.index(), leaves.size());
+        return MerkleTree.build(leaves);
+    }
+
+    private Hash wtxId(Transaction transaction) {
+        return new Hash(txIdCalculatorService.calculateTxId(serializerService.getSerializedTransaction(transaction)));
+    }
+}
@@ -1,20 +1,32 @@
 package ru.kata.blockchain.application.usecase;
 
+import jdk.jfr.EventType;
 import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.application.jfr.TransactionCheckEvent;
+import ru.kata.blockchain.application.logging.HotPathLogging;
 import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.crypto.SignedData;
 import ru.kata.blockchain.domain.error.ErrorCodes;
 import ru.kata.blockchain.domain.service.AccountStateService;
 import ru.kata.blockchain.domain.service.AddressService;
 import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.service.PipelineStage;
 import ru.kata.blockchain.domain.service.SerializerService;
 import ru.kata.blockchain.domain.transaction.Transaction;
 import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
 import ru.kata.blockchain.domain.validation.ValidationPolicy;
 import ru.kata.blockchain.domain.validation.ValidationResult;
+import ru.kata.blockchain.domain.vo.WalletAddress;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
 
+import static ru.kata.blockchain.application.logging.HotPathLogging.HOT_PATH;
 import static ru.kata.blockchain.domain.error.ErrorCodes.AMOUNT_NOT_POSITIVE;
 import static ru.kata.blockchain.domain.error.ErrorCodes.AMOUNT_TOO_LARGE;
 import static ru.kata.blockchain.domain.error.ErrorCodes.DUPLICATE_TRANSACTION;
@@ -38,15 +50,27 @@ import static ru.kata.blockchain.domain.error.ErrorCodes.TX_TOO_LARGE;
  *     <li>сериализация транзакции через порт serializerService и проверка, что транзакция не превышает лимит в ValidationPolicy (порт);</li>
  *     <li>проверка цифровой подписи транзакции через порты serializerService и cryptoService;</li>
  *     <li>проверка наличия достаточного баланса на счету отправителя через порт accountStateService;</li>
- *     <li>отсутствия дубликатов транзакций в памяти мемпула через порты serializerService и txIdCalculatorService.</li>
+ *     <li>отсутствия дубликатов транзакций в памяти мемпула через порты serializerService и txIdCalculatorService;</li>
+ *     <li>отсутствия транзакции с тем же TxId в цепочке через порт TransactionIndex: одинаковые переводы имеют один TxId,
+ *     а повтор TxId в цепочке запрещён.</li>
  * </ul>
  * <p>
+ * Пакет транзакций проверяется методом {@link #validateTransactions}: подписи пакета проверяются параллельно,
+ * а баланс отправителя учитывает его транзакции, уже прошедшие проверку в том же пакете.
+ * <p>
+ * Длительность каждой проверки и всей проверки транзакции, а также каждый найденный код ошибки
+ * публикуются через порт {@link PipelineMetrics}; каждая проверка пишется также событием JFR {@link TransactionCheckEvent}.
+ * Итог проверки пишется в лог сообщением горячего пути ({@link HotPathLogging}), причины отказа по отдельным
+ * проверкам — на уровне DEBUG.
+ * <p>
  * Использует внешние сервисы для проверки адресов, политики валидации, криптографии,
  * сериализации, состояния аккаунтов и управления мемпулом.
  * Проверка возвращает объект ValidationResult со статусом и TxId/Списком ошибок.
  */
 @Slf4j
 public class ValidateTransactionUseCase {
+    private static final EventType CHECK_EVENT_TYPE = EventType.getEventType(TransactionCheckEvent.class);
+
     private final AddressService addressService;
     private final ValidationPolicy validationPolicy;
     private final CryptoService cryptoService;
@@ -54,6 +78,8 @@ public class ValidateTransactionUseCase {
     private final TxIdCalculatorService txIdCalculatorService;
     private final SerializerService serializerService;
     private final AccountStateService accountStateService;
+    private final TransactionIndex transactionIndex;
+    private final PipelineMetrics pipelineMetrics;
 
     public ValidateTransactionUseCase(
             AddressService addressService,
@@ -62,7 +88,23 @@ public class ValidateTransactionUseCase {
             MempoolService mempoolService,
             TxIdCalculatorService txIdCalculatorService,
             SerializerService serializerService,
-            AccountStateService accountStateService
+            AccountStateService accountStateService,
+            TransactionIndex transactionIndex
+    ) {
+        this(addressService, validationPolicy, cryptoService, mempoolService, txIdCalculatorService, serializerService,
+                accountStateService, transactionIndex, PipelineMetrics.NOOP);
+    }
+
+    public ValidateTransactionUseCase(
+            AddressService addressService,
+            ValidationPolicy validationPolicy,
+            CryptoService cryptoService,
+            MempoolService mempoolService,
+            TxIdCalculatorService txIdCalculatorService,
+            SerializerService serializerService,
+            AccountStateService accountStateService,
+            TransactionIndex transactionIndex,
+            PipelineMetrics pipelineMetrics
     ) {
         this.addressService = addressService;
         this.validationPolicy = validationPolicy;
@@ -71,72 +113,175 @@ public class ValidateTransactionUseCase {
         this.txIdCalculatorService = txIdCalculatorService;
         this.serializerService = serializerService;
         this.accountStateService = accountStateService;
+        this.transactionIndex = transactionIndex;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     public ValidationResult validateTransaction(Transaction transaction) {
-        log.info("Start of transaction validation: from={}, to={}, amount={}",
-                transaction.from(), transaction.to(), transaction.amount());
+        final byte[] unassignedPayload = serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount());
+        return validate(transaction, unassignedPayload,
+                () -> cryptoService.verify(unassignedPayload, transaction.signature(), transaction.publicKey()), 0);
+    }
+
+    /**
+     * Проверяет пакет транзакций. Подписи всего пакета проверяются одним вызовом {@link CryptoService#verifyBatch},
+     * который распределяет их по ядрам; остальные проверки — как в {@link #validateTransaction}.
+     * Баланс отправителя уменьшается на суммы его транзакций, уже прошедших проверку в этом пакете:
+     * пакет не может потратить больше доступного, даже если каждая транзакция по отдельности проходит.
+     *
+     * @return результаты проверки в порядке транзакций пакета
+     */
+    public List<ValidationResult> validateTransactions(List<Transaction> transactions) {
+        log.debug("Start of batch transaction validation: size={}", transactions.size());
+        final List<byte[]> payloads = new ArrayList<>(transactions.size());
+        final List<SignedData> signedData = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            final byte[] payload = serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount());
+            payloads.add(payload);
+            signedData.add(new SignedData(payload, transaction.signature(), transaction.publicKey()));
+        }
+        final long verifyStart = System.nanoTime();
+        final boolean[] signatures = cryptoService.verifyBatch(signedData);
+        pipelineMetrics.recordSince(PipelineStage.CHECK_SIGNATURE_BATCH, verifyStart);
+        final List<ValidationResult> results = new ArrayList<>(transactions.size());
+        final Map<WalletAddress, Long> batchDebits = new HashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            final Transaction transaction = transactions.get(i);
+            final boolean signatureValid = signatures[i];
+            final ValidationResult result = validate(transaction, payloads.get(i), () -> signatureValid,
+                    batchDebits.getOrDefault(transaction.from(), 0L));
+            if (result.errors().isEmpty()) {
+                batchDebits.merge(transaction.from(), transaction.amount().value(), Long::sum);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * @param batchDebit сумма транзакций того же отправителя, уже прошедших проверку в текущем пакете
+     */
+    private ValidationResult validate(Transaction transaction, byte[] unassignedPayload, BooleanSupplier signatureCheck, long batchDebit) {
         final List<ErrorCodes> errors = new ArrayList<>();
+        final long validationStart = System.nanoTime();
+        final String txId = txIdCalculatorService.calculateTxId(unassignedPayload);
+        log.atDebug().addKeyValue("txId", txId).addKeyValue("from", transaction.from()).addKeyValue("to", transaction.to())
+                .addKeyValue("amount", transaction.amount().value()).log("Start of transaction validation");
+        final CheckRecorder checks = new CheckRecorder(txId, errors);
 
-        log.debug("Address verification");
         if (!addressService.deriveAddress(transaction.from(), transaction.publicKey())) { // ЗАГЛУШКА. РЕАЛИЗОВАТЬ ЛОГИКУ
-            log.warn("Invalid sender's address: does not match the public key.");
+            log.atDebug().addKeyValue("txId", txId).addKeyValue("from", transaction.from())
+                    .log("Invalid sender's address: does not match the public key");
             errors.add(INVALID_ADDRESS_FROM);
         }
+        checks.end(PipelineStage.CHECK_ADDRESS);
 
         if (validationPolicy.isForbiddenAddress(transaction.to())) {
-            log.warn("The recipient's address {} is in the prohibited list.", transaction.to());
+            log.atDebug().addKeyValue("txId", txId).addKeyValue("to", transaction.to())
+                    .log("The recipient's address is in the prohibited list");
             errors.add(FORBIDDEN_ADDRESS);
         }
+        checks.end(PipelineStage.CHECK_FORBIDDEN_ADDRESS);
 
-        log.debug("validation of the transaction amount");
         if (transaction.amount().value() <= 0) {
-            log.warn("The transaction amount is not positive: {}", transaction.amount().value());
+            log.atDebug().addKeyValue("txId", txId).addKeyValue("amount", transaction.amount().value())
+                    .log("The transaction amount is not positive");
             errors.add(AMOUNT_NOT_POSITIVE);
         }
         if (transaction.amount().value() > validationPolicy.getMaxAmount().value()) {
-            log.warn("The transaction amount {} exceeds the maximum limit {}.",
-                    transaction.amount().value(), validationPolicy.getMaxAmount().value());
+            log.atDebug().addKeyValue("txId", txId).addKeyValue("amount", transaction.amount().value())
+                    .addKeyValue("maxAmount", validationPolicy.getMaxAmount().value())
+                    .log("The transaction amount exceeds the maximum limit");
             errors.add(AMOUNT_TOO_LARGE);
         }
+        checks.end(PipelineStage.CHECK_AMOUNT);
 
-        log.debug("Checking the transaction size");
         final byte[] serializedTx = serializerService.getSerializedTransaction(transaction);
         if (serializedTx.length > validationPolicy.getMaxTxSize()) {
-            log.warn("Transaction size {} bytes exceeds the maximum limit {} bytes.",
-                    serializedTx.length, validationPolicy.getMaxTxSize());
+            log.atDebug().addKeyValue("txId", txId).addKeyValue("bytes", serializedTx.length)
+                    .addKeyValue("maxBytes", validationPolicy.getMaxTxSize()).log("Transaction size exceeds the maximum limit");
             errors.add(TX_TOO_LARGE);
         }
+        checks.end(PipelineStage.CHECK_TX_SIZE);
 
-        log.debug("Digital signature verification");
-        final byte[] unassignedPayload = serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount());
-        if (!cryptoService.verify(unassignedPayload, transaction.signature(), transaction.publicKey())) {
-            log.warn("The digital signature of the transaction is incorrect.");
+        if (!signatureCheck.getAsBoolean()) {
+            log.atDebug().addKeyValue("txId", txId).log("The digital signature of the transaction is incorrect");
             errors.add(INVALID_SIGNATURE);
         }
+        checks.end(PipelineStage.CHECK_SIGNATURE);
 
-        log.debug("Checking sender's balance");
-        final double balance = accountStateService.getBalance(transaction.from()); // ЗАГЛУШКА. РЕАЛИЗОВАТЬ ЛОГИКУ
-        final double pending = accountStateService.getPendingAmount(transaction.from()); // ЗАГЛУШКА. РЕАЛИЗОВАТЬ ЛОГИКУ
+        final long balance = accountStateService.getBalance(transaction.from());
+        final long pending = accountStateService.getPendingAmount(transaction.from()) + batchDebit;
         if ((balance - pending) < transaction.amount().value()) {
-            log.warn("The sender does not have enough funds {}. Available: {}, required: {}",
-                    transaction.from(), (balance - pending), transaction.amount().value());
+            log.atDebug().addKeyValue("txId", txId).addKeyValue("from", transaction.from()).addKeyValue("available", balance - pending)
+                    .addKeyValue("required", transaction.amount().value()).log("The sender does not have enough funds");
             errors.add(INSUFFICIENT_FUNDS);
         }
+        checks.end(PipelineStage.CHECK_BALANCE);
 
-        log.debug("Checking for duplicates in the mempool");
-        final String txId = txIdCalculatorService.calculateTxId(unassignedPayload);
         if (mempoolService.isMempoolContainsTxId(txId)) {
-            log.warn("Duplicate transaction detected with TxId: {}", txId);
+            log.atDebug().addKeyValue("txId", txId).log("Duplicate transaction detected in the mempool");
+            errors.add(DUPLICATE_TRANSACTION);
+        } else if (transactionIndex.find(txId).isPresent()) {
+            log.atDebug().addKeyValue("txId", txId).log("Transaction with the same txId is already confirmed in the blockchain");
             errors.add(DUPLICATE_TRANSACTION);
         }
+        checks.end(PipelineStage.CHECK_DUPLICATE);
+        pipelineMetrics.recordSince(PipelineStage.VALIDATE, validationStart);
+        return result(txId, errors);
+    }
 
+    private ValidationResult result(String txId, List<ErrorCodes> errors) {
         if (errors.isEmpty()) {
-            log.info("The transaction has successfully passed all checks. TxId: {}", txId);
+            log.info(HOT_PATH, "The transaction has successfully passed all checks: txId={}", txId);
             return new ValidationResult("OK", txId, List.of()); //TODO: сделать Enum статуса
         } else {
-            log.warn("The transaction was not validated. Errors found: {}", errors);
+            log.warn(HOT_PATH, "The transaction was not validated: txId={}, errors={}", txId, errors);
+            for (ErrorCodes error : errors) {
+                pipelineMetrics.recordRejection(error);
+            }
             return new ValidationResult("ERROR", null, errors);
         }
     }
+
+    /**
+     * Замеряет проверки транзакции по очереди: каждая начинается там, где закончилась предыдущая.
+     * Длительность проверки публикуется в {@link PipelineMetrics}; если событие {@link TransactionCheckEvent}
+     * включено в записи JFR, проверка записывается и в неё вместе с TxId и найденным кодом ошибки.
+     */
+    private final class CheckRecorder {
+        private final String txId;
+        private final List<ErrorCodes> errors;
+        private final boolean eventsEnabled = CHECK_EVENT_TYPE.isEnabled();
+        private TransactionCheckEvent event;
+        private long stageStart = System.nanoTime();
+        private int errorsBefore;
+
+        private CheckRecorder(String txId, List<ErrorCodes> errors) {
+            this.txId = txId;
+            this.errors = errors;
+            begin();
+        }
+
+        private void end(PipelineStage stage) {
+            stageStart = pipelineMetrics.recordSince(stage, stageStart);
+            if (event != null && event.shouldCommit()) {
+                event.txId = txId;
+                event.check = stage.getTag();
+                if (errors.size() > errorsBefore) {
+                    event.error = errors.get(errorsBefore).name();
+                }
+                event.commit();
+            }
+            begin();
+        }
+
+        private void begin() {
+            errorsBefore = errors.size();
+            if (eventsEnabled) {
+                event = new TransactionCheckEvent();
+                event.begin();
+            }
+        }
+    }
 }
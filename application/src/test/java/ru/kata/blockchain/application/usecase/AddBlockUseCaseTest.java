@@ -2,12 +2,25 @@ package ru.kata.blockchain.application.usecase;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
 import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.MiningTargetService;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
 import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
 import ru.kata.blockchain.domain.vo.Hash;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -15,74 +28,159 @@ import static org.mockito.Mockito.*;
 import com.google.common.collect.ImmutableList;
 
 class AddBlockUseCaseTest {
+    private static final Hash TX_ID = new Hash("3".repeat(64));
+    private static final Hash TARGET = Difficulty.target(4);
 
     private BlockRepository blockRepository;
+    private TransactionIndex transactionIndex;
+    private MempoolService mempoolService;
     private AddBlockUseCase addBlockUseCase;
-    private Block latestBlock;
     private Hash latestHash;
 
     @BeforeEach
     void setUp() {
         blockRepository = mock(BlockRepository.class);
-        addBlockUseCase = new AddBlockUseCase(blockRepository);
-        latestHash = mock(Hash.class);
-        latestBlock = new Block(
-                1L,
-                Instant.now(),
-                ImmutableList.of(mock(Transaction.class)),
-                mock(Hash.class),
-                100L,
-                latestHash
-        );
-
-        when(blockRepository.findLatest()).thenReturn(Optional.ofNullable(latestBlock));
+        final TxIdCalculatorService txIdCalculatorService = mock(TxIdCalculatorService.class);
+        when(txIdCalculatorService.calculateTxId(any())).thenReturn(TX_ID.value());
+        final MiningTargetService miningTargetService = mock(MiningTargetService.class);
+        when(miningTargetService.currentTarget()).thenReturn(TARGET);
+        transactionIndex = mock(TransactionIndex.class);
+        mempoolService = mock(MempoolService.class);
+        addBlockUseCase = new AddBlockUseCase(blockRepository, txIdCalculatorService, mock(SerializerService.class), miningTargetService,
+                transactionIndex, mempoolService);
+        final Block latestBlock = sealedBlock(1L, new Hash("0".repeat(64)), true);
+        latestHash = latestBlock.hash();
+
+        when(blockRepository.findLatest()).thenReturn(Optional.of(latestBlock));
+        when(blockRepository.saveIfNext(any())).thenReturn(true);
     }
 
     @Test
     void validBlockShouldBeSaved() {
-        final Hash newHash = mock(Hash.class);
-        final Block validBlock = new Block(
-                2L,
-                Instant.now(),
-                ImmutableList.of(mock(Transaction.class)),
-                latestHash,
-                222L,
-                newHash
-        );
+        final Block validBlock = sealedBlock(2L, latestHash, true);
 
         addBlockUseCase.addBlock(validBlock);
-        verify(blockRepository).save(validBlock);
+        verify(blockRepository).saveIfNext(validBlock);
     }
 
     @Test
-    void blockWithWrongPreviousHashShouldNotBeSaved() {
-        final Hash wrongHash = mock(Hash.class);
+    void savedBlockShouldBeIndexedByItsTxIdsAfterSave() {
+        final Block validBlock = sealedBlock(2L, latestHash, true);
+
+        addBlockUseCase.addBlock(validBlock);
+
+        final InOrder inOrder = inOrder(blockRepository, transactionIndex);
+        inOrder.verify(blockRepository).saveIfNext(validBlock);
+        inOrder.verify(transactionIndex).indexBlock(validBlock, List.of(TX_ID));
+    }
+
+    @Test
+    void savedBlockTransactionsShouldBeRemovedFromMempoolByTheirTxIdsAfterSave() {
+        final Block validBlock = sealedBlock(2L, latestHash, true);
+
+        addBlockUseCase.addBlock(validBlock);
+
+        final InOrder inOrder = inOrder(blockRepository, mempoolService);
+        inOrder.verify(blockRepository).saveIfNext(validBlock);
+        inOrder.verify(mempoolService).removeCommitted(List.of(TX_ID));
+    }
 
-        final Block invalidBlock = new Block(
-                2L,
-                Instant.now(),
-                ImmutableList.of(mock(Transaction.class)),
-                wrongHash,
-                222L,
-                mock(Hash.class)
-        );
+    @Test
+    void blockLosingRaceForChainTipShouldNotBeIndexed() {
+        final Block validBlock = sealedBlock(2L, latestHash, true);
+        when(blockRepository.saveIfNext(validBlock)).thenReturn(false);
+
+        addBlockUseCase.addBlock(validBlock);
+
+        verify(blockRepository).saveIfNext(validBlock);
+        verify(transactionIndex, never()).indexBlock(any(), any());
+        verify(mempoolService, never()).removeCommitted(any());
+    }
+
+    @Test
+    void blockWithAlreadyConfirmedTransactionShouldNotBeSaved() {
+        when(transactionIndex.find(TX_ID.value())).thenReturn(Optional.of(new TransactionLocation(1L, 0)));
+        final Block replay = sealedBlock(2L, latestHash, true);
+
+        addBlockUseCase.addBlock(replay);
+        verify(blockRepository, never()).saveIfNext(any());
+        verify(transactionIndex, never()).indexBlock(any(), any());
+    }
+
+    @Test
+    void blockWithRepeatedTransactionShouldNotBeSaved() {
+        final Block repeated = sealedBlock(2L, latestHash, true, 2);
+
+        addBlockUseCase.addBlock(repeated);
+        verify(blockRepository, never()).saveIfNext(any());
+    }
+
+    @Test
+    void blockWithWrongPreviousHashShouldNotBeSaved() {
+        final Block invalidBlock = sealedBlock(2L, new Hash("f".repeat(64)), true);
 
         addBlockUseCase.addBlock(invalidBlock);
-        verify(blockRepository, never()).save(any());
+        verify(blockRepository, never()).saveIfNext(any());
+    }
+
+    @Test
+    void emptyChainShouldAcceptOnlyGenesisBlock() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        final Block notGenesis = new Block(0L, Instant.now(), ImmutableList.of(), GenesisBlock.PREVIOUS_HASH, 0L, mock(Hash.class));
+
+        addBlockUseCase.addBlock(notGenesis);
+        verify(blockRepository, never()).saveIfNext(any());
+
+        addBlockUseCase.addBlock(GenesisBlock.create());
+        verify(blockRepository).saveIfNext(GenesisBlock.create());
     }
 
     @Test
     void blockWithWrongIndexShouldNotBeSaved() {
-        final Block invalidBlock = new Block(
-                5L,
-                Instant.now(),
-                ImmutableList.of(mock(Transaction.class)),
-                latestHash,
-                200L,
-                mock(Hash.class)
-        );
+        final Block invalidBlock = sealedBlock(5L, latestHash, true);
 
         addBlockUseCase.addBlock(invalidBlock);
-        verify(blockRepository, never()).save(any());
+        verify(blockRepository, never()).saveIfNext(any());
+    }
+
+    @Test
+    void blockThatDoesNotMeetMiningTargetShouldNotBeSaved() {
+        final Block underTarget = sealedBlock(2L, latestHash, false);
+
+        addBlockUseCase.addBlock(underTarget);
+        verify(blockRepository, never()).saveIfNext(any());
+    }
+
+    @Test
+    void blockWhoseHashDoesNotMatchHeaderShouldNotBeSaved() {
+        final Block valid = sealedBlock(2L, latestHash, true);
+        final Block tampered = new Block(valid.index(), valid.timestamp(), valid.transactions(), valid.previousHash(),
+                valid.nonce() + 1, valid.hash());
+
+        addBlockUseCase.addBlock(tampered);
+        verify(blockRepository, never()).saveIfNext(any());
+    }
+
+    /**
+     * Блок с первым {@code nonce}, при котором хэш заголовка удовлетворяет цели ({@code meetsTarget})
+     * или не удовлетворяет ей.
+     */
+    private static Block sealedBlock(long index, Hash previousHash, boolean meetsTarget) {
+        return sealedBlock(index, previousHash, meetsTarget, 1);
+    }
+
+    /**
+     * То же для блока из {@code transactionCount} транзакций; у всех TxId и wtxId равны {@link #TX_ID}.
+     */
+    private static Block sealedBlock(long index, Hash previousHash, boolean meetsTarget, int transactionCount) {
+        final ImmutableList<Transaction> transactions = ImmutableList.copyOf(Collections.nCopies(transactionCount, mock(Transaction.class)));
+        final Instant timestamp = Instant.ofEpochSecond(1_700_000_000L + index);
+        final Hash merkleRoot = MerkleTree.root(Collections.nCopies(transactionCount, MerkleTree.transactionLeaf(TX_ID, TX_ID)));
+        for (long nonce = 0; ; nonce++) {
+            final Hash hash = new BlockHeader(index, timestamp, previousHash, merkleRoot, nonce).hash();
+            if (Difficulty.meets(hash, TARGET) == meetsTarget) {
+                return new Block(index, timestamp, transactions, previousHash, nonce, hash);
+            }
+        }
     }
-}
\ No newline at end of file
+}
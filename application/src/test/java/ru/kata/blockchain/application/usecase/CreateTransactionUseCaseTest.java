@@ -8,6 +8,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.error.ErrorCodes;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
 import ru.kata.blockchain.domain.service.SerializerService;
 import ru.kata.blockchain.domain.transaction.Transaction;
 import ru.kata.blockchain.domain.vo.Amount;
@@ -38,6 +40,9 @@ public class CreateTransactionUseCaseTest {
     @Mock
     private SerializerService serializerService;
 
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
     @InjectMocks
     private CreateTransactionUseCase createTransactionUseCase;
 
@@ -90,6 +95,7 @@ public class CreateTransactionUseCaseTest {
         verify(serializerService, times(2)).getUnassignedPayload(eq(from), eq(to), eq(amount));
         verify(cryptoService).sign(eq(unassignedPayload), eq(privateKey));
         verify(cryptoService).verify(eq(unassignedPayload), eq(fakeSignature), eq(publicKey));
+        verify(pipelineMetrics).recordRejection(ErrorCodes.INVALID_SIGNATURE);
     }
 
     @Test
@@ -0,0 +1,61 @@
+package ru.kata.blockchain.application.usecase;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.transaction.ConfirmedTransaction;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FindTransactionUseCaseTest {
+    private static final String TX_ID = "a".repeat(64);
+
+    private TransactionIndex transactionIndex;
+    private BlockRepository blockRepository;
+    private FindTransactionUseCase findTransactionUseCase;
+
+    @BeforeEach
+    void setUp() {
+        transactionIndex = mock(TransactionIndex.class);
+        blockRepository = mock(BlockRepository.class);
+        findTransactionUseCase = new FindTransactionUseCase(transactionIndex, blockRepository);
+    }
+
+    @Test
+    void shouldReturnTransactionWithConfirmationDepth() {
+        final Transaction first = mock(Transaction.class);
+        final Transaction second = mock(Transaction.class);
+        final Hash blockHash = mock(Hash.class);
+        final Block block = new Block(3L, Instant.now(), ImmutableList.of(first, second), mock(Hash.class), 1L, blockHash);
+        final Block latest = new Block(7L, Instant.now(), ImmutableList.of(), mock(Hash.class), 1L, mock(Hash.class));
+        when(transactionIndex.find(TX_ID)).thenReturn(Optional.of(new TransactionLocation(3L, 1)));
+        when(blockRepository.findByIndex(3L)).thenReturn(Optional.of(block));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(latest));
+
+        final ConfirmedTransaction result = findTransactionUseCase.findTransaction(TX_ID).orElseThrow();
+
+        assertSame(second, result.transaction());
+        assertEquals(3L, result.blockIndex());
+        assertSame(blockHash, result.blockHash());
+        assertEquals(1, result.position());
+        assertEquals(5L, result.confirmations());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenTransactionIsNotIndexed() {
+        when(transactionIndex.find(TX_ID)).thenReturn(Optional.empty());
+
+        assertTrue(findTransactionUseCase.findTransaction(TX_ID).isEmpty());
+        verifyNoInteractions(blockRepository);
+    }
+}
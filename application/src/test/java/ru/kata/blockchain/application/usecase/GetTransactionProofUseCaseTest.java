@@ -0,0 +1,113 @@
+package ru.kata.blockchain.application.usecase;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+import ru.kata.blockchain.domain.transaction.TransactionProof;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GetTransactionProofUseCaseTest {
+    private static final WalletAddress FROM = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress TO = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+    private static final int WTXID_SEED = 100;
+
+    private TransactionIndex transactionIndex;
+    private BlockRepository blockRepository;
+    private SerializerService serializerService;
+    private GetTransactionProofUseCase getTransactionProofUseCase;
+
+    @BeforeEach
+    void setUp() {
+        transactionIndex = mock(TransactionIndex.class);
+        blockRepository = mock(BlockRepository.class);
+        final TxIdCalculatorService txIdCalculatorService = mock(TxIdCalculatorService.class);
+        serializerService = mock(SerializerService.class);
+        when(serializerService.getUnassignedPayload(any(), any(), any()))
+                .thenAnswer(invocation -> new byte[]{(byte) invocation.<Amount>getArgument(2).value()});
+        when(serializerService.getSerializedTransaction(any()))
+                .thenAnswer(invocation -> new byte[]{(byte) (WTXID_SEED + invocation.<Transaction>getArgument(0).amount().value())});
+        when(txIdCalculatorService.calculateTxId(any()))
+                .thenAnswer(invocation -> txId(invocation.<byte[]>getArgument(0)[0]));
+        getTransactionProofUseCase = new GetTransactionProofUseCase(transactionIndex, blockRepository, txIdCalculatorService,
+                serializerService, 16);
+    }
+
+    @Test
+    void shouldReturnVerifiableProofWithConfirmationDepth() {
+        final Block block = givenBlock(3L, 7L, 5);
+        when(transactionIndex.find(txId(3))).thenReturn(Optional.of(new TransactionLocation(3L, 2)));
+
+        final TransactionProof proof = getTransactionProofUseCase.getProof(txId(3)).orElseThrow();
+
+        assertEquals(3L, proof.header().index());
+        assertEquals(block.previousHash(), proof.header().previousHash());
+        assertEquals(MerkleTree.root(List.of(leaf(1), leaf(2), leaf(3), leaf(4), leaf(5))), proof.header().merkleRoot());
+        assertEquals(new Hash(txId(WTXID_SEED + 3)), proof.wtxId());
+        assertEquals(2, proof.proof().position());
+        assertTrue(proof.proof().verify(leaf(3), proof.header().merkleRoot()));
+        assertFalse(proof.proof().verify(new Hash(txId(3)), proof.header().merkleRoot()));
+        assertEquals(5L, proof.confirmations());
+    }
+
+    @Test
+    void shouldBuildMerkleTreeOncePerBlock() {
+        givenBlock(3L, 3L, 4);
+        when(transactionIndex.find(any())).thenReturn(Optional.of(new TransactionLocation(3L, 0)));
+
+        getTransactionProofUseCase.getProof(txId(1));
+        getTransactionProofUseCase.getProof(txId(1));
+
+        verify(serializerService, times(4)).getUnassignedPayload(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenTransactionIsNotIndexed() {
+        when(transactionIndex.find(txId(1))).thenReturn(Optional.empty());
+
+        assertTrue(getTransactionProofUseCase.getProof(txId(1)).isEmpty());
+        verifyNoInteractions(blockRepository);
+    }
+
+    private Block givenBlock(long index, long latestIndex, int transactions) {
+        final ImmutableList.Builder<Transaction> builder = ImmutableList.builder();
+        for (int i = 1; i <= transactions; i++) {
+            builder.add(new Transaction(FROM, TO, new Amount(i), new byte[]{1}, mock(PublicKey.class)));
+        }
+        final Block block = new Block(index, Instant.ofEpochSecond(1_700_000_000L), builder.build(),
+                new Hash("0".repeat(64)), 1L, new Hash("b".repeat(64)));
+        final Block latest = new Block(latestIndex, Instant.now(), ImmutableList.of(), new Hash("0".repeat(64)), 1L,
+                new Hash("c".repeat(64)));
+        when(blockRepository.findByIndex(index)).thenReturn(Optional.of(block));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(latest));
+        return block;
+    }
+
+    /**
+     * Лист транзакции с суммой {@code amount}: её wtxId в тестах — TxId с затравкой {@code WTXID_SEED + amount}.
+     */
+    private static Hash leaf(long amount) {
+        return MerkleTree.transactionLeaf(new Hash(txId(amount)), new Hash(txId(WTXID_SEED + amount)));
+    }
+
+    private static String txId(long seed) {
+        return String.format("%064x", seed);
+    }
+}
@@ -1,8 +1,12 @@
 package ru.kata.blockchain.application.usecase;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -11,16 +15,23 @@ import ru.kata.blockchain.domain.error.ErrorCodes;
 import ru.kata.blockchain.domain.service.AccountStateService;
 import ru.kata.blockchain.domain.service.AddressService;
 import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.service.PipelineStage;
 import ru.kata.blockchain.domain.service.SerializerService;
 import ru.kata.blockchain.domain.service.TxIdCalculatorService;
 import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
 import ru.kata.blockchain.domain.validation.ValidationPolicy;
 import ru.kata.blockchain.domain.validation.ValidationResult;
 import ru.kata.blockchain.domain.vo.Amount;
 import ru.kata.blockchain.domain.vo.WalletAddress;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.PublicKey;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -42,6 +53,8 @@ public class ValidateTransactionUseCaseTest {
     @Mock private TxIdCalculatorService txIdCalculatorService;
     @Mock private SerializerService serializerService;
     @Mock private AccountStateService accountStateService;
+    @Mock private TransactionIndex transactionIndex;
+    @Mock private PipelineMetrics pipelineMetrics;
 
     @InjectMocks
     private ValidateTransactionUseCase validateTransactionUseCase;
@@ -65,8 +78,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(2000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -86,8 +99,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(2000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -107,8 +120,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(2000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -129,8 +142,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(largeTx))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(new Amount(20000L)))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(30000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(30000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -150,8 +163,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[1500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(2000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -171,8 +184,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(false);
-        when(accountStateService.getBalance(eq(from))).thenReturn(2000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -192,8 +205,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(500.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(500L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
 
@@ -213,8 +226,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
-        when(accountStateService.getBalance(eq(from))).thenReturn(2000.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(true);
 
@@ -225,6 +238,28 @@ public class ValidateTransactionUseCaseTest {
         assertEquals(List.of(ErrorCodes.DUPLICATE_TRANSACTION), result.errors());
     }
 
+    @Test
+    void shouldReturnErrorWhenTransactionIsAlreadyConfirmed() {
+        when(addressService.deriveAddress(eq(from), eq(publicKey))).thenReturn(true);
+        when(validationPolicy.isForbiddenAddress(eq(to))).thenReturn(false);
+        when(validationPolicy.getMaxAmount()).thenReturn(new Amount(10000L));
+        when(validationPolicy.getMaxTxSize()).thenReturn(1000L);
+        when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
+        when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
+        when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
+        when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
+        when(transactionIndex.find(eq("tx123"))).thenReturn(Optional.of(new TransactionLocation(7L, 0)));
+
+        final ValidationResult result = validateTransactionUseCase.validateTransaction(transaction);
+
+        assertEquals("ERROR", result.status());
+        assertNull(result.txId());
+        assertEquals(List.of(ErrorCodes.DUPLICATE_TRANSACTION), result.errors());
+    }
+
     @Test
     void shouldReturnMultipleErrorsWhenMultipleValidationsFail() {
         final Transaction invalidTx = new Transaction(from, to, new Amount(1L), signature, publicKey);
@@ -235,8 +270,8 @@ public class ValidateTransactionUseCaseTest {
         when(serializerService.getSerializedTransaction(eq(invalidTx))).thenReturn(new byte[1500]);
         when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(new Amount(1L)))).thenReturn(new byte[]{4, 5, 6});
         when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(false);
-        when(accountStateService.getBalance(eq(from))).thenReturn(500.0);
-        when(accountStateService.getPendingAmount(eq(from))).thenReturn(500.0);
+        when(accountStateService.getBalance(eq(from))).thenReturn(500L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(500L);
         when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
         when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(true);
 
@@ -254,4 +289,114 @@ public class ValidateTransactionUseCaseTest {
                 ErrorCodes.DUPLICATE_TRANSACTION
         ), result.errors());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldValidateBatchWithBatchSignatureVerificationInInputOrder() {
+        final Transaction second = new Transaction(from, to, new Amount(99L), signature, publicKey);
+        when(addressService.deriveAddress(any(), any())).thenReturn(true);
+        when(validationPolicy.isForbiddenAddress(any())).thenReturn(false);
+        when(validationPolicy.getMaxAmount()).thenReturn(new Amount(10000L));
+        when(validationPolicy.getMaxTxSize()).thenReturn(1000L);
+        when(serializerService.getSerializedTransaction(any())).thenReturn(new byte[500]);
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(new Amount(99L)))).thenReturn(new byte[]{7, 8, 9});
+        when(cryptoService.verifyBatch(anyList())).thenReturn(new boolean[]{false, true});
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
+        when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
+        when(txIdCalculatorService.calculateTxId(eq(new byte[]{7, 8, 9}))).thenReturn("tx789");
+        when(mempoolService.isMempoolContainsTxId(any())).thenReturn(false);
+
+        final List<ValidationResult> results = validateTransactionUseCase.validateTransactions(List.of(transaction, second));
+
+        assertEquals(2, results.size());
+        assertEquals(List.of(ErrorCodes.INVALID_SIGNATURE), results.get(0).errors());
+        assertEquals("OK", results.get(1).status());
+        assertEquals("tx789", results.get(1).txId());
+        verify(cryptoService, never()).verify(any(), any(), any());
+    }
+
+    @Test
+    void shouldDebitSenderForEarlierTransactionsOfTheSameBatch() {
+        final Transaction second = new Transaction(from, to, new Amount(900L), signature, publicKey);
+        final Transaction third = new Transaction(from, to, new Amount(700L), signature, publicKey);
+        when(addressService.deriveAddress(any(), any())).thenReturn(true);
+        when(validationPolicy.isForbiddenAddress(any())).thenReturn(false);
+        when(validationPolicy.getMaxAmount()).thenReturn(new Amount(10000L));
+        when(validationPolicy.getMaxTxSize()).thenReturn(1000L);
+        when(serializerService.getSerializedTransaction(any())).thenReturn(new byte[500]);
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(new Amount(900L)))).thenReturn(new byte[]{7, 8, 9});
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(new Amount(700L)))).thenReturn(new byte[]{1, 1, 1});
+        when(cryptoService.verifyBatch(anyList())).thenReturn(new boolean[]{true, true, true});
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
+        when(txIdCalculatorService.calculateTxId(any())).thenReturn("tx123", "tx789", "tx111");
+        when(mempoolService.isMempoolContainsTxId(any())).thenReturn(false);
+
+        final List<ValidationResult> results = validateTransactionUseCase.validateTransactions(List.of(transaction, second, third));
+
+        assertEquals("OK", results.get(0).status());
+        assertEquals(List.of(ErrorCodes.INSUFFICIENT_FUNDS), results.get(1).errors());
+        assertEquals("OK", results.get(2).status());
+    }
+
+    @Test
+    void shouldRecordEachCheckAndRejectionPerErrorCode() {
+        when(addressService.deriveAddress(eq(from), eq(publicKey))).thenReturn(true);
+        when(validationPolicy.isForbiddenAddress(eq(to))).thenReturn(true);
+        when(validationPolicy.getMaxAmount()).thenReturn(new Amount(10000L));
+        when(validationPolicy.getMaxTxSize()).thenReturn(1000L);
+        when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
+        when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(true);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
+        when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
+        when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(true);
+
+        validateTransactionUseCase.validateTransaction(transaction);
+
+        for (PipelineStage stage : List.of(PipelineStage.CHECK_ADDRESS, PipelineStage.CHECK_FORBIDDEN_ADDRESS,
+                PipelineStage.CHECK_AMOUNT, PipelineStage.CHECK_TX_SIZE, PipelineStage.CHECK_SIGNATURE,
+                PipelineStage.CHECK_BALANCE, PipelineStage.CHECK_DUPLICATE, PipelineStage.VALIDATE)) {
+            verify(pipelineMetrics).recordSince(eq(stage), anyLong());
+        }
+        verify(pipelineMetrics).recordRejection(ErrorCodes.FORBIDDEN_ADDRESS);
+        verify(pipelineMetrics).recordRejection(ErrorCodes.DUPLICATE_TRANSACTION);
+        verifyNoMoreInteractions(pipelineMetrics);
+    }
+
+    @Test
+    void shouldRecordJfrEventForEachCheckWithTxIdAndErrorCode(@TempDir Path tempDir) throws IOException {
+        when(addressService.deriveAddress(eq(from), eq(publicKey))).thenReturn(true);
+        when(validationPolicy.isForbiddenAddress(eq(to))).thenReturn(false);
+        when(validationPolicy.getMaxAmount()).thenReturn(new Amount(10000L));
+        when(validationPolicy.getMaxTxSize()).thenReturn(1000L);
+        when(serializerService.getSerializedTransaction(eq(transaction))).thenReturn(new byte[500]);
+        when(serializerService.getUnassignedPayload(eq(from), eq(to), eq(amount))).thenReturn(new byte[]{4, 5, 6});
+        when(cryptoService.verify(eq(new byte[]{4, 5, 6}), eq(signature), eq(publicKey))).thenReturn(false);
+        when(accountStateService.getBalance(eq(from))).thenReturn(2000L);
+        when(accountStateService.getPendingAmount(eq(from))).thenReturn(0L);
+        when(txIdCalculatorService.calculateTxId(eq(new byte[]{4, 5, 6}))).thenReturn("tx123");
+        when(mempoolService.isMempoolContainsTxId(eq("tx123"))).thenReturn(false);
+        final Path file = tempDir.resolve("checks.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("ru.kata.blockchain.TransactionCheck");
+            recording.start();
+            validateTransactionUseCase.validateTransaction(transaction);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("ru.kata.blockchain.TransactionCheck"))
+                .toList();
+        assertEquals(List.of("check.address", "check.forbidden-address", "check.amount", "check.tx-size", "check.signature",
+                "check.balance", "check.duplicate"), events.stream().map(event -> event.getString("check")).toList());
+        assertTrue(events.stream().allMatch(event -> "tx123".equals(event.getString("txId"))));
+        assertEquals("INVALID_SIGNATURE", events.get(4).getString("error"));
+        assertNull(events.get(0).getString("error"));
+    }
+}
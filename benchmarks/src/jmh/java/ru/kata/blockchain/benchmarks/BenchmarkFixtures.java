@@ -0,0 +1,92 @@
+package ru.kata.blockchain.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.FileBlockRepository;
+import ru.kata.blockchain.infrastructure.mapper.BlockMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общие данные бенчмарков: подписанные транзакции, цепочки блоков и их JSON-файлы
+ * в каталоге {@code data/blockchain}, из которого читает {@link FileBlockRepository}.
+ */
+final class BenchmarkFixtures {
+    static final WalletAddress FROM = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    static final WalletAddress TO = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+
+    private static final Path CHAIN_DIR = Paths.get("data/blockchain");
+    private static final Hash GENESIS_PREVIOUS_HASH = new Hash("0".repeat(64));
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * {@code count} переводов {@link #FROM} → {@link #TO} с суммами {@code 1..count}, подписанных одним ключом,
+     * поэтому у всех транзакций разные TxId.
+     */
+    static List<Transaction> signedTransactions(CryptoService cryptoService, SerializerService serializerService, int count) {
+        final KeyPair keyPair = cryptoService.generateKeyPair();
+        final List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            final Amount amount = new Amount(i);
+            final byte[] signature = cryptoService.sign(serializerService.getUnassignedPayload(FROM, TO, amount), keyPair.getPrivate());
+            transactions.add(new Transaction(FROM, TO, amount, signature, keyPair.getPublic()));
+        }
+        return transactions;
+    }
+
+    /**
+     * Связанная цепочка из {@code height} блоков с одними и теми же транзакциями и корнем Меркла {@code merkleRoot}.
+     */
+    static List<Block> chain(int height, ImmutableList<Transaction> transactions, Hash merkleRoot) {
+        final List<Block> chain = new ArrayList<>(height);
+        Hash previousHash = GENESIS_PREVIOUS_HASH;
+        for (int index = 0; index < height; index++) {
+            final Block block = block(index, transactions, previousHash, merkleRoot);
+            chain.add(block);
+            previousHash = block.hash();
+        }
+        return chain;
+    }
+
+    /**
+     * Блок с номером {@code index} поверх блока с хэшем {@code previousHash}; хэш блока — хэш его заголовка.
+     */
+    static Block block(long index, ImmutableList<Transaction> transactions, Hash previousHash, Hash merkleRoot) {
+        final Instant timestamp = Instant.ofEpochSecond(1_700_000_000L + index);
+        final Hash hash = new BlockHeader(index, timestamp, previousHash, merkleRoot, 1).hash();
+        return new Block(index, timestamp, transactions, previousHash, 1, hash);
+    }
+
+    /**
+     * Записывает цепочку в файл {@code data/blockchain/fileName} и открывает его в {@link FileBlockRepository}.
+     */
+    static FileBlockRepository openChain(String fileName, List<Block> chain) throws IOException {
+        Files.createDirectories(CHAIN_DIR);
+        new BlockMapper().writeToFile(CHAIN_DIR.resolve(fileName), chain);
+        return new FileBlockRepository(fileName);
+    }
+
+    /**
+     * Удаляет файл цепочки, созданный {@link #openChain}.
+     */
+    static void deleteChain(String fileName) throws IOException {
+        Files.deleteIfExists(CHAIN_DIR.resolve(fileName));
+        Files.deleteIfExists(CHAIN_DIR.resolve(fileName + ".tmp"));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.kata.blockchain.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.kata.blockchain.infrastructure.crypto.CryptoProviderInitializer;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость одной операции {@link CryptoServiceImpl} с пулом JCA-объектов в сравнении с прежней схемой,
+ * в которой {@code Signature}, {@code KeyPairGenerator} и {@code SecureRandom} создавались на каждый вызов
+ * (методы {@code *PerCallInstance}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CryptoServiceBenchmark {
+    private static final String SIGNATURE_ALGORITHM = "SHA256withECDSA";
+    private static final String PROVIDER = "BC";
+
+    private CryptoServiceImpl cryptoService;
+    private KeyPair keyPair;
+    private byte[] data;
+    private byte[] signature;
+
+    @Setup
+    public void setUp() {
+        CryptoProviderInitializer.initBouncyCastle();
+        cryptoService = new CryptoServiceImpl();
+        keyPair = cryptoService.generateKeyPair();
+        data = "1AliceAliceAliceAliceAliceAliceAlice|1BobBobBobBobBobBobBobBobBobBobBobBob|10".getBytes(StandardCharsets.UTF_8);
+        signature = cryptoService.sign(data, keyPair.getPrivate());
+    }
+
+    @TearDown
+    public void tearDown() {
+        cryptoService.close();
+    }
+
+    @Benchmark
+    public byte[] signPooled() {
+        return cryptoService.sign(data, keyPair.getPrivate());
+    }
+
+    @Benchmark
+    public byte[] signPerCallInstance() throws GeneralSecurityException {
+        final Signature signer = Signature.getInstance(SIGNATURE_ALGORITHM, PROVIDER);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(data);
+        return signer.sign();
+    }
+
+    @Benchmark
+    public boolean verifyPooled() {
+        return cryptoService.verify(data, signature, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public boolean verifyPerCallInstance() throws GeneralSecurityException {
+        final Signature verifier = Signature.getInstance(SIGNATURE_ALGORITHM, PROVIDER);
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(data);
+        return verifier.verify(signature);
+    }
+
+    @Benchmark
+    public KeyPair generateKeyPairPooled() {
+        return cryptoService.generateKeyPair();
+    }
+
+    @Benchmark
+    public KeyPair generateKeyPairPerCallInstance() throws GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC", PROVIDER);
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256k1"), new SecureRandom());
+        return keyPairGenerator.generateKeyPair();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.kata.blockchain.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.FileBlockRepository;
+import ru.kata.blockchain.infrastructure.crypto.CryptoProviderInitializer;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Добавление блока в {@link FileBlockRepository} при разной высоте цепочки {@code height}.
+ * <p>
+ * Репозиторий переписывает JSON-файл всей цепочки на каждый {@link FileBlockRepository#save}, поэтому
+ * стоимость операции растёт с высотой. Перед каждой итерацией файл заново заполняется {@code height} блоками
+ * по {@value #TRANSACTIONS_PER_BLOCK} транзакции; короткие итерации ({@value #ITERATION_MILLIS} мс) ограничивают
+ * рост цепочки за итерацию несколькими процентами от её высоты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(time = FileBlockRepositoryBenchmark.ITERATION_MILLIS, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(time = FileBlockRepositoryBenchmark.ITERATION_MILLIS, timeUnit = TimeUnit.MILLISECONDS)
+public class FileBlockRepositoryBenchmark {
+    static final int ITERATION_MILLIS = 200;
+    private static final int TRANSACTIONS_PER_BLOCK = 2;
+    private static final String CHAIN_FILE = "benchmark-save.json";
+
+    @Param({"1000", "5000", "20000"})
+    public int height;
+
+    private ImmutableList<Transaction> transactions;
+    private Hash merkleRoot;
+    private List<Block> chain;
+    private FileBlockRepository blockRepository;
+    private Block latest;
+
+    @Setup
+    public void setUp() {
+        CryptoProviderInitializer.initBouncyCastle();
+        final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+        try (CryptoServiceImpl cryptoService = new CryptoServiceImpl(1)) {
+            transactions = ImmutableList.copyOf(
+                    BenchmarkFixtures.signedTransactions(cryptoService, serializerService, TRANSACTIONS_PER_BLOCK));
+        }
+        merkleRoot = new HashFactory(new TxIdCalculatorServiceImpl(), serializerService).merkleRoot(transactions);
+        chain = BenchmarkFixtures.chain(height, transactions, merkleRoot);
+    }
+
+    @Setup(Level.Iteration)
+    public void openChain() throws IOException {
+        blockRepository = BenchmarkFixtures.openChain(CHAIN_FILE, chain);
+        latest = chain.get(chain.size() - 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.deleteChain(CHAIN_FILE);
+    }
+
+    @Benchmark
+    public Block save() {
+        latest = BenchmarkFixtures.block(latest.index() + 1, transactions, latest.hash(), merkleRoot);
+        blockRepository.save(latest);
+        return latest;
+    }
+}
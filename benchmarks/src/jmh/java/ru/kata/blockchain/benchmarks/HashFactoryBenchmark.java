@@ -0,0 +1,59 @@
+package ru.kata.blockchain.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.crypto.CryptoProviderInitializer;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хэш блока {@link HashFactory#createHash(Block)} в зависимости от числа транзакций в блоке:
+ * TxId каждой транзакции, корень Меркла над ними и SHA-256 заголовка.
+ * <p>
+ * {@code merkleRoot} отделяет стоимость дерева Меркла от хэширования заголовка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HashFactoryBenchmark {
+    @Param({"1", "100", "1000"})
+    public int transactions;
+
+    private final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+    private final HashFactory hashFactory = new HashFactory(new TxIdCalculatorServiceImpl(), serializerService);
+    private Block block;
+
+    @Setup
+    public void setUp() {
+        CryptoProviderInitializer.initBouncyCastle();
+        try (CryptoServiceImpl cryptoService = new CryptoServiceImpl(1)) {
+            final ImmutableList<Transaction> blockTransactions =
+                    ImmutableList.copyOf(BenchmarkFixtures.signedTransactions(cryptoService, serializerService, transactions));
+            block = BenchmarkFixtures.block(1, blockTransactions, new Hash("0".repeat(64)), hashFactory.merkleRoot(blockTransactions));
+        }
+    }
+
+    @Benchmark
+    public Hash createHash() {
+        return hashFactory.createHash(block);
+    }
+
+    @Benchmark
+    public Hash merkleRoot() {
+        return hashFactory.merkleRoot(block.transactions());
+    }
+}
@@ -0,0 +1,129 @@
+package ru.kata.blockchain.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.crypto.CryptoProviderInitializer;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.logging.HotPathSamplingFilter;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static ru.kata.blockchain.application.logging.HotPathLogging.HOT_PATH;
+
+/**
+ * Стоимость логирования на горячем пути: прежние сообщения против структурных полей и прореживания.
+ * <p>
+ * Логгер настраивается так же, как в {@code logback.xml} приложения — уровень INFO, шаблон с {@code %kvp},
+ * фильтр {@link HotPathSamplingFilter} с лимитом {@code maxPerSecond} ({@code 0} — прореживание выключено), —
+ * но пишет в {@link OutputStream#nullOutputStream()}, чтобы измерялось форматирование, а не диск.
+ * <ul>
+ *     <li>{@code eagerBlockToString} / {@code structuredBlockSummary} — сообщение о сохранении блока
+ *     из {@value #TRANSACTIONS_PER_BLOCK} транзакций: {@code toString()} блока против номера и хэша;</li>
+ *     <li>{@code legacyTransactionLines} / {@code hotPathTransactionLines} — сообщения одной проверки транзакции:
+ *     две строки INFO с {@code toString()} адресов против DEBUG с полями и итога с маркером горячего пути.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HotPathLoggingBenchmark {
+    private static final int TRANSACTIONS_PER_BLOCK = 64;
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg %kvp%n";
+
+    @Param({"0", "20"})
+    public int maxPerSecond;
+
+    private LoggerContext context;
+    private Logger log;
+    private Block block;
+    private Transaction transaction;
+    private String txId;
+
+    @Setup
+    public void setUp() {
+        CryptoProviderInitializer.initBouncyCastle();
+        final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+        final ImmutableList<Transaction> transactions;
+        try (CryptoServiceImpl cryptoService = new CryptoServiceImpl(1)) {
+            transactions = ImmutableList.copyOf(
+                    BenchmarkFixtures.signedTransactions(cryptoService, serializerService, TRANSACTIONS_PER_BLOCK));
+        }
+        final Hash merkleRoot = new HashFactory(new TxIdCalculatorServiceImpl(), serializerService).merkleRoot(transactions);
+        block = BenchmarkFixtures.chain(1, transactions, merkleRoot).get(0);
+        transaction = transactions.get(0);
+        txId = new TxIdCalculatorServiceImpl().calculateTxId(
+                serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount()));
+
+        context = new LoggerContext();
+        final HotPathSamplingFilter filter = new HotPathSamplingFilter();
+        filter.setMaxPerSecond(maxPerSecond);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        final OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        log = context.getLogger(HotPathLoggingBenchmark.class);
+        log.setLevel(Level.INFO);
+        log.setAdditive(false);
+        log.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void eagerBlockToString() {
+        log.info("Block saved: {}", block);
+    }
+
+    @Benchmark
+    public void structuredBlockSummary() {
+        log.atInfo().addKeyValue("index", block.index()).addKeyValue("hash", block.hash()).log("Block saved");
+    }
+
+    @Benchmark
+    public void legacyTransactionLines() {
+        log.info("Start of transaction validation: from={}, to={}, amount={}",
+                transaction.from(), transaction.to(), transaction.amount());
+        log.info("The transaction has successfully passed all checks. TxId: {}", txId);
+    }
+
+    @Benchmark
+    public void hotPathTransactionLines() {
+        log.atDebug().addKeyValue("txId", txId).addKeyValue("from", transaction.from()).addKeyValue("to", transaction.to())
+                .addKeyValue("amount", transaction.amount().value()).log("Start of transaction validation");
+        log.info(HOT_PATH, "The transaction has successfully passed all checks: txId={}", txId);
+    }
+}
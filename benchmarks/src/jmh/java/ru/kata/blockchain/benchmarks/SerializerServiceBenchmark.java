@@ -0,0 +1,95 @@
+package ru.kata.blockchain.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.crypto.CryptoProviderInitializer;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация транзакции {@link SerializerServiceImpl} в сравнении с прежней строковой схемой
+ * ({@code from|to|amount|Arrays.toString(signature)|publicKey}, методы {@code legacy*}).
+ * <p>
+ * Выделение памяти на вызов — метрика {@code gc.alloc.rate.norm} профилировщика {@code gc};
+ * размер результата вызова в байтах — вспомогательный счётчик {@code bytes} ({@link SerializedSize}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SerializerServiceBenchmark {
+    private final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        CryptoProviderInitializer.initBouncyCastle();
+        try (CryptoServiceImpl cryptoService = new CryptoServiceImpl(1)) {
+            final KeyPair keyPair = cryptoService.generateKeyPair();
+            final WalletAddress from = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+            final WalletAddress to = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+            final Amount amount = new Amount(1_000);
+            final byte[] signature = cryptoService.sign(serializerService.getUnassignedPayload(from, to, amount), keyPair.getPrivate());
+            transaction = new Transaction(from, to, amount, signature, keyPair.getPublic());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializedTransaction(SerializedSize size) {
+        return size.record(serializerService.getSerializedTransaction(transaction));
+    }
+
+    @Benchmark
+    public byte[] legacySerializedTransaction(SerializedSize size) {
+        return size.record((transaction.from().value() + "|" + transaction.to().value() + "|" + transaction.amount().value()
+                + "|" + Arrays.toString(transaction.signature()) + "|" + transaction.publicKey()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public byte[] unassignedPayload(SerializedSize size) {
+        return size.record(serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount()));
+    }
+
+    @Benchmark
+    public byte[] legacyUnassignedPayload(SerializedSize size) {
+        return size.record((transaction.from().value() + "|" + transaction.to().value() + "|" + transaction.amount().value())
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Размер результата вызова в байтах; JMH выводит его рядом с основной метрикой как счётчик {@code bytes}.
+     * <p>
+     * Счётчики событий JMH суммирует по измерительным итерациям всех форков, поэтому размер хранится
+     * в доле {@code 1 / (итерации * форки)} — в отчёт попадает ровно размер одного результата.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SerializedSize {
+        public double bytes;
+        private double share;
+
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            share = 1.0 / ((long) params.getMeasurement().getCount() * Math.max(1, params.getForks()));
+        }
+
+        byte[] record(byte[] serialized) {
+            bytes = serialized.length * share;
+            return serialized;
+        }
+    }
+}
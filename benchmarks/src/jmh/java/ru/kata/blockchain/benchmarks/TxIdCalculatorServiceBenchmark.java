@@ -0,0 +1,56 @@
+package ru.kata.blockchain.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вычисление TxId {@link TxIdCalculatorServiceImpl}: SHA-256 неподписанной части транзакции из пула
+ * {@code MessageDigest} и перевод результата в шестнадцатеричную строку; {@code calculateTxIdPerCallInstance} —
+ * то же с {@code MessageDigest.getInstance} на каждый вызов, как до пула.
+ * <p>
+ * {@code payloadAndTxId} добавляет к нему сериализацию неподписанной части — так TxId считают
+ * мемпул, индекс транзакций и {@code HashFactory}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TxIdCalculatorServiceBenchmark {
+    private final TxIdCalculatorServiceImpl txIdCalculatorService = new TxIdCalculatorServiceImpl();
+    private final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+    private final Amount amount = new Amount(1_000);
+    private byte[] unassignedPayload;
+
+    @Setup
+    public void setUp() {
+        unassignedPayload = serializerService.getUnassignedPayload(BenchmarkFixtures.FROM, BenchmarkFixtures.TO, amount);
+    }
+
+    @Benchmark
+    public String calculateTxId() {
+        return txIdCalculatorService.calculateTxId(unassignedPayload);
+    }
+
+    @Benchmark
+    public String calculateTxIdPerCallInstance() throws NoSuchAlgorithmException {
+        return Hash.fromBytes(MessageDigest.getInstance("SHA-256").digest(unassignedPayload)).value();
+    }
+
+    @Benchmark
+    public String payloadAndTxId() {
+        return txIdCalculatorService.calculateTxId(
+                serializerService.getUnassignedPayload(BenchmarkFixtures.FROM, BenchmarkFixtures.TO, amount));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.kata.blockchain.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.kata.blockchain.application.usecase.ValidateTransactionUseCase;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.validation.ValidationResult;
+import ru.kata.blockchain.infrastructure.crypto.CryptoProviderInitializer;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.service.AccountStateServiceImpl;
+import ru.kata.blockchain.infrastructure.service.AddressServiceImpl;
+import ru.kata.blockchain.infrastructure.service.MempoolServiceImpl;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+import ru.kata.blockchain.infrastructure.storage.FileTransactionIndex;
+import ru.kata.blockchain.infrastructure.validation.ValidationPolicyImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полная проверка транзакции {@link ValidateTransactionUseCase} с реальными сервисами: адрес, политика,
+ * размер, подпись, баланс по пустой цепочке и дубликат в пустом мемпуле и пустом индексе транзакций.
+ * Все транзакции проходят проверку.
+ * <p>
+ * {@code validateTransactions} проверяет пакет из {@value #BATCH_SIZE} транзакций с параллельной проверкой подписей;
+ * результат приводится к операциям на одну транзакцию ({@link OperationsPerInvocation}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValidateTransactionUseCaseBenchmark {
+    private static final int BATCH_SIZE = 256;
+    private static final String CHAIN_FILE = "benchmark-validate.json";
+    private static final Path INDEX_FILE = Paths.get("data/blockchain/benchmark-validate.idx");
+
+    private CryptoServiceImpl cryptoService;
+    private FileTransactionIndex transactionIndex;
+    private ValidateTransactionUseCase validateTransactionUseCase;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() throws IOException {
+        CryptoProviderInitializer.initBouncyCastle();
+        cryptoService = new CryptoServiceImpl();
+        final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+        final TxIdCalculatorServiceImpl txIdCalculatorService = new TxIdCalculatorServiceImpl();
+        final BlockRepository blockRepository = BenchmarkFixtures.openChain(CHAIN_FILE, List.of());
+        final MempoolService mempoolService = new MempoolServiceImpl(serializerService, 50_000, 64L << 20);
+        Files.deleteIfExists(INDEX_FILE);
+        transactionIndex = new FileTransactionIndex(INDEX_FILE, blockRepository, txIdCalculatorService, serializerService);
+        validateTransactionUseCase = new ValidateTransactionUseCase(new AddressServiceImpl(),
+                new ValidationPolicyImpl(1_000, 10_000, Set.of()),
+                cryptoService,
+                mempoolService,
+                txIdCalculatorService,
+                serializerService,
+                new AccountStateServiceImpl(blockRepository, mempoolService, 1_000_000),
+                transactionIndex);
+        transactions = BenchmarkFixtures.signedTransactions(cryptoService, serializerService, BATCH_SIZE);
+        final ValidationResult result = validateTransaction();
+        if (!"OK".equals(result.status())) {
+            throw new IllegalStateException("Benchmark transaction must be valid: " + result);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cryptoService.close();
+        transactionIndex.close();
+        Files.deleteIfExists(INDEX_FILE);
+        BenchmarkFixtures.deleteChain(CHAIN_FILE);
+    }
+
+    @Benchmark
+    public ValidationResult validateTransaction() {
+        return validateTransactionUseCase.validateTransaction(transactions.get(0));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<ValidationResult> validateTransactions() {
+        return validateTransactionUseCase.validateTransactions(transactions);
+    }
+}
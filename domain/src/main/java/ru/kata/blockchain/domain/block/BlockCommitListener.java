@@ -0,0 +1,13 @@
+package ru.kata.blockchain.domain.block;
+
+/**
+ * Слушатель фиксации блоков в {@link BlockRepository}.
+ * <p>
+ * Вызывается после того, как блок сохранён и стал виден через методы поиска репозитория,
+ * по одному разу на блок и в порядке цепочки. Вызов идёт в потоке, который фиксирует блоки,
+ * поэтому обработчик должен быть быстрым и не должен выбрасывать исключений.
+ */
+@FunctionalInterface
+public interface BlockCommitListener {
+    void onBlockCommitted(Block block);
+}
@@ -0,0 +1,46 @@
+package ru.kata.blockchain.domain.block;
+
+import com.google.common.hash.Hashing;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Заголовок блока — всё, что покрывает хэш блока.
+ * <p>
+ * Транзакции входят в заголовок через {@code merkleRoot} ({@link MerkleTree}), поэтому хэш блока
+ * проверяется по заголовку фиксированного размера, а принадлежность транзакции блоку — по корню Меркла.
+ * <p>
+ * Каноническое представление ({@value #SIZE} байт, big-endian):
+ * {@code byte version}, {@code long index}, {@code long epochSecond}, {@code int nano},
+ * {@code byte[32] previousHash}, {@code byte[32] merkleRoot}, {@code long nonce}.
+ * Хэш блока — {@code SHA-256} этого представления.
+ */
+public record BlockHeader(long index, Instant timestamp, Hash previousHash, Hash merkleRoot, long nonce) {
+    static final int VERSION = 1;
+    static final int SIZE = 1 + Long.BYTES + Long.BYTES + Integer.BYTES + 2 * Hash.BYTES + Long.BYTES;
+
+    public BlockHeader {
+        if (timestamp == null || previousHash == null || merkleRoot == null) {
+            throw new IllegalArgumentException("Block header fields must not be null");
+        }
+    }
+
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes)
+                .put((byte) VERSION)
+                .putLong(index)
+                .putLong(timestamp.getEpochSecond())
+                .putInt(timestamp.getNano());
+        previousHash.copyTo(bytes, buffer.position());
+        merkleRoot.copyTo(bytes, buffer.position() + Hash.BYTES);
+        buffer.position(buffer.position() + 2 * Hash.BYTES).putLong(nonce);
+        return bytes;
+    }
+
+    public Hash hash() {
+        return Hash.fromBytes(Hashing.sha256().hashBytes(toBytes()).asBytes());
+    }
+}
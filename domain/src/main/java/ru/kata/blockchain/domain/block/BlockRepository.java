@@ -1,7 +1,10 @@
 package ru.kata.blockchain.domain.block;
 
+import ru.kata.blockchain.domain.vo.Hash;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс репозитория для хранения и доступа к блокам блокчейна.
@@ -14,7 +17,18 @@ public interface BlockRepository {
     void save(Block block);
 
     /**
-     * Возвращает текущую цепочку блоков
+     * Атомарно добавляет блок, если он продолжает последний блок цепочки (compare-and-append): его
+     * {@code previousHash} равен хэшу последнего блока, а номер на единицу больше. Проверка и добавление
+     * выполняются в том же порядке, в каком блоки записываются, поэтому из параллельных блоков на одной высоте
+     * добавляется ровно один. В пустую цепочку добавляется любой блок — первый блок проверяет вызывающий.
+     *
+     * @return {@code true}, если блок добавлен; {@code false}, если цепочка уже продолжена другим блоком
+     */
+    boolean saveIfNext(Block block);
+
+    /**
+     * Возвращает текущую цепочку блоков: неизменяемый список блоков, сохранённых на момент вызова.
+     * Блоки, добавленные позже, в него не попадают, поэтому его можно обходить без блокировки.
      */
     List<Block> findAll();
 
@@ -22,4 +36,47 @@ public interface BlockRepository {
      * Возвращает последний добавленный блок.
      */
     Optional<Block> findLatest();
+
+    /**
+     * Возвращает блок с заданным номером ({@link Block#index()}) без перебора цепочки.
+     */
+    Optional<Block> findByIndex(long index);
+
+    /**
+     * Возвращает блок с заданным хэшем без перебора цепочки.
+     */
+    Optional<Block> findByHash(Hash hash);
+
+    /**
+     * Возвращает блоки с номерами из полуинтервала {@code [fromIndex, toIndex)} по возрастанию номера.
+     * Номера, которых нет в цепочке, пропускаются.
+     *
+     * @throws IllegalArgumentException если {@code fromIndex > toIndex}
+     */
+    List<Block> findRange(long fromIndex, long toIndex);
+
+    /**
+     * Передаёт {@code consumer} по возрастанию номера блоки от {@code fromIndex} до последнего блока на момент вызова,
+     * читая их через {@link #findRange} пачками по {@code batchSize}: в памяти одновременно не больше одной пачки.
+     * Так состояние, построенное по цепочке, дочитывает блоки выше своей высоты.
+     *
+     * @return номер последнего блока, до которого дочитана цепочка; {@code fromIndex - 1}, если блоков выше нет
+     */
+    default long forEachFrom(long fromIndex, int batchSize, Consumer<Block> consumer) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        final long latest = findLatest().map(Block::index).orElse(-1L);
+        for (long from = fromIndex; from <= latest; from += batchSize) {
+            for (Block block : findRange(from, Math.min(latest + 1, from + batchSize))) {
+                consumer.accept(block);
+            }
+        }
+        return Math.max(latest, fromIndex - 1);
+    }
+
+    /**
+     * Подписывает слушателя на фиксацию новых блоков. Блоки, сохранённые до подписки, слушателю не передаются.
+     */
+    void addCommitListener(BlockCommitListener listener);
 }
@@ -0,0 +1,77 @@
+package ru.kata.blockchain.domain.block;
+
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.math.BigInteger;
+
+/**
+ * Цель сложности доказательства работы.
+ * <p>
+ * Цель — 256-битное число: блок считается добытым, если хэш его заголовка ({@link BlockHeader#hash()}),
+ * прочитанный как беззнаковое число big-endian, не больше цели. Чем меньше цель, тем больше попыток
+ * в среднем нужно перебрать: сложность {@link #difficulty(Hash)} — во сколько раз цель меньше {@link #MAX_TARGET}.
+ * <p>
+ * Цель пересчитывается по меткам времени блоков ({@link #retarget(Hash, long, long)}): если окно блоков
+ * добыто быстрее ожидаемого, цель уменьшается пропорционально, если медленнее — увеличивается,
+ * но не больше чем в {@value #MAX_ADJUSTMENT} раза за один пересчёт.
+ */
+public final class Difficulty {
+    public static final Hash MAX_TARGET = new Hash("f".repeat(64));
+    static final int MAX_ADJUSTMENT = 4;
+    private static final BigInteger MAX_TARGET_VALUE = toBigInteger(MAX_TARGET);
+
+    private Difficulty() {
+    }
+
+    /**
+     * Цель, при которой у хэша должно быть не меньше {@code leadingZeroBits} старших нулевых битов.
+     */
+    public static Hash target(int leadingZeroBits) {
+        if (leadingZeroBits < 0 || leadingZeroBits > 255) {
+            throw new IllegalArgumentException("Leading zero bits must be in [0, 255]: " + leadingZeroBits);
+        }
+        return fromBigInteger(MAX_TARGET_VALUE.shiftRight(leadingZeroBits));
+    }
+
+    /**
+     * Проверяет, что хэш заголовка удовлетворяет цели.
+     */
+    public static boolean meets(Hash hash, Hash target) {
+        return hash.compareTo(target) <= 0;
+    }
+
+    /**
+     * Новая цель после окна блоков, добытого за {@code actualMillis} при ожидаемых {@code expectedMillis}.
+     */
+    public static Hash retarget(Hash target, long actualMillis, long expectedMillis) {
+        if (expectedMillis <= 0) {
+            throw new IllegalArgumentException("Expected timespan must be positive: " + expectedMillis);
+        }
+        final long actual = Math.max(expectedMillis / MAX_ADJUSTMENT, Math.min(actualMillis, expectedMillis * MAX_ADJUSTMENT));
+        final BigInteger adjusted = toBigInteger(target)
+                .multiply(BigInteger.valueOf(Math.max(actual, 1)))
+                .divide(BigInteger.valueOf(expectedMillis))
+                .max(BigInteger.ONE)
+                .min(MAX_TARGET_VALUE);
+        return fromBigInteger(adjusted);
+    }
+
+    /**
+     * Сложность цели: ожидаемое число попыток на блок ({@code 1.0} для {@link #MAX_TARGET}).
+     */
+    public static double difficulty(Hash target) {
+        return MAX_TARGET_VALUE.doubleValue() / toBigInteger(target).doubleValue();
+    }
+
+    private static BigInteger toBigInteger(Hash hash) {
+        return new BigInteger(1, hash.toBytes());
+    }
+
+    private static Hash fromBigInteger(BigInteger value) {
+        final byte[] magnitude = value.toByteArray();
+        final byte[] bytes = new byte[Hash.BYTES];
+        final int length = Math.min(magnitude.length, Hash.BYTES);
+        System.arraycopy(magnitude, magnitude.length - length, bytes, Hash.BYTES - length, length);
+        return Hash.fromBytes(bytes);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.kata.blockchain.domain.block;
+
+import com.google.common.collect.ImmutableList;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Первый блок цепочки — одинаковый на всех узлах.
+ * <p>
+ * Genesis-блок имеет номер 0, метку времени {@link Instant#EPOCH}, не содержит транзакций, ссылается на нулевой
+ * хэш {@link #PREVIOUS_HASH} и имеет {@code nonce = 0}; его хэш — хэш такого заголовка ({@link BlockHeader#hash()}).
+ * Блок не добывается, поэтому цель сложности к нему не применяется: узел принимает в пустую цепочку
+ * только блок, равный {@link #create()}.
+ */
+public final class GenesisBlock {
+    public static final Hash PREVIOUS_HASH = new Hash("0".repeat(64));
+    public static final Instant TIMESTAMP = Instant.EPOCH;
+
+    private static final Block BLOCK = new Block(0, TIMESTAMP, ImmutableList.of(), PREVIOUS_HASH, 0,
+            new BlockHeader(0, TIMESTAMP, PREVIOUS_HASH, MerkleTree.root(List.of()), 0).hash());
+
+    private GenesisBlock() {
+    }
+
+    public static Block create() {
+        return BLOCK;
+    }
+
+    /**
+     * Проверяет, что блок совпадает с genesis-блоком сети.
+     */
+    public static boolean isGenesis(Block block) {
+        return BLOCK.equals(block);
+    }
+}
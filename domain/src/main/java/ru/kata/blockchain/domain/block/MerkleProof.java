@@ -0,0 +1,68 @@
+package ru.kata.blockchain.domain.block;
+
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.util.List;
+
+/**
+ * Доказательство включения транзакции в блок (ветвь дерева Меркла, см. {@link MerkleTree}).
+ * <p>
+ * Поля:
+ * - {@code position} — позиция транзакции в блоке,
+ * - {@code leafCount} — число транзакций в блоке,
+ * - {@code branch} — соседние узлы на пути от листа к корню, снизу вверх, с указанием стороны соседа.
+ * <p>
+ * Клиенту достаточно значения листа ({@link MerkleTree#transactionLeaf(Hash, Hash)} из TxId и wtxId), ветви
+ * и корня Меркла из заголовка блока: {@link #verify(Hash, Hash)} пересчитывает корень за {@code branch.size()} хеширований.
+ */
+public record MerkleProof(int position, int leafCount, List<Step> branch) {
+
+    public MerkleProof {
+        if (position < 0 || position >= leafCount || branch == null) {
+            throw new IllegalArgumentException("Invalid Merkle proof: position must be in [0, leafCount) and branch must not be null");
+        }
+        branch = List.copyOf(branch);
+    }
+
+    /**
+     * Корень, который получается из листа со значением {@code leaf} и этой ветви.
+     */
+    public Hash computeRoot(Hash leaf) {
+        Hash node = MerkleTree.leafHash(leaf);
+        for (Step step : branch) {
+            if (step.side() == Side.LEFT) {
+                node = MerkleTree.nodeHash(step.hash(), node);
+            } else {
+                node = MerkleTree.nodeHash(node, step.hash());
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Проверяет, что лист со значением {@code leaf} входит в дерево с корнем {@code merkleRoot}.
+     */
+    public boolean verify(Hash leaf, Hash merkleRoot) {
+        return computeRoot(leaf).equals(merkleRoot);
+    }
+
+    /**
+     * Сторона, с которой соседний узел присоединяется к текущему.
+     */
+    public enum Side {
+        LEFT,
+        RIGHT
+    }
+
+    /**
+     * Шаг ветви: соседний узел и его сторона.
+     */
+    public record Step(Hash hash, Side side) {
+
+        public Step {
+            if (hash == null || side == null) {
+                throw new IllegalArgumentException("Merkle proof step fields must not be null");
+            }
+        }
+    }
+}
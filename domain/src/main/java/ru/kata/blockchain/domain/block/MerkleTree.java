@@ -0,0 +1,210 @@
+package ru.kata.blockchain.domain.block;
+
+import com.google.common.hash.Hashing;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Дерево Меркла над транзакциями блока.
+ * <p>
+ * Значение листа — {@link #transactionLeaf(Hash, Hash)}: оно фиксирует и TxId, и wtxId (хэш полной сериализации
+ * транзакции с подписью и открытым ключом), поэтому корень, а с ним и хэш блока, меняется при подмене подписи или ключа,
+ * хотя TxId остаётся прежним.
+ * <p>
+ * Построение совпадает с RFC 6962: лист — {@code SHA-256(0x00 || leaf)}, узел — {@code SHA-256(0x01 || left || right)},
+ * непарный узел уровня поднимается на следующий уровень без изменений; корень пустого дерева — {@code SHA-256("")}.
+ * Разные префиксы листа и узла не дают выдать внутренний узел за транзакцию.
+ * <p>
+ * {@link #build(List)} строит дерево по уровням и хранит их все, поэтому доказательство включения
+ * ({@link #proof(int)}) собирается из готовых узлов без повторного хеширования. Уровни от {@value #PARALLEL_THRESHOLD}
+ * узлов хешируются параллельно в общем {@link java.util.concurrent.ForkJoinPool}. {@link Builder} считает тот же корень
+ * инкрементально: хранит корни полных поддеревьев (по одному на уровень), поэтому добавление транзакции
+ * стоит в среднем два хеширования, а не пересчёт всего дерева.
+ */
+public final class MerkleTree {
+    static final int PARALLEL_THRESHOLD = 4096;
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+    private static final Hash EMPTY_ROOT = Hash.fromBytes(Hashing.sha256().hashBytes(new byte[0]).asBytes());
+
+    /**
+     * Уровни дерева: {@code levels[0]} — хэши листьев, последний уровень — корень. У пустого дерева уровней нет.
+     */
+    private final Hash[][] levels;
+
+    private MerkleTree(Hash[][] levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Строит дерево над значениями листьев в заданном порядке.
+     */
+    public static MerkleTree build(List<Hash> leaves) {
+        if (leaves.isEmpty()) {
+            return new MerkleTree(new Hash[0][]);
+        }
+        final List<Hash[]> levels = new ArrayList<>();
+        Hash[] level = mapLevel(leaves.size(), i -> leafHash(leaves.get(i)));
+        levels.add(level);
+        while (level.length > 1) {
+            final Hash[] current = level;
+            level = mapLevel((current.length + 1) / 2, i -> parent(current, i));
+            levels.add(level);
+        }
+        return new MerkleTree(levels.toArray(new Hash[0][]));
+    }
+
+    /**
+     * Корень дерева над значениями листьев в заданном порядке.
+     */
+    public static Hash root(List<Hash> leaves) {
+        return build(leaves).root();
+    }
+
+    public Hash root() {
+        if (levels.length == 0) {
+            return EMPTY_ROOT;
+        }
+        return levels[levels.length - 1][0];
+    }
+
+    /**
+     * Число листьев (транзакций).
+     */
+    public int size() {
+        if (levels.length == 0) {
+            return 0;
+        }
+        return levels[0].length;
+    }
+
+    /**
+     * Доказательство включения транзакции с позицией {@code position}: соседние узлы на пути от листа к корню.
+     * На уровне, где узел непарный и поднимается без изменений, шага нет.
+     *
+     * @throws IllegalArgumentException если позиции нет в дереве
+     */
+    public MerkleProof proof(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IllegalArgumentException("Position " + position + " is out of range [0, " + size() + ")");
+        }
+        final List<MerkleProof.Step> branch = new ArrayList<>();
+        int index = position;
+        for (int level = 0; level < levels.length - 1; level++) {
+            final Hash[] nodes = levels[level];
+            if ((index & 1) == 1) {
+                branch.add(new MerkleProof.Step(nodes[index - 1], MerkleProof.Side.LEFT));
+            } else if (index + 1 < nodes.length) {
+                branch.add(new MerkleProof.Step(nodes[index + 1], MerkleProof.Side.RIGHT));
+            }
+            index >>= 1;
+        }
+        return new MerkleProof(position, size(), branch);
+    }
+
+    /**
+     * Значение листа транзакции: {@code SHA-256(txId || wtxId)}. TxId подписывается и не зависит от подписи,
+     * wtxId — хэш канонической сериализации транзакции вместе с подписью и открытым ключом.
+     */
+    public static Hash transactionLeaf(Hash txId, Hash wtxId) {
+        final byte[] input = new byte[2 * Hash.BYTES];
+        txId.copyTo(input, 0);
+        wtxId.copyTo(input, Hash.BYTES);
+        return sha256(input);
+    }
+
+    public static Hash leafHash(Hash leaf) {
+        final byte[] input = new byte[1 + Hash.BYTES];
+        input[0] = LEAF_PREFIX;
+        leaf.copyTo(input, 1);
+        return sha256(input);
+    }
+
+    public static Hash nodeHash(Hash left, Hash right) {
+        final byte[] input = new byte[1 + 2 * Hash.BYTES];
+        input[0] = NODE_PREFIX;
+        left.copyTo(input, 1);
+        right.copyTo(input, 1 + Hash.BYTES);
+        return sha256(input);
+    }
+
+    private static Hash parent(Hash[] level, int index) {
+        final int left = 2 * index;
+        if (left + 1 == level.length) {
+            return level[left];
+        }
+        return nodeHash(level[left], level[left + 1]);
+    }
+
+    private static Hash[] mapLevel(int size, IntFunction<Hash> node) {
+        final Hash[] level = new Hash[size];
+        IntStream range = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(i -> level[i] = node.apply(i));
+        return level;
+    }
+
+    private static Hash sha256(byte[] input) {
+        return Hash.fromBytes(Hashing.sha256().hashBytes(input).asBytes());
+    }
+
+    /**
+     * Инкрементальный расчёт корня: листья транзакций добавляются по одному через {@link #add(Hash)},
+     * корень можно получить в любой момент. Не потокобезопасен.
+     */
+    public static final class Builder {
+        private final List<Hash> subtreeRoots = new ArrayList<>();
+        private int size;
+
+        /**
+         * Добавляет значение листа следующей транзакции блока.
+         */
+        public Builder add(Hash leaf) {
+            Hash node = leafHash(leaf);
+            int level = 0;
+            while (level < subtreeRoots.size() && subtreeRoots.get(level) != null) {
+                node = nodeHash(subtreeRoots.get(level), node);
+                subtreeRoots.set(level, null);
+                level++;
+            }
+            if (level == subtreeRoots.size()) {
+                subtreeRoots.add(node);
+            } else {
+                subtreeRoots.set(level, node);
+            }
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Корень дерева над добавленными листьями; совпадает с {@link MerkleTree#root(List)} для того же списка.
+         */
+        public Hash root() {
+            Hash root = null;
+            for (Hash subtreeRoot : subtreeRoots) {
+                if (subtreeRoot == null) {
+                    continue;
+                }
+                if (root == null) {
+                    root = subtreeRoot;
+                } else {
+                    root = nodeHash(subtreeRoot, root);
+                }
+            }
+            if (root == null) {
+                return EMPTY_ROOT;
+            }
+            return root;
+        }
+    }
+}
@@ -3,9 +3,29 @@ package ru.kata.blockchain.domain.crypto;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.List;
 
 public interface CryptoService {
     KeyPair generateKeyPair();
     byte[] sign(byte[] data, PrivateKey privateKey);
     boolean verify(byte[] data, byte[] signature, PublicKey publicKey);
+
+    /**
+     * Проверяет подписи пакета данных. Результат {@code i} относится к элементу {@code i} пакета;
+     * подпись, которую не удалось разобрать или проверить, считается неверной.
+     * <p>
+     * Реализация по умолчанию проверяет подписи по очереди в вызывающем потоке.
+     */
+    default boolean[] verifyBatch(List<SignedData> batch) {
+        final boolean[] results = new boolean[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            final SignedData item = batch.get(i);
+            try {
+                results[i] = verify(item.data(), item.signature(), item.publicKey());
+            } catch (RuntimeException e) {
+                results[i] = false;
+            }
+        }
+        return results;
+    }
 }
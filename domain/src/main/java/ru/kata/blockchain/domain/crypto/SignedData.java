@@ -0,0 +1,14 @@
+package ru.kata.blockchain.domain.crypto;
+
+import java.security.PublicKey;
+
+/**
+ * Подписанные данные для пакетной проверки подписи ({@link CryptoService#verifyBatch}).
+ * <p>
+ * Поля:
+ * - {@code data} — подписанные данные,
+ * - {@code signature} — подпись,
+ * - {@code publicKey} — открытый ключ, которым проверяется подпись.
+ */
+public record SignedData(byte[] data, byte[] signature, PublicKey publicKey) {
+}
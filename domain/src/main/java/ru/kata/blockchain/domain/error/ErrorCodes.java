@@ -17,8 +17,9 @@ package ru.kata.blockchain.domain.error;
  *     <li><b>TX_TOO_LARGE</b> (1006): Размер сериализованной транзакции превышает лимит;</li>
  *     <li><b>PUBLIC_KEY_MISMATCH</b> (1007): Адрес отправителя не соответствует публичному ключу;</li>
  *     <li><b>INVALID_SIGNATURE</b> (1008): Цифровая подпись транзакции неверна;</li>
- *     <li><b>DUPLICATE_TRANSACTION</b> (1009): Транзакция уже присутствует в мемпуле;</li>
- *     <li><b>INSUFFICIENT_FUNDS</b> (1010): Недостаточно средств на счету отправителя.</li>
+ *     <li><b>DUPLICATE_TRANSACTION</b> (1009): Транзакция уже присутствует в мемпуле или подтверждена в цепочке;</li>
+ *     <li><b>INSUFFICIENT_FUNDS</b> (1010): Недостаточно средств на счету отправителя;</li>
+ *     <li><b>MEMPOOL_FULL</b> (1011): Мемпул заполнен, транзакция не принята.</li>
  * </ul>
  * <p>
  * Поля:
@@ -47,7 +48,8 @@ public enum ErrorCodes {
     PUBLIC_KEY_MISMATCH(1007, "Sender address does not match public key"),
     INVALID_SIGNATURE(1008, "Invalid transaction signature"),
     DUPLICATE_TRANSACTION(1009, "Transaction already exists in mempool"),
-    INSUFFICIENT_FUNDS(1010, "Insufficient funds for transaction");
+    INSUFFICIENT_FUNDS(1010, "Insufficient funds for transaction"),
+    MEMPOOL_FULL(1011, "Mempool is full");
 
     private final int code;
     private final String message;
@@ -0,0 +1,17 @@
+package ru.kata.blockchain.domain.exceptions;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class ChainVerificationException extends CryptoException {
+
+    public ChainVerificationException(String message) {
+        super(message);
+        log.error("ChainVerificationException occurred: {}", message);
+    }
+
+    public ChainVerificationException(String message, Throwable cause) {
+        super(message, cause);
+        log.error("ChainVerificationException occurred: {}", message, this);
+    }
+}
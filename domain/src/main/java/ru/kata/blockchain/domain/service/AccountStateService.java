@@ -2,7 +2,11 @@ package ru.kata.blockchain.domain.service;
 
 import ru.kata.blockchain.domain.vo.WalletAddress;
 
+/**
+ * Состояние счетов: баланс кошелька по подтверждённым блокам и сумма его неподтверждённых исходящих переводов.
+ * Суммы выражены в тех же целых единицах, что и {@link ru.kata.blockchain.domain.vo.Amount}.
+ */
 public interface AccountStateService {
-    double getBalance(WalletAddress walletAddress);
-    double getPendingAmount(WalletAddress walletAddress);
+    long getBalance(WalletAddress walletAddress);
+    long getPendingAmount(WalletAddress walletAddress);
 }
@@ -0,0 +1,11 @@
+package ru.kata.blockchain.domain.service;
+
+/**
+ * Результат добавления транзакции в мемпул, см. {@link MempoolService#add}.
+ */
+public enum MempoolAddResult {
+    ADDED,
+    DUPLICATE,
+    INSUFFICIENT_FUNDS,
+    FULL
+}
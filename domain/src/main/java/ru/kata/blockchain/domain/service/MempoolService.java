@@ -1,5 +1,60 @@
 package ru.kata.blockchain.domain.service;
 
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Пул неподтверждённых транзакций (мемпул), индексированный по TxId.
+ */
 public interface MempoolService {
     boolean isMempoolContainsTxId(String txId);
+
+    /**
+     * Добавляет проверенную транзакцию в пул и резервирует её сумму за отправителем.
+     * Проверка {@code confirmedBalance - ожидающие переводы >= сумма} и резервирование атомарны относительно
+     * других добавлений и удалений транзакций того же отправителя.
+     *
+     * @param confirmedBalance баланс отправителя по подтверждённым блокам; читается под блокировкой отправителя
+     * @return {@link MempoolAddResult#ADDED}; {@link MempoolAddResult#DUPLICATE}, если TxId уже в пуле;
+     * {@link MempoolAddResult#INSUFFICIENT_FUNDS}, если сумма превышает доступный остаток отправителя;
+     * {@link MempoolAddResult#FULL}, если превышен лимит пула по числу транзакций или объёму
+     */
+    MempoolAddResult add(String txId, Transaction transaction, LongSupplier confirmedBalance);
+
+    /**
+     * Удаляет транзакцию из пула.
+     *
+     * @return {@code true}, если транзакция была в пуле
+     */
+    boolean remove(String txId);
+
+    /**
+     * Удаляет из пула транзакции зафиксированного блока по их TxId, уже посчитанным при проверке блока.
+     * Вызывается после того, как блок применён к балансам, чтобы сумма транзакции не выпадала одновременно
+     * из баланса и из ожидающих переводов.
+     */
+    void removeCommitted(List<Hash> txIds);
+
+    /**
+     * Сумма исходящих переводов адреса по транзакциям в пуле.
+     */
+    long getPendingAmount(WalletAddress sender);
+
+    /**
+     * Транзакции пула в порядке поступления, не более {@code maxCount} штук и {@code maxBytes} байт
+     * сериализованного представления. Первая транзакция возвращается, даже если она одна больше {@code maxBytes}.
+     * Транзакции из пула не удаляются.
+     */
+    List<Transaction> getPendingTransactions(int maxCount, long maxBytes);
+
+    int size();
+
+    /**
+     * Суммарный размер сериализованного представления транзакций пула в байтах.
+     */
+    long sizeInBytes();
 }
@@ -0,0 +1,20 @@
+package ru.kata.blockchain.domain.service;
+
+import ru.kata.blockchain.domain.block.BlockHeader;
+
+import java.util.Optional;
+
+/**
+ * Добыча блока доказательством работы: перебор {@code nonce} заголовка до хэша, удовлетворяющего цели сложности
+ * ({@link ru.kata.blockchain.domain.block.Difficulty}).
+ */
+public interface MiningService {
+
+    /**
+     * Подбирает {@code nonce} для заголовка {@code template}; остальные поля заголовка не меняются.
+     *
+     * @return заголовок с найденным {@code nonce} или пусто, если добыча отменена: в цепочку уже добавлен
+     * блок с тем же или большим номером либо сервис остановлен
+     */
+    Optional<BlockHeader> mine(BlockHeader template);
+}
@@ -0,0 +1,11 @@
+package ru.kata.blockchain.domain.service;
+
+import ru.kata.blockchain.domain.vo.Hash;
+
+/**
+ * Цель сложности доказательства работы ({@link ru.kata.blockchain.domain.block.Difficulty}),
+ * которой должен удовлетворять хэш заголовка следующего блока цепочки.
+ */
+public interface MiningTargetService {
+    Hash currentTarget();
+}
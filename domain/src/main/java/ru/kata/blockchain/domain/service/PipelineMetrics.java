@@ -0,0 +1,44 @@
+package ru.kata.blockchain.domain.service;
+
+import ru.kata.blockchain.domain.error.ErrorCodes;
+
+/**
+ * Порт метрик конвейера транзакций: длительности этапов ({@link PipelineStage}) и отклонения по кодам ошибок.
+ * <p>
+ * Вызывается на горячем пути каждой транзакции, поэтому реализация не должна блокироваться и выбрасывать исключений.
+ */
+public interface PipelineMetrics {
+    /**
+     * Реализация, которая ничего не публикует: для тестов и бенчмарков, где метрики не нужны.
+     */
+    PipelineMetrics NOOP = new PipelineMetrics() {
+        @Override
+        public void recordStage(PipelineStage stage, long nanos) {
+        }
+
+        @Override
+        public void recordRejection(ErrorCodes code) {
+        }
+    };
+
+    /**
+     * Записывает длительность этапа в наносекундах.
+     */
+    void recordStage(PipelineStage stage, long nanos);
+
+    /**
+     * Учитывает транзакцию, отклонённую с кодом {@code code}.
+     */
+    void recordRejection(ErrorCodes code);
+
+    /**
+     * Записывает длительность этапа, начатого в {@code startNanos} ({@link System#nanoTime()}).
+     *
+     * @return текущее значение {@link System#nanoTime()} — начало следующего этапа
+     */
+    default long recordSince(PipelineStage stage, long startNanos) {
+        final long now = System.nanoTime();
+        recordStage(stage, now - startNanos);
+        return now;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.kata.blockchain.domain.service;
+
+/**
+ * Этап обработки транзакции и блока, длительность которого публикуется через {@link PipelineMetrics}.
+ * <p>
+ * Этапы {@code CHECK_*} — отдельные проверки {@code ValidateTransactionUseCase}; {@link #VALIDATE} — проверка целиком.
+ */
+public enum PipelineStage {
+    CREATE("create"),
+    SIGN("sign"),
+    VALIDATE("validate"),
+    CHECK_ADDRESS("check.address"),
+    CHECK_FORBIDDEN_ADDRESS("check.forbidden-address"),
+    CHECK_AMOUNT("check.amount"),
+    CHECK_TX_SIZE("check.tx-size"),
+    CHECK_SIGNATURE("check.signature"),
+    CHECK_SIGNATURE_BATCH("check.signature-batch"),
+    CHECK_BALANCE("check.balance"),
+    CHECK_DUPLICATE("check.duplicate"),
+    BLOCK_HASH("block.hash"),
+    BLOCK_SAVE("block.save");
+
+    private final String tag;
+
+    PipelineStage(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Значение тега {@code stage} метрики этапа.
+     */
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.kata.blockchain.domain.transaction;
+
+import ru.kata.blockchain.domain.vo.Hash;
+
+/**
+ * Подтверждённая транзакция вместе с её положением в цепочке.
+ * <p>
+ * Поля:
+ * - {@code txId} — идентификатор транзакции,
+ * - {@code transaction} — сама транзакция,
+ * - {@code blockIndex} и {@code blockHash} — блок, в который она включена,
+ * - {@code position} — позиция транзакции в блоке,
+ * - {@code confirmations} — глубина подтверждения: 1 для транзакции в последнем блоке, далее +1 за каждый следующий блок.
+ */
+public record ConfirmedTransaction(String txId, Transaction transaction, long blockIndex, Hash blockHash, int position,
+                                   long confirmations) {
+}
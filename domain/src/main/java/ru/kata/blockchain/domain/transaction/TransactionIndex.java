@@ -0,0 +1,29 @@
+package ru.kata.blockchain.domain.transaction;
+
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Индекс подтверждённых транзакций: по идентификатору транзакции (TxId) находит блок и позицию в нём
+ * без перебора цепочки.
+ * <p>
+ * TxId — хэш {@code (from, to, amount)}, поэтому одинаковые переводы имеют один TxId. Повтор TxId в цепочке
+ * запрещён: транзакция, TxId которой уже есть в индексе, не принимается в мемпул и не включается в блок.
+ */
+public interface TransactionIndex {
+
+    /**
+     * Возвращает положение подтверждённой транзакции или пустой {@code Optional}, если такой транзакции в цепочке нет.
+     */
+    Optional<TransactionLocation> find(String txId);
+
+    /**
+     * Индексирует блок, только что добавленный в цепочку, по уже посчитанным TxId его транзакций
+     * (в порядке транзакций блока). Уже проиндексированный блок пропускается; если перед блоком есть
+     * непроиндексированные, они дочитываются из цепочки.
+     */
+    void indexBlock(Block block, List<Hash> txIds);
+}
@@ -0,0 +1,17 @@
+package ru.kata.blockchain.domain.transaction;
+
+/**
+ * Положение подтверждённой транзакции в цепочке.
+ * <p>
+ * Поля:
+ * - {@code blockIndex} — номер блока, в который включена транзакция,
+ * - {@code position} — порядковый номер транзакции в списке транзакций блока (с нуля).
+ */
+public record TransactionLocation(long blockIndex, int position) {
+
+    public TransactionLocation {
+        if (blockIndex < 0 || position < 0) {
+            throw new IllegalArgumentException("Transaction location must not be negative");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.kata.blockchain.domain.transaction;
+
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.MerkleProof;
+import ru.kata.blockchain.domain.block.MerkleTree;
+import ru.kata.blockchain.domain.vo.Hash;
+
+/**
+ * Доказательство того, что транзакция подтверждена, для лёгкого клиента, который не загружает цепочку.
+ * <p>
+ * Поля:
+ * - {@code txId} — идентификатор транзакции,
+ * - {@code wtxId} — хэш полной сериализации транзакции с подписью и открытым ключом, вторая половина листа Меркла,
+ * - {@code header} — заголовок блока, в который она включена,
+ * - {@code blockHash} — хэш этого блока,
+ * - {@code proof} — ветвь дерева Меркла от транзакции до корня из заголовка,
+ * - {@code confirmations} — глубина подтверждения на момент ответа.
+ * <p>
+ * {@link #verify()} проверяет, что заголовок даёт {@code blockHash} и что ветвь ведёт от листа {@code (txId, wtxId)}
+ * к его корню Меркла.
+ * Принадлежность самого блока цепочке клиент проверяет по цепочке заголовков.
+ */
+public record TransactionProof(String txId, Hash wtxId, BlockHeader header, Hash blockHash, MerkleProof proof, long confirmations) {
+
+    public boolean verify() {
+        return header.hash().equals(blockHash)
+                && proof.verify(MerkleTree.transactionLeaf(new Hash(txId), wtxId), header.merkleRoot());
+    }
+}
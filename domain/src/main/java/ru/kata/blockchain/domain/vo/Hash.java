@@ -1,28 +1,227 @@
 package ru.kata.blockchain.domain.vo;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 /**
- * Представляет хэш — неизменяемое строковое значение, состоящее из 64 шестнадцатеричных символов.
+ * Представляет хэш — неизменяемое 256-битное значение, которое записывается 64 шестнадцатеричными символами.
  * Хэш используется как уникальный идентификатор блока, транзакции или любого другого объекта,
  * чья неизменность должна быть подтверждена криптографически.
  * <p>
- * Поля:
- * {@code HEX_PATTERN} - регулярное выражение для проверки валидности хэша: 64 символа в шестнадцатеричном формате [0-9a-f]
- * {@code value} - строковое представление хэша
+ * Значение хранится как 32 байта в четырёх {@code long} (big-endian), поэтому сравнение хэшей — четыре сравнения
+ * чисел без выделения памяти, а {@link #hashCode()} вычисляется один раз при создании. Шестнадцатеричная строка
+ * разбирается и строится по таблицам, без регулярного выражения; допускаются только символы [0-9a-f].
+ * <p>
+ * Для совместимости с прежним представлением (record над строкой):
+ * <ul>
+ *     <li>{@link #value()} возвращает шестнадцатеричную строку, а в JSON хэш по-прежнему пишется как
+ *     {@code {"value": "..."}};</li>
+ *     <li>{@link #hashCode()} равен {@code value().hashCode()} — от него зависят уже посчитанные хэши блоков;</li>
+ *     <li>{@link #toString()} возвращает {@code Hash[value=...]}.</li>
+ * </ul>
+ * <p>
+ * Хэши упорядочены как 256-битные беззнаковые числа ({@link #compareTo(Hash)}) — так хэш блока сравнивается
+ * с целью сложности доказательства работы.
  * <p>
  * Этот класс иммутабелен: после создания значение нельзя изменить.
  */
-public record Hash(String value) {
+public final class Hash implements Comparable<Hash> {
+    public static final int BYTES = 32;
     static Pattern HEX_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final int HEX_LENGTH = BYTES * 2;
+    private static final int HEX_PER_LONG = 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = hexValues();
+    private static final String INVALID_FORMAT = "Invalid hash format: value must not be null or must be 64 hex characters [0-9a-f]";
+
+    private final long word0;
+    private final long word1;
+    private final long word2;
+    private final long word3;
+    private final int hashCode;
+
+    @JsonCreator
+    public Hash(@JsonProperty("value") String value) {
+        if (value == null || value.length() != HEX_LENGTH) {
+            throw new IllegalArgumentException(INVALID_FORMAT);
+        }
+        this.word0 = parseWord(value, 0);
+        this.word1 = parseWord(value, HEX_PER_LONG);
+        this.word2 = parseWord(value, 2 * HEX_PER_LONG);
+        this.word3 = parseWord(value, 3 * HEX_PER_LONG);
+        this.hashCode = value.hashCode();
+    }
 
-    public Hash {
-        if (value == null || !HEX_PATTERN.matcher(value).matches()) {
-            throw new IllegalArgumentException("Invalid hash format: value must not be null or must be 64 hex characters [0-9a-f]");
+    private Hash(long word0, long word1, long word2, long word3) {
+        this.word0 = word0;
+        this.word1 = word1;
+        this.word2 = word2;
+        this.word3 = word3;
+        this.hashCode = hexHashCode();
+    }
+
+    /**
+     * Создаёт хэш из 32 байт (например, результата SHA-256) без промежуточной строки.
+     */
+    public static Hash fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != BYTES) {
+            throw new IllegalArgumentException("Invalid hash length: expected " + BYTES + " bytes");
         }
+        return new Hash(readWord(bytes, 0), readWord(bytes, Long.BYTES), readWord(bytes, 2 * Long.BYTES),
+                readWord(bytes, 3 * Long.BYTES));
+    }
+
+    /**
+     * Проверяет, что строка — 64 шестнадцатеричных символа [0-9a-f].
+     */
+    public static boolean isValidHex(CharSequence value) {
+        if (value == null || value.length() != HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HEX_LENGTH; i++) {
+            if (hexValue(value.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static Pattern getHexPattern() {
         return HEX_PATTERN;
     }
-}
\ No newline at end of file
+
+    /**
+     * Шестнадцатеричное представление хэша (64 символа [0-9a-f]).
+     */
+    @JsonProperty("value")
+    public String value() {
+        final char[] chars = new char[HEX_LENGTH];
+        writeWord(chars, 0, word0);
+        writeWord(chars, HEX_PER_LONG, word1);
+        writeWord(chars, 2 * HEX_PER_LONG, word2);
+        writeWord(chars, 3 * HEX_PER_LONG, word3);
+        return new String(chars);
+    }
+
+    /**
+     * Значение хэша в виде 32 байт.
+     */
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[BYTES];
+        copyTo(bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Записывает 32 байта хэша в {@code target}, начиная с {@code offset}.
+     */
+    public void copyTo(byte[] target, int offset) {
+        writeWord(target, offset, word0);
+        writeWord(target, offset + Long.BYTES, word1);
+        writeWord(target, offset + 2 * Long.BYTES, word2);
+        writeWord(target, offset + 3 * Long.BYTES, word3);
+    }
+
+    /**
+     * Сравнивает хэши как 256-битные беззнаковые числа big-endian (тот же порядок, что у шестнадцатеричных строк).
+     */
+    @Override
+    public int compareTo(Hash other) {
+        int result = Long.compareUnsigned(word0, other.word0);
+        if (result == 0) {
+            result = Long.compareUnsigned(word1, other.word1);
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(word2, other.word2);
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(word3, other.word3);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof Hash hash
+                && word0 == hash.word0 && word1 == hash.word1 && word2 == hash.word2 && word3 == hash.word3;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "Hash[value=" + value() + "]";
+    }
+
+    private static long parseWord(String value, int offset) {
+        long word = 0;
+        for (int i = offset; i < offset + HEX_PER_LONG; i++) {
+            final int digit = hexValue(value.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException(INVALID_FORMAT);
+            }
+            word = (word << 4) | digit;
+        }
+        return word;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= HEX_VALUES.length) {
+            return -1;
+        }
+        return HEX_VALUES[c];
+    }
+
+    private static void writeWord(char[] chars, int offset, long word) {
+        for (int i = HEX_PER_LONG - 1; i >= 0; i--) {
+            chars[offset + HEX_PER_LONG - 1 - i] = HEX_DIGITS[(int) (word >>> (i * 4)) & 0xF];
+        }
+    }
+
+    private static long readWord(byte[] bytes, int offset) {
+        long word = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            word = (word << 8) | (bytes[i] & 0xFF);
+        }
+        return word;
+    }
+
+    private static void writeWord(byte[] bytes, int offset, long word) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[offset + i] = (byte) (word >>> (56 - i * 8));
+        }
+    }
+
+    /**
+     * {@code String.hashCode()} шестнадцатеричного представления, посчитанный без создания строки.
+     */
+    private int hexHashCode() {
+        return hashWord(hashWord(hashWord(hashWord(0, word0), word1), word2), word3);
+    }
+
+    private static int hashWord(int hash, long word) {
+        int result = hash;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            result = 31 * result + HEX_DIGITS[(int) (word >>> shift) & 0xF];
+        }
+        return result;
+    }
+
+    private static byte[] hexValues() {
+        final byte[] values = new byte['f' + 1];
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < HEX_DIGITS.length; i++) {
+            values[HEX_DIGITS[i]] = (byte) i;
+        }
+        return values;
+    }
+}
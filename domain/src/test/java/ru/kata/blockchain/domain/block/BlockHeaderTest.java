@@ -0,0 +1,45 @@
+package ru.kata.blockchain.domain.block;
+
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockHeaderTest {
+    private static final Hash PREVIOUS = new Hash("ab".repeat(32));
+    private static final Hash ROOT = new Hash("cd".repeat(32));
+
+    @Test
+    void shouldSerializeCanonicalLayout() {
+        final BlockHeader header = new BlockHeader(5, Instant.ofEpochSecond(1_700_000_000L, 7), PREVIOUS, ROOT, 9);
+
+        final ByteBuffer bytes = ByteBuffer.wrap(header.toBytes());
+
+        assertEquals(BlockHeader.SIZE, bytes.remaining());
+        assertEquals(BlockHeader.VERSION, bytes.get());
+        assertEquals(5, bytes.getLong());
+        assertEquals(1_700_000_000L, bytes.getLong());
+        assertEquals(7, bytes.getInt());
+        final byte[] hash = new byte[Hash.BYTES];
+        bytes.get(hash);
+        assertEquals(PREVIOUS, Hash.fromBytes(hash));
+        bytes.get(hash);
+        assertEquals(ROOT, Hash.fromBytes(hash));
+        assertEquals(9, bytes.getLong());
+    }
+
+    @Test
+    void shouldChangeHashWhenAnyFieldChanges() {
+        final Instant timestamp = Instant.ofEpochSecond(1_700_000_000L);
+        final Hash hash = new BlockHeader(5, timestamp, PREVIOUS, ROOT, 9).hash();
+
+        assertEquals(hash, new BlockHeader(5, timestamp, PREVIOUS, ROOT, 9).hash());
+        assertNotEquals(hash, new BlockHeader(6, timestamp, PREVIOUS, ROOT, 9).hash());
+        assertNotEquals(hash, new BlockHeader(5, timestamp.plusNanos(1), PREVIOUS, ROOT, 9).hash());
+        assertNotEquals(hash, new BlockHeader(5, timestamp, ROOT, PREVIOUS, 9).hash());
+        assertNotEquals(hash, new BlockHeader(5, timestamp, PREVIOUS, ROOT, 10).hash());
+    }
+}
@@ -0,0 +1,37 @@
+package ru.kata.blockchain.domain.block;
+
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DifficultyTest {
+
+    @Test
+    void targetShouldRequireLeadingZeroBits() {
+        assertEquals(Difficulty.MAX_TARGET, Difficulty.target(0));
+        assertEquals(new Hash("0000" + "f".repeat(60)), Difficulty.target(16));
+        assertEquals(new Hash("07" + "f".repeat(62)), Difficulty.target(5));
+        assertEquals(65536.0, Difficulty.difficulty(Difficulty.target(16)), 0.001);
+    }
+
+    @Test
+    void hashShouldMeetTargetWhenNotAbove() {
+        final Hash target = Difficulty.target(8);
+
+        assertTrue(Difficulty.meets(new Hash("00" + "f".repeat(62)), target));
+        assertTrue(Difficulty.meets(new Hash("0".repeat(64)), target));
+        assertFalse(Difficulty.meets(new Hash("01" + "0".repeat(62)), target));
+    }
+
+    @Test
+    void retargetShouldFollowObservedTimespanWithinBounds() {
+        final Hash target = Difficulty.target(16);
+
+        assertEquals(Difficulty.target(17), Difficulty.retarget(target, 500, 1000));
+        assertEquals(Difficulty.target(18), Difficulty.retarget(target, 1, 1000));
+        assertEquals(2 * 65536.0 / 3, Difficulty.difficulty(Difficulty.retarget(target, 1500, 1000)), 1.0);
+        assertEquals(16384.0, Difficulty.difficulty(Difficulty.retarget(target, 1_000_000, 1000)), 0.001);
+        assertEquals(Difficulty.MAX_TARGET, Difficulty.retarget(Difficulty.target(1), 4000, 1000));
+    }
+}
@@ -0,0 +1,33 @@
+package ru.kata.blockchain.domain.block;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenesisBlockTest {
+
+    @Test
+    void genesisBlockShouldBeDeterministic() {
+        final Block genesis = GenesisBlock.create();
+
+        assertEquals(0, genesis.index());
+        assertEquals(Instant.EPOCH, genesis.timestamp());
+        assertTrue(genesis.transactions().isEmpty());
+        assertEquals(GenesisBlock.PREVIOUS_HASH, genesis.previousHash());
+        assertEquals(new BlockHeader(0, Instant.EPOCH, GenesisBlock.PREVIOUS_HASH, MerkleTree.root(List.of()), 0).hash(),
+                genesis.hash());
+    }
+
+    @Test
+    void onlyCanonicalGenesisShouldBeRecognized() {
+        final Block genesis = GenesisBlock.create();
+
+        assertTrue(GenesisBlock.isGenesis(new Block(0, Instant.EPOCH, ImmutableList.of(), genesis.previousHash(), 0, genesis.hash())));
+        assertFalse(GenesisBlock.isGenesis(new Block(0, Instant.EPOCH, ImmutableList.of(), genesis.previousHash(), 1, genesis.hash())));
+        assertFalse(GenesisBlock.isGenesis(new Block(0, Instant.now(), ImmutableList.of(), genesis.previousHash(), 0, genesis.hash())));
+    }
+}
@@ -0,0 +1,101 @@
+package ru.kata.blockchain.domain.block;
+
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerkleTreeTest {
+
+    @Test
+    void shouldFollowRfc6962Shape() {
+        final Hash a = txId(1);
+        final Hash b = txId(2);
+        final Hash c = txId(3);
+
+        assertEquals(MerkleTree.leafHash(a), MerkleTree.root(List.of(a)));
+        assertEquals(MerkleTree.nodeHash(MerkleTree.leafHash(a), MerkleTree.leafHash(b)), MerkleTree.root(List.of(a, b)));
+        assertEquals(MerkleTree.nodeHash(MerkleTree.nodeHash(MerkleTree.leafHash(a), MerkleTree.leafHash(b)), MerkleTree.leafHash(c)),
+                MerkleTree.root(List.of(a, b, c)));
+        assertEquals(new Hash("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"), MerkleTree.root(List.of()));
+    }
+
+    @Test
+    void incrementalBuilderShouldMatchBatchRootForEverySize() {
+        final List<Hash> txIds = new ArrayList<>();
+        final MerkleTree.Builder builder = new MerkleTree.Builder();
+        assertEquals(MerkleTree.root(txIds), builder.root());
+        for (int i = 0; i < 70; i++) {
+            txIds.add(txId(i));
+            builder.add(txId(i));
+
+            assertEquals(MerkleTree.root(txIds), builder.root(), "size " + txIds.size());
+        }
+        assertEquals(70, builder.size());
+    }
+
+    @Test
+    void parallelLevelsShouldGiveSameRootAsIncrementalBuilder() {
+        final List<Hash> txIds = new ArrayList<>();
+        final MerkleTree.Builder builder = new MerkleTree.Builder();
+        for (int i = 0; i < MerkleTree.PARALLEL_THRESHOLD * 2 + 3; i++) {
+            txIds.add(txId(i));
+            builder.add(txId(i));
+        }
+
+        assertEquals(builder.root(), MerkleTree.root(txIds));
+    }
+
+    @Test
+    void shouldDependOnTransactionOrder() {
+        assertNotEquals(MerkleTree.root(List.of(txId(1), txId(2))), MerkleTree.root(List.of(txId(2), txId(1))));
+    }
+
+    @Test
+    void transactionLeafShouldCommitToBothTxIdAndWtxId() {
+        final Hash leaf = MerkleTree.transactionLeaf(txId(1), txId(2));
+
+        assertNotEquals(leaf, MerkleTree.transactionLeaf(txId(1), txId(3)));
+        assertNotEquals(leaf, MerkleTree.transactionLeaf(txId(3), txId(2)));
+        assertNotEquals(leaf, MerkleTree.transactionLeaf(txId(2), txId(1)));
+    }
+
+    @Test
+    void proofShouldVerifyForEveryPosition() {
+        for (int size = 1; size <= 17; size++) {
+            final List<Hash> txIds = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                txIds.add(txId(i));
+            }
+            final MerkleTree tree = MerkleTree.build(txIds);
+            assertEquals(MerkleTree.root(txIds), tree.root());
+            for (int position = 0; position < size; position++) {
+                final MerkleProof proof = tree.proof(position);
+
+                assertTrue(proof.verify(txId(position), tree.root()), "size " + size + ", position " + position);
+                assertEquals(size, proof.leafCount());
+            }
+        }
+    }
+
+    @Test
+    void proofShouldNotVerifyOtherTransactionOrTamperedBranch() {
+        final List<Hash> txIds = List.of(txId(1), txId(2), txId(3), txId(4), txId(5));
+        final MerkleTree tree = MerkleTree.build(txIds);
+        final MerkleProof proof = tree.proof(2);
+        final List<MerkleProof.Step> tampered = new ArrayList<>(proof.branch());
+        tampered.set(0, new MerkleProof.Step(txId(9), tampered.get(0).side()));
+
+        assertTrue(proof.verify(txId(3), tree.root()));
+        assertFalse(proof.verify(txId(4), tree.root()));
+        assertFalse(new MerkleProof(2, 5, tampered).verify(txId(3), tree.root()));
+        assertThrows(IllegalArgumentException.class, () -> tree.proof(5));
+    }
+
+    private static Hash txId(long seed) {
+        return new Hash(String.format("%064x", seed));
+    }
+}
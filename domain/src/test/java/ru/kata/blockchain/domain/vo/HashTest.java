@@ -1,7 +1,11 @@
 package ru.kata.blockchain.domain.vo;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.util.HexFormat;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class HashTest {
@@ -56,4 +60,65 @@ public class HashTest {
         assertEquals(h1, h2);
         assertEquals(h1.hashCode(), h2.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void hashRoundTripsThroughBytes() {
+        final String hashValue = "00ff0123456789abcdef0123456789abcdef0123456789abcdef0123456789ab";
+        final byte[] bytes = HexFormat.of().parseHex(hashValue);
+
+        final Hash hash = Hash.fromBytes(bytes);
+
+        assertEquals(hashValue, hash.value());
+        assertEquals(new Hash(hashValue), hash);
+        assertArrayEquals(bytes, hash.toBytes());
+        assertThrows(IllegalArgumentException.class, () -> Hash.fromBytes(new byte[31]));
+    }
+
+    @Test
+    void hashCodeMatchesHexStringHashCode() {
+        final String hashValue = "fedcba9876543210fedcba9876543210fedcba9876543210fedcba9876543210";
+
+        assertEquals(hashValue.hashCode(), new Hash(hashValue).hashCode());
+        assertEquals(hashValue.hashCode(), Hash.fromBytes(HexFormat.of().parseHex(hashValue)).hashCode());
+    }
+
+    @Test
+    void hashesWithDifferentValuesAreNotEqual() {
+        final Hash h1 = new Hash("0".repeat(63) + "1");
+        final Hash h2 = new Hash("1" + "0".repeat(63));
+
+        assertNotEquals(h1, h2);
+    }
+
+    @Test
+    void hexValidationMatchesPattern() {
+        assertTrue(Hash.isValidHex("0123456789abcdef".repeat(4)));
+        assertFalse(Hash.isValidHex("0123456789ABCDEF".repeat(4)));
+        assertFalse(Hash.isValidHex("g".repeat(64)));
+        assertFalse(Hash.isValidHex("a".repeat(63)));
+        assertFalse(Hash.isValidHex(null));
+    }
+
+    @Test
+    void hashKeepsJsonShape() throws JsonProcessingException {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final String hashValue = "0123456789abcdef".repeat(4);
+
+        final String json = objectMapper.writeValueAsString(new Hash(hashValue));
+
+        assertEquals("{\"value\":\"" + hashValue + "\"}", json);
+        assertEquals(new Hash(hashValue), objectMapper.readValue(json, Hash.class));
+    }
+
+    @Test
+    void hashesAreOrderedAsUnsignedNumbers() {
+        final Hash small = new Hash("0".repeat(63) + "1");
+        final Hash middle = new Hash("7" + "f".repeat(63));
+        final Hash large = new Hash("8" + "0".repeat(63));
+
+        assertTrue(small.compareTo(middle) < 0);
+        assertTrue(middle.compareTo(large) < 0);
+        assertTrue(new Hash("f".repeat(64)).compareTo(large) > 0);
+        assertEquals(0, large.compareTo(new Hash("8" + "0".repeat(63))));
+    }
+}
@@ -4,11 +4,19 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockCommitListener;
 import ru.kata.blockchain.domain.block.BlockRepository;
 import ru.kata.blockchain.domain.exceptions.InvalidBlockchainPathException;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.jfr.BlockSaveEvent;
+import ru.kata.blockchain.infrastructure.jfr.ChainLoadEvent;
+import ru.kata.blockchain.infrastructure.mapper.BlockMapper;
+import ru.kata.blockchain.infrastructure.mapper.PublicKeyModule;
+import ru.kata.blockchain.infrastructure.storage.LongLongHashMap;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -17,9 +25,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Реализация интерфейса {@link BlockRepository}, которая хранит блокчейн в виде списка {@link Block}
@@ -35,7 +45,9 @@ import java.util.Optional;
  *   <li>При создании проверяет, существует ли файл, и создаёт его, если нет</li>
  *   <li>Загружает всю цепочку блоков из файла при инициализации</li>
  *   <li>Сохраняет весь список блоков в JSON-файл каждый раз при добавлении нового блока</li>
+ *   <li>Ищет блоки по номеру и хэшу через индексы в памяти, которые строятся при загрузке</li>
  *   <li>Поддерживает потокобезопасный доступ к методам</li>
+ *   <li>Пишет события JFR {@link ChainLoadEvent} о загрузке файла и {@link BlockSaveEvent} о каждом сохранении</li>
  * </ul>
  */
 @Slf4j
@@ -44,6 +56,9 @@ public class FileBlockRepository implements BlockRepository {
     private final Path filePath;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final List<Block> blockchain = new ArrayList<>();
+    private final LongLongHashMap heightIndex = new LongLongHashMap();
+    private final Map<Hash, Integer> hashIndex = new HashMap<>();
+    private final List<BlockCommitListener> commitListeners = new CopyOnWriteArrayList<>();
     private static final String NULL_ERROR_MASSAGE = "The file name must not be null";
     private static final String EMPTY_ERROR_MASSAGE = "The file name must not be empty";
     private static final String ABSOLUTE_PATH_ERROR_MASSAGE = "Absolute paths are not allowed: ";
@@ -53,12 +68,27 @@ public class FileBlockRepository implements BlockRepository {
     private static final String FILE_NAME_LENGTH_ERROR_MASSAGE = "The file name should not exceed "
             + MAX_FILE_NAME_LENGTH + " characters in length: ";
     private static final String FILE_NAME_PATTERN = "^[a-zA-Z0-9_.-]+\\.json$";
-    private static final Path BASE_DIR = Paths.get("data/blockchain");
+    /**
+     * Каталог по умолчанию, относительно которого разрешается имя файла цепочки.
+     */
+    public static final Path BASE_DIR = Paths.get("data/blockchain");
+    /**
+     * Имя файла цепочки, с которым узел запускается при {@code blockchain.storage.type=json}.
+     */
+    public static final String DEFAULT_FILE_NAME = "blockchain.json";
 
     public FileBlockRepository(String fileName) {
-        validateFilePath(fileName);                     // валидация на атаку через обход каталога
-        this.filePath = BASE_DIR.resolve(fileName.trim()).normalize();
-        objectMapper.registerModule(new GuavaModule()); // для поддержки ImmutableList
+        this(BASE_DIR, fileName);
+    }
+
+    /**
+     * @param baseDir  каталог, внутри которого должен лежать файл цепочки
+     * @param fileName имя файла цепочки внутри {@code baseDir}
+     */
+    public FileBlockRepository(Path baseDir, String fileName) {
+        validateFilePath(baseDir, fileName);            // валидация на атаку через обход каталога
+        this.filePath = baseDir.resolve(fileName.trim()).normalize();
+        registerModules();
         initFileIfMissing();                            // создаёт файл, если его нет
         loadBlockchainFromFile();                       // загружает блоки в память
     }
@@ -66,26 +96,88 @@ public class FileBlockRepository implements BlockRepository {
     @VisibleForTesting
     FileBlockRepository(Path filePath) {
         this.filePath = filePath;
-        objectMapper.registerModule(new GuavaModule());
+        registerModules();
         initFileIfMissing();
         loadBlockchainFromFile();
     }
 
+    /**
+     * Модули Jackson для полей блока: {@code ImmutableList}, {@code Instant} и {@code PublicKey} — как в {@link BlockMapper}.
+     */
+    private void registerModules() {
+        objectMapper.registerModule(new GuavaModule());
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.registerModule(new PublicKeyModule());
+    }
+
+    /**
+     * Слушатели фиксации вызываются после записи файла вне блокировки репозитория.
+     */
+    @Override
+    public void save(Block block) {
+        append(block, false);
+    }
+
+    /**
+     * Сцепление с последним блоком проверяется под той же блокировкой, под которой блок добавляется.
+     */
     @Override
-    public synchronized void save(Block block) {
-        blockchain.add(block);
-        try {
-            saveBlockchainToFile();
-            log.info("Block saved: {}", block);
-        } catch (RuntimeException e) {
-            blockchain.remove(block);
-            throw e;
+    public boolean saveIfNext(Block block) {
+        return append(block, true);
+    }
+
+    private boolean append(Block block, boolean requireNext) {
+        final BlockSaveEvent event = new BlockSaveEvent();
+        event.begin();
+        synchronized (this) {
+            if (requireNext && !extendsLatest(block)) {
+                log.debug("Block does not extend the chain tip, not saved: index={}", block.index());
+                return false;
+            }
+            blockchain.add(block);
+            try {
+                saveBlockchainToFile();
+                index(block, blockchain.size() - 1);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.blockIndex = block.index();
+                    event.blocks = blockchain.size();
+                    event.bytesWritten = fileSize();
+                    event.storage = "json";
+                    event.commit();
+                }
+                log.atInfo().addKeyValue("index", block.index()).addKeyValue("hash", block.hash()).log("Block saved");
+            } catch (RuntimeException e) {
+                blockchain.remove(block);
+                throw e;
+            }
+        }
+        for (BlockCommitListener listener : commitListeners) {
+            try {
+                listener.onBlockCommitted(block);
+            } catch (RuntimeException e) {
+                log.error("Block commit listener failed: index={}", block.index(), e);
+            }
+        }
+        return true;
+    }
+
+    private boolean extendsLatest(Block block) {
+        if (blockchain.isEmpty()) {
+            return true;
         }
+        final Block latest = blockchain.get(blockchain.size() - 1);
+        return latest.hash().equals(block.previousHash()) && latest.index() + 1 == block.index();
+    }
+
+    @Override
+    public void addCommitListener(BlockCommitListener listener) {
+        commitListeners.add(listener);
     }
 
     @Override
     public synchronized List<Block> findAll() {
-        return Collections.unmodifiableList(blockchain);
+        return List.copyOf(blockchain);
     }
 
     /**
@@ -100,12 +192,59 @@ public class FileBlockRepository implements BlockRepository {
     @Override
     public synchronized Optional<Block> findLatest() {
         if (blockchain.isEmpty()) {
-            log.info("No block found");
+            log.debug("No block found");
             return Optional.empty();
         }
         return Optional.of(blockchain.getLast());
     }
 
+    @Override
+    public synchronized Optional<Block> findByIndex(long index) {
+        final long ordinal = heightIndex.get(index);
+        if (ordinal == LongLongHashMap.NO_VALUE) {
+            return Optional.empty();
+        }
+        return Optional.of(blockchain.get((int) ordinal));
+    }
+
+    @Override
+    public synchronized Optional<Block> findByHash(Hash hash) {
+        final Integer ordinal = hashIndex.get(hash);
+        if (ordinal == null) {
+            return Optional.empty();
+        }
+        return Optional.of(blockchain.get(ordinal));
+    }
+
+    /**
+     * Номера блоков в цепочке возрастают, поэтому диапазон сужается до номеров первого и последнего блока,
+     * а сами блоки берутся через индекс номеров.
+     */
+    @Override
+    public synchronized List<Block> findRange(long fromIndex, long toIndex) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("fromIndex must not be greater than toIndex: " + fromIndex + " > " + toIndex);
+        }
+        if (fromIndex == toIndex || blockchain.isEmpty()) {
+            return List.of();
+        }
+        final long from = Math.max(fromIndex, blockchain.getFirst().index());
+        final long to = Math.min(toIndex - 1, blockchain.getLast().index());
+        final List<Block> blocks = new ArrayList<>();
+        for (long index = from; index <= to; index++) {
+            final long ordinal = heightIndex.get(index);
+            if (ordinal != LongLongHashMap.NO_VALUE) {
+                blocks.add(blockchain.get((int) ordinal));
+            }
+        }
+        return blocks;
+    }
+
+    private void index(Block block, int ordinal) {
+        heightIndex.put(block.index(), ordinal);
+        hashIndex.put(block.hash(), ordinal);
+    }
+
     /**
      * Проверяет наличие файла блокчейна, и если он отсутствует — создаёт его
      * и записывает пустой JSON-массив
@@ -113,7 +252,7 @@ public class FileBlockRepository implements BlockRepository {
      */
     private void initFileIfMissing() {
         try {
-            Files.createDirectories(BASE_DIR);
+            Files.createDirectories(filePath.toAbsolutePath().getParent());
             if (Files.notExists(filePath)) {
                 Files.createFile(filePath);
                 Files.write(filePath, "[]".getBytes());
@@ -131,10 +270,14 @@ public class FileBlockRepository implements BlockRepository {
      * Каждый блок десериализуется и добавляется в коллекцию.
      * <p>
      * Формат файла должен быть JSON-массивом, где каждый элемент — объект Block.
+     * Ссылки, хэши блоков и подписи здесь не проверяются — это делает {@code ChainVerifier} при
+     * {@code blockchain.verify.on-startup=true}.
      * <p>
      * В случае ошибки чтения файла или неправильного формата JSON метод выбрасывает {@link RuntimeException}.
      */
     private void loadBlockchainFromFile() {
+        final ChainLoadEvent event = new ChainLoadEvent();
+        event.begin();
         try (InputStream inputStream = Files.newInputStream(filePath);
              JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
 
@@ -145,11 +288,30 @@ public class FileBlockRepository implements BlockRepository {
             while (parser.nextToken() != JsonToken.END_ARRAY) {
                 final Block block = objectMapper.readValue(parser, Block.class);
                 blockchain.add(block);
+                index(block, blockchain.size() - 1);
             }
             log.info("Loaded {} block(s) from file", blockchain.size());
         } catch (IOException e) {
             throw new RuntimeException("Failed to load blockchain from file: " + filePath, e);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filePath.toString();
+            event.blocks = blockchain.size();
+            event.bytesRead = fileSize();
+            event.commit();
+        }
+    }
+
+    /**
+     * Размер файла цепочки для событий JFR; {@code -1}, если его не удалось узнать.
+     */
+    private long fileSize() {
+        try {
+            return Files.size(filePath);
+        } catch (IOException e) {
+            return -1;
+        }
     }
 
     /**
@@ -173,9 +335,9 @@ public class FileBlockRepository implements BlockRepository {
      * Далее идет проверка на абсолютный путь.
      * Проверка имени файла по регулярному выражению + строго задан формат файла, а именно .json.
      * Проверка длины имени файла, чтобы не ловить edge‑кейсы ФС.
-     * Проверка гарантии на то, чтобы путь остается в безопасной директории data/blockchain.
+     * Проверка гарантии на то, чтобы путь остается в безопасной директории {@code baseDir}.
      */
-    private void validateFilePath(String fileName) {
+    private void validateFilePath(Path baseDir, String fileName) {
         if (fileName == null) {
             throw new InvalidBlockchainPathException(NULL_ERROR_MASSAGE);
         }
@@ -191,8 +353,8 @@ public class FileBlockRepository implements BlockRepository {
             throw new InvalidBlockchainPathException(ABSOLUTE_PATH_ERROR_MASSAGE + trimmedFileName);
         }
 
-        final Path resolvedPath = BASE_DIR.resolve(trimmedFileName).normalize();
-        if (!resolvedPath.startsWith(BASE_DIR)) {
+        final Path resolvedPath = baseDir.resolve(trimmedFileName).normalize();
+        if (!resolvedPath.startsWith(baseDir.normalize())) {
             throw new InvalidBlockchainPathException(DIRECTORY_ATTACK_ERROR_MASSAGE + trimmedFileName);
         }
 
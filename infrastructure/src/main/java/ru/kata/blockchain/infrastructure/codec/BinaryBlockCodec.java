@@ -0,0 +1,78 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import com.google.common.collect.ImmutableList;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.time.Instant;
+
+/**
+ * Компактный бинарный кодек блока.
+ * <p>
+ * Формат (версия {@value #FORMAT_VERSION}):
+ * <ul>
+ *     <li>{@code byte version};</li>
+ *     <li>{@code varint index}, {@code long timestamp} — наносекунды от эпохи;</li>
+ *     <li>{@code byte[32] previousHash}, {@code byte[32] hash}, {@code varint nonce};</li>
+ *     <li>{@code varint transactionCount}, затем транзакции в формате {@link BinaryTransactionCodec}.</li>
+ * </ul>
+ * Строки и массивы записываются с префиксом длины (varint), см. {@link BinaryWriter}.
+ */
+public final class BinaryBlockCodec implements BlockCodec {
+    static final int FORMAT_VERSION = 1;
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Override
+    public int id() {
+        return BINARY_ID;
+    }
+
+    @Override
+    public byte[] encode(Block block) {
+        final BinaryWriter writer = new BinaryWriter(INITIAL_BUFFER_SIZE);
+        writer.writeByte(FORMAT_VERSION)
+                .writeVarLong(block.index())
+                .writeLong(toEpochNanos(block.timestamp()))
+                .writeRaw(block.previousHash().toBytes())
+                .writeRaw(block.hash().toBytes())
+                .writeVarLong(block.nonce())
+                .writeVarLong(block.transactions().size());
+        for (Transaction transaction : block.transactions()) {
+            BinaryTransactionCodec.write(writer, transaction);
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Block decode(byte[] payload) {
+        final BinaryReader reader = new BinaryReader(payload);
+        final int version = reader.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary block format version: " + version);
+        }
+        final long index = reader.readVarLong();
+        final Instant timestamp = fromEpochNanos(reader.readLong());
+        final Hash previousHash = Hash.fromBytes(reader.readRaw(Hash.BYTES));
+        final Hash hash = Hash.fromBytes(reader.readRaw(Hash.BYTES));
+        final long nonce = reader.readVarLong();
+        final int count = reader.readVarInt();
+        final ImmutableList.Builder<Transaction> transactions = ImmutableList.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(BinaryTransactionCodec.read(reader));
+        }
+        if (reader.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes after binary block: index=" + index);
+        }
+        return new Block(index, timestamp, transactions.build(), previousHash, nonce, hash);
+    }
+
+    private static long toEpochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    private static Instant fromEpochNanos(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND));
+    }
+}
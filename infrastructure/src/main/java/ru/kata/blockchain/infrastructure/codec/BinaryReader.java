@@ -0,0 +1,95 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Чтение данных, записанных {@link BinaryWriter}. При выходе за границы или некорректном varint
+ * выбрасывает {@link IllegalArgumentException}.
+ */
+public final class BinaryReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public BinaryReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public BinaryReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Читает число, записанное {@link BinaryWriter#writeSignedVarLong(long)}.
+     */
+    public long readSignedVarLong() {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public int readVarInt() {
+        final long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Varint does not fit into int: " + value);
+        }
+        return (int) value;
+    }
+
+    public long readLong() {
+        require(Long.BYTES);
+        long result = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            result = (result << 8) | (buffer[position++] & 0xFF);
+        }
+        return result;
+    }
+
+    public byte[] readRaw(int length) {
+        require(length);
+        final byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    public byte[] readBytes() {
+        return readRaw(readVarInt());
+    }
+
+    public String readString() {
+        final int length = readVarInt();
+        require(length);
+        final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private void require(int length) {
+        if (length < 0 || limit - position < length) {
+            throw new IllegalArgumentException("Unexpected end of binary data");
+        }
+    }
+}
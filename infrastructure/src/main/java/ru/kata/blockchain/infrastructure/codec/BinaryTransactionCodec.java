@@ -0,0 +1,83 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.interfaces.ECPublicKey;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
+import org.bouncycastle.jce.spec.ECPublicKeySpec;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Каноническое бинарное представление транзакции.
+ * <p>
+ * Формат: {@code string from}, {@code string to}, {@code varint amount}, {@code bytes signature}, ключ.
+ * Ключ secp256k1 хранится как сжатая точка кривой (33 байта, тип {@value #KEY_SECP256K1_COMPRESSED}),
+ * любой другой — как {@code string algorithm} и X.509 DER (тип {@value #KEY_X509}).
+ * Строки и массивы записываются с префиксом длины (varint), см. {@link BinaryWriter}.
+ * <p>
+ * Это же представление используется для транзакций внутри блока в {@link BinaryBlockCodec}.
+ */
+public final class BinaryTransactionCodec {
+    static final int KEY_SECP256K1_COMPRESSED = 1;
+    static final int KEY_X509 = 2;
+    private static final int COMPRESSED_POINT_BYTES = 33;
+    private static final String EC_ALGORITHM = "EC";
+    private static final BouncyCastleProvider PROVIDER = new BouncyCastleProvider();
+    private static final ECNamedCurveParameterSpec SECP256K1 = ECNamedCurveTable.getParameterSpec("secp256k1");
+
+    private BinaryTransactionCodec() {
+    }
+
+    public static void write(BinaryWriter writer, Transaction transaction) {
+        writer.writeString(transaction.from().value())
+                .writeString(transaction.to().value())
+                .writeVarLong(transaction.amount().value())
+                .writeBytes(transaction.signature());
+        writePublicKey(writer, transaction.publicKey());
+    }
+
+    public static Transaction read(BinaryReader reader) {
+        return new Transaction(
+                new WalletAddress(reader.readString()),
+                new WalletAddress(reader.readString()),
+                new Amount(reader.readVarLong()),
+                reader.readBytes(),
+                readPublicKey(reader));
+    }
+
+    private static void writePublicKey(BinaryWriter writer, PublicKey publicKey) {
+        if (publicKey instanceof ECPublicKey ecKey && ecKey.getParameters() != null
+                && SECP256K1.getCurve().equals(ecKey.getParameters().getCurve())) {
+            writer.writeByte(KEY_SECP256K1_COMPRESSED).writeRaw(ecKey.getQ().getEncoded(true));
+            return;
+        }
+        writer.writeByte(KEY_X509)
+                .writeString(publicKey.getAlgorithm())
+                .writeBytes(publicKey.getEncoded());
+    }
+
+    private static PublicKey readPublicKey(BinaryReader reader) {
+        final int type = reader.readByte();
+        try {
+            if (type == KEY_SECP256K1_COMPRESSED) {
+                final byte[] point = reader.readRaw(COMPRESSED_POINT_BYTES);
+                return KeyFactory.getInstance(EC_ALGORITHM, PROVIDER)
+                        .generatePublic(new ECPublicKeySpec(SECP256K1.getCurve().decodePoint(point), SECP256K1));
+            }
+            if (type == KEY_X509) {
+                final String algorithm = reader.readString();
+                return KeyFactory.getInstance(algorithm, PROVIDER).generatePublic(new X509EncodedKeySpec(reader.readBytes()));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid public key encoding", e);
+        }
+        throw new IllegalArgumentException("Unknown public key type: " + type);
+    }
+}
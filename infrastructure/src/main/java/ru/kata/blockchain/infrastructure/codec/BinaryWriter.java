@@ -0,0 +1,166 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Растущий буфер для компактной бинарной записи: varint (LEB128), {@code long} в big-endian,
+ * байтовые массивы и строки с префиксом длины.
+ * <p>
+ * Буфер можно переиспользовать между вызовами через {@link #reset()} — внутренний массив при этом
+ * не выделяется заново. Класс не потокобезопасен.
+ */
+public final class BinaryWriter {
+    private byte[] buffer;
+    private int size;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Записывает число в формате varint: 7 бит на байт, старший бит — признак продолжения.
+     * Значение трактуется как беззнаковое: отрицательные числа занимают 10 байт.
+     */
+    public BinaryWriter writeVarLong(long value) {
+        ensureCapacity(10);
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[size++] = (byte) remaining;
+        return this;
+    }
+
+    /**
+     * Записывает число со знаком в формате zigzag varint: числа, близкие к нулю, занимают мало байт при любом знаке.
+     */
+    public BinaryWriter writeSignedVarLong(long value) {
+        return writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public BinaryWriter writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    public BinaryWriter writeRaw(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    /**
+     * Записывает массив с префиксом длины (varint).
+     */
+    public BinaryWriter writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        return writeRaw(bytes);
+    }
+
+    /**
+     * Записывает строку в UTF-8 с префиксом длины в байтах (varint).
+     * ASCII-строка записывается посимвольно, без промежуточного массива.
+     */
+    public BinaryWriter writeString(String value) {
+        if (!isAscii(value)) {
+            return writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+        writeVarLong(value.length());
+        return writeUtf8(value);
+    }
+
+    /**
+     * Записывает строку в UTF-8 без префикса длины. ASCII-символы записываются напрямую в буфер.
+     */
+    public BinaryWriter writeUtf8(String value) {
+        if (!isAscii(value)) {
+            return writeRaw(value.getBytes(StandardCharsets.UTF_8));
+        }
+        final int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Записывает десятичное представление числа в ASCII (как {@link Long#toString(long)}), без промежуточной строки.
+     */
+    public BinaryWriter writeDecimal(long value) {
+        final int length = decimalLength(value);
+        ensureCapacity(length);
+        int position = size + length;
+        long remaining = value;
+        if (remaining > 0) {
+            remaining = -remaining;
+        }
+        do {
+            buffer[--position] = (byte) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            buffer[--position] = '-';
+        }
+        size += length;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Число символов десятичного представления, включая знак. Считается по отрицательному значению,
+     * чтобы {@link Long#MIN_VALUE} не переполнялся.
+     */
+    private static int decimalLength(long value) {
+        int length = 1;
+        long remaining = value;
+        if (remaining < 0) {
+            length++;
+        } else {
+            remaining = -remaining;
+        }
+        while (remaining <= -10) {
+            remaining /= 10;
+            length++;
+        }
+        return length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import ru.kata.blockchain.domain.block.Block;
+
+/**
+ * Кодек блока для хранения в сегментном журнале.
+ * <p>
+ * Каждый кодек имеет постоянный числовой идентификатор, который записывается в заголовок сегмента:
+ * так журнал может содержать сегменты разных форматов, а формат новых сегментов выбирается настройкой
+ * {@code blockchain.storage.codec} ({@code binary} или {@code json}).
+ * <p>
+ * Реализации потокобезопасны. Ошибки кодирования выбрасываются как {@link RuntimeException}.
+ */
+public interface BlockCodec {
+    int JSON_ID = 1;
+    int BINARY_ID = 2;
+
+    /**
+     * Идентификатор формата, записываемый в заголовок сегмента. Не должен меняться между версиями.
+     */
+    int id();
+
+    byte[] encode(Block block);
+
+    Block decode(byte[] payload);
+
+    /**
+     * Возвращает кодек по имени из конфигурации: {@code json} или {@code binary}.
+     */
+    static BlockCodec byName(String name) {
+        return switch (name) {
+            case "json" -> new JsonBlockCodec();
+            case "binary" -> new BinaryBlockCodec();
+            default -> throw new IllegalArgumentException("Unknown block codec: " + name);
+        };
+    }
+
+    /**
+     * Возвращает кодек по идентификатору из заголовка сегмента.
+     */
+    static BlockCodec byId(int id) {
+        return switch (id) {
+            case JSON_ID -> new JsonBlockCodec();
+            case BINARY_ID -> new BinaryBlockCodec();
+            default -> throw new IllegalArgumentException("Unknown block codec id: " + id);
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.infrastructure.mapper.BlockMapper;
+
+import java.io.IOException;
+
+/**
+ * Кодек, сохраняющий блок компактным JSON через {@link BlockMapper}.
+ * Сегменты первой версии формата журнала всегда содержат этот формат.
+ */
+public final class JsonBlockCodec implements BlockCodec {
+    private final BlockMapper blockMapper = new BlockMapper();
+
+    @Override
+    public int id() {
+        return JSON_ID;
+    }
+
+    @Override
+    public byte[] encode(Block block) {
+        try {
+            return blockMapper.writeBlock(block);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize block: index=" + block.index(), e);
+        }
+    }
+
+    @Override
+    public Block decode(byte[] payload) {
+        try {
+            return blockMapper.readBlock(payload);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to deserialize block from JSON", e);
+        }
+    }
+}
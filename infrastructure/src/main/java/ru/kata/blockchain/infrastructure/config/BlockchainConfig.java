@@ -1,20 +1,51 @@
 package ru.kata.blockchain.infrastructure.config;
 
+import com.fasterxml.jackson.databind.Module;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.adapters.producer.BlockProducer;
 import ru.kata.blockchain.application.usecase.AddBlockUseCase;
 import ru.kata.blockchain.application.usecase.CreateTransactionUseCase;
+import ru.kata.blockchain.application.usecase.FindTransactionUseCase;
+import ru.kata.blockchain.application.usecase.GetTransactionProofUseCase;
 import ru.kata.blockchain.application.usecase.ValidateTransactionUseCase;
 import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
 import ru.kata.blockchain.domain.crypto.CryptoService;
 import ru.kata.blockchain.domain.service.*;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
 import ru.kata.blockchain.domain.validation.ValidationPolicy;
+import ru.kata.blockchain.domain.vo.Hash;
 import ru.kata.blockchain.domain.vo.WalletAddress;
 import ru.kata.blockchain.infrastructure.FileBlockRepository;
+import ru.kata.blockchain.infrastructure.codec.BlockCodec;
+import ru.kata.blockchain.infrastructure.crypto.CachingCryptoService;
 import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.jfr.JfrRecording;
+import ru.kata.blockchain.infrastructure.mapper.PrivateKeyModule;
+import ru.kata.blockchain.infrastructure.mapper.PublicKeyModule;
+import ru.kata.blockchain.infrastructure.metrics.ChainMetrics;
+import ru.kata.blockchain.infrastructure.metrics.MicrometerPipelineMetrics;
+import ru.kata.blockchain.infrastructure.mining.DifficultyAdjuster;
+import ru.kata.blockchain.infrastructure.mining.ParallelMiner;
 import ru.kata.blockchain.infrastructure.service.*;
+import ru.kata.blockchain.infrastructure.storage.ChainFileConverter;
+import ru.kata.blockchain.infrastructure.storage.FileTransactionIndex;
+import ru.kata.blockchain.infrastructure.storage.FsyncPolicy;
+import ru.kata.blockchain.infrastructure.storage.SegmentedBlockRepository;
+import ru.kata.blockchain.infrastructure.storage.SnapshotFile;
+import ru.kata.blockchain.infrastructure.storage.StorageMode;
+import ru.kata.blockchain.infrastructure.validation.ChainVerifier;
 import ru.kata.blockchain.infrastructure.validation.ValidationPolicyImpl;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Set;
 
 /**
@@ -25,15 +56,135 @@ import java.util.Set;
  */
 @Configuration
 public class BlockchainConfig {
-
+    /**
+     * Хранилище блоков выбирается свойством {@code blockchain.storage.type}:
+     * {@code segmented} — append-only сегментный журнал (по умолчанию), {@code json} — один JSON-файл;
+     * оба лежат в каталоге {@code blockchain.storage.dir}.
+     * Для сегментного журнала политика {@code fsync} задаётся свойствами {@code blockchain.storage.fsync.*},
+     * формат новых сегментов — свойством {@code blockchain.storage.codec} ({@code binary} или {@code json}),
+     * режим хранения в памяти — свойством {@code blockchain.storage.mode} ({@code heap} или {@code mapped});
+     * если режим не задан, при включённых снимках ({@code blockchain.snapshot.interval-blocks > 0}) выбирается
+     * {@code mapped}, иначе {@code heap} ({@link StorageMode#of(String, boolean)}).
+     * Сегментный журнал не открывается, если он пуст, а в JSON-файле цепочки есть блоки
+     * ({@link ChainFileConverter#checkMigrated}): такую цепочку сначала переносят {@code convertChain}.
+     * <p>
+     * При {@code blockchain.verify.on-startup=true} загруженная цепочка проверяется ({@link ChainVerifier}) в
+     * {@code blockchain.verify.parallelism} потоках, кроме блоков до {@code blockchain.verify.checkpoint-height};
+     * {@code blockchain.verify.checkpoint-hash} — ожидаемый хэш блока контрольной точки. Доказательство работы
+     * проверяется по цели, пересчитанной по свойствам {@code blockchain.mining.*} (см. {@link #difficultyAdjuster});
+     * при включённых снимках цель на высоте контрольной точки сохраняется в {@code checkpoint.snap} каталога снимков.
+     */
     @Bean
-    public BlockRepository blockRepository() {
-        return new FileBlockRepository("blockchain.json");
+    public BlockRepository blockRepository(@Value("${blockchain.storage.dir:data/blockchain}") String storageDir,
+                                           @Value("${blockchain.storage.type:segmented}") String storageType,
+                                           @Value("${blockchain.storage.codec:binary}") String codec,
+                                           @Value("${blockchain.storage.mode:}") String storageMode,
+                                           @Value("${blockchain.storage.fsync.policy:per-write}") String fsyncPolicy,
+                                           @Value("${blockchain.storage.fsync.interval-ms:5}") long fsyncIntervalMillis,
+                                           @Value("${blockchain.storage.fsync.blocks:64}") int fsyncBlocks,
+                                           MeterRegistry meterRegistry,
+                                           HashFactory hashFactory,
+                                           CryptoService cryptoService,
+                                           SerializerService serializerService,
+                                           @Value("${blockchain.verify.on-startup:false}") boolean verifyOnStartup,
+                                           @Value("${blockchain.verify.parallelism:0}") int verifyParallelism,
+                                           @Value("${blockchain.verify.checkpoint-height:-1}") long checkpointHeight,
+                                           @Value("${blockchain.verify.checkpoint-hash:}") String checkpointHash,
+                                           @Value("${blockchain.mining.initial-difficulty-bits:16}") int initialDifficultyBits,
+                                           @Value("${blockchain.mining.retarget-window:16}") int retargetWindow,
+                                           @Value("${blockchain.mining.target-block-interval-ms:1000}") long targetBlockMillis,
+                                           @Value("${blockchain.snapshot.dir:data/blockchain/snapshots}") String snapshotDir,
+                                           @Value("${blockchain.snapshot.interval-blocks:1000}") long snapshotInterval) {
+        final BlockRepository blockRepository = createBlockRepository(Paths.get(storageDir), storageType, codec,
+                StorageMode.of(storageMode, snapshotInterval > 0), fsyncPolicy, fsyncIntervalMillis, fsyncBlocks, meterRegistry);
+        if (verifyOnStartup) {
+            try (SnapshotFile checkpointSnapshot = snapshotFile(snapshotDir, "checkpoint.snap", snapshotInterval)) {
+                new ChainVerifier(blockRepository, hashFactory, cryptoService, serializerService, verifyParallelism, checkpointHeight,
+                        parseCheckpointHash(checkpointHash), Difficulty.target(initialDifficultyBits), retargetWindow, targetBlockMillis,
+                        checkpointSnapshot).verify();
+            }
+        }
+        return blockRepository;
+    }
+
+    private static BlockRepository createBlockRepository(Path storageDir,
+                                                         String storageType,
+                                                         String codec,
+                                                         StorageMode storageMode,
+                                                         String fsyncPolicy,
+                                                         long fsyncIntervalMillis,
+                                                         int fsyncBlocks,
+                                                         MeterRegistry meterRegistry) {
+        return switch (storageType) {
+            case "json" -> new FileBlockRepository(storageDir, FileBlockRepository.DEFAULT_FILE_NAME);
+            case "segmented" -> requireMigrated(storageDir, new SegmentedBlockRepository(storageDir, SegmentedBlockRepository.DEFAULT_CHAIN_NAME,
+                    BlockCodec.byName(codec), storageMode, FsyncPolicy.of(fsyncPolicy, fsyncIntervalMillis, fsyncBlocks),
+                    meterRegistry));
+            default -> throw new IllegalArgumentException("Unknown blockchain.storage.type: " + storageType);
+        };
+    }
+
+    private static SegmentedBlockRepository requireMigrated(Path storageDir, SegmentedBlockRepository repository) {
+        try {
+            ChainFileConverter.checkMigrated(chainPath(storageDir, "json"), repository);
+        } catch (RuntimeException e) {
+            try {
+                repository.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        return repository;
+    }
+
+    private static Path chainPath(Path storageDir, String storageType) {
+        if ("json".equals(storageType)) {
+            return storageDir.resolve(FileBlockRepository.DEFAULT_FILE_NAME);
+        }
+        return storageDir.resolve(SegmentedBlockRepository.DEFAULT_CHAIN_NAME);
+    }
+
+    private static SnapshotFile snapshotFile(String snapshotDir, String name, long snapshotInterval) {
+        if (snapshotInterval <= 0) {
+            return null;
+        }
+        return new SnapshotFile(Paths.get(snapshotDir, name));
     }
 
+    private static Hash parseCheckpointHash(String checkpointHash) {
+        if (checkpointHash == null || checkpointHash.isBlank()) {
+            return null;
+        }
+        return new Hash(checkpointHash);
+    }
+
+    /**
+     * Индекс подтверждённых транзакций хранится в файле {@code blockchain.storage.txid-index}
+     * и пополняется {@link AddBlockUseCase} после сохранения каждого блока по уже посчитанным TxId.
+     */
     @Bean
-    public AccountStateService accountStateService() {
-        return new AccountStateServiceImpl();
+    public TransactionIndex transactionIndex(BlockRepository blockRepository,
+                                             TxIdCalculatorService txIdCalculatorService,
+                                             SerializerService serializerService,
+                                             @Value("${blockchain.storage.txid-index:data/blockchain/txid.idx}") String path) {
+        return new FileTransactionIndex(Paths.get(path), blockRepository, txIdCalculatorService, serializerService);
+    }
+
+    /**
+     * Реестр балансов восстанавливается при старте из снимка и блоков после него и обновляется по мере фиксации блоков.
+     * Каждому адресу начисляется начальный баланс {@code blockchain.ledger.opening-balance}.
+     * Снимки пишутся в каталог {@code blockchain.snapshot.dir} раз в {@code blockchain.snapshot.interval-blocks} блоков;
+     * {@code 0} отключает снимки.
+     */
+    @Bean(destroyMethod = "close")
+    public AccountStateService accountStateService(BlockRepository blockRepository,
+                                                   MempoolService mempoolService,
+                                                   @Value("${blockchain.ledger.opening-balance:2000}") long openingBalance,
+                                                   @Value("${blockchain.snapshot.dir:data/blockchain/snapshots}") String snapshotDir,
+                                                   @Value("${blockchain.snapshot.interval-blocks:1000}") long snapshotInterval) {
+        return new AccountStateServiceImpl(blockRepository, mempoolService, openingBalance,
+                snapshotFile(snapshotDir, "ledger.snap", snapshotInterval), snapshotInterval);
     }
 
     @Bean
@@ -50,14 +201,31 @@ public class BlockchainConfig {
         return new ValidationPolicyImpl(value, txSize, blockedAddresses);
     }
 
+    /**
+     * Число потоков пакетной проверки подписей задаётся свойством {@code blockchain.crypto.verify-parallelism};
+     * {@code 0} — по числу ядер. Успешно проверенные подписи кэшируются, размер кэша задаётся свойством
+     * {@code blockchain.crypto.verify-cache-size}; {@code 0} отключает кэш.
+     */
     @Bean
-    public CryptoService cryptoService() {
-        return new CryptoServiceImpl();
+    public CryptoService cryptoService(@Value("${blockchain.crypto.verify-parallelism:0}") int verifyParallelism,
+                                       @Value("${blockchain.crypto.verify-cache-size:100000}") long verifyCacheSize,
+                                       MeterRegistry meterRegistry) {
+        final CryptoService cryptoService = createCryptoService(verifyParallelism);
+        if (verifyCacheSize <= 0) {
+            return cryptoService;
+        }
+        return new CachingCryptoService(cryptoService, verifyCacheSize, meterRegistry);
     }
 
+    /**
+     * Мемпул ограничен свойствами {@code blockchain.mempool.max-transactions} и {@code blockchain.mempool.max-bytes}
+     * (суммарный размер сериализованных транзакций).
+     */
     @Bean
-    public MempoolService mempoolService() {
-        return new MempoolServiceImpl();
+    public MempoolService mempoolService(SerializerService serializerService,
+                                         @Value("${blockchain.mempool.max-transactions:50000}") int maxTransactions,
+                                         @Value("${blockchain.mempool.max-bytes:67108864}") long maxBytes) {
+        return new MempoolServiceImpl(serializerService, maxTransactions, maxBytes);
     }
 
     @Bean
@@ -70,9 +238,50 @@ public class BlockchainConfig {
         return new SerializerServiceImpl();
     }
 
+    /**
+     * Метрики конвейера транзакций: таймеры этапов {@code blockchain.pipeline.stage} и счётчики отклонений
+     * {@code blockchain.pipeline.rejections}. Перцентили задаются свойствами {@code management.metrics.distribution.*}.
+     */
+    @Bean
+    public PipelineMetrics pipelineMetrics(MeterRegistry meterRegistry) {
+        return new MicrometerPipelineMetrics(meterRegistry);
+    }
+
+    /**
+     * Датчики высоты цепочки, размера мемпула и размера хранилища цепочки, выбранного свойством
+     * {@code blockchain.storage.type}.
+     */
     @Bean
-    public AddBlockUseCase addBlockUseCase(BlockRepository blockRepository) {
-        return new AddBlockUseCase(blockRepository);
+    public ChainMetrics chainMetrics(BlockRepository blockRepository,
+                                     MempoolService mempoolService,
+                                     @Value("${blockchain.storage.dir:data/blockchain}") String storageDir,
+                                     @Value("${blockchain.storage.type:segmented}") String storageType) {
+        return new ChainMetrics(blockRepository, mempoolService, chainPath(Paths.get(storageDir), storageType));
+    }
+
+    /**
+     * При {@code blockchain.jfr.enabled=true} узел ведёт запись JFR со стандартным профилем
+     * {@code blockchain.jfr.base-settings} и событиями узла из {@code jfr/blockchain.jfc}; события хранятся
+     * {@code blockchain.jfr.max-age-minutes} минут и сбрасываются в {@code blockchain.jfr.destination} при остановке.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "blockchain.jfr.enabled", havingValue = "true")
+    public JfrRecording jfrRecording(@Value("${blockchain.jfr.base-settings:default}") String baseSettings,
+                                     @Value("${blockchain.jfr.destination:data/jfr/blockchain.jfr}") String destination,
+                                     @Value("${blockchain.jfr.max-age-minutes:30}") long maxAgeMinutes) {
+        return new JfrRecording(baseSettings, Paths.get(destination), Duration.ofMinutes(maxAgeMinutes));
+    }
+
+    @Bean
+    public AddBlockUseCase addBlockUseCase(BlockRepository blockRepository,
+                                           TxIdCalculatorService txIdCalculatorService,
+                                           SerializerService serializerService,
+                                           DifficultyAdjuster difficultyAdjuster,
+                                           TransactionIndex transactionIndex,
+                                           MempoolService mempoolService,
+                                           PipelineMetrics pipelineMetrics) {
+        return new AddBlockUseCase(blockRepository, txIdCalculatorService, serializerService, difficultyAdjuster, transactionIndex,
+                mempoolService, pipelineMetrics);
     }
 
     @Bean
@@ -82,18 +291,120 @@ public class BlockchainConfig {
                                                                  MempoolService mempoolService,
                                                                  TxIdCalculatorService txIdCalculatorService,
                                                                  SerializerService serializerService,
-                                                                 AccountStateService accountStateService) {
+                                                                 AccountStateService accountStateService,
+                                                                 TransactionIndex transactionIndex,
+                                                                 PipelineMetrics pipelineMetrics) {
         return new ValidateTransactionUseCase(addressService,
                 validationPolicy,
                 cryptoService,
                 mempoolService,
                 txIdCalculatorService,
                 serializerService,
-                accountStateService);
+                accountStateService,
+                transactionIndex,
+                pipelineMetrics);
+    }
+
+    /**
+     * Производитель блоков запечатывает блок раз в {@code blockchain.producer.interval-ms} или раньше,
+     * когда в мемпуле набралось {@code blockchain.producer.max-transactions} транзакций
+     * или {@code blockchain.producer.max-bytes} байт.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public BlockProducer blockProducer(MempoolService mempoolService,
+                                       BlockRepository blockRepository,
+                                       AddBlockUseCase addBlockUseCase,
+                                       HashFactory hashFactory,
+                                       MiningService miningService,
+                                       TransactionIndex transactionIndex,
+                                       @Value("${blockchain.producer.interval-ms:1000}") long intervalMillis,
+                                       @Value("${blockchain.producer.max-transactions:1000}") int maxTransactions,
+                                       @Value("${blockchain.producer.max-bytes:1048576}") long maxBytes,
+                                       PipelineMetrics pipelineMetrics) {
+        return new BlockProducer(mempoolService, blockRepository, addBlockUseCase, hashFactory, miningService, transactionIndex,
+                intervalMillis, maxTransactions, maxBytes, pipelineMetrics);
     }
 
+    /**
+     * Начальная цель сложности — {@code blockchain.mining.initial-difficulty-bits} старших нулевых битов хэша;
+     * цель пересчитывается каждые {@code blockchain.mining.retarget-window} блоков так, чтобы блок добывался
+     * в среднем за {@code blockchain.mining.target-block-interval-ms}.
+     */
+    @Bean(destroyMethod = "close")
+    public DifficultyAdjuster difficultyAdjuster(BlockRepository blockRepository,
+                                                 @Value("${blockchain.mining.initial-difficulty-bits:16}") int initialDifficultyBits,
+                                                 @Value("${blockchain.mining.retarget-window:16}") int retargetWindow,
+                                                 @Value("${blockchain.mining.target-block-interval-ms:1000}") long targetBlockMillis,
+                                                 @Value("${blockchain.snapshot.dir:data/blockchain/snapshots}") String snapshotDir,
+                                                 @Value("${blockchain.snapshot.interval-blocks:1000}") long snapshotInterval) {
+        return new DifficultyAdjuster(blockRepository, Difficulty.target(initialDifficultyBits), retargetWindow, targetBlockMillis,
+                snapshotFile(snapshotDir, "difficulty.snap", snapshotInterval), snapshotInterval);
+    }
+
+    /**
+     * Майнер перебирает {@code nonce} в {@code blockchain.mining.threads} потоках; {@code 0} — по числу ядер.
+     */
+    @Bean(destroyMethod = "close")
+    public ParallelMiner miningService(BlockRepository blockRepository,
+                                      DifficultyAdjuster difficultyAdjuster,
+                                      @Value("${blockchain.mining.threads:0}") int threads,
+                                      MeterRegistry meterRegistry) {
+        return new ParallelMiner(blockRepository, difficultyAdjuster, threads, meterRegistry);
+    }
+
+    /**
+     * Хэш блока — SHA-256 заголовка с корнем Меркла над TxId транзакций.
+     */
+    @Bean
+    public HashFactory hashFactory(TxIdCalculatorService txIdCalculatorService, SerializerService serializerService) {
+        return new HashFactory(txIdCalculatorService, serializerService);
+    }
+
+    @Bean
+    public FindTransactionUseCase findTransactionUseCase(TransactionIndex transactionIndex, BlockRepository blockRepository) {
+        return new FindTransactionUseCase(transactionIndex, blockRepository);
+    }
+
+    /**
+     * Уровни дерева Меркла кэшируются для {@code blockchain.proof.merkle-cache-blocks} последних запрошенных блоков.
+     */
     @Bean
-    public CreateTransactionUseCase createTransactionUseCase(CryptoService cryptoService, SerializerService serializerService) {
-        return new CreateTransactionUseCase(cryptoService, serializerService);
+    public GetTransactionProofUseCase getTransactionProofUseCase(TransactionIndex transactionIndex,
+                                                                 BlockRepository blockRepository,
+                                                                 TxIdCalculatorService txIdCalculatorService,
+                                                                 SerializerService serializerService,
+                                                                 @Value("${blockchain.proof.merkle-cache-blocks:256}") long cachedBlocks) {
+        return new GetTransactionProofUseCase(transactionIndex, blockRepository, txIdCalculatorService, serializerService, cachedBlocks);
+    }
+
+    @Bean
+    public CreateTransactionUseCase createTransactionUseCase(CryptoService cryptoService,
+                                                             SerializerService serializerService,
+                                                             PipelineMetrics pipelineMetrics) {
+        return new CreateTransactionUseCase(cryptoService, serializerService, pipelineMetrics);
+    }
+
+    /**
+     * Spring Boot добавляет бины {@link Module} в {@code ObjectMapper} REST API: {@code publicKey} читается
+     * и пишется строкой Base64 от X.509-кодировки, как в {@code docs/api.adoc}.
+     */
+    @Bean
+    public Module publicKeyModule() {
+        return new PublicKeyModule();
+    }
+
+    /**
+     * {@code privateKey} в теле {@code POST /api/transaction} читается из строки Base64 от PKCS#8-кодировки.
+     */
+    @Bean
+    public Module privateKeyModule() {
+        return new PrivateKeyModule();
+    }
+
+    private static CryptoService createCryptoService(int verifyParallelism) {
+        if (verifyParallelism <= 0) {
+            return new CryptoServiceImpl();
+        }
+        return new CryptoServiceImpl(verifyParallelism);
     }
 }
@@ -0,0 +1,131 @@
+package ru.kata.blockchain.infrastructure.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.crypto.SignedData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кэш успешно проверенных подписей перед {@link CryptoService}.
+ * <p>
+ * Ключ — пара (SHA-256 подписанных данных, SHA-256 подписи и открытого ключа). Подписанные данные транзакции —
+ * её неподписанный payload, поэтому первая половина ключа совпадает с TxId. Повторная проверка той же
+ * транзакции ({@code CreateTransactionUseCase}, {@code ValidateTransactionUseCase}, импорт блока)
+ * стоит двух хешей и пробы таблицы вместо операции на эллиптической кривой.
+ * <p>
+ * Кэшируются только верные подписи: неверная подпись каждый раз проверяется заново и не вытесняет верные.
+ * Размер кэша ограничен {@code maximumSize}, вытесняются давно не использованные записи.
+ * Попадания, промахи, вытеснения и размер публикуются в {@link MeterRegistry} как метрики {@code cache.*}
+ * с тегом {@code cache=}{@value #CACHE_NAME}.
+ */
+public class CachingCryptoService implements CryptoService, Closeable {
+    static final String CACHE_NAME = "signature.verification";
+
+    private final CryptoService delegate;
+    private final Cache<VerificationKey, Boolean> verified;
+
+    public CachingCryptoService(CryptoService delegate, long maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verified = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+    }
+
+    @Override
+    public KeyPair generateKeyPair() {
+        return delegate.generateKeyPair();
+    }
+
+    @Override
+    public byte[] sign(byte[] data, PrivateKey privateKey) {
+        return delegate.sign(data, privateKey);
+    }
+
+    @Override
+    public boolean verify(byte[] data, byte[] signature, PublicKey publicKey) {
+        final VerificationKey key = VerificationKey.of(data, signature, publicKey);
+        if (key != null && verified.getIfPresent(key) != null) {
+            return true;
+        }
+        final boolean valid = delegate.verify(data, signature, publicKey);
+        if (valid && key != null) {
+            verified.put(key, Boolean.TRUE);
+        }
+        return valid;
+    }
+
+    /**
+     * Подписи, найденные в кэше, считаются верными; остальные одним пакетом передаются делегату.
+     */
+    @Override
+    public boolean[] verifyBatch(List<SignedData> batch) {
+        final boolean[] results = new boolean[batch.size()];
+        final List<SignedData> misses = new ArrayList<>();
+        final List<VerificationKey> missKeys = new ArrayList<>();
+        final List<Integer> missPositions = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            final SignedData item = batch.get(i);
+            final VerificationKey key = VerificationKey.of(item.data(), item.signature(), item.publicKey());
+            if (key != null && verified.getIfPresent(key) != null) {
+                results[i] = true;
+            } else {
+                misses.add(item);
+                missKeys.add(key);
+                missPositions.add(i);
+            }
+        }
+        if (misses.isEmpty()) {
+            return results;
+        }
+        final boolean[] missResults = delegate.verifyBatch(misses);
+        for (int i = 0; i < missResults.length; i++) {
+            results[missPositions.get(i)] = missResults[i];
+            if (missResults[i] && missKeys.get(i) != null) {
+                verified.put(missKeys.get(i), Boolean.TRUE);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() throws IOException {
+        verified.invalidateAll();
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Ключ кэша: SHA-256 подписанных данных (для транзакции — её TxId) и SHA-256 подписи вместе с открытым ключом.
+     * Открытый ключ входит в ключ кэша, чтобы подпись, верная для одного ключа, не считалась верной для другого;
+     * для ключа без кодированного представления возвращается {@code null}, и подпись проверяется без кэша.
+     */
+    private record VerificationKey(HashCode payloadDigest, HashCode signatureDigest) {
+        static VerificationKey of(byte[] data, byte[] signature, PublicKey publicKey) {
+            final byte[] encodedKey = publicKey.getEncoded();
+            if (encodedKey == null) {
+                return null;
+            }
+            final HashCode signatureDigest = Hashing.sha256().newHasher()
+                    .putInt(signature.length)
+                    .putBytes(signature)
+                    .putBytes(encodedKey)
+                    .hash();
+            return new VerificationKey(Hashing.sha256().hashBytes(data), signatureDigest);
+        }
+    }
+}
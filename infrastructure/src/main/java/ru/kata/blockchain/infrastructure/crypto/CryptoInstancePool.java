@@ -0,0 +1,69 @@
+package ru.kata.blockchain.infrastructure.crypto;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Пул переиспользуемых JCA-объектов ({@code Signature}, {@code MessageDigest}, {@code KeyPairGenerator}).
+ * <p>
+ * {@code getInstance} при каждом вызове ищет провайдера и создаёт новый объект; пул хранит уже созданные
+ * экземпляры и выдаёт их повторно. Экземпляр, взятый через {@link #acquire()}, принадлежит одному потоку до
+ * {@link #release(Object)}, поэтому объекты, не рассчитанные на многопоточность, используются безопасно.
+ * <p>
+ * Пул не привязан к потокам (в отличие от {@link ThreadLocal}) и подходит для виртуальных потоков: число
+ * созданных экземпляров определяется числом одновременных операций, а не числом потоков.
+ * Пул никогда не блокирует: если свободного экземпляра нет, создаётся новый; если пул полон, возвращённый
+ * экземпляр отбрасывается.
+ *
+ * @param <T> тип объекта
+ */
+public final class CryptoInstancePool<T> {
+    /**
+     * Создаёт новый экземпляр пула.
+     *
+     * @param <T> тип объекта
+     */
+    @FunctionalInterface
+    public interface Factory<T> {
+        T create() throws GeneralSecurityException;
+    }
+
+    private final Factory<T> factory;
+    private final ArrayBlockingQueue<T> idle;
+
+    /**
+     * Пул, хранящий до двух свободных экземпляров на ядро.
+     */
+    public CryptoInstancePool(Factory<T> factory) {
+        this(Runtime.getRuntime().availableProcessors() * 2, factory);
+    }
+
+    /**
+     * @param capacity наибольшее число хранимых свободных экземпляров
+     */
+    public CryptoInstancePool(int capacity, Factory<T> factory) {
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Выдаёт свободный экземпляр или создаёт новый.
+     *
+     * @throws GeneralSecurityException если экземпляр не удалось создать
+     */
+    public T acquire() throws GeneralSecurityException {
+        final T instance = idle.poll();
+        if (instance != null) {
+            return instance;
+        }
+        return factory.create();
+    }
+
+    /**
+     * Возвращает экземпляр в пул. Возвращать можно только экземпляр в исправном состоянии:
+     * после исключения его следует отбросить.
+     */
+    public void release(T instance) {
+        idle.offer(instance);
+    }
+}
@@ -1,11 +1,15 @@
 package ru.kata.blockchain.infrastructure.crypto;
 
-import org.springframework.stereotype.Service;
+import lombok.extern.slf4j.Slf4j;
 import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.crypto.SignedData;
 import ru.kata.blockchain.domain.exceptions.DataSignException;
 import ru.kata.blockchain.domain.exceptions.KeyGenerationException;
 import ru.kata.blockchain.domain.exceptions.VerificationSignatureException;
+import ru.kata.blockchain.infrastructure.jfr.SignatureVerifyEvent;
 
+import java.io.Closeable;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
@@ -13,6 +17,9 @@ import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.Signature;
 import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Через статический блок добавлен BouncyCastle в качестве провайдера
@@ -23,15 +30,48 @@ import java.security.spec.ECGenParameterSpec;
  * sign(byte[] data, PrivateKey privateKey)
  * verify(byte[] data, byte[] signature, PublicKey publicKey)
  * Реализованы методы sign и verify для подписания транзакций и валидации подписи
+ *
+ * verifyBatch(List&lt;SignedData&gt; batch)
+ * Пакет подписей делится на части по {@value #BATCH_LEAF_SIZE} и проверяется в собственном {@link ForkJoinPool}
+ * ограниченного размера (по умолчанию — по числу ядер), одним экземпляром {@link Signature} на часть.
+ * Небольшой пакет проверяется в вызывающем потоке.
+ *
+ * Экземпляры {@link Signature} и инициализированные {@link KeyPairGenerator} не создаются на каждый вызов,
+ * а берутся из {@link CryptoInstancePool}; источник случайности {@link SecureRandom} один на сервис.
+ * Экземпляр, на котором операция завершилась исключением, в пул не возвращается.
+ *
+ * Каждый вызов verify пишет событие JFR {@link SignatureVerifyEvent}, если оно включено в записи.
  */
-@Service
-public class CryptoServiceImpl implements CryptoService {
+@Slf4j
+public class CryptoServiceImpl implements CryptoService, Closeable {
+    private static final String SIGNATURE_ALGORITHM = "SHA256withECDSA";
+    private static final String PROVIDER = "BC";
+    private static final int BATCH_LEAF_SIZE = 8;
+
+    private final ForkJoinPool verifyPool;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final CryptoInstancePool<Signature> signatures =
+            new CryptoInstancePool<>(() -> Signature.getInstance(SIGNATURE_ALGORITHM, PROVIDER));
+    private final CryptoInstancePool<KeyPairGenerator> keyPairGenerators = new CryptoInstancePool<>(this::createKeyPairGenerator);
+
+    public CryptoServiceImpl() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param verifyParallelism число потоков для пакетной проверки подписей
+     */
+    public CryptoServiceImpl(int verifyParallelism) {
+        this.verifyPool = new ForkJoinPool(verifyParallelism);
+    }
+
     @Override
     public KeyPair generateKeyPair() {
         try {
-            final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC", "BC");
-            keyPairGenerator.initialize(new ECGenParameterSpec("secp256k1"), new SecureRandom());
-            return keyPairGenerator.generateKeyPair();
+            final KeyPairGenerator keyPairGenerator = keyPairGenerators.acquire();
+            final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+            keyPairGenerators.release(keyPairGenerator);
+            return keyPair;
         } catch (Exception e) {
             throw new KeyGenerationException("Key pair generation failed", e);
         }
@@ -40,10 +80,12 @@ public class CryptoServiceImpl implements CryptoService {
     @Override
     public byte[] sign(byte[] data, PrivateKey privateKey) { //TODO:описание что за дата? для чего подпись? что делает метод?
         try {
-            final Signature signature = Signature.getInstance("SHA256withECDSA", "BC");
-            signature.initSign(privateKey);
+            final Signature signature = signatures.acquire();
+            signature.initSign(privateKey, secureRandom);
             signature.update(data);
-            return signature.sign();
+            final byte[] signed = signature.sign();
+            signatures.release(signature);
+            return signed;
         } catch (Exception e) {
             throw new DataSignException("Signing failed", e);
         }
@@ -51,14 +93,101 @@ public class CryptoServiceImpl implements CryptoService {
 
     @Override
     public boolean verify(byte[] data, byte[] signature, PublicKey publicKey) {
+        final SignatureVerifyEvent event = new SignatureVerifyEvent();
+        event.begin();
         try {
-            final Signature sign = Signature.getInstance("SHA256withECDSA", "BC");
+            final Signature sign = signatures.acquire();
             sign.initVerify(publicKey);
             sign.update(data);
-            return sign.verify(signature);
+            final boolean valid = sign.verify(signature);
+            signatures.release(sign);
+            event.end();
+            if (event.shouldCommit()) {
+                event.txId = SignatureVerifyEvent.txIdOf(data);
+                event.dataSize = data.length;
+                event.valid = valid;
+                event.commit();
+            }
+            return valid;
         } catch (Exception e) {
             throw new VerificationSignatureException("Signature verification failed", e);
         }
     }
-}
 
+    @Override
+    public boolean[] verifyBatch(List<SignedData> batch) {
+        final boolean[] results = new boolean[batch.size()];
+        if (results.length <= BATCH_LEAF_SIZE) {
+            verifyRange(batch, results, 0, results.length);
+        } else {
+            verifyPool.invoke(new VerifyTask(batch, results, 0, results.length));
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        verifyPool.shutdown();
+    }
+
+    private KeyPairGenerator createKeyPairGenerator() throws GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC", "BC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256k1"), secureRandom);
+        return keyPairGenerator;
+    }
+
+    /**
+     * Проверяет часть пакета одним экземпляром {@link Signature}. Неудачная проверка отдельной подписи
+     * не портит экземпляр: {@code initVerify} перед каждой подписью сбрасывает его состояние.
+     */
+    private void verifyRange(List<SignedData> batch, boolean[] results, int from, int to) {
+        final Signature verifier;
+        try {
+            verifier = signatures.acquire();
+        } catch (GeneralSecurityException e) {
+            throw new VerificationSignatureException("Signature verification failed", e);
+        }
+        for (int i = from; i < to; i++) {
+            results[i] = verifyQuietly(verifier, batch.get(i));
+        }
+        signatures.release(verifier);
+    }
+
+    private static boolean verifyQuietly(Signature verifier, SignedData item) {
+        try {
+            verifier.initVerify(item.publicKey());
+            verifier.update(item.data());
+            return verifier.verify(item.signature());
+        } catch (GeneralSecurityException | RuntimeException e) {
+            log.debug("Signature in batch could not be verified: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Делит диапазон пакета пополам, пока он не станет не больше {@value #BATCH_LEAF_SIZE}.
+     */
+    private final class VerifyTask extends RecursiveAction {
+        private final transient List<SignedData> batch;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+
+        VerifyTask(List<SignedData> batch, boolean[] results, int from, int to) {
+            this.batch = batch;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_LEAF_SIZE) {
+                verifyRange(batch, results, from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new VerifyTask(batch, results, from, middle), new VerifyTask(batch, results, middle, to));
+        }
+    }
+}
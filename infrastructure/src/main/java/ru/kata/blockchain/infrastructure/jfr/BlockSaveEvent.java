@@ -0,0 +1,35 @@
+package ru.kata.blockchain.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о сохранении блока в хранилище: номер блока, число записанных блоков и байт.
+ * <p>
+ * JSON-файл при каждом сохранении переписывается целиком, поэтому для него {@code blocks} — длина всей цепочки,
+ * а {@code bytesWritten} — размер файла; сегментный журнал дописывает одну запись блока.
+ */
+@Name("ru.kata.blockchain.BlockSave")
+@Label("Block Save")
+@Category({"Blockchain", "Storage"})
+@Description("Block persisted by a BlockRepository")
+@StackTrace(false)
+public class BlockSaveEvent extends Event {
+    @Label("Block Index")
+    public long blockIndex;
+
+    @Label("Blocks Written")
+    public int blocks;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Storage")
+    public String storage;
+}
@@ -0,0 +1,30 @@
+package ru.kata.blockchain.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о загрузке цепочки с диска при старте: путь, число загруженных блоков и прочитанных байт.
+ * Сегментный журнал читается по сегментам через отображение в память, поэтому для него {@code bytesRead} не заполняется.
+ */
+@Name("ru.kata.blockchain.ChainLoad")
+@Label("Chain Load")
+@Category({"Blockchain", "Storage"})
+@Description("Chain loaded from disk on startup")
+@StackTrace(false)
+public class ChainLoadEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Blocks Loaded")
+    public long blocks;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+}
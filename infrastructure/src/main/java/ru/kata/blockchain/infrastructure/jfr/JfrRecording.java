@@ -0,0 +1,97 @@
+package ru.kata.blockchain.infrastructure.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Запись Java Flight Recorder, которую узел ведёт сам, без агентов и флагов JVM.
+ * <p>
+ * Настройки записи — стандартный профиль JDK {@code baseSettings} ({@code default} или {@code profile};
+ * пустая строка — без него), поверх которого включаются события узла из профиля {@value #PROFILE}.
+ * Запись хранит события за последние {@code maxAge} и сбрасывается в {@code destination} при остановке узла.
+ */
+@Slf4j
+public class JfrRecording implements Closeable {
+    static final String PROFILE = "/jfr/blockchain.jfc";
+
+    private final String baseSettings;
+    private final Path destination;
+    private final Duration maxAge;
+    private Recording recording;
+
+    public JfrRecording(String baseSettings, Path destination, Duration maxAge) {
+        this.baseSettings = baseSettings;
+        this.destination = destination;
+        this.maxAge = maxAge;
+    }
+
+    public synchronized void start() throws IOException {
+        final Map<String, String> settings = new HashMap<>();
+        if (!baseSettings.isBlank()) {
+            settings.putAll(loadBaseSettings().getSettings());
+        }
+        settings.putAll(profile().getSettings());
+        final Path parent = destination.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        recording = new Recording(settings);
+        recording.setName("blockchain");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setDumpOnExit(true);
+        recording.setDestination(destination);
+        recording.start();
+        log.info("JFR recording started: settings={}+{}, destination={}, maxAge={}", baseSettings, PROFILE,
+                destination.toAbsolutePath(), maxAge);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recording == null) {
+            return;
+        }
+        recording.stop();
+        recording.close();
+        recording = null;
+        log.info("JFR recording written to {}", destination.toAbsolutePath());
+    }
+
+    /**
+     * Профиль событий узла, который поставляется вместе с приложением.
+     */
+    static Configuration profile() throws IOException {
+        try (InputStream stream = JfrRecording.class.getResourceAsStream(PROFILE)) {
+            if (stream == null) {
+                throw new IOException("JFR profile not found on classpath: " + PROFILE);
+            }
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR profile " + PROFILE, e);
+        }
+    }
+
+    private Configuration loadBaseSettings() throws IOException {
+        try {
+            return Configuration.getConfiguration(baseSettings);
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR settings: " + baseSettings, e);
+        }
+    }
+}
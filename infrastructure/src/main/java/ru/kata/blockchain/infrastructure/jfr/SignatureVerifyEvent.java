@@ -0,0 +1,47 @@
+package ru.kata.blockchain.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Событие JFR о проверке одной подписи.
+ * <p>
+ * Подписанные данные транзакции — её неподписанный payload, поэтому {@code txId} — SHA-256 подписанных данных.
+ * Хэш считается только для записываемого события ({@link #shouldCommit()}), выключенное событие его не считает.
+ */
+@Name("ru.kata.blockchain.SignatureVerify")
+@Label("Signature Verify")
+@Category({"Blockchain", "Crypto"})
+@Description("Verification of a single ECDSA signature")
+@StackTrace(false)
+public class SignatureVerifyEvent extends Event {
+    @Label("Transaction Id")
+    public String txId;
+
+    @Label("Signed Data Size")
+    @DataAmount
+    public int dataSize;
+
+    @Label("Valid")
+    public boolean valid;
+
+    /**
+     * TxId подписанных данных — SHA-256 в шестнадцатеричном виде.
+     */
+    public static String txIdOf(byte[] data) {
+        try {
+            return Hash.fromBytes(MessageDigest.getInstance("SHA-256").digest(data)).value();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.kata.blockchain.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import ru.kata.blockchain.application.logging.HotPathLogging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Фильтр Logback, прореживающий сообщения горячего пути — помеченные маркером {@link HotPathLogging#HOT_PATH}.
+ * <p>
+ * Для каждого шаблона сообщения пропускается не больше {@code maxPerSecond} сообщений в секунду, остальные
+ * отбрасываются до создания события лога: аргументы не форматируются, а appender не вызывается.
+ * Сообщения уровня ERROR, сообщения без маркера и сообщения выключенных уровней фильтр не трогает.
+ * Значение {@code maxPerSecond <= 0} выключает прореживание: пишется каждое сообщение.
+ * <p>
+ * Окно — текущая секунда монотонных часов; счётчик окна сбрасывается первым сообщением новой секунды без блокировок,
+ * поэтому на границе окна под нагрузкой может пройти на несколько сообщений больше лимита.
+ * Число отброшенных сообщений доступно через {@link #getSuppressed()}.
+ */
+public class HotPathSamplingFilter extends TurboFilter {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongSupplier clock;
+    private int maxPerSecond;
+
+    public HotPathSamplingFilter() {
+        this(System::nanoTime);
+    }
+
+    HotPathSamplingFilter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (maxPerSecond <= 0 || marker == null || format == null || !marker.contains(HotPathLogging.HOT_PATH)
+                || level.isGreaterOrEqual(Level.ERROR) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        final Window window = windows.computeIfAbsent(format, key -> new Window());
+        if (window.tryAcquire(clock.getAsLong() / NANOS_PER_SECOND, maxPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    /**
+     * Задаёт лимит сообщений в секунду на шаблон; {@code 0} и отрицательные значения выключают прореживание.
+     */
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Возвращает число сообщений, отброшенных фильтром с момента запуска.
+     */
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    private static final class Window {
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile long second = Long.MIN_VALUE;
+
+        private boolean tryAcquire(long now, int limit) {
+            if (second != now) {
+                second = now;
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ru.kata.blockchain.infrastructure.mapper;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
@@ -7,8 +9,10 @@ import ru.kata.blockchain.domain.block.Block;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Класс {@code BlockMapper} отвечает за сериализацию и десериализацию блоков {@link Block}
@@ -21,7 +25,10 @@ import java.util.List;
  * <p><b>Основные функции:</b></p>
  * <ul>
  *     <li>{@link #readBlocks(byte[])} — десериализует JSON-массив байтов в список блоков</li>
+ *     <li>{@link #readBlocks(Path, Consumer)} — потоково читает JSON-массив блоков из файла, не загружая его целиком</li>
  *     <li>{@link #writeToFile(Path, List)} — сериализует список блоков в JSON и сохраняет в файл</li>
+ *     <li>{@link #writeBlock(Block)} / {@link #readBlock(byte[])} — компактный JSON одного блока
+ *     (используется как полезная нагрузка записей в сегментном журнале)</li>
  * </ul>
  */
 public final class BlockMapper {
@@ -31,6 +38,7 @@ public final class BlockMapper {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new GuavaModule()); // для поддержки ImmutableList
         this.objectMapper.registerModule(new JavaTimeModule()); //для поддержки Instant
+        this.objectMapper.registerModule(new PublicKeyModule()); // PublicKey как Base64 X.509
     }
 
     /**
@@ -42,6 +50,40 @@ public final class BlockMapper {
         });
     }
 
+    /**
+     * Потоково читает JSON-массив блоков из файла и передаёт блоки в {@code consumer} по одному.
+     *
+     * @return количество прочитанных блоков
+     */
+    public long readBlocks(Path path, Consumer<Block> consumer) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(path.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Blockchain file must contain a JSON array: " + path);
+            }
+            long count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(objectMapper.readValue(parser, Block.class));
+                count++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected token in blockchain file " + path + ": " + parser.currentToken());
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Проверяет, что файл существует и JSON-массив в нём содержит хотя бы один блок; читается только начало файла.
+     */
+    public boolean containsBlocks(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) == 0) {
+            return false;
+        }
+        try (JsonParser parser = objectMapper.createParser(path.toFile())) {
+            return parser.nextToken() == JsonToken.START_ARRAY && parser.nextToken() == JsonToken.START_OBJECT;
+        }
+    }
+
     /**
      * Сохраняет список блоков в файл, сериализуя его в отформатированный JSON.
      */
@@ -49,4 +91,18 @@ public final class BlockMapper {
     public void writeToFile(Path tempPath, List<Block> blockchain) throws IOException {
         objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempPath.toFile(), blockchain);
     }
+
+    /**
+     * Сериализует один блок в компактный (без форматирования) JSON.
+     */
+    public byte[] writeBlock(Block block) throws IOException {
+        return objectMapper.writeValueAsBytes(block);
+    }
+
+    /**
+     * Десериализует один блок из JSON.
+     */
+    public Block readBlock(byte[] json) throws IOException {
+        return objectMapper.readValue(json, Block.class);
+    }
 }
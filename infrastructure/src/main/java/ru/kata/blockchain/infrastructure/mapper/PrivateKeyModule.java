@@ -0,0 +1,52 @@
+package ru.kata.blockchain.infrastructure.mapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Jackson-модуль для чтения {@link PrivateKey} из тела запроса {@code POST /api/transaction}.
+ * <p>
+ * Ключ передаётся строкой Base64 от PKCS#8-кодировки ({@link PrivateKey#getEncoded()}), как это описано
+ * в {@code docs/api.adoc}. Сериализатора нет: приватные ключи узел никогда не отдаёт.
+ */
+public final class PrivateKeyModule extends SimpleModule {
+    private static final String ALGORITHM = "EC";
+    private static final BouncyCastleProvider PROVIDER = new BouncyCastleProvider();
+
+    public PrivateKeyModule() {
+        super("PrivateKeyModule");
+        addDeserializer(PrivateKey.class, new PrivateKeyDeserializer());
+    }
+
+    /**
+     * Восстанавливает приватный ключ из PKCS#8-кодировки.
+     */
+    static PrivateKey decode(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance(ALGORITHM, PROVIDER).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid private key encoding", e);
+        }
+    }
+
+    private static final class PrivateKeyDeserializer extends JsonDeserializer<PrivateKey> {
+        @Override
+        public PrivateKey deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                return context.reportInputMismatch(PrivateKey.class, "Private key must be a Base64 string");
+            }
+            return decode(Base64.getDecoder().decode(parser.getText()));
+        }
+    }
+}
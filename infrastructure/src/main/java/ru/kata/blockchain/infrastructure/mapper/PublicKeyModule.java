@@ -0,0 +1,74 @@
+package ru.kata.blockchain.infrastructure.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Jackson-модуль для (де)сериализации {@link PublicKey}.
+ * <p>
+ * Ключ записывается строкой Base64 от X.509-кодировки ({@link PublicKey#getEncoded()}),
+ * как это описано в {@code docs/api.adoc}. При чтении дополнительно поддерживается старый формат,
+ * в котором Jackson сохранял ключ как объект с полями {@code algorithm} и {@code encoded}.
+ */
+public final class PublicKeyModule extends SimpleModule {
+    private static final String DEFAULT_ALGORITHM = "EC";
+    private static final BouncyCastleProvider PROVIDER = new BouncyCastleProvider();
+
+    public PublicKeyModule() {
+        super("PublicKeyModule");
+        addSerializer(PublicKey.class, new PublicKeySerializer());
+        addDeserializer(PublicKey.class, new PublicKeyDeserializer());
+    }
+
+    /**
+     * Восстанавливает публичный ключ из X.509-кодировки.
+     */
+    static PublicKey decode(String algorithm, byte[] encoded) {
+        try {
+            return KeyFactory.getInstance(algorithm, PROVIDER).generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid public key encoding", e);
+        }
+    }
+
+    private static final class PublicKeySerializer extends JsonSerializer<PublicKey> {
+        @Override
+        public void serialize(PublicKey value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(Base64.getEncoder().encodeToString(value.getEncoded()));
+        }
+    }
+
+    private static final class PublicKeyDeserializer extends JsonDeserializer<PublicKey> {
+        @Override
+        public PublicKey deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            final JsonNode node = parser.readValueAsTree();
+            if (node.isTextual()) {
+                return decode(DEFAULT_ALGORITHM, Base64.getDecoder().decode(node.asText()));
+            }
+            final JsonNode encoded = node.get("encoded");
+            if (encoded == null) {
+                return context.reportInputMismatch(PublicKey.class, "Public key must be a Base64 string or an object with 'encoded' field");
+            }
+            final JsonNode algorithm = node.get("algorithm");
+            String keyAlgorithm = DEFAULT_ALGORITHM;
+            if (algorithm != null) {
+                keyAlgorithm = algorithm.asText();
+            }
+            return decode(keyAlgorithm, encoded.binaryValue());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.kata.blockchain.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.service.MempoolService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Датчики состояния узла, значения которых читаются при каждом опросе реестра:
+ * <ul>
+ *     <li>{@code blockchain.chain.height} — номер последнего блока цепочки, {@code NaN} для пустой цепочки;</li>
+ *     <li>{@code blockchain.mempool.size} и {@code blockchain.mempool.bytes} — число транзакций мемпула
+ *     и их суммарный сериализованный размер;</li>
+ *     <li>{@code blockchain.chain.file.size} — размер файла цепочки или, для сегментного журнала,
+ *     всех файлов его каталога (сегменты и индекс блоков).</li>
+ * </ul>
+ * Spring Boot привязывает бины {@link MeterBinder} к реестру сам.
+ */
+@Slf4j
+public class ChainMetrics implements MeterBinder {
+    private final BlockRepository blockRepository;
+    private final MempoolService mempoolService;
+    private final Path chainPath;
+
+    public ChainMetrics(BlockRepository blockRepository, MempoolService mempoolService, Path chainPath) {
+        this.blockRepository = blockRepository;
+        this.mempoolService = mempoolService;
+        this.chainPath = chainPath;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("blockchain.chain.height", blockRepository, ChainMetrics::height)
+                .description("Index of the latest block in the chain")
+                .register(registry);
+        Gauge.builder("blockchain.mempool.size", mempoolService, MempoolService::size)
+                .description("Transactions waiting in the mempool")
+                .baseUnit("transactions")
+                .register(registry);
+        Gauge.builder("blockchain.mempool.bytes", mempoolService, MempoolService::sizeInBytes)
+                .description("Serialized size of the transactions waiting in the mempool")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("blockchain.chain.file.size", this, ChainMetrics::chainFileSize)
+                .description("Size of the chain storage on disk")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    double chainFileSize() {
+        try {
+            if (Files.notExists(chainPath)) {
+                return 0;
+            }
+            if (!Files.isDirectory(chainPath)) {
+                return Files.size(chainPath);
+            }
+            try (Stream<Path> files = Files.walk(chainPath)) {
+                return files.filter(Files::isRegularFile).mapToLong(ChainMetrics::fileSize).sum();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.debug("Failed to measure chain storage size: {}", chainPath, e);
+            return Double.NaN;
+        }
+    }
+
+    private static double height(BlockRepository blockRepository) {
+        return blockRepository.findLatest().map(Block::index).map(Long::doubleValue).orElse(Double.NaN);
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.kata.blockchain.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.kata.blockchain.domain.error.ErrorCodes;
+import ru.kata.blockchain.domain.service.PipelineMetrics;
+import ru.kata.blockchain.domain.service.PipelineStage;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реализация {@link PipelineMetrics} на Micrometer.
+ * <p>
+ * Длительность этапа пишется в таймер {@code blockchain.pipeline.stage} с тегом {@code stage}
+ * ({@link PipelineStage#getTag()}), отклонённые транзакции — в счётчик {@code blockchain.pipeline.rejections}
+ * с тегами {@code code} (имя {@link ErrorCodes}) и {@code error} (числовой код). Метры всех этапов и кодов
+ * регистрируются в конструкторе, поэтому запись не ищет метр в реестре и не выделяет памяти.
+ * <p>
+ * Перцентили и гистограммы таймеров задаются свойствами {@code management.metrics.distribution.*}
+ * для префикса {@code blockchain}.
+ */
+public class MicrometerPipelineMetrics implements PipelineMetrics {
+    static final String STAGE_TIMER = "blockchain.pipeline.stage";
+    static final String REJECTION_COUNTER = "blockchain.pipeline.rejections";
+
+    private final Map<PipelineStage, Timer> stageTimers = new EnumMap<>(PipelineStage.class);
+    private final Map<ErrorCodes, Counter> rejectionCounters = new EnumMap<>(ErrorCodes.class);
+
+    public MicrometerPipelineMetrics(MeterRegistry meterRegistry) {
+        for (PipelineStage stage : PipelineStage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Duration of a transaction pipeline stage")
+                    .tag("stage", stage.getTag())
+                    .register(meterRegistry));
+        }
+        for (ErrorCodes code : ErrorCodes.values()) {
+            rejectionCounters.put(code, Counter.builder(REJECTION_COUNTER)
+                    .description("Transactions rejected with an error code")
+                    .tag("code", code.name())
+                    .tag("error", String.valueOf(code.getCode()))
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void recordStage(PipelineStage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRejection(ErrorCodes code) {
+        rejectionCounters.get(code).increment();
+    }
+}
@@ -0,0 +1,129 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockCommitListener;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.service.MiningTargetService;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.storage.SnapshotFile;
+import ru.kata.blockchain.infrastructure.storage.SnapshotSchedule;
+
+import java.io.Closeable;
+import java.util.Optional;
+
+/**
+ * Текущая цель сложности доказательства работы, пересчитываемая по меткам времени блоков.
+ * <p>
+ * Цель начинается с {@code initialTarget} и пересчитывается после каждых {@code window} блоков
+ * ({@link RetargetSchedule}). Цель зависит только от меток времени в цепочке, поэтому после перезапуска
+ * она восстанавливается тем же пересчётом.
+ * <p>
+ * При создании цель восстанавливается из снимка ({@link SnapshotFile}: цель и метки времени последнего окна),
+ * если он построен по текущей цепочке, и пересчитывается по блокам выше снимка; без снимка — по всей цепочке.
+ * Затем применяются фиксируемые блоки ({@link BlockCommitListener}); новый снимок пишется раз
+ * в {@code snapshotInterval} блоков ({@link SnapshotSchedule}) потоком записи снимков, а не потоком фиксации.
+ */
+@Slf4j
+public class DifficultyAdjuster implements MiningTargetService, BlockCommitListener, Closeable {
+    private static final int CATCH_UP_BATCH = 1000;
+
+    private final BlockRepository blockRepository;
+    private final RetargetSchedule schedule;
+    private final SnapshotSchedule snapshots;
+    private long appliedHeight = -1;
+    private Hash appliedHash;
+
+    public DifficultyAdjuster(BlockRepository blockRepository, Hash initialTarget, int window, long targetBlockMillis) {
+        this(blockRepository, initialTarget, window, targetBlockMillis, null, 0);
+    }
+
+    /**
+     * @param snapshotFile     файл снимка или {@code null}, если снимки не используются
+     * @param snapshotInterval число блоков между снимками
+     */
+    public DifficultyAdjuster(BlockRepository blockRepository,
+                              Hash initialTarget,
+                              int window,
+                              long targetBlockMillis,
+                              SnapshotFile snapshotFile,
+                              long snapshotInterval) {
+        this.blockRepository = blockRepository;
+        this.schedule = new RetargetSchedule(initialTarget, window, targetBlockMillis);
+        this.snapshots = new SnapshotSchedule(snapshotFile, snapshotInterval, "Mining target");
+        restoreSnapshot();
+        blockRepository.addCommitListener(this);
+        catchUp();
+    }
+
+    /**
+     * Цель для следующего блока.
+     */
+    @Override
+    public synchronized Hash currentTarget() {
+        return schedule.target();
+    }
+
+    @Override
+    public synchronized void onBlockCommitted(Block block) {
+        if (block.index() <= appliedHeight) {
+            return;
+        }
+        if (block.index() == appliedHeight + 1) {
+            apply(block);
+            writeSnapshotIfDue();
+            return;
+        }
+        catchUp();
+    }
+
+    /**
+     * Дочитывает из репозитория блоки выше последнего применённого, пачками по {@value #CATCH_UP_BATCH}.
+     */
+    private synchronized void catchUp() {
+        appliedHeight = Math.max(appliedHeight, blockRepository.forEachFrom(appliedHeight + 1, CATCH_UP_BATCH, this::apply));
+        log.info("Mining target at height {}: difficulty={}", appliedHeight, Difficulty.difficulty(schedule.target()));
+        writeSnapshotIfDue();
+    }
+
+    private void apply(Block block) {
+        final Hash previous = schedule.target();
+        schedule.apply(block);
+        appliedHeight = Math.max(appliedHeight, block.index());
+        appliedHash = block.hash();
+        if (!previous.equals(schedule.target())) {
+            log.debug("Mining target adjusted at block {}: difficulty {} -> {}",
+                    block.index(), Difficulty.difficulty(previous), Difficulty.difficulty(schedule.target()));
+        }
+    }
+
+    /**
+     * Восстанавливает цель и метки времени последнего окна из снимка, если он построен по текущей цепочке.
+     */
+    private void restoreSnapshot() {
+        final Optional<SnapshotFile.Snapshot> snapshot = snapshots.restore(blockRepository, schedule::restore);
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        appliedHeight = snapshot.get().height();
+        appliedHash = snapshot.get().tipHash();
+        log.info("Mining target restored from snapshot at height {}", appliedHeight);
+    }
+
+    /**
+     * Дожидается записи поставленного снимка.
+     */
+    @Override
+    public void close() {
+        snapshots.close();
+    }
+
+    private void writeSnapshotIfDue() {
+        if (appliedHash == null || !snapshots.isDue(appliedHeight)) {
+            return;
+        }
+        final byte[] state = schedule.state();
+        snapshots.write(appliedHeight, appliedHash, () -> state);
+    }
+}
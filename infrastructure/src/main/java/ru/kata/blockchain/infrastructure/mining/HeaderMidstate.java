@@ -0,0 +1,145 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import ru.kata.blockchain.domain.vo.Hash;
+
+/**
+ * SHA-256 заголовка блока с предвычисленным состоянием после первых 64 байт (midstate).
+ * <p>
+ * {@code nonce} записан в последние 8 байт заголовка ({@link ru.kata.blockchain.domain.block.BlockHeader}),
+ * а первые 64 байта при переборе {@code nonce} не меняются. Поэтому их сжатие выполняется один раз,
+ * и каждая попытка — одно сжатие второго блока SHA-256 с хвостом заголовка и дополнением, без выделения памяти.
+ * <p>
+ * Экземпляр хранит рабочие буферы и не потокобезопасен: у каждого потока майнера свой экземпляр.
+ */
+final class HeaderMidstate {
+    static final int DIGEST_WORDS = 8;
+    private static final int BLOCK_BYTES = 64;
+    private static final int[] INITIAL_STATE = {
+            0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+            0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+    private static final int[] K = {
+            0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+            0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+            0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+            0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+            0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+            0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+            0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+            0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    private final int[] midstate = new int[DIGEST_WORDS];
+    private final byte[] tail = new byte[BLOCK_BYTES];
+    private final int nonceOffset;
+    private final int[] schedule = new int[K.length];
+    private final int[] digest = new int[DIGEST_WORDS];
+
+    HeaderMidstate(byte[] header) {
+        final int tailLength = header.length - BLOCK_BYTES;
+        if (tailLength < Long.BYTES || tailLength + 1 + Long.BYTES > BLOCK_BYTES) {
+            throw new IllegalArgumentException("Header must be longer than one SHA-256 block and end within the second one: "
+                    + header.length + " bytes");
+        }
+        System.arraycopy(INITIAL_STATE, 0, midstate, 0, DIGEST_WORDS);
+        loadSchedule(header, 0);
+        compress(midstate);
+        System.arraycopy(header, BLOCK_BYTES, tail, 0, tailLength);
+        tail[tailLength] = (byte) 0x80;
+        writeLong(tail, BLOCK_BYTES - Long.BYTES, header.length * (long) Byte.SIZE);
+        nonceOffset = tailLength - Long.BYTES;
+    }
+
+    /**
+     * SHA-256 заголовка с указанным {@code nonce}. Возвращает внутренний буфер из {@value #DIGEST_WORDS} слов
+     * big-endian, который перезаписывается следующим вызовом.
+     */
+    int[] hash(long nonce) {
+        writeLong(tail, nonceOffset, nonce);
+        loadSchedule(tail, 0);
+        System.arraycopy(midstate, 0, digest, 0, DIGEST_WORDS);
+        compress(digest);
+        return digest;
+    }
+
+    /**
+     * Слова хэша, например цели сложности, в формате результата {@link #hash(long)}.
+     */
+    static int[] words(Hash hash) {
+        final byte[] bytes = hash.toBytes();
+        final int[] words = new int[DIGEST_WORDS];
+        for (int i = 0; i < DIGEST_WORDS; i++) {
+            words[i] = readInt(bytes, i * Integer.BYTES);
+        }
+        return words;
+    }
+
+    /**
+     * Проверяет, что хэш, прочитанный как беззнаковое число big-endian, не больше цели.
+     */
+    static boolean meets(int[] digest, int[] target) {
+        for (int i = 0; i < DIGEST_WORDS; i++) {
+            final int comparison = Integer.compareUnsigned(digest[i], target[i]);
+            if (comparison != 0) {
+                return comparison < 0;
+            }
+        }
+        return true;
+    }
+
+    private void loadSchedule(byte[] bytes, int offset) {
+        for (int i = 0; i < 16; i++) {
+            schedule[i] = readInt(bytes, offset + i * Integer.BYTES);
+        }
+        for (int i = 16; i < K.length; i++) {
+            final int w15 = schedule[i - 15];
+            final int w2 = schedule[i - 2];
+            final int s0 = Integer.rotateRight(w15, 7) ^ Integer.rotateRight(w15, 18) ^ (w15 >>> 3);
+            final int s1 = Integer.rotateRight(w2, 17) ^ Integer.rotateRight(w2, 19) ^ (w2 >>> 10);
+            schedule[i] = schedule[i - 16] + s0 + schedule[i - 7] + s1;
+        }
+    }
+
+    private void compress(int[] state) {
+        int a = state[0];
+        int b = state[1];
+        int c = state[2];
+        int d = state[3];
+        int e = state[4];
+        int f = state[5];
+        int g = state[6];
+        int h = state[7];
+        for (int i = 0; i < K.length; i++) {
+            final int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+            final int t1 = h + s1 + ((e & f) ^ (~e & g)) + K[i] + schedule[i];
+            final int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+            final int t2 = s0 + ((a & b) ^ (a & c) ^ (b & c));
+            h = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+        state[4] += e;
+        state[5] += f;
+        state[6] += g;
+        state[7] += h;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - i * 8));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockCommitListener;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.service.MiningService;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Майнер доказательства работы, перебирающий {@code nonce} во всех потоках.
+ * <p>
+ * Пространство {@code nonce} делится на диапазоны по {@value #CHUNK_SIZE} значений: поток берёт следующий
+ * диапазон из общего счётчика, поэтому потоки не пересекаются и не простаивают, если один из них медленнее.
+ * Каждая попытка хеширует только второй блок SHA-256 заголовка ({@link HeaderMidstate}).
+ * <p>
+ * Добыча прекращается, как только один поток нашёл подходящий {@code nonce}, при остановке майнера или
+ * если в цепочку зафиксирован блок с тем же или большим номером ({@link BlockCommitListener}): такой блок
+ * уже не может быть добавлен.
+ * <p>
+ * Цель сложности берётся из {@link DifficultyAdjuster}. Число хешей каждого потока публикуется счётчиком
+ * {@code blockchain.mining.hashes} с тегом {@code worker}, скорость каждого потока пишется в лог после каждого блока.
+ */
+@Slf4j
+public class ParallelMiner implements MiningService, BlockCommitListener, Closeable {
+    static final long CHUNK_SIZE = 1L << 16;
+    private static final int CANCEL_CHECK_MASK = 1024 - 1;
+
+    private final BlockRepository blockRepository;
+    private final DifficultyAdjuster difficultyAdjuster;
+    private final int threads;
+    private final AtomicLong[] workerHashes;
+    private final ExecutorService executor;
+    private final AtomicReference<Job> currentJob = new AtomicReference<>();
+    private volatile boolean closed;
+
+    public ParallelMiner(BlockRepository blockRepository, DifficultyAdjuster difficultyAdjuster, int threads, MeterRegistry meterRegistry) {
+        this.blockRepository = blockRepository;
+        this.difficultyAdjuster = difficultyAdjuster;
+        this.threads = resolveThreads(threads);
+        this.workerHashes = new AtomicLong[this.threads];
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "miner-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int worker = 0; worker < this.threads; worker++) {
+            workerHashes[worker] = new AtomicLong();
+            FunctionCounter.builder("blockchain.mining.hashes", workerHashes[worker], AtomicLong::get)
+                    .description("Header hashes computed by a miner worker")
+                    .tag("worker", String.valueOf(worker))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("blockchain.mining.difficulty", difficultyAdjuster, adjuster -> Difficulty.difficulty(adjuster.currentTarget()))
+                .description("Expected header hashes per mined block")
+                .register(meterRegistry);
+        blockRepository.addCommitListener(this);
+        log.info("Miner started: threads={}", this.threads);
+    }
+
+    @Override
+    public Optional<BlockHeader> mine(BlockHeader template) {
+        if (closed) {
+            return Optional.empty();
+        }
+        final Job job = new Job(template.index(), template.toBytes(), HeaderMidstate.words(difficultyAdjuster.currentTarget()), threads);
+        currentJob.set(job);
+        if (blockRepository.findLatest().map(Block::index).orElse(-1L) >= template.index()) {
+            job.cancel();
+        }
+        final long started = System.nanoTime();
+        try {
+            runWorkers(job);
+        } finally {
+            currentJob.compareAndSet(job, null);
+        }
+        report(job, System.nanoTime() - started);
+        if (!job.found.get()) {
+            return Optional.empty();
+        }
+        return Optional.of(new BlockHeader(template.index(), template.timestamp(), template.previousHash(), template.merkleRoot(),
+                job.nonce));
+    }
+
+    /**
+     * Отменяет добычу, если зафиксирован блок с тем же или большим номером.
+     */
+    @Override
+    public void onBlockCommitted(Block block) {
+        final Job job = currentJob.get();
+        if (job != null && block.index() >= job.index) {
+            log.info("Block {} committed while mining block {}, cancelling", block.index(), job.index);
+            job.cancel();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        final Job job = currentJob.get();
+        if (job != null) {
+            job.cancel();
+        }
+        executor.shutdownNow();
+    }
+
+    private void runWorkers(Job job) {
+        final List<Future<?>> workers = new ArrayList<>(threads);
+        for (int worker = 0; worker < threads; worker++) {
+            final int workerIndex = worker;
+            workers.add(executor.submit(() -> search(job, workerIndex)));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            job.cancel();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            job.cancel();
+            throw new IllegalStateException("Miner worker failed", e.getCause());
+        }
+    }
+
+    private void search(Job job, int worker) {
+        final HeaderMidstate midstate = new HeaderMidstate(job.header);
+        while (!job.done) {
+            final long start = job.nextChunk.getAndAdd(CHUNK_SIZE);
+            long nonce = start;
+            while (nonce < start + CHUNK_SIZE) {
+                if (HeaderMidstate.meets(midstate.hash(nonce), job.target)) {
+                    job.complete(nonce);
+                    nonce++;
+                    break;
+                }
+                nonce++;
+                if ((nonce & CANCEL_CHECK_MASK) == 0 && job.done) {
+                    break;
+                }
+            }
+            job.hashes[worker] += nonce - start;
+            workerHashes[worker].addAndGet(nonce - start);
+        }
+    }
+
+    private void report(Job job, long elapsedNanos) {
+        final double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        final long total = Arrays.stream(job.hashes).sum();
+        final long[] rates = Arrays.stream(job.hashes).map(hashes -> Math.round(hashes / seconds)).toArray();
+        if (job.found.get()) {
+            log.info("Block {} mined: nonce={}, hashes={}, {} ms, {} H/s, per thread {} H/s",
+                    job.index, job.nonce, total, elapsedNanos / 1_000_000, Math.round(total / seconds), Arrays.toString(rates));
+        } else {
+            log.info("Mining of block {} cancelled after {} hashes, {} ms, per thread {} H/s",
+                    job.index, total, elapsedNanos / 1_000_000, Arrays.toString(rates));
+        }
+    }
+
+    private static int resolveThreads(int threads) {
+        if (threads > 0) {
+            return threads;
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Задание на добычу одного блока. {@code hashes[i]} пишет только поток {@code i}; читается после завершения потоков.
+     */
+    private static final class Job {
+        private final long index;
+        private final byte[] header;
+        private final int[] target;
+        private final long[] hashes;
+        private final AtomicLong nextChunk = new AtomicLong();
+        private final AtomicBoolean found = new AtomicBoolean();
+        private volatile boolean done;
+        private volatile long nonce;
+
+        private Job(long index, byte[] header, int[] target, int threads) {
+            this.index = index;
+            this.header = header;
+            this.target = target;
+            this.hashes = new long[threads];
+        }
+
+        private void complete(long foundNonce) {
+            if (found.compareAndSet(false, true)) {
+                nonce = foundNonce;
+            }
+            done = true;
+        }
+
+        private void cancel() {
+            done = true;
+        }
+    }
+}
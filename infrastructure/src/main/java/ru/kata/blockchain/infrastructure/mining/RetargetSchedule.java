@@ -0,0 +1,101 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.codec.BinaryReader;
+import ru.kata.blockchain.infrastructure.codec.BinaryWriter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пересчёт цели сложности по меткам времени блоков, применяемых по порядку номеров.
+ * <p>
+ * Цель начинается с {@code initialTarget} и пересчитывается после каждых {@code window} блоков:
+ * время, за которое добыто окно (разница меток первого и последнего блока), сравнивается с ожидаемым
+ * {@code window * targetBlockMillis} ({@link Difficulty#retarget(Hash, long, long)}). Хранятся только цель
+ * и метки времени последнего окна. Одно и то же правило используют {@link DifficultyAdjuster} при добыче
+ * и проверка цепочки при старте.
+ * <p>
+ * Метка времени genesis-блока зафиксирована протоколом ({@link GenesisBlock#TIMESTAMP}) и не связана со временем
+ * добычи, поэтому в окна не входит: первое окно начинается с блока 1, и первый пересчёт на блоке {@code window}
+ * сравнивает {@code window - 1} интервалов с {@code (window - 1) * targetBlockMillis}.
+ * <p>
+ * Не потокобезопасен.
+ */
+public final class RetargetSchedule {
+    private final int window;
+    private final long targetBlockMillis;
+    private final ArrayDeque<Long> timestamps = new ArrayDeque<>();
+    private Hash target;
+
+    public RetargetSchedule(Hash initialTarget, int window, long targetBlockMillis) {
+        if (window < 1 || targetBlockMillis < 1) {
+            throw new IllegalArgumentException("Retarget window and target block interval must be positive");
+        }
+        this.target = initialTarget;
+        this.window = window;
+        this.targetBlockMillis = targetBlockMillis;
+    }
+
+    /**
+     * Цель для блока, следующего за последним применённым.
+     */
+    public Hash target() {
+        return target;
+    }
+
+    /**
+     * Учитывает метку времени блока и пересчитывает цель, если блок завершает окно. Genesis-блок не учитывается.
+     */
+    public void apply(Block block) {
+        if (block.index() == 0) {
+            return;
+        }
+        timestamps.addLast(block.timestamp().toEpochMilli());
+        if (timestamps.size() > window + 1) {
+            timestamps.removeFirst();
+        }
+        if (block.index() % window == 0 && timestamps.size() > 1) {
+            target = Difficulty.retarget(target, timestamps.getLast() - timestamps.getFirst(),
+                    (timestamps.size() - 1) * targetBlockMillis);
+        }
+    }
+
+    /**
+     * Состояние для снимка: цель и метки времени последнего окна,
+     * {@code byte[32] target}, {@code varint count}, {@code long[count] timestamps}.
+     */
+    public byte[] state() {
+        final BinaryWriter writer = new BinaryWriter(Hash.BYTES + 4 + timestamps.size() * Long.BYTES);
+        writer.writeRaw(target.toBytes()).writeVarLong(timestamps.size());
+        for (long timestamp : timestamps) {
+            writer.writeLong(timestamp);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Заменяет состояние прочитанным из снимка ({@link #state()}).
+     *
+     * @throws IllegalArgumentException если состояние повреждено; текущее состояние тогда не меняется
+     */
+    public void restore(byte[] state) {
+        final BinaryReader reader = new BinaryReader(state);
+        final Hash restoredTarget = Hash.fromBytes(reader.readRaw(Hash.BYTES));
+        final int count = reader.readVarInt();
+        if (count > window + 1) {
+            throw new IllegalArgumentException("Retarget window has " + count + " timestamps, at most " + (window + 1) + " expected");
+        }
+        final List<Long> restoredTimestamps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            restoredTimestamps.add(reader.readLong());
+        }
+        timestamps.clear();
+        timestamps.addAll(restoredTimestamps);
+        target = restoredTarget;
+    }
+}
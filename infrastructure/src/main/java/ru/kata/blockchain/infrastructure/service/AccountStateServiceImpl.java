@@ -1,16 +1,183 @@
 package ru.kata.blockchain.infrastructure.service;
 
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockCommitListener;
+import ru.kata.blockchain.domain.block.BlockRepository;
 import ru.kata.blockchain.domain.service.AccountStateService;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
 import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.codec.BinaryReader;
+import ru.kata.blockchain.infrastructure.codec.BinaryWriter;
+import ru.kata.blockchain.infrastructure.storage.ObjectLongHashMap;
+import ru.kata.blockchain.infrastructure.storage.SnapshotFile;
+import ru.kata.blockchain.infrastructure.storage.SnapshotSchedule;
 
+import java.io.Closeable;
+import java.util.Optional;
+
+/**
+ * Реестр балансов кошельков, который ведётся по подтверждённым блокам.
+ * <p>
+ * Баланс адреса — начальный баланс {@code openingBalance} плюс сумма входящих и минус сумма исходящих
+ * переводов в цепочке. Изменения хранятся в {@link ObjectLongHashMap} (адрес → {@code long}),
+ * поэтому {@link #getBalance} — одна проба хеш-таблицы, а не проход по цепочке.
+ * <p>
+ * При создании реестр восстанавливается из снимка ({@link SnapshotFile}), если он построен по текущей цепочке,
+ * и дочитывает блоки выше снимка; без снимка реестр строится по всей цепочке. Затем реестр подписывается
+ * на фиксацию блоков ({@link BlockCommitListener}) и применяет каждый новый блок инкрементально.
+ * Новый снимок пишется, когда с предыдущего применено {@code snapshotInterval} блоков ({@link SnapshotSchedule}):
+ * под блокировкой реестра копируется только таблица изменений, кодирование и запись выполняет поток записи снимков.
+ * Сумма неподтверждённых переводов берётся из мемпула.
+ * <p>
+ * Транзакции блока удаляет из мемпула ({@link MempoolService#removeCommitted}) добавивший блок
+ * {@code AddBlockUseCase} по уже посчитанным TxId, когда сохранение вернуло управление, то есть после списания
+ * по ним в потоке фиксации. Поэтому сумма не выпадает одновременно из баланса и из ожидающих переводов
+ * и не может быть потрачена повторно; до удаления она учитывается дважды, что лишь временно уменьшает остаток.
+ */
+@Slf4j
+public class AccountStateServiceImpl implements AccountStateService, BlockCommitListener, Closeable {
+    private static final int CATCH_UP_BATCH = 1000;
+
+    private final BlockRepository blockRepository;
+    private final MempoolService mempoolService;
+    private final long openingBalance;
+    private final SnapshotSchedule snapshots;
+    private final ObjectLongHashMap<String> deltas = new ObjectLongHashMap<>();
+    private long appliedHeight = -1;
+    private Hash appliedHash;
+
+    public AccountStateServiceImpl(BlockRepository blockRepository, MempoolService mempoolService, long openingBalance) {
+        this(blockRepository, mempoolService, openingBalance, null, 0);
+    }
+
+    /**
+     * @param snapshotFile     файл снимка реестра или {@code null}, если снимки не используются
+     * @param snapshotInterval число блоков между снимками
+     */
+    public AccountStateServiceImpl(BlockRepository blockRepository,
+                                   MempoolService mempoolService,
+                                   long openingBalance,
+                                   SnapshotFile snapshotFile,
+                                   long snapshotInterval) {
+        this.blockRepository = blockRepository;
+        this.mempoolService = mempoolService;
+        this.openingBalance = openingBalance;
+        this.snapshots = new SnapshotSchedule(snapshotFile, snapshotInterval, "Account ledger");
+        restoreSnapshot();
+        blockRepository.addCommitListener(this);
+        catchUp();
+    }
 
-public class AccountStateServiceImpl implements AccountStateService {
     @Override
-    public double getBalance(WalletAddress walletAddress) {
-        return 2000; // РЕАЛИЗОВАТЬ ЛОГИКУ
+    public synchronized long getBalance(WalletAddress walletAddress) {
+        return openingBalance + deltas.getOrDefault(walletAddress.value(), 0);
     }
+
     @Override
-    public double getPendingAmount(WalletAddress walletAddress) {
-        return 0; // РЕЛИЗОВАТЬ ЛОГИКУ
+    public long getPendingAmount(WalletAddress walletAddress) {
+        return mempoolService.getPendingAmount(walletAddress);
+    }
+
+    /**
+     * Применяет зафиксированный блок. Если между ним и последним применённым блоком есть пропуск,
+     * недостающие блоки дочитываются из репозитория.
+     */
+    @Override
+    public synchronized void onBlockCommitted(Block block) {
+        if (block.index() <= appliedHeight) {
+            return;
+        }
+        if (block.index() == appliedHeight + 1) {
+            apply(block);
+            writeSnapshotIfDue();
+            return;
+        }
+        catchUp();
+    }
+
+    /**
+     * Дочитывает из репозитория блоки выше последнего применённого, пачками по {@value #CATCH_UP_BATCH}.
+     */
+    private synchronized void catchUp() {
+        final long from = appliedHeight + 1;
+        final long latest = blockRepository.forEachFrom(from, CATCH_UP_BATCH, this::apply);
+        appliedHeight = Math.max(appliedHeight, latest);
+        if (latest >= from) {
+            log.info("Account ledger applied blocks {}..{}, {} address(es) tracked", from, latest, deltas.size());
+            writeSnapshotIfDue();
+        }
+    }
+
+    private void apply(Block block) {
+        for (Transaction transaction : block.transactions()) {
+            final long amount = transaction.amount().value();
+            deltas.addTo(transaction.from().value(), -amount);
+            deltas.addTo(transaction.to().value(), amount);
+        }
+        appliedHeight = Math.max(appliedHeight, block.index());
+        appliedHash = block.hash();
+    }
+
+    /**
+     * Восстанавливает изменения балансов из снимка, если он построен по текущей цепочке.
+     */
+    private void restoreSnapshot() {
+        final Optional<SnapshotFile.Snapshot> snapshot = snapshots.restore(blockRepository, state -> decode(state).forEach(deltas::put));
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        appliedHeight = snapshot.get().height();
+        appliedHash = snapshot.get().tipHash();
+        log.info("Account ledger restored from snapshot at height {}, {} address(es) tracked", appliedHeight, deltas.size());
+    }
+
+    /**
+     * Дожидается записи поставленного снимка.
+     */
+    @Override
+    public void close() {
+        snapshots.close();
+    }
+
+    /**
+     * Ставит в очередь запись снимка, если с предыдущего применено не меньше {@code snapshotInterval} блоков.
+     * Снимок сохраняется по высоте последнего применённого блока.
+     */
+    private void writeSnapshotIfDue() {
+        if (appliedHash == null || !snapshots.isDue(appliedHeight)) {
+            return;
+        }
+        final ObjectLongHashMap<String> state = deltas.copy();
+        final long height = appliedHeight;
+        snapshots.write(height, appliedHash, () -> encode(state)).thenAccept(written -> {
+            if (written) {
+                log.info("Account ledger snapshot written at height {}, {} address(es)", height, state.size());
+            }
+        });
+    }
+
+    /**
+     * Разбирает таблицу изменений из снимка целиком, прежде чем она попадёт в реестр.
+     *
+     * @throws IllegalArgumentException если состояние повреждено
+     */
+    private static ObjectLongHashMap<String> decode(byte[] state) {
+        final BinaryReader reader = new BinaryReader(state);
+        final long addresses = reader.readVarLong();
+        final ObjectLongHashMap<String> decoded = new ObjectLongHashMap<>();
+        for (long i = 0; i < addresses; i++) {
+            decoded.put(reader.readString(), reader.readSignedVarLong());
+        }
+        return decoded;
+    }
+
+    private static byte[] encode(ObjectLongHashMap<String> state) {
+        final BinaryWriter writer = new BinaryWriter(16 + state.size() * 48);
+        writer.writeVarLong(state.size());
+        state.forEach((address, delta) -> writer.writeString(address).writeSignedVarLong(delta));
+        return writer.toByteArray();
     }
 }
@@ -1,10 +1,194 @@
 package ru.kata.blockchain.infrastructure.service;
 
+import com.google.common.util.concurrent.Striped;
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.service.MempoolAddResult;
 import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongSupplier;
+
+import static ru.kata.blockchain.application.logging.HotPathLogging.HOT_PATH;
+
+/**
+ * Мемпул в памяти: {@link ConcurrentHashMap} TxId → транзакция, поэтому проверка дубликата — одна проба без блокировок.
+ * <p>
+ * Добавление и удаление транзакции выполняются под одной из {@value #LOCK_STRIPES} блокировок, выбранной
+ * по адресу отправителя: отправки разных отправителей почти не пересекаются, а для одного отправителя проверка
+ * остатка, вставка, резервирование лимитов и обновление суммы его ожидающих переводов атомарны, поэтому
+ * конкурирующие запросы не могут вместе потратить больше баланса. TxId определяет отправителя,
+ * так что проверка дубликата под этой же блокировкой тоже атомарна.
+ * <p>
+ * Порядок поступления хранится в {@link ConcurrentSkipListMap} номер поступления → TxId: по нему
+ * производитель блоков выбирает транзакции, не блокируя отправку новых.
+ * <p>
+ * Пул ограничен числом транзакций и суммарным размером их сериализованного представления.
+ * Транзакции, вошедшие в зафиксированный блок, удаляются из пула вызовом {@link #removeCommitted} по TxId,
+ * посчитанным при проверке блока, — после того, как блок сохранён и применён к балансам.
+ */
+@Slf4j
 public class MempoolServiceImpl implements MempoolService {
+    private static final int LOCK_STRIPES = 64;
+
+    private final SerializerService serializerService;
+    private final int maxTransactions;
+    private final long maxBytes;
+    private final ConcurrentHashMap<String, PendingTransaction> transactions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, String> admissionOrder = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> pendingBySender = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public MempoolServiceImpl(SerializerService serializerService,
+                              int maxTransactions,
+                              long maxBytes) {
+        this.serializerService = serializerService;
+        this.maxTransactions = maxTransactions;
+        this.maxBytes = maxBytes;
+    }
+
     @Override
     public boolean isMempoolContainsTxId(String txId) {
-        return false; // РЕАЛИЗОВАТЬ ЛОГИКУ
+        return transactions.containsKey(txId);
+    }
+
+    @Override
+    public MempoolAddResult add(String txId, Transaction transaction, LongSupplier confirmedBalance) {
+        final String sender = transaction.from().value();
+        final long amount = transaction.amount().value();
+        final Lock lock = locks.get(sender);
+        lock.lock();
+        try {
+            if (transactions.containsKey(txId)) {
+                return MempoolAddResult.DUPLICATE;
+            }
+            if (confirmedBalance.getAsLong() - pendingBySender.getOrDefault(sender, 0L) < amount) {
+                return MempoolAddResult.INSUFFICIENT_FUNDS;
+            }
+            final int size = serializerService.getSerializedTransaction(transaction).length;
+            if (!reserve(size)) {
+                log.warn(HOT_PATH, "Mempool is full: transactions={}, bytes={}, txId={}", count.get(), bytes.get(), txId);
+                return MempoolAddResult.FULL;
+            }
+            final long admission = sequence.incrementAndGet();
+            transactions.put(txId, new PendingTransaction(transaction, size, admission));
+            admissionOrder.put(admission, txId);
+            pendingBySender.merge(sender, amount, Long::sum);
+            return MempoolAddResult.ADDED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String txId) {
+        final PendingTransaction existing = transactions.get(txId);
+        if (existing == null) {
+            return false;
+        }
+        final Lock lock = locks.get(existing.transaction().from().value());
+        lock.lock();
+        try {
+            final PendingTransaction removed = transactions.remove(txId);
+            if (removed == null) {
+                return false;
+            }
+            admissionOrder.remove(removed.admission());
+            count.decrementAndGet();
+            bytes.addAndGet(-removed.size());
+            pendingBySender.computeIfPresent(removed.transaction().from().value(),
+                    (sender, pending) -> remainingPending(pending, removed.transaction().amount().value()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getPendingAmount(WalletAddress sender) {
+        return pendingBySender.getOrDefault(sender.value(), 0L);
+    }
+
+    @Override
+    public List<Transaction> getPendingTransactions(int maxCount, long maxSelectedBytes) {
+        final List<Transaction> selected = new ArrayList<>(Math.min(maxCount, count.get()));
+        long selectedBytes = 0;
+        for (String txId : admissionOrder.values()) {
+            if (selected.size() >= maxCount) {
+                break;
+            }
+            final PendingTransaction pending = transactions.get(txId);
+            if (pending == null) {
+                continue;
+            }
+            if (!selected.isEmpty() && selectedBytes + pending.size() > maxSelectedBytes) {
+                break;
+            }
+            selected.add(pending.transaction());
+            selectedBytes += pending.size();
+        }
+        return selected;
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void removeCommitted(List<Hash> txIds) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        for (Hash txId : txIds) {
+            remove(txId.value());
+        }
+    }
+
+    /**
+     * Резервирует место под транзакцию размером {@code size} байт в пределах лимитов пула.
+     */
+    private boolean reserve(int size) {
+        if (count.incrementAndGet() > maxTransactions) {
+            count.decrementAndGet();
+            return false;
+        }
+        if (bytes.addAndGet(size) > maxBytes) {
+            bytes.addAndGet(-size);
+            count.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Остаток ожидающих переводов отправителя; {@code null} удаляет отправителя из карты.
+     */
+    private static Long remainingPending(long pending, long amount) {
+        final long remaining = pending - amount;
+        if (remaining == 0) {
+            return null;
+        }
+        return remaining;
+    }
+
+    private record PendingTransaction(Transaction transaction, int size, long admission) {
     }
 }
@@ -4,9 +4,8 @@ import ru.kata.blockchain.domain.service.SerializerService;
 import ru.kata.blockchain.domain.transaction.Transaction;
 import ru.kata.blockchain.domain.vo.Amount;
 import ru.kata.blockchain.domain.vo.WalletAddress;
-
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import ru.kata.blockchain.infrastructure.codec.BinaryTransactionCodec;
+import ru.kata.blockchain.infrastructure.codec.BinaryWriter;
 
 
 /**
@@ -22,21 +21,43 @@ import java.util.Arrays;
  *     <li>Сериализация неподписанных данных транзакции через {@link #getUnassignedPayload(WalletAddress, WalletAddress, Amount)}.</li>
  * </ul>
  * <p>
- * Для формирования строкового представления данные объединяются с использованием разделителя {@code |},
- * который обеспечивает чёткое разделение полей (адресов отправителя и получателя, суммы, подписи и публичного ключа)
- * и предотвращает их слияние при сериализации. Полученные строки преобразуются в байты в кодировке UTF-8.
+ * Полная транзакция сериализуется в каноническом бинарном формате {@link BinaryTransactionCodec}
+ * (поля с префиксом длины, ключ secp256k1 — сжатой точкой); по его размеру проверяется лимит размера транзакции.
+ * <p>
+ * Неподписанная полезная нагрузка — {@code from|to|amount} в UTF-8: именно эти байты подписываются
+ * и хешируются в TxId, поэтому формат сохранён, но записывается он напрямую в буфер, без промежуточных строк.
+ * <p>
+ * Запись идёт в {@link BinaryWriter}, который переиспользуется внутри потока; наружу отдаётся только итоговый массив.
  *
  * @author cranstongit
  */
 public class SerializerServiceImpl implements SerializerService {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final char PAYLOAD_SEPARATOR = '|';
+
+    private final ThreadLocal<BinaryWriter> writers = ThreadLocal.withInitial(() -> new BinaryWriter(INITIAL_BUFFER_SIZE));
+
     @Override
     public byte[] getSerializedTransaction(Transaction transaction) {
-        return (transaction.from().value() + "|" + transaction.to().value() + "|" + transaction.amount().value() +
-                "|" + Arrays.toString(transaction.signature()) + "|" + transaction.publicKey()).getBytes(StandardCharsets.UTF_8);
+        final BinaryWriter writer = writer();
+        BinaryTransactionCodec.write(writer, transaction);
+        return writer.toByteArray();
     }
 
     @Override
     public byte[] getUnassignedPayload(WalletAddress from, WalletAddress to, Amount amount) {
-        return (from.value() + "|" + to.value() + "|" + amount.value()).getBytes(StandardCharsets.UTF_8);
+        return writer()
+                .writeUtf8(from.value())
+                .writeByte(PAYLOAD_SEPARATOR)
+                .writeUtf8(to.value())
+                .writeByte(PAYLOAD_SEPARATOR)
+                .writeDecimal(amount.value())
+                .toByteArray();
+    }
+
+    private BinaryWriter writer() {
+        final BinaryWriter writer = writers.get();
+        writer.reset();
+        return writer;
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,10 @@ package ru.kata.blockchain.infrastructure.service;
 
 import ru.kata.blockchain.domain.service.TxIdCalculatorService;
 import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.crypto.CryptoInstancePool;
 
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 
 /**
@@ -20,46 +21,36 @@ import java.security.NoSuchAlgorithmException;
  *     <li>Внутренняя реализация хеширования SHA-256 через {@link #sha256(byte[])}.</li>
  * </ul>
  * <p>
- * Класс проверяет корректность формата хеша, требуя, чтобы результат был строкой из 64 шестнадцатеричных символов.
+ * Результат — строка из 64 шестнадцатеричных символов [0-9a-f].
  *
  * @author cranstongit
  */
 public class TxIdCalculatorServiceImpl implements TxIdCalculatorService {
+    private final CryptoInstancePool<MessageDigest> digests = new CryptoInstancePool<>(() -> MessageDigest.getInstance("SHA-256"));
+
     @Override
     public String calculateTxId(byte[] unassignedPayload) {
-        final String txId = sha256(unassignedPayload);
-        if (!Hash.getHexPattern().matcher(txId).matches()) {
-            throw new IllegalArgumentException("Invalid hash format: value must not be null or must be 64 hex characters [0-9a-f]");
-        }
-        return txId;
+        return Hash.fromBytes(sha256(unassignedPayload)).value();
     }
 
     /**
      * Метод выполняет хеширование массива байтов с использованием алгоритма SHA-256.
      * <p>
-     * Преобразует входной массив байтов unassignedPayload в хеш с помощью {@code MessageDigest}, затем
-     * преобразует результат в строку из шестнадцатеричных символов. Если длина
-     * шестнадцатеричного представления байта равна 1, добавляется ведущий ноль.
+     * Преобразует входной массив байтов unassignedPayload в 32 байта хеша с помощью {@code MessageDigest} из пула;
+     * в шестнадцатеричную строку их переводит табличный кодек {@link Hash}.
      *
      * @param unassignedPayload массив байтов для хеширования
-     * @return строка, представляющая SHA-256 хеш в шестнадцатеричном формате
+     * @return SHA-256 хеш
      * @throws RuntimeException если алгоритм SHA-256 не поддерживается
      */
-    private String sha256(byte[] unassignedPayload) {
+    private byte[] sha256(byte[] unassignedPayload) {
         try {
-            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final MessageDigest digest = digests.acquire();
             final byte[] bit256Hash = digest.digest(unassignedPayload);
-            final StringBuilder hexString = new StringBuilder();
-            for (byte b : bit256Hash) {
-                final String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
+            digests.release(digest);
+            return bit256Hash;
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("SHA-256 not supported", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Индексы высоты и хэша блока для {@link SegmentedBlockRepository}: отображают высоту ({@link Block#index()})
+ * и хэш блока в его порядковый номер в журнале.
+ * <p>
+ * Индекс хранится рядом с сегментами в файле {@value #FILE_NAME}: запись на каждый блок по порядку,
+ * {@code long height} и {@code byte[32] hash}. При старте файл читается последовательно, а не строится заново
+ * из блоков; проверяется только последняя общая с журналом запись, и индекс дополняется блоками,
+ * которых в нём ещё нет. Если журнал короче индекса (отрезан оборванный хвост), лишние записи отрезаются,
+ * если последняя запись не совпала с журналом — индекс строится заново.
+ * <p>
+ * Файл не сбрасывается на диск при каждой записи: он полностью восстанавливается из журнала,
+ * поэтому потеря его хвоста при сбое стоит лишь догрузки нескольких блоков при следующем старте.
+ * <p>
+ * В памяти — две {@link LongLongHashMap}: высота → номер и первые 8 байт хэша → номер. Совпадение префикса
+ * проверяется по полному хэшу из файла индекса. Блоки, которые так проверить нельзя (совпавший префикс
+ * или запись, не попавшая в файл из-за ошибки), хранятся в отдельной карте по полному хэшу.
+ * <p>
+ * Класс не потокобезопасен, доступ к нему защищает репозиторий.
+ */
+@Slf4j
+final class BlockIndex implements Closeable {
+    static final String FILE_NAME = "block.idx";
+    static final int HASH_BYTES = 32;
+    static final int ENTRY_SIZE = Long.BYTES + HASH_BYTES;
+    private static final int NOT_FOUND = -1;
+    private static final int LOAD_CHUNK_ENTRIES = 4096;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final LongLongHashMap heights = new LongLongHashMap();
+    private final LongLongHashMap hashPrefixes = new LongLongHashMap();
+    private final Map<Hash, Integer> fullHashes = new HashMap<>();
+    private int size;
+    private long minHeight = Long.MAX_VALUE;
+    private long maxHeight = Long.MIN_VALUE;
+    private boolean persistent = true;
+
+    private BlockIndex(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Открывает индекс в каталоге журнала и согласует его с блоками {@code blocks}.
+     */
+    static BlockIndex open(Path directory, BlockStore blocks) {
+        final Path path = directory.resolve(FILE_NAME);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            final BlockIndex index = new BlockIndex(path, channel);
+            index.load(blocks);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            throw new RuntimeException("Failed to open block index: " + path, e);
+        }
+    }
+
+    /**
+     * Добавляет в индекс следующий по порядку блок журнала.
+     */
+    void add(Block block) {
+        final byte[] hash = block.hash().toBytes();
+        if (persistent) {
+            try {
+                writeEntry(size, block.index(), hash);
+            } catch (IOException e) {
+                // файл индекса остаётся корректным префиксом, недостающее догрузится из журнала при старте
+                persistent = false;
+                log.error("Failed to persist block index entry, index file will be caught up on restart: {}", path, e);
+            }
+        }
+        if (persistent) {
+            put(block.index(), hash, size);
+        } else {
+            putHeight(block.index(), size);
+            fullHashes.put(block.hash(), size);
+        }
+        size++;
+    }
+
+    /**
+     * Порядковый номер блока с заданной высотой или {@code -1}.
+     */
+    int ordinalOf(long height) {
+        final long ordinal = heights.get(height);
+        if (ordinal == LongLongHashMap.NO_VALUE) {
+            return NOT_FOUND;
+        }
+        return (int) ordinal;
+    }
+
+    /**
+     * Порядковый номер блока с заданным хэшем или {@code -1}.
+     */
+    int ordinalOf(Hash hash) {
+        final byte[] bytes = hash.toBytes();
+        final long ordinal = hashPrefixes.get(prefix(bytes));
+        if (ordinal != LongLongHashMap.NO_VALUE && Arrays.equals(bytes, readHash((int) ordinal))) {
+            return (int) ordinal;
+        }
+        return fullHashes.getOrDefault(hash, NOT_FOUND);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Наименьшая высота блока в индексе; для пустого индекса — {@link Long#MAX_VALUE}.
+     */
+    long minHeight() {
+        return minHeight;
+    }
+
+    /**
+     * Наибольшая высота блока в индексе; для пустого индекса — {@link Long#MIN_VALUE}.
+     */
+    long maxHeight() {
+        return maxHeight;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private void load(BlockStore blocks) throws IOException {
+        final int blockCount = blocks.size();
+        int persisted = (int) Math.min(channel.size() / ENTRY_SIZE, blockCount);
+        if (persisted > 0 && !Arrays.equals(readHash(persisted - 1),
+                blocks.get(persisted - 1).hash().toBytes())) {
+            log.warn("Block index {} does not match the segment log, rebuilding it", path);
+            persisted = 0;
+        }
+        channel.truncate((long) persisted * ENTRY_SIZE);
+        final ByteBuffer chunk = ByteBuffer.allocate(ENTRY_SIZE * LOAD_CHUNK_ENTRIES);
+        final byte[] hash = new byte[HASH_BYTES];
+        int ordinal = 0;
+        while (ordinal < persisted) {
+            chunk.clear().limit(Math.min(persisted - ordinal, LOAD_CHUNK_ENTRIES) * ENTRY_SIZE);
+            readFully(chunk, (long) ordinal * ENTRY_SIZE);
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                final long height = chunk.getLong();
+                chunk.get(hash);
+                put(height, hash, ordinal++);
+            }
+        }
+        size = persisted;
+        for (int next = persisted; next < blockCount; next++) {
+            add(blocks.get(next));
+        }
+        log.info("Block index {}: {} entry(ies) loaded, {} caught up from the segment log",
+                path, persisted, blockCount - persisted);
+    }
+
+    private void putHeight(long height, int ordinal) {
+        heights.put(height, ordinal);
+        minHeight = Math.min(minHeight, height);
+        maxHeight = Math.max(maxHeight, height);
+    }
+
+    private void put(long height, byte[] hash, int ordinal) {
+        putHeight(height, ordinal);
+        final long previous = hashPrefixes.get(prefix(hash));
+        if (previous == LongLongHashMap.NO_VALUE) {
+            hashPrefixes.put(prefix(hash), ordinal);
+        } else {
+            fullHashes.put(Hash.fromBytes(hash), ordinal);
+        }
+    }
+
+    private void writeEntry(int ordinal, long height, byte[] hash) throws IOException {
+        final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).putLong(height).put(hash).flip();
+        long position = (long) ordinal * ENTRY_SIZE;
+        while (entry.hasRemaining()) {
+            position += channel.write(entry, position);
+        }
+    }
+
+    private byte[] readHash(int ordinal) {
+        final ByteBuffer hash = ByteBuffer.allocate(HASH_BYTES);
+        try {
+            readFully(hash, (long) ordinal * ENTRY_SIZE + Long.BYTES);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read block index: " + path, e);
+        }
+        return hash.array();
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of block index");
+            }
+            position += read;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close block index channel", e);
+        }
+    }
+
+    private static long prefix(byte[] hash) {
+        return ByteBuffer.wrap(hash, 0, Long.BYTES).getLong();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import ru.kata.blockchain.domain.block.Block;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Представление цепочки в памяти {@link SegmentedBlockRepository}: по порядковому номеру блока в журнале
+ * отдаёт сам блок. Реализации не синхронизированы, доступ к ним защищает репозиторий.
+ */
+interface BlockStore {
+
+    /**
+     * Добавляет блок, прочитанный из журнала при открытии; нагрузку читает, только если блок нужен сразу.
+     */
+    void load(long position, int payloadFormat, Supplier<byte[]> payload);
+
+    /**
+     * Добавляет блок, который только что стал долговечным.
+     */
+    void append(long position, Block block);
+
+    int size();
+
+    Block get(int ordinal);
+
+    /**
+     * Неизменяемый список блоков, сохранённых на момент вызова.
+     */
+    List<Block> view();
+
+    static BlockStore create(StorageMode mode, SegmentLog segmentLog, SegmentLog.RecordDecoder<Block> decoder) {
+        return switch (mode) {
+            case HEAP -> new HeapBlockStore(decoder);
+            case MAPPED -> new MappedBlockStore(segmentLog, decoder);
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.infrastructure.FileBlockRepository;
+import ru.kata.blockchain.infrastructure.codec.BlockCodec;
+import ru.kata.blockchain.infrastructure.mapper.BlockMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Утилита миграции: переносит цепочку из JSON-файла {@code FileBlockRepository} в сегментный журнал
+ * {@link SegmentedBlockRepository} с выбранным кодеком.
+ * <p>
+ * JSON читается потоково ({@link BlockMapper#readBlocks(Path, java.util.function.Consumer)}), блоки пишутся
+ * пачками по {@value #BATCH_SIZE} с одним {@code fsync} в конце, поэтому память не зависит от длины цепочки.
+ * Целевой каталог должен быть пустым: дописывать в существующий журнал утилита не будет.
+ * <p>
+ * Без аргументов переносит цепочку узла: {@code data/blockchain/blockchain.json}
+ * ({@link FileBlockRepository#BASE_DIR}, {@link FileBlockRepository#DEFAULT_FILE_NAME}) в каталог
+ * {@code data/blockchain/blockchain} ({@link SegmentedBlockRepository#BASE_DIR},
+ * {@link SegmentedBlockRepository#DEFAULT_CHAIN_NAME}), который узел читает при {@code blockchain.storage.type=segmented}.
+ * Пути разрешаются относительно рабочего каталога; Gradle запускает и {@code convertChain}, и {@code bootRun}
+ * из {@code infrastructure/}, поэтому {@code ./gradlew :infrastructure:convertChain} переносит цепочку,
+ * с которой работал {@code ./gradlew :infrastructure:bootRun}.
+ * Явные пути и кодек: {@code -Pargs="<source.json> <target dir> [binary|json]"}.
+ * <p>
+ * Узел с сегментным журналом не запускается, пока цепочка из JSON-файла не перенесена ({@link #checkMigrated}).
+ */
+@Slf4j
+public final class ChainFileConverter {
+    private static final int BATCH_SIZE = 1024;
+    private static final String DEFAULT_CODEC = "binary";
+
+    private ChainFileConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1 || args.length > 3) {
+            throw new IllegalArgumentException("Usage: ChainFileConverter [<source.json> <target directory> [binary|json]]");
+        }
+        Path source = FileBlockRepository.BASE_DIR.resolve(FileBlockRepository.DEFAULT_FILE_NAME);
+        Path target = SegmentedBlockRepository.BASE_DIR.resolve(SegmentedBlockRepository.DEFAULT_CHAIN_NAME);
+        if (args.length >= 2) {
+            source = Paths.get(args[0]);
+            target = Paths.get(args[1]);
+        }
+        String codecName = DEFAULT_CODEC;
+        if (args.length == 3) {
+            codecName = args[2];
+        }
+        if (!Files.isRegularFile(source)) {
+            throw new IllegalArgumentException("Source chain file not found: " + source.toAbsolutePath());
+        }
+        convert(source, target, BlockCodec.byName(codecName));
+    }
+
+    /**
+     * Не даёт узлу с пустым сегментным журналом стартовать поверх цепочки, оставшейся в JSON-файле: иначе узел
+     * молча начал бы новую цепочку с genesis-блока.
+     *
+     * @param jsonChain  JSON-файл цепочки {@code FileBlockRepository}
+     * @param segmentLog репозиторий сегментного журнала
+     * @throws IllegalStateException если журнал пуст, а в JSON-файле есть блоки
+     */
+    public static void checkMigrated(Path jsonChain, BlockRepository segmentLog) {
+        final boolean pending;
+        try {
+            pending = segmentLog.findLatest().isEmpty() && new BlockMapper().containsBlocks(jsonChain);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read JSON chain file: " + jsonChain, e);
+        }
+        if (pending) {
+            log.error("Segment log is empty, but JSON chain file {} contains blocks. Convert it with "
+                    + "'./gradlew :infrastructure:convertChain' or start with blockchain.storage.type=json", jsonChain.toAbsolutePath());
+            throw new IllegalStateException("JSON chain " + jsonChain + " has not been converted to the segment log");
+        }
+    }
+
+    /**
+     * Конвертирует JSON-файл цепочки в сегментный журнал.
+     *
+     * @return количество перенесённых блоков
+     */
+    public static long convert(Path source, Path target, BlockCodec codec) throws IOException {
+        if (isNotEmptyDirectory(target)) {
+            throw new IllegalStateException("Target directory is not empty: " + target);
+        }
+        final long start = System.nanoTime();
+        final BlockMapper blockMapper = new BlockMapper();
+        final List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+        final long count;
+        try (SegmentLog segmentLog = new SegmentLog(target, SegmentedBlockRepository.DEFAULT_MAX_SEGMENT_BYTES, codec.id())) {
+            segmentLog.open((position, payloadFormat, payload) -> {
+                throw new IllegalStateException("Target segment log is not empty: " + target);
+            });
+            count = blockMapper.readBlocks(source, block -> {
+                batch.add(codec.encode(block));
+                if (batch.size() == BATCH_SIZE) {
+                    segmentLog.append(batch);
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                segmentLog.append(batch);
+            }
+            segmentLog.force();
+        }
+        log.info("Converted {} block(s) from {} ({} bytes) to {} ({} bytes) in {} ms", count, source, Files.size(source),
+                target, directorySize(target), (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private static boolean isNotEmptyDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isPresent();
+        }
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            long size = 0;
+            for (Path file : files.toList()) {
+                size += Files.size(file);
+            }
+            return size;
+        }
+    }
+}
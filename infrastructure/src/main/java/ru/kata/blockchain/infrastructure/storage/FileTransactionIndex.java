@@ -0,0 +1,263 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionIndex;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Персистентный индекс подтверждённых транзакций: TxId → (номер блока, позиция в блоке).
+ * <p>
+ * Индекс хранится в файле: по записи на транзакцию в порядке цепочки, {@code byte[32] txId},
+ * {@code long blockIndex}, {@code int position}. Новый блок индексируется вызовом {@link #indexBlock} после его
+ * сохранения по TxId, уже посчитанным при проверке блока, — в потоке, добавившем блок, а не в потоке фиксации
+ * хранилища. При старте файл читается последовательно и дополняется блоками, которые появились в цепочке
+ * после последней записи; для них TxId считаются заново. Последняя запись сверяется с цепочкой;
+ * если она не совпала (цепочку заменили или обрезали), индекс строится заново.
+ * <p>
+ * В памяти — {@link LongLongHashMap} от первых 8 байт TxId к номеру записи в файле, поэтому поиск — это одна
+ * проба хеш-таблицы и одно чтение записи для сверки полного TxId. Транзакции, которые так проверить нельзя
+ * (совпавший префикс или запись, не попавшая в файл из-за ошибки), хранятся в отдельной карте.
+ * Повтор TxId в цепочке запрещён ({@link TransactionIndex}); в цепочках, записанных до этого правила,
+ * индекс указывает на первое вхождение.
+ * <p>
+ * Файл не сбрасывается на диск при каждой записи: недостающий хвост восстанавливается из цепочки при старте.
+ */
+@Slf4j
+public class FileTransactionIndex implements TransactionIndex, Closeable {
+    static final int TX_ID_BYTES = 32;
+    static final int ENTRY_SIZE = TX_ID_BYTES + Long.BYTES + Integer.BYTES;
+    private static final int CATCH_UP_BATCH = 1000;
+    private static final int LOAD_CHUNK_ENTRIES = 4096;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final BlockRepository blockRepository;
+    private final TxIdCalculatorService txIdCalculatorService;
+    private final SerializerService serializerService;
+    private final LongLongHashMap prefixes = new LongLongHashMap();
+    private final Map<String, TransactionLocation> fullTxIds = new HashMap<>();
+    private int size;
+    private long indexedHeight = -1;
+    private boolean persistent = true;
+
+    public FileTransactionIndex(Path path,
+                                BlockRepository blockRepository,
+                                TxIdCalculatorService txIdCalculatorService,
+                                SerializerService serializerService) {
+        this.path = path;
+        this.blockRepository = blockRepository;
+        this.txIdCalculatorService = txIdCalculatorService;
+        this.serializerService = serializerService;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            load();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open transaction index: " + path, e);
+        }
+        catchUp();
+    }
+
+    @Override
+    public synchronized Optional<TransactionLocation> find(String txId) {
+        if (!Hash.isValidHex(txId)) {
+            return Optional.empty();
+        }
+        return find(HEX.parseHex(txId));
+    }
+
+    @Override
+    public synchronized void indexBlock(Block block, List<Hash> txIds) {
+        if (block.index() <= indexedHeight) {
+            return;
+        }
+        if (block.index() == indexedHeight + 1) {
+            index(block, txIds);
+            return;
+        }
+        catchUp();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    /**
+     * Дочитывает из репозитория блоки выше последнего проиндексированного, пачками по {@value #CATCH_UP_BATCH}.
+     */
+    private synchronized void catchUp() {
+        final long from = indexedHeight + 1;
+        final long latest = blockRepository.forEachFrom(from, CATCH_UP_BATCH, block -> index(block, txIdsOf(block)));
+        indexedHeight = Math.max(indexedHeight, latest);
+        if (latest >= from) {
+            log.info("Transaction index {} caught up blocks {}..{}", path, from, latest);
+        }
+    }
+
+    private Optional<TransactionLocation> find(byte[] txId) {
+        final long ordinal = prefixes.get(prefix(txId));
+        if (ordinal != LongLongHashMap.NO_VALUE) {
+            final ByteBuffer entry = readEntry((int) ordinal);
+            if (Arrays.equals(txId, 0, TX_ID_BYTES, entry.array(), 0, TX_ID_BYTES)) {
+                return Optional.of(location(entry));
+            }
+        }
+        if (fullTxIds.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(fullTxIds.get(HEX.formatHex(txId)));
+    }
+
+    private void index(Block block, List<Hash> txIds) {
+        for (int position = 0; position < txIds.size(); position++) {
+            final byte[] txId = txIds.get(position).toBytes();
+            if (find(txId).isEmpty()) {
+                add(txId, new TransactionLocation(block.index(), position));
+            }
+        }
+        indexedHeight = Math.max(indexedHeight, block.index());
+    }
+
+    private List<Hash> txIdsOf(Block block) {
+        final List<Hash> txIds = new ArrayList<>(block.transactions().size());
+        for (Transaction transaction : block.transactions()) {
+            txIds.add(new Hash(txIdOf(transaction)));
+        }
+        return txIds;
+    }
+
+    private void add(byte[] txId, TransactionLocation location) {
+        if (persistent) {
+            try {
+                writeEntry(size, txId, location);
+            } catch (IOException e) {
+                // файл остаётся корректным префиксом, недостающее будет дочитано из цепочки при старте
+                persistent = false;
+                log.error("Failed to persist transaction index entry, index file will be caught up on restart: {}", path, e);
+            }
+        }
+        if (persistent && prefixes.get(prefix(txId)) == LongLongHashMap.NO_VALUE) {
+            prefixes.put(prefix(txId), size);
+        } else {
+            fullTxIds.put(HEX.formatHex(txId), location);
+        }
+        if (persistent) {
+            size++;
+        }
+    }
+
+    private void load() throws IOException {
+        int entries = (int) (channel.size() / ENTRY_SIZE);
+        if (entries > 0 && !matchesChain(readEntry(entries - 1))) {
+            log.warn("Transaction index {} does not match the blockchain, rebuilding it", path);
+            entries = 0;
+        }
+        channel.truncate((long) entries * ENTRY_SIZE);
+        final ByteBuffer chunk = ByteBuffer.allocate(ENTRY_SIZE * LOAD_CHUNK_ENTRIES);
+        final byte[] txId = new byte[TX_ID_BYTES];
+        while (size < entries) {
+            chunk.clear().limit(Math.min(entries - size, LOAD_CHUNK_ENTRIES) * ENTRY_SIZE);
+            readFully(chunk, (long) size * ENTRY_SIZE);
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                chunk.get(txId);
+                final long blockIndex = chunk.getLong();
+                final int position = chunk.getInt();
+                if (prefixes.get(prefix(txId)) == LongLongHashMap.NO_VALUE) {
+                    prefixes.put(prefix(txId), size);
+                } else {
+                    fullTxIds.put(HEX.formatHex(txId), new TransactionLocation(blockIndex, position));
+                }
+                indexedHeight = Math.max(indexedHeight, blockIndex);
+                size++;
+            }
+        }
+        if (entries > 0) {
+            // последний блок мог попасть в файл не целиком — он будет проиндексирован повторно, повторы пропускаются
+            indexedHeight--;
+        }
+        log.info("Loaded {} transaction index entry(ies) from {}", entries, path);
+    }
+
+    private boolean matchesChain(ByteBuffer entry) {
+        final TransactionLocation location = location(entry);
+        final Optional<Block> block = blockRepository.findByIndex(location.blockIndex());
+        if (block.isEmpty() || location.position() >= block.get().transactions().size()) {
+            return false;
+        }
+        final String txId = txIdOf(block.get().transactions().get(location.position()));
+        return Arrays.equals(HEX.parseHex(txId), 0, TX_ID_BYTES, entry.array(), 0, TX_ID_BYTES);
+    }
+
+    private String txIdOf(Transaction transaction) {
+        return txIdCalculatorService.calculateTxId(
+                serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount()));
+    }
+
+    private void writeEntry(int ordinal, byte[] txId, TransactionLocation location) throws IOException {
+        final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE)
+                .put(txId)
+                .putLong(location.blockIndex())
+                .putInt(location.position())
+                .flip();
+        long position = (long) ordinal * ENTRY_SIZE;
+        while (entry.hasRemaining()) {
+            position += channel.write(entry, position);
+        }
+    }
+
+    private ByteBuffer readEntry(int ordinal) {
+        final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        try {
+            readFully(entry, (long) ordinal * ENTRY_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read transaction index: " + path, e);
+        }
+        return entry;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of transaction index");
+            }
+            position += read;
+        }
+    }
+
+    private static TransactionLocation location(ByteBuffer entry) {
+        return new TransactionLocation(entry.getLong(TX_ID_BYTES), entry.getInt(TX_ID_BYTES + Long.BYTES));
+    }
+
+    private static long prefix(byte[] txId) {
+        return ByteBuffer.wrap(txId, 0, Long.BYTES).getLong();
+    }
+}
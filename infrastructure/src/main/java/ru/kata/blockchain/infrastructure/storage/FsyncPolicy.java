@@ -0,0 +1,83 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Политика сброса журнала блоков на диск ({@code fsync}) для {@link GroupCommitWriter}.
+ * <p>
+ * Режимы:
+ * <ul>
+ *     <li>{@link Mode#PER_WRITE} — {@code fsync} после каждой записанной пачки блоков;</li>
+ *     <li>{@link Mode#INTERVAL} — не чаще одного {@code fsync} за {@code threshold} миллисекунд;</li>
+ *     <li>{@link Mode#BLOCK_COUNT} — {@code fsync}, когда накопилось {@code threshold} блоков
+ *     или очередь записи опустела (чтобы одиночный блок не ждал остальных бесконечно).</li>
+ * </ul>
+ * В любом режиме вызывающий {@code save} поток освобождается только после {@code fsync},
+ * покрывающего его блок: политика меняет размер группы, а не гарантию долговечности.
+ */
+public record FsyncPolicy(Mode mode, long threshold) {
+
+    public enum Mode {
+        PER_WRITE,
+        INTERVAL,
+        BLOCK_COUNT
+    }
+
+    public FsyncPolicy {
+        if (mode == null) {
+            throw new IllegalArgumentException("Fsync mode must not be null");
+        }
+        if (mode != Mode.PER_WRITE && threshold <= 0) {
+            throw new IllegalArgumentException("Fsync threshold must be positive: " + threshold);
+        }
+    }
+
+    public static FsyncPolicy perWrite() {
+        return new FsyncPolicy(Mode.PER_WRITE, 0);
+    }
+
+    public static FsyncPolicy everyMillis(long millis) {
+        return new FsyncPolicy(Mode.INTERVAL, millis);
+    }
+
+    public static FsyncPolicy everyBlocks(int blocks) {
+        return new FsyncPolicy(Mode.BLOCK_COUNT, blocks);
+    }
+
+    /**
+     * Создаёт политику по значениям из конфигурации: {@code per-write}, {@code interval} или {@code blocks}.
+     */
+    public static FsyncPolicy of(String mode, long intervalMillis, int blocks) {
+        return switch (mode) {
+            case "per-write" -> perWrite();
+            case "interval" -> everyMillis(intervalMillis);
+            case "blocks" -> everyBlocks(blocks);
+            default -> throw new IllegalArgumentException("Unknown fsync policy: " + mode);
+        };
+    }
+
+    /**
+     * Решает, пора ли делать {@code fsync}.
+     *
+     * @param pendingBlocks записанные, но ещё не сброшенные на диск блоки
+     * @param pendingNanos  сколько ждёт самый старый из них
+     * @param queueEmpty    пуста ли очередь новых записей
+     */
+    boolean shouldForce(int pendingBlocks, long pendingNanos, boolean queueEmpty) {
+        return switch (mode) {
+            case PER_WRITE -> true;
+            case INTERVAL -> pendingNanos >= TimeUnit.MILLISECONDS.toNanos(threshold);
+            case BLOCK_COUNT -> pendingBlocks >= threshold || queueEmpty;
+        };
+    }
+
+    /**
+     * Сколько писатель может ждать новых записей, прежде чем снова проверить {@link #shouldForce}.
+     */
+    long maxWaitNanos(long pendingNanos) {
+        if (mode == Mode.INTERVAL) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(threshold) - pendingNanos);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,244 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Писатель сегментного журнала с групповой фиксацией (group commit).
+ * <p>
+ * Потоки, сохраняющие блоки, не пишут на диск сами: {@link #submit(byte[], DurableCallback)} ставит запись
+ * в очередь и возвращает {@link CompletableFuture}. Единственный поток-писатель забирает из очереди всё,
+ * что накопилось, пишет пачку одной операцией {@link SegmentLog#append(List)} и делает один
+ * {@link SegmentLog#force()} на всю группу согласно {@link FsyncPolicy}. После {@code fsync} для каждой
+ * записи группы по порядку вызывается {@link DurableCallback}, затем завершается её future.
+ * <p>
+ * Запись может нести {@link AppendCondition}: писатель проверяет его непосредственно перед добавлением в журнал,
+ * в порядке очереди, поэтому условие видит все ранее принятые записи, в том числе ещё не зафиксированные.
+ * Отклонённая запись не пишется, её future завершается значением {@link #REJECTED}.
+ * <p>
+ * Ошибка записи или {@code fsync} фатальна: после неё неизвестно, что именно дошло до диска,
+ * поэтому все ожидающие и последующие записи завершаются с ошибкой, а корректное состояние
+ * восстанавливается при следующем открытии журнала.
+ * <p>
+ * Метрики:
+ * <ul>
+ *     <li>{@code blockchain.storage.commit.batch.size} — количество блоков, зафиксированных одним {@code fsync};</li>
+ *     <li>{@code blockchain.storage.flush.latency} — длительность {@code fsync}.</li>
+ * </ul>
+ */
+@Slf4j
+public class GroupCommitWriter implements Closeable {
+    /**
+     * Результат записи, отклонённой своим {@link AppendCondition}.
+     */
+    public static final long REJECTED = -1;
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SegmentLog segmentLog;
+    private final FsyncPolicy fsyncPolicy;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<PendingWrite> unflushed = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+    private long oldestUnflushedNanos;
+
+    /**
+     * Вызывается потоком-писателем, когда запись стала долговечной, строго в порядке записи в журнал.
+     */
+    @FunctionalInterface
+    public interface DurableCallback {
+        void onDurable(long position);
+    }
+
+    /**
+     * Вызывается потоком-писателем перед добавлением записи в журнал, строго в порядке очереди.
+     * {@code false} отклоняет запись.
+     */
+    @FunctionalInterface
+    public interface AppendCondition {
+        boolean test();
+    }
+
+    private static final class PendingWrite {
+        private final byte[] payload;
+        private final AppendCondition condition;
+        private final DurableCallback callback;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private long position;
+
+        private PendingWrite(byte[] payload, AppendCondition condition, DurableCallback callback) {
+            this.payload = payload;
+            this.condition = condition;
+            this.callback = callback;
+        }
+    }
+
+    public GroupCommitWriter(SegmentLog segmentLog, FsyncPolicy fsyncPolicy, MeterRegistry meterRegistry) {
+        this.segmentLog = segmentLog;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchSize = DistributionSummary.builder("blockchain.storage.commit.batch.size")
+                .description("Blocks made durable by a single fsync")
+                .baseUnit("blocks")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("blockchain.storage.flush.latency")
+                .description("Duration of segment log fsync")
+                .register(meterRegistry);
+        this.thread = Thread.ofPlatform().name("block-group-commit").daemon().start(this::run);
+    }
+
+    /**
+     * Ставит запись в очередь на групповую фиксацию.
+     *
+     * @return future, которое завершается позицией записи после её {@code fsync}
+     */
+    public CompletableFuture<Long> submit(byte[] payload, DurableCallback callback) {
+        return submit(payload, () -> true, callback);
+    }
+
+    /**
+     * Ставит запись в очередь на групповую фиксацию, если писатель примет её по условию {@code condition}.
+     *
+     * @return future, которое завершается позицией записи после её {@code fsync} или {@link #REJECTED}
+     */
+    public CompletableFuture<Long> submit(byte[] payload, AppendCondition condition, DurableCallback callback) {
+        if (!running) {
+            throw new IllegalStateException("Block writer is not running", failure);
+        }
+        final PendingWrite write = new PendingWrite(payload, condition, callback);
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing block write", e);
+        }
+        // писатель мог остановиться между проверкой и put: тогда запись никто не заберёт из очереди
+        if (!running && queue.remove(write)) {
+            throw new IllegalStateException("Block writer is not running", failure);
+        }
+        return write.result;
+    }
+
+    /**
+     * Останавливает приём записей, дожидается фиксации уже поставленных в очередь и завершает поток-писатель.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        final List<PendingWrite> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty() || !unflushed.isEmpty()) {
+                final PendingWrite first = queue.poll(waitNanos(), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    write(batch);
+                    batch.clear();
+                }
+                if (!unflushed.isEmpty() && (!running || fsyncPolicy.shouldForce(
+                        unflushed.size(), System.nanoTime() - oldestUnflushedNanos, queue.isEmpty()))) {
+                    flush();
+                }
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    private long waitNanos() {
+        if (unflushed.isEmpty()) {
+            return IDLE_POLL_NANOS;
+        }
+        return fsyncPolicy.maxWaitNanos(System.nanoTime() - oldestUnflushedNanos);
+    }
+
+    private void write(List<PendingWrite> batch) {
+        final List<PendingWrite> accepted = new ArrayList<>(batch.size());
+        final List<byte[]> payloads = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            if (accept(write)) {
+                accepted.add(write);
+                payloads.add(write.payload);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        final long[] positions = segmentLog.append(payloads);
+        if (unflushed.isEmpty()) {
+            oldestUnflushedNanos = System.nanoTime();
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).position = positions[i];
+            unflushed.add(accepted.get(i));
+        }
+    }
+
+    /**
+     * Проверяет условие записи; отклонённая или сломавшая условие запись сразу завершается и в журнал не попадает.
+     */
+    private static boolean accept(PendingWrite write) {
+        try {
+            if (write.condition.test()) {
+                return true;
+            }
+            write.result.complete(REJECTED);
+        } catch (RuntimeException e) {
+            write.result.completeExceptionally(e);
+        }
+        return false;
+    }
+
+    private void flush() {
+        final long start = System.nanoTime();
+        segmentLog.force();
+        flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(unflushed.size());
+        for (PendingWrite write : unflushed) {
+            try {
+                write.callback.onDurable(write.position);
+                write.result.complete(write.position);
+            } catch (RuntimeException e) {
+                write.result.completeExceptionally(e);
+            }
+        }
+        unflushed.clear();
+    }
+
+    /**
+     * Переводит писатель в аварийное состояние и завершает с ошибкой все незафиксированные записи.
+     */
+    private void fail(List<PendingWrite> batch, Throwable cause) {
+        log.error("Block writer failed, all pending writes are rejected", cause);
+        failure = cause;
+        running = false;
+        final List<PendingWrite> rejected = new ArrayList<>(unflushed);
+        rejected.addAll(batch);
+        queue.drainTo(rejected);
+        for (PendingWrite write : rejected) {
+            write.result.completeExceptionally(cause);
+        }
+        unflushed.clear();
+    }
+}
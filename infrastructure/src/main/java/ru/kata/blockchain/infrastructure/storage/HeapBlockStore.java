@@ -0,0 +1,48 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import ru.kata.blockchain.domain.block.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Хранит все блоки цепочки декодированными в куче ({@link StorageMode#HEAP}).
+ */
+final class HeapBlockStore implements BlockStore {
+    private final SegmentLog.RecordDecoder<Block> decoder;
+    private final List<Block> blockchain = new ArrayList<>();
+
+    HeapBlockStore(SegmentLog.RecordDecoder<Block> decoder) {
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void load(long position, int payloadFormat, Supplier<byte[]> payload) {
+        blockchain.add(decoder.decode(payloadFormat, payload.get()));
+    }
+
+    @Override
+    public void append(long position, Block block) {
+        blockchain.add(block);
+    }
+
+    @Override
+    public int size() {
+        return blockchain.size();
+    }
+
+    @Override
+    public Block get(int ordinal) {
+        return blockchain.get(ordinal);
+    }
+
+    /**
+     * Копия списка: представление поверх самого списка видело бы блоки, добавленные позже, а обход
+     * без блокировки репозитория во время {@code append} мог бы завершиться {@link java.util.ConcurrentModificationException}.
+     */
+    @Override
+    public List<Block> view() {
+        return List.copyOf(blockchain);
+    }
+}
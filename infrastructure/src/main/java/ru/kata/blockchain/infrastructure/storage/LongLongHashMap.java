@@ -0,0 +1,134 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица {@code long → long} с открытой адресацией и линейным пробированием.
+ * <p>
+ * В отличие от {@code HashMap<Long, Long>} не создаёт объектов на запись: ключи и значения лежат
+ * в двух массивах примитивов, поэтому индекс на миллионы блоков занимает десятки мегабайт, а не сотни,
+ * и не нагружает сборщик мусора. Удаление не поддерживается — индексы блоков только растут.
+ * <p>
+ * Класс не потокобезопасен.
+ */
+public final class LongLongHashMap {
+    public static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeThreshold;
+
+    public LongLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Возвращает значение по ключу или {@link #NO_VALUE}, если ключа нет.
+     */
+    public long get(long key) {
+        final int mask = keys.length - 1;
+        for (int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Связывает значение с ключом.
+     *
+     * @return предыдущее значение или {@link #NO_VALUE}
+     */
+    public long put(long key, long value) {
+        if (value == NO_VALUE) {
+            throw new IllegalArgumentException("NO_VALUE cannot be stored");
+        }
+        final int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                final long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length * 2);
+        }
+        return NO_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        final boolean[] oldUsed = used;
+        allocate(capacity);
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i], mask);
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Перемешивает биты ключа (финализатор MurmurHash3), чтобы последовательные высоты блоков
+     * не выстраивались в длинные цепочки проб.
+     */
+    private static int slot(long key, int mask) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        final long required = Math.max(2, (long) Math.ceil(expectedSize / LOAD_FACTOR));
+        if (required > 1 << 30) {
+            throw new IllegalArgumentException("Map is too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import ru.kata.blockchain.domain.block.Block;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/**
+ * Хранит в куче только позиции блоков в журнале ({@link StorageMode#MAPPED}) — 8 байт на блок.
+ * Блоки декодируются из отображённых в память сегментов при каждом обращении; декодированным
+ * держится только последний блок, к которому обращаются чаще всего.
+ */
+final class MappedBlockStore implements BlockStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final SegmentLog segmentLog;
+    private final SegmentLog.RecordDecoder<Block> decoder;
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private int size;
+    private Block latest;
+
+    MappedBlockStore(SegmentLog segmentLog, SegmentLog.RecordDecoder<Block> decoder) {
+        this.segmentLog = segmentLog;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void load(long position, int payloadFormat, Supplier<byte[]> payload) {
+        add(position);
+        latest = null;
+    }
+
+    @Override
+    public void append(long position, Block block) {
+        add(position);
+        latest = block;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Block get(int ordinal) {
+        Objects.checkIndex(ordinal, size);
+        if (ordinal == size - 1) {
+            if (latest == null) {
+                latest = read(positions[ordinal]);
+            }
+            return latest;
+        }
+        return read(positions[ordinal]);
+    }
+
+    /**
+     * Массив позиций только дописывается, а при росте копируется, поэтому представление может ссылаться
+     * на текущий массив без копирования: первые {@code size} элементов в нём уже не изменятся.
+     */
+    @Override
+    public List<Block> view() {
+        return new LazyBlockList(positions, size);
+    }
+
+    private void add(long position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+        positions[size++] = position;
+    }
+
+    private Block read(long position) {
+        return segmentLog.read(position, decoder);
+    }
+
+    private final class LazyBlockList extends AbstractList<Block> implements RandomAccess {
+        private final long[] snapshot;
+        private final int snapshotSize;
+
+        private LazyBlockList(long[] snapshot, int snapshotSize) {
+            this.snapshot = snapshot;
+            this.snapshotSize = snapshotSize;
+        }
+
+        @Override
+        public Block get(int index) {
+            Objects.checkIndex(index, snapshotSize);
+            return read(snapshot[index]);
+        }
+
+        @Override
+        public int size() {
+            return snapshotSize;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Хеш-таблица {@code K → long} с открытой адресацией и линейным пробированием.
+ * <p>
+ * Значения хранятся в массиве примитивов, поэтому изменение значения ({@link #addTo}) не создаёт объектов —
+ * в отличие от {@code HashMap<K, Long>}, где каждое обновление упаковывает новый {@link Long}.
+ * Ключи {@code null} и удаление не поддерживаются.
+ * <p>
+ * Класс не потокобезопасен.
+ *
+ * @param <K> тип ключа с корректными {@code equals}/{@code hashCode}
+ */
+public final class ObjectLongHashMap<K> {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final double LOAD_FACTOR = 0.6;
+
+    private Object[] keys;
+    private long[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public ObjectLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ObjectLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Возвращает значение по ключу или {@code defaultValue}, если ключа нет.
+     */
+    public long getOrDefault(K key, long defaultValue) {
+        final int slot = find(Objects.requireNonNull(key, "key"));
+        if (keys[slot] == null) {
+            return defaultValue;
+        }
+        return values[slot];
+    }
+
+    public boolean containsKey(K key) {
+        return keys[find(Objects.requireNonNull(key, "key"))] != null;
+    }
+
+    /**
+     * Связывает значение с ключом.
+     */
+    public void put(K key, long value) {
+        values[insert(key)] = value;
+    }
+
+    /**
+     * Прибавляет {@code delta} к значению ключа; отсутствующий ключ считается равным нулю.
+     *
+     * @return новое значение
+     */
+    public long addTo(K key, long delta) {
+        final int slot = insert(key);
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Передаёт {@code action} все пары ключ-значение в порядке слотов таблицы.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Независимая копия таблицы: копируются только массивы ключей и значений, без повторной вставки.
+     */
+    public ObjectLongHashMap<K> copy() {
+        final ObjectLongHashMap<K> copy = new ObjectLongHashMap<>(2);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.resizeThreshold = resizeThreshold;
+        return copy;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Слот ключа или первый пустой слот его цепочки проб.
+     */
+    private int find(Object key) {
+        final int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Слот ключа; отсутствующий ключ добавляется с нулевым значением.
+     */
+    private int insert(K key) {
+        final int slot = find(Objects.requireNonNull(key, "key"));
+        if (keys[slot] != null) {
+            return slot;
+        }
+        keys[slot] = key;
+        values[slot] = 0;
+        if (++size > resizeThreshold) {
+            rehash(keys.length * 2);
+            return find(key);
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        final Object[] oldKeys = keys;
+        final long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                final int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new long[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Дополнительно перемешивает {@code hashCode()} (финализатор MurmurHash3): у строк адресов с общим
+     * префиксом младшие биты хеша различаются слабо.
+     */
+    private static int slot(Object key, int mask) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        final long required = Math.max(2, (long) Math.ceil(expectedSize / LOAD_FACTOR));
+        if (required > 1 << 30) {
+            throw new IllegalArgumentException("Map is too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+}
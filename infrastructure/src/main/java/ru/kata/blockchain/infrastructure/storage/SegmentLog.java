@@ -0,0 +1,570 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only журнал записей, разбитый на сегментные файлы фиксированного максимального размера.
+ * <p>
+ * Формат сегмента:
+ * <ul>
+ *     <li>заголовок: {@code int magic} ("BLKS"), {@code int version}, {@code int payloadFormat};</li>
+ *     <li>далее подряд записи: {@code int length}, {@code int crc32c(payload)}, {@code byte[length] payload}.</li>
+ * </ul>
+ * {@code payloadFormat} — идентификатор формата полезной нагрузки всех записей сегмента (например, кодека блока).
+ * Журнал сам нагрузку не интерпретирует, а передаёт формат в {@link RecordVisitor}. Сегменты версии
+ * {@value #LEGACY_FORMAT_VERSION} имеют заголовок без этого поля, их формат считается равным {@value #LEGACY_PAYLOAD_FORMAT}.
+ * Если формат активного сегмента отличается от формата журнала, первая запись открывает новый сегмент —
+ * поэтому формат можно сменить без перезаписи старых сегментов.
+ * Сегменты называются по порядковому номеру ({@code 00000000000000000000.seg}, ...). Запись всегда идёт
+ * в последний (активный) сегмент; когда очередная запись не помещается в {@code maxSegmentBytes},
+ * открывается следующий сегмент. Стоимость добавления записи не зависит от длины журнала.
+ * <p>
+ * Запись и сброс на диск разделены: {@link #append(List)} пишет пачку записей, {@link #force()} делает их
+ * долговечными. Группировку записей и политику {@code fsync} реализует {@link GroupCommitWriter}.
+ * <p>
+ * Восстановление после сбоя: при открытии записи проверяются по длине и контрольной сумме.
+ * Оборванная или повреждённая запись в конце последнего сегмента (незавершённая запись при падении процесса)
+ * отрезается, журнал продолжает работу. Повреждение в середине журнала считается фатальным.
+ * Закрытые сегменты, проверенные при одном из прошлых открытий, перечислены с их размерами в файле
+ * {@value #VERIFIED_FILE_NAME} рядом с сегментами. Такой сегмент того же размера повторно не проверяется:
+ * по его отображению читаются только заголовки записей, а нагрузка — если её запросит {@link RecordVisitor}.
+ * Поэтому повторный старт читает целиком только сегменты, закрытые после предыдущего открытия, и активный сегмент.
+ * <p>
+ * Позиция записи кодируется одним {@code long}: старшие биты — номер сегмента, младшие {@value #OFFSET_BITS} —
+ * смещение внутри сегмента (см. {@link #position(long, long)}).
+ * <p>
+ * Произвольное чтение записи по позиции ({@link #read(long, RecordDecoder)}) идёт через отображённые в память
+ * ({@code mmap}) сегменты: данные лежат в page cache, а не в куче. Закрытые сегменты отображаются один раз целиком,
+ * активный — по текущему размеру и переотображается, когда чтение выходит за его границу.
+ * Контрольная сумма при чтении не проверяется: все записи проверены при открытии или записаны этим процессом.
+ * <p>
+ * Класс потокобезопасен: операции записи синхронизированы, чтение уже отображённых данных идёт без блокировок.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+    static final int MAGIC = 0x424C4B53;
+    static final int FORMAT_VERSION = 2;
+    static final int LEGACY_FORMAT_VERSION = 1;
+    static final int LEGACY_PAYLOAD_FORMAT = 1;
+    static final int SEGMENT_HEADER_SIZE = 12;
+    private static final int LEGACY_SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    static final String VERIFIED_FILE_NAME = "sealed.chk";
+    private static final int VERIFIED_MAGIC = 0x424C4B56;
+    private static final int VERIFIED_VERSION = 1;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int payloadFormat;
+    private final List<Long> segmentIds = new ArrayList<>();
+    private final Map<Long, Integer> segmentFormats = new ConcurrentHashMap<>();
+    private final Map<Long, MappedByteBuffer> mappedSegments = new ConcurrentHashMap<>();
+    private FileChannel activeChannel;
+    private SegmentHeader activeHeader;
+    private long activeSize;
+
+    /**
+     * Функция обратного вызова для последовательного обхода записей журнала при открытии.
+     * Нагрузка читается при вызове {@code payload.get()}: обходу, которому нужны только позиции, её читать не нужно.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long position, int payloadFormat, Supplier<byte[]> payload);
+    }
+
+    /**
+     * Преобразует нагрузку записи, прочитанной по позиции, с учётом формата её сегмента.
+     */
+    @FunctionalInterface
+    public interface RecordDecoder<T> {
+        T decode(int payloadFormat, byte[] payload);
+    }
+
+    /**
+     * Заголовок сегмента: размер заголовка в байтах и формат полезной нагрузки записей.
+     */
+    private record SegmentHeader(int size, int payloadFormat) {
+    }
+
+    /**
+     * @param payloadFormat формат нагрузки новых сегментов, записывается в их заголовок
+     */
+    public SegmentLog(Path directory, long maxSegmentBytes, int payloadFormat) {
+        if (maxSegmentBytes <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE || maxSegmentBytes > OFFSET_MASK) {
+            throw new IllegalArgumentException("Invalid max segment size: " + maxSegmentBytes);
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.payloadFormat = payloadFormat;
+    }
+
+    /**
+     * Открывает журнал: находит сегменты, передаёт все корректные записи в {@code visitor} по порядку,
+     * отрезает оборванный хвост последнего сегмента и готовит активный сегмент к записи.
+     * Записи закрытых сегментов, ещё не перечисленных в {@value #VERIFIED_FILE_NAME}, проверяются, после чего
+     * сегменты заносятся в этот файл.
+     */
+    public synchronized void open(RecordVisitor visitor) {
+        try {
+            Files.createDirectories(directory);
+            segmentIds.addAll(listSegmentIds());
+            if (segmentIds.isEmpty()) {
+                createSegment(0);
+                return;
+            }
+            final Map<Long, Long> verified = readVerified();
+            final Map<Long, Long> sealed = new LinkedHashMap<>();
+            int trusted = 0;
+            for (int i = 0; i < segmentIds.size(); i++) {
+                final long segmentId = segmentIds.get(i);
+                final boolean last = i == segmentIds.size() - 1;
+                if (!last && verified.getOrDefault(segmentId, -1L) == Files.size(segmentPath(segmentId))) {
+                    activeHeader = replaySegment(segmentId, visitor);
+                    trusted++;
+                } else {
+                    activeHeader = recoverSegment(segmentId, last, visitor);
+                }
+                segmentFormats.put(segmentId, activeHeader.payloadFormat());
+                if (!last) {
+                    sealed.put(segmentId, Files.size(segmentPath(segmentId)));
+                }
+            }
+            if (!sealed.equals(verified)) {
+                writeVerified(sealed);
+            }
+            final long activeId = segmentIds.getLast();
+            activeChannel = FileChannel.open(segmentPath(activeId), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            activeSize = activeChannel.size();
+            log.info("Opened segment log {}: {} segment(s), {} verified sealed segment(s) not re-checked",
+                    directory.toAbsolutePath(), segmentIds.size(), trusted);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open segment log: " + directory, e);
+        }
+    }
+
+    /**
+     * Дописывает пачку записей в журнал одной сгруппированной (gathering) записью на сегмент.
+     * Данные не сбрасываются на диск — для этого вызывается {@link #force()}.
+     * Если очередная запись не помещается в активный сегмент, журнал переходит на следующий.
+     *
+     * @return позиции записей в журнале в порядке {@code payloads}
+     */
+    public synchronized long[] append(List<byte[]> payloads) {
+        final long[] positions = new long[payloads.size()];
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        try {
+            if (activeHeader.payloadFormat() != payloadFormat || activeHeader.size() != SEGMENT_HEADER_SIZE) {
+                roll();
+            }
+            long offset = activeSize;
+            for (int i = 0; i < payloads.size(); i++) {
+                final byte[] payload = payloads.get(i);
+                final long recordSize = RECORD_HEADER_SIZE + (long) payload.length;
+                if (offset > activeHeader.size() && offset + recordSize > maxSegmentBytes) {
+                    writeFully(buffers);
+                    roll();
+                    offset = activeSize;
+                }
+                final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+                header.putInt(payload.length).putInt(checksum(payload)).flip();
+                buffers.add(header);
+                buffers.add(ByteBuffer.wrap(payload));
+                positions[i] = position(segmentIds.getLast(), offset);
+                offset += recordSize;
+            }
+            writeFully(buffers);
+            return positions;
+        } catch (IOException e) {
+            discardTail();
+            throw new RuntimeException("Failed to append records to segment log: " + directory, e);
+        }
+    }
+
+    /**
+     * Читает запись по позиции, полученной из {@link #open(RecordVisitor)} или {@link #append(List)},
+     * через отображённый в память сегмент.
+     */
+    public <T> T read(long position, RecordDecoder<T> decoder) {
+        final long segmentId = segmentId(position);
+        final int offset = Math.toIntExact(offset(position));
+        final ByteBuffer header = mapped(segmentId, offset + RECORD_HEADER_SIZE);
+        final int length = header.getInt(offset);
+        final ByteBuffer segment = mapped(segmentId, offset + RECORD_HEADER_SIZE + (long) length);
+        final byte[] payload = new byte[length];
+        segment.get(offset + RECORD_HEADER_SIZE, payload);
+        return decoder.decode(segmentFormats.get(segmentId), payload);
+    }
+
+    /**
+     * Сбрасывает записанные данные активного сегмента на диск ({@link FileChannel#force(boolean)}).
+     * Закрытые сегменты сбрасываются на диск при переходе на следующий сегмент.
+     */
+    public synchronized void force() {
+        try {
+            activeChannel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to flush segment log: " + directory, e);
+        }
+    }
+
+    /**
+     * Количество сегментных файлов в журнале.
+     */
+    public synchronized int segmentCount() {
+        return segmentIds.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.force(true);
+            activeChannel.close();
+            activeChannel = null;
+        }
+        mappedSegments.clear();
+    }
+
+    static long position(long segmentId, long offset) {
+        return (segmentId << OFFSET_BITS) | offset;
+    }
+
+    static long segmentId(long position) {
+        return position >>> OFFSET_BITS;
+    }
+
+    static long offset(long position) {
+        return position & OFFSET_MASK;
+    }
+
+    static int checksum(byte[] payload) {
+        return checksum(payload, payload.length);
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Проверяет записи одного сегмента и возвращает его заголовок, когда сегмент прочитан полностью;
+     * оборванный хвост последнего сегмента отрезается.
+     */
+    private SegmentHeader recoverSegment(long segmentId, boolean last, RecordVisitor visitor) throws IOException {
+        final Path path = segmentPath(segmentId);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = channel.size();
+            if (size < LEGACY_SEGMENT_HEADER_SIZE && last) {
+                log.warn("Segment {} has a torn header, re-initializing it", path);
+                channel.truncate(0);
+                return writeHeader(channel);
+            }
+            final SegmentHeader header = readHeader(channel, path);
+            if (size < header.size() && last) {
+                log.warn("Segment {} has a torn header, re-initializing it", path);
+                channel.truncate(0);
+                return writeHeader(channel);
+            }
+            final long validEnd = scanRecords(channel, segmentId, header, size, visitor);
+            if (validEnd == size) {
+                return header;
+            }
+            if (!last) {
+                throw new RuntimeException("Corrupted record in sealed segment " + path + " at offset " + validEnd);
+            }
+            log.warn("Truncating torn tail of segment {}: {} byte(s) at offset {}", path, size - validEnd, validEnd);
+            channel.truncate(validEnd);
+            channel.force(true);
+            return header;
+        }
+    }
+
+    private long scanRecords(FileChannel channel, long segmentId, SegmentHeader segmentHeader, long size,
+                             RecordVisitor visitor) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long offset = segmentHeader.size();
+        while (size - offset >= RECORD_HEADER_SIZE) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            final int length = header.getInt();
+            final int expectedChecksum = header.getInt();
+            if (length <= 0 || length > size - offset - RECORD_HEADER_SIZE) {
+                return offset;
+            }
+            final ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, offset + RECORD_HEADER_SIZE);
+            if (checksum(payload.array()) != expectedChecksum) {
+                return offset;
+            }
+            final byte[] bytes = payload.array();
+            visitor.visit(position(segmentId, offset), segmentHeader.payloadFormat(), () -> bytes);
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Обходит записи закрытого сегмента, уже проверенного при прошлом открытии: по отображению сегмента
+     * читаются только длины записей, нагрузка копируется из отображения, если её запросит {@code visitor}.
+     * Отображение остаётся для последующих чтений по позиции.
+     */
+    private SegmentHeader replaySegment(long segmentId, RecordVisitor visitor) throws IOException {
+        final Path path = segmentPath(segmentId);
+        final SegmentHeader header;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            header = readHeader(channel, path);
+        }
+        final ByteBuffer segment = mapped(segmentId, header.size());
+        final int size = segment.capacity();
+        int offset = header.size();
+        while (size - offset >= RECORD_HEADER_SIZE) {
+            final int length = segment.getInt(offset);
+            if (length <= 0 || length > size - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            final int payloadOffset = offset + RECORD_HEADER_SIZE;
+            visitor.visit(position(segmentId, offset), header.payloadFormat(), () -> {
+                final byte[] payload = new byte[length];
+                segment.get(payloadOffset, payload);
+                return payload;
+            });
+            offset = payloadOffset + length;
+        }
+        if (offset != size) {
+            throw new RuntimeException("Corrupted record in sealed segment " + path + " at offset " + offset);
+        }
+        return header;
+    }
+
+    /**
+     * Читает размеры проверенных закрытых сегментов; пусто, если файла нет или он повреждён.
+     * Формат (big-endian): {@code int magic} ("BLKV"), {@code int version}, {@code int count},
+     * {@code count} пар {@code long segmentId, long size}, {@code int crc32c} всех предыдущих байтов.
+     */
+    private Map<Long, Long> readVerified() throws IOException {
+        final Path path = directory.resolve(VERIFIED_FILE_NAME);
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return Map.of();
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final int headerSize = 3 * Integer.BYTES;
+        if (bytes.length < headerSize + Integer.BYTES || buffer.getInt() != VERIFIED_MAGIC || buffer.getInt() != VERIFIED_VERSION) {
+            log.warn("Ignoring unreadable list of verified segments {}, all segments will be checked", path);
+            return Map.of();
+        }
+        final int count = buffer.getInt();
+        final int crcOffset = headerSize + count * 2 * Long.BYTES;
+        if (count < 0 || crcOffset != bytes.length - Integer.BYTES || checksum(bytes, crcOffset) != buffer.getInt(crcOffset)) {
+            log.warn("Ignoring corrupted list of verified segments {}, all segments will be checked", path);
+            return Map.of();
+        }
+        final Map<Long, Long> verified = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            verified.put(buffer.getLong(), buffer.getLong());
+        }
+        return verified;
+    }
+
+    /**
+     * Атомарно заменяет список проверенных закрытых сегментов. Ошибка записи не фатальна:
+     * при следующем открытии эти сегменты лишь будут проверены ещё раз.
+     */
+    private void writeVerified(Map<Long, Long> sealed) {
+        final ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + sealed.size() * 2 * Long.BYTES + Integer.BYTES)
+                .putInt(VERIFIED_MAGIC)
+                .putInt(VERIFIED_VERSION)
+                .putInt(sealed.size());
+        sealed.forEach((segmentId, size) -> buffer.putLong(segmentId).putLong(size));
+        buffer.putInt(checksum(buffer.array(), buffer.position())).flip();
+        final Path path = directory.resolve(VERIFIED_FILE_NAME);
+        final Path tempPath = directory.resolve(VERIFIED_FILE_NAME + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to record verified segments in {}, they will be checked again on restart", path, e);
+        }
+    }
+
+    private SegmentHeader readHeader(FileChannel channel, Path path) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(LEGACY_SEGMENT_HEADER_SIZE);
+        readFully(channel, header, 0);
+        header.flip();
+        final int magic = header.getInt();
+        final int version = header.getInt();
+        if (magic != MAGIC) {
+            throw new RuntimeException("Not a block segment file: " + path);
+        }
+        if (version == LEGACY_FORMAT_VERSION) {
+            return new SegmentHeader(LEGACY_SEGMENT_HEADER_SIZE, LEGACY_PAYLOAD_FORMAT);
+        }
+        if (version != FORMAT_VERSION) {
+            throw new RuntimeException("Unsupported segment format version " + version + ": " + path);
+        }
+        if (channel.size() < SEGMENT_HEADER_SIZE) {
+            return new SegmentHeader(SEGMENT_HEADER_SIZE, payloadFormat);
+        }
+        final ByteBuffer format = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, format, LEGACY_SEGMENT_HEADER_SIZE);
+        return new SegmentHeader(SEGMENT_HEADER_SIZE, format.flip().getInt());
+    }
+
+    private void roll() throws IOException {
+        activeChannel.force(true);
+        activeChannel.close();
+        createSegment(segmentIds.getLast() + 1);
+        log.info("Rolled segment log {} to segment {}", directory.toAbsolutePath(), segmentIds.getLast());
+    }
+
+    private void createSegment(long segmentId) throws IOException {
+        activeChannel = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeHeader = writeHeader(activeChannel);
+        activeSize = SEGMENT_HEADER_SIZE;
+        segmentIds.add(segmentId);
+        segmentFormats.put(segmentId, payloadFormat);
+    }
+
+    /**
+     * Возвращает отображение сегмента, покрывающее как минимум {@code requiredEnd} байт.
+     * Уже существующее достаточное отображение возвращается без блокировки.
+     */
+    private ByteBuffer mapped(long segmentId, long requiredEnd) {
+        final MappedByteBuffer buffer = mappedSegments.get(segmentId);
+        if (buffer != null && buffer.capacity() >= requiredEnd) {
+            return buffer;
+        }
+        return remap(segmentId, requiredEnd);
+    }
+
+    private synchronized ByteBuffer remap(long segmentId, long requiredEnd) {
+        final MappedByteBuffer current = mappedSegments.get(segmentId);
+        if (current != null && current.capacity() >= requiredEnd) {
+            return current;
+        }
+        try {
+            final MappedByteBuffer buffer;
+            if (activeChannel != null && segmentId == segmentIds.getLast()) {
+                buffer = activeChannel.map(FileChannel.MapMode.READ_ONLY, 0, mappableSize(activeSize));
+            } else {
+                try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, mappableSize(channel.size()));
+                }
+            }
+            if (buffer.capacity() < requiredEnd) {
+                throw new IllegalArgumentException("Position is beyond the end of segment " + segmentId + ": " + requiredEnd);
+            }
+            mappedSegments.put(segmentId, buffer);
+            return buffer;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map segment " + segmentId + " of segment log: " + directory, e);
+        }
+    }
+
+    private static long mappableSize(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Segment is too large to be memory-mapped: " + size);
+        }
+        return size;
+    }
+
+    private SegmentHeader writeHeader(FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(payloadFormat).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+        return new SegmentHeader(SEGMENT_HEADER_SIZE, payloadFormat);
+    }
+
+    /**
+     * Записывает накопленные буферы в конец активного сегмента и очищает список.
+     */
+    private void writeFully(List<ByteBuffer> buffers) throws IOException {
+        if (buffers.isEmpty()) {
+            return;
+        }
+        final ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer buffer : array) {
+            remaining += buffer.remaining();
+        }
+        final long total = remaining;
+        activeChannel.position(activeSize);
+        while (remaining > 0) {
+            remaining -= activeChannel.write(array);
+        }
+        activeSize += total;
+        buffers.clear();
+    }
+
+    /**
+     * Отрезает частично записанные байты после неудачной записи, чтобы следующая запись
+     * не оказалась за «дырой» в сегменте.
+     */
+    private void discardTail() {
+        try {
+            activeChannel.truncate(activeSize);
+        } catch (IOException e) {
+            log.error("Failed to discard partially written record in {}", directory, e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment file");
+            }
+            position += read;
+        }
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%020d%s", segmentId, SEGMENT_SUFFIX));
+    }
+}
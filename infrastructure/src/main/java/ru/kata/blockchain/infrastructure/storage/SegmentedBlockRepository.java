@@ -0,0 +1,292 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockCommitListener;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.exceptions.InvalidBlockchainPathException;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.codec.BinaryBlockCodec;
+import ru.kata.blockchain.infrastructure.codec.BlockCodec;
+import ru.kata.blockchain.infrastructure.jfr.BlockSaveEvent;
+import ru.kata.blockchain.infrastructure.jfr.ChainLoadEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Реализация {@link BlockRepository} поверх append-only сегментного журнала {@link SegmentLog}.
+ * <p>
+ * В отличие от {@code FileBlockRepository}, который при каждом сохранении перезаписывает весь JSON-файл цепочки,
+ * здесь {@link #save(Block)} дописывает в журнал только новый блок: запись с префиксом длины и контрольной суммой.
+ * Время добавления блока не зависит от высоты цепочки.
+ * </p>
+ *
+ * <p><b>Основные особенности:</b></p>
+ * <ul>
+ *   <li>Журнал хранится в каталоге {@code data/blockchain/<chainName>} (или {@code <baseDir>/<chainName>})
+ *   в виде файлов-сегментов;</li>
+ *   <li>При старте проверяются активный сегмент и закрытые сегменты, не проверенные при прошлом старте
+ *   ({@link SegmentLog#open}); оборванная запись в конце отрезается;</li>
+ *   <li>В режиме {@link StorageMode#HEAP} все блоки хранятся в куче, в режиме {@link StorageMode#MAPPED} —
+ *   только позиции блоков, а сами блоки читаются из отображённых в память сегментов при обращении;</li>
+ *   <li>Блоки кодируются выбранным {@link BlockCodec}; сегменты, записанные другим кодеком
+ *   (например, JSON до перехода на бинарный формат), читаются своим кодеком по идентификатору из заголовка;</li>
+ *   <li>Поиск по номеру и хэшу блока идёт через {@link BlockIndex}, сохраняемый рядом с сегментами;</li>
+ *   <li>Запись идёт через {@link GroupCommitWriter}: параллельные {@code save} объединяются в одну запись
+ *   и один {@code fsync} согласно {@link FsyncPolicy};</li>
+ *   <li>{@code save} возвращает управление, когда блок долговечен; в цепочку в памяти блок попадает
+ *   в том же порядке, в каком записан в журнал;</li>
+ *   <li>{@link #saveIfNext(Block)} проверяет сцепление блока с последним принятым в поток-писателе
+ *   непосредственно перед записью ({@link GroupCommitWriter.AppendCondition}), поэтому проверка видит и блоки,
+ *   ещё ожидающие {@code fsync} в той же группе;</li>
+ *   <li>Поддерживает потокобезопасный доступ к методам;</li>
+ *   <li>Пишет события JFR {@link ChainLoadEvent} о загрузке журнала и {@link BlockSaveEvent} о каждом сохранении.</li>
+ * </ul>
+ */
+@Slf4j
+public class SegmentedBlockRepository implements BlockRepository, Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    /**
+     * Каталог по умолчанию, внутри которого лежат каталоги цепочек.
+     */
+    public static final Path BASE_DIR = Paths.get("data/blockchain");
+    /**
+     * Имя цепочки, с которым узел запускается при {@code blockchain.storage.type=segmented}.
+     */
+    public static final String DEFAULT_CHAIN_NAME = "blockchain";
+    private static final String CHAIN_NAME_PATTERN = "^[a-zA-Z0-9_-]{1,100}$";
+    private static final String INVALID_NAME_ERROR_MASSAGE = "Invalid chain name: ";
+
+    private final SegmentLog segmentLog;
+    private final GroupCommitWriter writer;
+    private final BlockCodec codec;
+    private final Map<Integer, BlockCodec> readCodecs = new ConcurrentHashMap<>();
+    private final BlockStore blockchain;
+    private final BlockIndex blockIndex;
+    private final List<BlockCommitListener> commitListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Последний блок, принятый писателем к записи; читается и меняется только потоком-писателем.
+     */
+    private Block tail;
+
+    public SegmentedBlockRepository(String chainName, BlockCodec codec, StorageMode storageMode, FsyncPolicy fsyncPolicy,
+                                    MeterRegistry meterRegistry) {
+        this(BASE_DIR, chainName, codec, storageMode, fsyncPolicy, meterRegistry);
+    }
+
+    /**
+     * @param baseDir   каталог, внутри которого лежит каталог цепочки
+     * @param chainName имя каталога цепочки внутри {@code baseDir}
+     */
+    public SegmentedBlockRepository(Path baseDir, String chainName, BlockCodec codec, StorageMode storageMode, FsyncPolicy fsyncPolicy,
+                                    MeterRegistry meterRegistry) {
+        this(resolveChainDirectory(baseDir, chainName), DEFAULT_MAX_SEGMENT_BYTES, codec, storageMode, fsyncPolicy, meterRegistry);
+    }
+
+    @VisibleForTesting
+    SegmentedBlockRepository(Path directory, long maxSegmentBytes) {
+        this(directory, maxSegmentBytes, StorageMode.HEAP);
+    }
+
+    @VisibleForTesting
+    SegmentedBlockRepository(Path directory, long maxSegmentBytes, StorageMode storageMode) {
+        this(directory, maxSegmentBytes, new BinaryBlockCodec(), storageMode, FsyncPolicy.perWrite(), new SimpleMeterRegistry());
+    }
+
+    @VisibleForTesting
+    SegmentedBlockRepository(Path directory, long maxSegmentBytes, BlockCodec codec, StorageMode storageMode,
+                             FsyncPolicy fsyncPolicy, MeterRegistry meterRegistry) {
+        final ChainLoadEvent loadEvent = new ChainLoadEvent();
+        loadEvent.begin();
+        this.codec = codec;
+        readCodecs.put(codec.id(), codec);
+        this.segmentLog = new SegmentLog(directory, maxSegmentBytes, codec.id());
+        this.blockchain = BlockStore.create(storageMode, segmentLog, this::decode);
+        segmentLog.open(blockchain::load);
+        this.blockIndex = BlockIndex.open(directory, blockchain);
+        loadEvent.end();
+        if (loadEvent.shouldCommit()) {
+            loadEvent.path = directory.toString();
+            loadEvent.blocks = blockchain.size();
+            loadEvent.commit();
+        }
+        if (blockchain.size() > 0) {
+            this.tail = blockchain.get(blockchain.size() - 1);
+        }
+        this.writer = new GroupCommitWriter(segmentLog, fsyncPolicy, meterRegistry);
+        log.info("Loaded {} block(s) from segment log {} in {} mode", blockchain.size(), directory.toAbsolutePath(), storageMode);
+    }
+
+    /**
+     * Ставит блок в очередь групповой фиксации и ждёт, пока он станет долговечным.
+     * Метод не синхронизирован: пока один поток ждёт {@code fsync}, другие успевают добавить свои блоки в ту же группу.
+     */
+    @Override
+    public void save(Block block) {
+        append(block, false);
+    }
+
+    @Override
+    public boolean saveIfNext(Block block) {
+        return append(block, true);
+    }
+
+    private boolean append(Block block, boolean requireNext) {
+        final BlockSaveEvent event = new BlockSaveEvent();
+        event.begin();
+        final byte[] payload = codec.encode(block);
+        final long position;
+        try {
+            position = writer.submit(payload, () -> acceptTail(block, requireNext), committed -> {
+                publish(committed, block);
+                notifyCommitted(block);
+            }).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to save block: index=" + block.index(), e.getCause());
+        }
+        if (position == GroupCommitWriter.REJECTED) {
+            log.debug("Block does not extend the chain tip, not appended: index={}", block.index());
+            return false;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.blockIndex = block.index();
+            event.blocks = 1;
+            event.bytesWritten = payload.length;
+            event.storage = "segmented";
+            event.commit();
+        }
+        log.debug("Block appended to segment log: index={}", block.index());
+        return true;
+    }
+
+    /**
+     * Условие записи блока, вызывается потоком-писателем перед добавлением в журнал.
+     */
+    private boolean acceptTail(Block block, boolean requireNext) {
+        if (requireNext && tail != null && !(tail.hash().equals(block.previousHash()) && tail.index() + 1 == block.index())) {
+            return false;
+        }
+        tail = block;
+        return true;
+    }
+
+    @Override
+    public synchronized List<Block> findAll() {
+        return blockchain.view();
+    }
+
+    @Override
+    public synchronized Optional<Block> findLatest() {
+        if (blockchain.size() == 0) {
+            log.debug("No block found");
+            return Optional.empty();
+        }
+        return Optional.of(blockchain.get(blockchain.size() - 1));
+    }
+
+    @Override
+    public synchronized Optional<Block> findByIndex(long index) {
+        return find(blockIndex.ordinalOf(index));
+    }
+
+    @Override
+    public synchronized Optional<Block> findByHash(Hash hash) {
+        return find(blockIndex.ordinalOf(hash));
+    }
+
+    @Override
+    public synchronized List<Block> findRange(long fromIndex, long toIndex) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("fromIndex must not be greater than toIndex: " + fromIndex + " > " + toIndex);
+        }
+        if (fromIndex == toIndex) {
+            return List.of();
+        }
+        final long from = Math.max(fromIndex, blockIndex.minHeight());
+        final long to = Math.min(toIndex - 1, blockIndex.maxHeight());
+        final List<Block> blocks = new ArrayList<>();
+        for (long index = from; index <= to; index++) {
+            final int ordinal = blockIndex.ordinalOf(index);
+            if (ordinal >= 0) {
+                blocks.add(blockchain.get(ordinal));
+            }
+        }
+        return blocks;
+    }
+
+    @Override
+    public void addCommitListener(BlockCommitListener listener) {
+        commitListeners.add(listener);
+    }
+
+    @VisibleForTesting
+    int segmentCount() {
+        return segmentLog.segmentCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        segmentLog.close();
+        blockIndex.close();
+    }
+
+    private synchronized void publish(long position, Block block) {
+        blockchain.append(position, block);
+        blockIndex.add(block);
+    }
+
+    /**
+     * Слушатели вызываются потоком-писателем вне блокировки репозитория, чтобы они могли читать репозиторий.
+     */
+    private void notifyCommitted(Block block) {
+        for (BlockCommitListener listener : commitListeners) {
+            try {
+                listener.onBlockCommitted(block);
+            } catch (RuntimeException e) {
+                log.error("Block commit listener failed: index={}", block.index(), e);
+            }
+        }
+    }
+
+    private Optional<Block> find(int ordinal) {
+        if (ordinal < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(blockchain.get(ordinal));
+    }
+
+    private Block decode(int payloadFormat, byte[] payload) {
+        try {
+            return readCodecs.computeIfAbsent(payloadFormat, BlockCodec::byId).decode(payload);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to deserialize block from segment log", e);
+        }
+    }
+
+    /**
+     * Имя цепочки становится именем каталога внутри {@code baseDir}, поэтому допускаются
+     * только латинские буквы, цифры, {@code _} и {@code -} — это исключает обход каталогов.
+     */
+    private static Path resolveChainDirectory(Path baseDir, String chainName) {
+        if (chainName == null || !chainName.trim().matches(CHAIN_NAME_PATTERN)) {
+            throw new InvalidBlockchainPathException(INVALID_NAME_ERROR_MASSAGE + chainName);
+        }
+        return baseDir.resolve(chainName.trim());
+    }
+}
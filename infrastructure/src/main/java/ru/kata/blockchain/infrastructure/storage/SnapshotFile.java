@@ -0,0 +1,168 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Файл снимка состояния, построенного по цепочке (балансы, цель сложности и т. п.).
+ * <p>
+ * Снимок хранит высоту и хэш блока, по который включительно построено состояние, и само состояние в виде байтов,
+ * формат которых определяет владелец снимка. При старте владелец восстанавливает состояние из снимка и
+ * дочитывает только блоки выше его высоты, поэтому время старта зависит от числа новых блоков, а не от длины цепочки.
+ * Снимок используется, только если блок на его высоте в цепочке имеет тот же хэш ({@link Snapshot#matches(BlockRepository)}).
+ * <p>
+ * Формат (big-endian): {@code int magic} ("BCSS"), {@code int version}, {@code long height},
+ * {@code byte[32] tipHash}, {@code int length}, {@code byte[length] state}, {@code int crc32c} всех предыдущих байтов.
+ * Снимок пишется во временный файл, сбрасывается на диск и атомарно заменяет предыдущий; повреждённый
+ * или чужой файл игнорируется, и состояние строится по цепочке заново.
+ * <p>
+ * Владелец, фиксирующий блоки, пишет снимок через {@link #writeAsync}: под своей блокировкой он только копирует
+ * состояние, а кодирование и {@code fsync} выполняются отдельным потоком, по одному снимку за раз в порядке вызовов.
+ * {@link #close()} дожидается записи уже поставленных снимков.
+ */
+@Slf4j
+public class SnapshotFile implements Closeable {
+    static final int MAGIC = 0x42435353;
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES + Hash.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final ExecutorService writer;
+
+    public SnapshotFile(Path path) {
+        this.path = path;
+        this.writer = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("snapshot-writer-" + path.getFileName()).daemon().factory());
+    }
+
+    /**
+     * Читает снимок; пусто, если файла нет или он повреждён.
+     */
+    public Optional<Snapshot> read() {
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Failed to read snapshot {}, state will be rebuilt from the chain", path, e);
+            return Optional.empty();
+        }
+        if (bytes.length < HEADER_SIZE + Integer.BYTES) {
+            log.warn("Snapshot {} is truncated, ignoring it", path);
+            return Optional.empty();
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final int magic = buffer.getInt();
+        final int version = buffer.getInt();
+        if (magic != MAGIC || version != FORMAT_VERSION) {
+            log.warn("Snapshot {} has unknown format (magic={}, version={}), ignoring it", path, Integer.toHexString(magic), version);
+            return Optional.empty();
+        }
+        final long height = buffer.getLong();
+        final byte[] tipHash = new byte[Hash.BYTES];
+        buffer.get(tipHash);
+        final int length = buffer.getInt();
+        if (length < 0 || length != bytes.length - HEADER_SIZE - Integer.BYTES
+                || crc(bytes, bytes.length - Integer.BYTES) != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            log.warn("Snapshot {} is corrupted, ignoring it", path);
+            return Optional.empty();
+        }
+        final byte[] state = new byte[length];
+        buffer.get(state);
+        return Optional.of(new Snapshot(height, Hash.fromBytes(tipHash), state));
+    }
+
+    /**
+     * Записывает снимок. Ошибка записи не прерывает работу: состояние по-прежнему можно построить по цепочке.
+     *
+     * @return {@code true}, если снимок записан
+     */
+    public boolean write(Snapshot snapshot) {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + snapshot.state().length + Integer.BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(snapshot.height())
+                .put(snapshot.tipHash().toBytes())
+                .putInt(snapshot.state().length)
+                .put(snapshot.state());
+        buffer.putInt(crc(buffer.array(), buffer.position())).flip();
+        final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to write snapshot {} at height {}", path, snapshot.height(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Строит снимок ({@code snapshot} вызывается потоком записи) и записывает его в фоне.
+     *
+     * @return результат {@link #write(Snapshot)}; {@code false}, если файл уже закрыт
+     */
+    public CompletableFuture<Boolean> writeAsync(Supplier<Snapshot> snapshot) {
+        try {
+            return CompletableFuture.supplyAsync(() -> write(snapshot.get()), writer);
+        } catch (RejectedExecutionException e) {
+            log.debug("Snapshot {} is closed, skipping the write", path);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    /**
+     * Дожидается записи поставленных снимков и останавливает поток записи.
+     */
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Снимок состояния, построенного по блокам {@code 0..height}; {@code tipHash} — хэш блока {@code height}.
+     */
+    public record Snapshot(long height, Hash tipHash, byte[] state) {
+
+        /**
+         * Проверяет, что снимок построен по текущей цепочке: блок на его высоте существует и имеет тот же хэш.
+         */
+        public boolean matches(BlockRepository blockRepository) {
+            return blockRepository.findByIndex(height).map(Block::hash).filter(tipHash::equals).isPresent();
+        }
+    }
+}
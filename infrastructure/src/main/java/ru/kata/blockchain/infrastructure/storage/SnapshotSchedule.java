@@ -0,0 +1,98 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.Closeable;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Снимки состояния, построенного по цепочке: восстановление при старте и запись раз в {@code interval} блоков
+ * через {@link SnapshotFile}.
+ * <p>
+ * Владелец состояния (реестр балансов, цель сложности) вызывает {@link #restore} при создании,
+ * а после применения блоков — {@link #isDue} и {@link #write}: под своей блокировкой он только копирует состояние,
+ * кодирование выполняет поток записи {@link SnapshotFile#writeAsync}. Без файла ({@code null}) снимки
+ * не читаются и не пишутся. Не потокобезопасен: вызывается под блокировкой владельца.
+ */
+@Slf4j
+public class SnapshotSchedule implements Closeable {
+    private final SnapshotFile snapshotFile;
+    private final long interval;
+    private final String owner;
+    private long snapshotHeight = -1;
+
+    /**
+     * @param snapshotFile файл снимка или {@code null}, если снимки не используются
+     * @param interval     число блоков между снимками
+     * @param owner        название состояния для журнала
+     */
+    public SnapshotSchedule(SnapshotFile snapshotFile, long interval, String owner) {
+        this.snapshotFile = snapshotFile;
+        this.interval = interval;
+        this.owner = owner;
+    }
+
+    /**
+     * Читает снимок и передаёт его состояние {@code decoder}, если снимок построен по текущей цепочке.
+     * {@code decoder} бросает {@link IllegalArgumentException} на повреждённом состоянии и не должен менять
+     * состояние владельца, пока не разобрал его целиком.
+     *
+     * @return восстановленный снимок; пусто, если его нет, он построен по другой цепочке или повреждён
+     */
+    public Optional<SnapshotFile.Snapshot> restore(BlockRepository blockRepository, Consumer<byte[]> decoder) {
+        if (snapshotFile == null) {
+            return Optional.empty();
+        }
+        final Optional<SnapshotFile.Snapshot> snapshot = snapshotFile.read();
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!snapshot.get().matches(blockRepository)) {
+            log.warn("{} snapshot at height {} does not match the blockchain, rebuilding from the chain", owner, snapshot.get().height());
+            return Optional.empty();
+        }
+        try {
+            decoder.accept(snapshot.get().state());
+        } catch (IllegalArgumentException e) {
+            log.warn("{} snapshot is malformed, rebuilding from the chain", owner, e);
+            return Optional.empty();
+        }
+        snapshotHeight = snapshot.get().height();
+        return snapshot;
+    }
+
+    /**
+     * Пора ли писать снимок на высоте {@code height}: с предыдущего снимка применено не меньше {@code interval} блоков.
+     */
+    public boolean isDue(long height) {
+        return snapshotFile != null && height - snapshotHeight >= interval;
+    }
+
+    /**
+     * Ставит в очередь запись снимка на высоте {@code height}; {@code state} вызывается потоком записи.
+     *
+     * @return {@code true}, если снимок записан; {@code false}, если снимки не используются или запись не удалась
+     */
+    public CompletableFuture<Boolean> write(long height, Hash tipHash, Supplier<byte[]> state) {
+        if (snapshotFile == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        snapshotHeight = height;
+        return snapshotFile.writeAsync(() -> new SnapshotFile.Snapshot(height, tipHash, state.get()));
+    }
+
+    /**
+     * Дожидается записи поставленных снимков.
+     */
+    @Override
+    public void close() {
+        if (snapshotFile != null) {
+            snapshotFile.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+/**
+ * Режим хранения цепочки в {@link SegmentedBlockRepository}.
+ * <ul>
+ *     <li>{@link #HEAP} — все блоки декодируются при старте и хранятся в куче;</li>
+ *     <li>{@link #MAPPED} — в куче только массив позиций блоков в журнале, данные читаются из отображённых
+ *     в память сегментов и декодируются при обращении. Куча не растёт с высотой цепочки.</li>
+ * </ul>
+ */
+public enum StorageMode {
+    HEAP,
+    MAPPED;
+
+    /**
+     * Режим по значению из конфигурации; если значение не задано, режим выбирается по снимкам состояния:
+     * со снимками ({@code snapshots}) старт не перечитывает блоки ниже снимка, поэтому по умолчанию {@link #MAPPED} —
+     * блоки не декодируются при открытии журнала; без снимков — {@link #HEAP}.
+     */
+    public static StorageMode of(String mode, boolean snapshots) {
+        if (mode == null || mode.isBlank()) {
+            if (snapshots) {
+                return MAPPED;
+            }
+            return HEAP;
+        }
+        return of(mode);
+    }
+
+    /**
+     * Режим по значению из конфигурации: {@code heap} или {@code mapped}.
+     */
+    public static StorageMode of(String mode) {
+        return switch (mode) {
+            case "heap" -> HEAP;
+            case "mapped" -> MAPPED;
+            default -> throw new IllegalArgumentException("Unknown storage mode: " + mode);
+        };
+    }
+}
@@ -0,0 +1,287 @@
+package ru.kata.blockchain.infrastructure.validation;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.exceptions.ChainVerificationException;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.mining.RetargetSchedule;
+import ru.kata.blockchain.infrastructure.storage.SnapshotFile;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка цепочки, загруженной с диска, при старте приложения.
+ * <p>
+ * Блоки читаются из {@link BlockRepository} пачками по {@value #BATCH_BLOCKS}. В каждой пачке
+ * сначала последовательно проверяются номера блоков, ссылки {@code previousHash} на хэш предыдущего блока
+ * и доказательство работы: хэш блока должен удовлетворять цели сложности, пересчитанной по меткам времени
+ * предыдущих блоков тем же правилом, что и при добыче ({@link RetargetSchedule}). Затем в {@link ForkJoinPool}
+ * частями по {@value #CHUNK_BLOCKS} блоков пересчитываются хэши блоков ({@link HashFactory#createHash(Block)})
+ * и проверяются подписи транзакций. Genesis-блок ({@link GenesisBlock}) зафиксирован протоколом
+ * и доказательства работы не требует.
+ * Ход проверки пишется в лог не чаще раза в {@value #PROGRESS_INTERVAL_SECONDS} с.
+ * <p>
+ * Блоки до контрольной точки {@code checkpointHeight} включительно считаются доверенными и не проверяются.
+ * Цель сложности на высоте контрольной точки берётся из снимка {@code checkpointSnapshot} ({@link SnapshotFile}),
+ * если он построен по этой цепочке не выше контрольной точки; из доверенных блоков после снимка (без снимка —
+ * из всех) читаются только метки времени, и досчитанное состояние сохраняется в снимок. Поэтому полный проход
+ * по доверенной части выполняется один раз, а следующие запуски с той же контрольной точкой её не читают.
+ * Если задан {@code checkpointHash}, блок на высоте контрольной точки должен иметь этот хэш.
+ * Проверка выше контрольной точки начинается со ссылки на неё, поэтому подмена доверенной части
+ * обнаруживается по первому же проверяемому блоку.
+ * <p>
+ * При первом же нарушении выбрасывается {@link ChainVerificationException} с номером блока.
+ */
+@Slf4j
+public class ChainVerifier {
+    static final int BATCH_BLOCKS = 1000;
+    static final int CHUNK_BLOCKS = 64;
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+
+    private final BlockRepository blockRepository;
+    private final HashFactory hashFactory;
+    private final CryptoService cryptoService;
+    private final SerializerService serializerService;
+    private final int parallelism;
+    private final long checkpointHeight;
+    private final Hash checkpointHash;
+    private final Hash initialTarget;
+    private final int retargetWindow;
+    private final long targetBlockMillis;
+    private final SnapshotFile checkpointSnapshot;
+
+    /**
+     * @param parallelism       число потоков проверки; {@code 0} — по числу ядер
+     * @param checkpointHeight  высота контрольной точки; {@code -1} — проверять всю цепочку
+     * @param checkpointHash    ожидаемый хэш блока на высоте контрольной точки или {@code null}
+     * @param initialTarget     начальная цель сложности
+     * @param retargetWindow    число блоков между пересчётами цели
+     * @param targetBlockMillis ожидаемое время добычи блока
+     */
+    public ChainVerifier(BlockRepository blockRepository,
+                         HashFactory hashFactory,
+                         CryptoService cryptoService,
+                         SerializerService serializerService,
+                         int parallelism,
+                         long checkpointHeight,
+                         Hash checkpointHash,
+                         Hash initialTarget,
+                         int retargetWindow,
+                         long targetBlockMillis) {
+        this(blockRepository, hashFactory, cryptoService, serializerService, parallelism, checkpointHeight, checkpointHash,
+                initialTarget, retargetWindow, targetBlockMillis, null);
+    }
+
+    /**
+     * @param checkpointSnapshot снимок цели сложности на высоте контрольной точки или {@code null}
+     */
+    public ChainVerifier(BlockRepository blockRepository,
+                         HashFactory hashFactory,
+                         CryptoService cryptoService,
+                         SerializerService serializerService,
+                         int parallelism,
+                         long checkpointHeight,
+                         Hash checkpointHash,
+                         Hash initialTarget,
+                         int retargetWindow,
+                         long targetBlockMillis,
+                         SnapshotFile checkpointSnapshot) {
+        this.blockRepository = blockRepository;
+        this.hashFactory = hashFactory;
+        this.cryptoService = cryptoService;
+        this.serializerService = serializerService;
+        this.parallelism = resolveParallelism(parallelism);
+        this.checkpointHeight = checkpointHeight;
+        this.checkpointHash = checkpointHash;
+        this.initialTarget = initialTarget;
+        this.retargetWindow = retargetWindow;
+        this.targetBlockMillis = targetBlockMillis;
+        this.checkpointSnapshot = checkpointSnapshot;
+    }
+
+    /**
+     * Проверяет цепочку выше контрольной точки.
+     *
+     * @return число проверенных блоков
+     * @throws ChainVerificationException если цепочка повреждена
+     */
+    public long verify() {
+        final long latest = blockRepository.findLatest().map(Block::index).orElse(-1L);
+        final long from = checkpointHeight + 1;
+        if (latest < from) {
+            log.info("Blockchain verification skipped: latest block {} is within checkpoint {}", latest, checkpointHeight);
+            return 0;
+        }
+        final long started = System.nanoTime();
+        long lastReport = started;
+        final Block checkpoint = checkpointBlock();
+        final RetargetSchedule schedule = trustedSchedule(checkpoint);
+        Hash previousHash = null;
+        if (checkpoint != null) {
+            previousHash = checkpoint.hash();
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            for (long batchFrom = from; batchFrom <= latest; batchFrom += BATCH_BLOCKS) {
+                final List<Block> blocks = blockRepository.findRange(batchFrom, Math.min(latest + 1, batchFrom + BATCH_BLOCKS));
+                previousHash = verifyLinkage(blocks, batchFrom, previousHash, schedule);
+                pool.invoke(new VerifyBlocksTask(blocks, 0, blocks.size()));
+                final long now = System.nanoTime();
+                if (now - lastReport >= TimeUnit.SECONDS.toNanos(PROGRESS_INTERVAL_SECONDS)) {
+                    final long verified = batchFrom + blocks.size() - from;
+                    log.info("Verifying blockchain: {}/{} block(s), {}%", verified, latest + 1 - from, verified * 100 / (latest + 1 - from));
+                    lastReport = now;
+                }
+            }
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Blockchain verified: blocks {}..{} in {} ms on {} thread(s), trusted up to checkpoint {}",
+                from, latest, elapsedMillis, parallelism, checkpointHeight);
+        return latest + 1 - from;
+    }
+
+    /**
+     * Блок на высоте контрольной точки, на который должен ссылаться первый проверяемый блок;
+     * {@code null}, если проверка начинается с первого блока цепочки.
+     */
+    private Block checkpointBlock() {
+        if (checkpointHeight < 0) {
+            return null;
+        }
+        final Block checkpoint = blockRepository.findByIndex(checkpointHeight)
+                .orElseThrow(() -> new ChainVerificationException("Checkpoint block " + checkpointHeight + " is missing"));
+        if (checkpointHash != null && !checkpointHash.equals(checkpoint.hash())) {
+            throw new ChainVerificationException("Checkpoint block " + checkpointHeight + " has hash " + checkpoint.hash().value()
+                    + ", expected " + checkpointHash.value());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Цель сложности для первого проверяемого блока: снимок не выше контрольной точки и метки времени
+     * доверенных блоков после него.
+     */
+    private RetargetSchedule trustedSchedule(Block checkpoint) {
+        final RetargetSchedule schedule = new RetargetSchedule(initialTarget, retargetWindow, targetBlockMillis);
+        if (checkpoint == null) {
+            return schedule;
+        }
+        final long from = restoreCheckpointState(schedule) + 1;
+        for (long batchFrom = from; batchFrom <= checkpointHeight; batchFrom += BATCH_BLOCKS) {
+            for (Block block : blockRepository.findRange(batchFrom, Math.min(checkpointHeight + 1, batchFrom + BATCH_BLOCKS))) {
+                schedule.apply(block);
+            }
+        }
+        if (checkpointSnapshot != null && from <= checkpointHeight) {
+            checkpointSnapshot.write(new SnapshotFile.Snapshot(checkpointHeight, checkpoint.hash(), schedule.state()));
+        }
+        return schedule;
+    }
+
+    /**
+     * Восстанавливает состояние пересчёта цели из снимка, построенного по текущей цепочке не выше контрольной точки.
+     *
+     * @return высота снимка или {@code -1}, если снимок не подошёл
+     */
+    private long restoreCheckpointState(RetargetSchedule schedule) {
+        if (checkpointSnapshot == null) {
+            return -1;
+        }
+        final Optional<SnapshotFile.Snapshot> snapshot = checkpointSnapshot.read();
+        if (snapshot.isEmpty() || snapshot.get().height() > checkpointHeight || !snapshot.get().matches(blockRepository)) {
+            return -1;
+        }
+        try {
+            schedule.restore(snapshot.get().state());
+        } catch (IllegalArgumentException e) {
+            log.warn("Checkpoint mining target snapshot is malformed, replaying trusted blocks", e);
+            return -1;
+        }
+        log.info("Mining target at checkpoint {} restored from snapshot at height {}", checkpointHeight, snapshot.get().height());
+        return snapshot.get().height();
+    }
+
+    private static Hash verifyLinkage(List<Block> blocks, long expectedIndex, Hash previousHash, RetargetSchedule schedule) {
+        Hash expectedPrevious = previousHash;
+        long index = expectedIndex;
+        for (Block block : blocks) {
+            if (block.index() != index) {
+                throw new ChainVerificationException("Block " + index + " is missing, found block " + block.index() + " instead");
+            }
+            if (expectedPrevious != null && !expectedPrevious.equals(block.previousHash())) {
+                throw new ChainVerificationException("Block " + block.index() + " does not link to the previous block hash");
+            }
+            if (!GenesisBlock.isGenesis(block) && !Difficulty.meets(block.hash(), schedule.target())) {
+                throw new ChainVerificationException("Block " + block.index() + " hash does not meet the mining target");
+            }
+            schedule.apply(block);
+            expectedPrevious = block.hash();
+            index++;
+        }
+        return expectedPrevious;
+    }
+
+    private void verifyBlock(Block block) {
+        if (!hashFactory.createHash(block).equals(block.hash())) {
+            throw new ChainVerificationException("Block " + block.index() + " hash does not match its header");
+        }
+        for (int position = 0; position < block.transactions().size(); position++) {
+            if (!isSignatureValid(block.transactions().get(position))) {
+                throw new ChainVerificationException("Block " + block.index() + " transaction " + position + " has an invalid signature");
+            }
+        }
+    }
+
+    private boolean isSignatureValid(Transaction transaction) {
+        final byte[] payload = serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount());
+        try {
+            return cryptoService.verify(payload, transaction.signature(), transaction.publicKey());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static int resolveParallelism(int parallelism) {
+        if (parallelism > 0) {
+            return parallelism;
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Проверка блоков {@code [from, to)} пачки: делится пополам, пока в части больше {@value #CHUNK_BLOCKS} блоков.
+     */
+    private final class VerifyBlocksTask extends RecursiveAction {
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+
+        private VerifyBlocksTask(List<Block> blocks, int from, int to) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_BLOCKS) {
+                for (int i = from; i < to; i++) {
+                    verifyBlock(blocks.get(i));
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new VerifyBlocksTask(blocks, from, middle), new VerifyBlocksTask(blocks, middle, to));
+        }
+    }
+}
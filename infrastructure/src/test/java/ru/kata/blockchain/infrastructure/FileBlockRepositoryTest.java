@@ -1,18 +1,30 @@
 package ru.kata.blockchain.infrastructure;
 
+import com.google.common.collect.ImmutableList;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class FileBlockRepositoryTest {
@@ -74,6 +86,20 @@ class FileBlockRepositoryTest {
         assertEquals(block1, result.get());
     }
 
+    @Test
+    void saveIfNextShouldAppendOnlyBlockThatExtendsTheTip() {
+        final Block genesis = linkedBlock(0, "0", "a");
+        final Block next = linkedBlock(1, "a", "b");
+        final Block stale = linkedBlock(1, "a", "c");
+
+        assertTrue(fileBlockRepository.saveIfNext(genesis));
+        assertTrue(fileBlockRepository.saveIfNext(next));
+        assertFalse(fileBlockRepository.saveIfNext(stale));
+        assertFalse(fileBlockRepository.saveIfNext(linkedBlock(3, "b", "d")));
+
+        assertEquals(List.of(genesis, next), fileBlockRepository.findAll());
+    }
+
     @Test
     void shouldReturnLastBlockWhenBlockchainIsNotEmpty() {
         fileBlockRepository.save(block1);
@@ -83,4 +109,52 @@ class FileBlockRepositoryTest {
         assertTrue(result.isPresent());
         assertEquals(block2, result.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindBlocksByIndexHashAndRange() {
+        final Hash hash1 = new Hash("a".repeat(64));
+        final Hash hash2 = new Hash("b".repeat(64));
+        when(block1.index()).thenReturn(0L);
+        when(block1.hash()).thenReturn(hash1);
+        when(block2.index()).thenReturn(1L);
+        when(block2.hash()).thenReturn(hash2);
+        fileBlockRepository.save(block1);
+        fileBlockRepository.save(block2);
+
+        assertEquals(Optional.of(block2), fileBlockRepository.findByIndex(1));
+        assertEquals(Optional.of(block1), fileBlockRepository.findByHash(hash1));
+        assertTrue(fileBlockRepository.findByIndex(2).isEmpty());
+        assertTrue(fileBlockRepository.findByHash(new Hash("c".repeat(64))).isEmpty());
+        assertEquals(List.of(block1, block2), fileBlockRepository.findRange(0, 100));
+        assertEquals(List.of(block2), fileBlockRepository.findRange(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> fileBlockRepository.findRange(2, 1));
+    }
+
+    @Test
+    void shouldReloadSavedBlockWithTransactions(@TempDir Path tempDir) throws Exception {
+        final Path filePath = tempDir.resolve("test-blockchain.json");
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", new BouncyCastleProvider());
+        generator.initialize(new ECGenParameterSpec("secp256k1"));
+        final PublicKey publicKey = generator.generateKeyPair().getPublic();
+        final Transaction transaction = new Transaction(new WalletAddress("1BoatSLRHtKNngkdXEeobR76b53LETtpyT"),
+                new WalletAddress("1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa"), new Amount(150), new byte[]{1, 2, 3}, publicKey);
+        final Block block = new Block(0, Instant.ofEpochSecond(1_700_000_000L, 123), ImmutableList.of(transaction),
+                new Hash("0".repeat(64)), 7, new Hash("a".repeat(64)));
+        new FileBlockRepository(filePath).save(block);
+
+        final Block loaded = new FileBlockRepository(filePath).findLatest().orElseThrow();
+
+        assertEquals(block.timestamp(), loaded.timestamp());
+        assertEquals(block.hash(), loaded.hash());
+        assertEquals(7, loaded.nonce());
+        final Transaction loadedTransaction = loaded.transactions().get(0);
+        assertEquals(transaction.amount(), loadedTransaction.amount());
+        assertArrayEquals(transaction.signature(), loadedTransaction.signature());
+        assertArrayEquals(publicKey.getEncoded(), loadedTransaction.publicKey().getEncoded());
+    }
+
+    private static Block linkedBlock(long index, String previousHashDigit, String hashDigit) {
+        return new Block(index, Instant.ofEpochSecond(1_700_000_000L + index), ImmutableList.of(),
+                new Hash(previousHashDigit.repeat(64)), index, new Hash(hashDigit.repeat(64)));
+    }
+}
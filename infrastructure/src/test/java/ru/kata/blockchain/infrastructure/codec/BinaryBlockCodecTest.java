@@ -0,0 +1,102 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import com.google.common.collect.ImmutableList;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryBlockCodecTest {
+
+    private static final BouncyCastleProvider PROVIDER = new BouncyCastleProvider();
+    private final BinaryBlockCodec codec = new BinaryBlockCodec();
+
+    @Test
+    void shouldRoundTripBlockWithSecp256k1Transactions() throws GeneralSecurityException {
+        final PublicKey publicKey = generateKey("EC", new ECGenParameterSpec("secp256k1"));
+        final Transaction transaction = transaction(publicKey);
+        final Block block = new Block(42, Instant.ofEpochSecond(1_700_000_000L, 123_456_789), ImmutableList.of(transaction),
+                hash("ab"), -7, hash("cd"));
+
+        final Block decoded = codec.decode(codec.encode(block));
+
+        assertEquals(block.index(), decoded.index());
+        assertEquals(block.timestamp(), decoded.timestamp());
+        assertEquals(block.previousHash(), decoded.previousHash());
+        assertEquals(block.nonce(), decoded.nonce());
+        assertEquals(block.hash(), decoded.hash());
+        assertEquals(1, decoded.transactions().size());
+        final Transaction decodedTransaction = decoded.transactions().getFirst();
+        assertEquals(transaction.from(), decodedTransaction.from());
+        assertEquals(transaction.to(), decodedTransaction.to());
+        assertEquals(transaction.amount(), decodedTransaction.amount());
+        assertArrayEquals(transaction.signature(), decodedTransaction.signature());
+        assertArrayEquals(publicKey.getEncoded(), decodedTransaction.publicKey().getEncoded());
+    }
+
+    @Test
+    void shouldStoreSecp256k1KeyAsCompressedPoint() throws GeneralSecurityException {
+        final PublicKey publicKey = generateKey("EC", new ECGenParameterSpec("secp256k1"));
+        final Block block = new Block(1, Instant.EPOCH, ImmutableList.of(transaction(publicKey)), hash("00"), 0, hash("01"));
+
+        final byte[] binary = codec.encode(block);
+        final byte[] json = new JsonBlockCodec().encode(block);
+
+        assertTrue(binary.length * 2 < json.length, "binary=" + binary.length + ", json=" + json.length);
+    }
+
+    @Test
+    void shouldFallBackToX509ForOtherKeys() throws GeneralSecurityException {
+        final PublicKey publicKey = generateKey("EC", new ECGenParameterSpec("secp256r1"));
+        final Block block = new Block(1, Instant.EPOCH, ImmutableList.of(transaction(publicKey)), hash("00"), 0, hash("01"));
+
+        final Block decoded = codec.decode(codec.encode(block));
+
+        assertArrayEquals(publicKey.getEncoded(), decoded.transactions().getFirst().publicKey().getEncoded());
+    }
+
+    @Test
+    void shouldRejectUnknownFormatVersionAndTrailingBytes() {
+        final Block block = new Block(1, Instant.EPOCH, ImmutableList.of(), hash("00"), 0, hash("01"));
+        final byte[] encoded = codec.encode(block);
+
+        final byte[] wrongVersion = encoded.clone();
+        wrongVersion[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(wrongVersion));
+
+        final byte[] trailing = new byte[encoded.length + 1];
+        System.arraycopy(encoded, 0, trailing, 0, encoded.length);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(trailing));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[]{1, 5}));
+    }
+
+    private static Transaction transaction(PublicKey publicKey) {
+        return new Transaction(
+                new WalletAddress("1BoatSLRHtKNngkdXEeobR76b53LETtpyT"),
+                new WalletAddress("1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa"),
+                new Amount(150),
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8},
+                publicKey);
+    }
+
+    private static PublicKey generateKey(String algorithm, ECGenParameterSpec spec) throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm, PROVIDER);
+        generator.initialize(spec);
+        return generator.generateKeyPair().getPublic();
+    }
+
+    private static Hash hash(String prefix) {
+        return new Hash(prefix + "0".repeat(64 - prefix.length()));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.kata.blockchain.infrastructure.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryWriterTest {
+
+    @Test
+    void shouldWriteDecimalLikeLongToString() {
+        for (long value : new long[]{0, 7, 10, 99, 1_000, -1, -10, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            final byte[] written = new BinaryWriter(1).writeDecimal(value).toByteArray();
+
+            assertEquals(Long.toString(value), new String(written, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void shouldWriteUtf8WithoutLengthPrefix() {
+        assertArrayEquals("abc|".getBytes(StandardCharsets.UTF_8), new BinaryWriter(1).writeUtf8("abc|").toByteArray());
+        assertArrayEquals("адрес".getBytes(StandardCharsets.UTF_8), new BinaryWriter(1).writeUtf8("адрес").toByteArray());
+    }
+
+    @Test
+    void shouldWriteStringsReadableByBinaryReader() {
+        final byte[] written = new BinaryWriter(4).writeString("ascii").writeString("кириллица").toByteArray();
+        final BinaryReader reader = new BinaryReader(written);
+
+        assertEquals("ascii", reader.readString());
+        assertEquals("кириллица", reader.readString());
+        assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    void shouldReuseBufferAfterReset() {
+        final BinaryWriter writer = new BinaryWriter(8);
+        writer.writeUtf8("first");
+        writer.reset();
+
+        assertArrayEquals(new byte[]{'4', '2'}, writer.writeDecimal(42).toByteArray());
+    }
+
+    @Test
+    void shouldRoundTripSignedVarLongsCompactly() {
+        final long[] values = {0, 1, -1, 63, -64, 1_000_000, -1_000_000, Long.MAX_VALUE, Long.MIN_VALUE};
+        final BinaryWriter writer = new BinaryWriter(1);
+        for (long value : values) {
+            writer.writeSignedVarLong(value);
+        }
+        final BinaryReader reader = new BinaryReader(writer.toByteArray());
+
+        for (long value : values) {
+            assertEquals(value, reader.readSignedVarLong());
+        }
+        assertEquals(1, new BinaryWriter(1).writeSignedVarLong(-64).size());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.kata.blockchain.infrastructure.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.crypto.SignedData;
+
+import java.security.PublicKey;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingCryptoServiceTest {
+    private static final byte[] DATA = {1, 2, 3};
+    private static final byte[] SIGNATURE = {4, 5, 6};
+
+    private CryptoService delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingCryptoService cryptoService;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(CryptoService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cryptoService = new CachingCryptoService(delegate, 2, meterRegistry);
+    }
+
+    @Test
+    void shouldVerifySameSignatureOnlyOnce() {
+        final PublicKey publicKey = publicKey(7);
+        when(delegate.verify(DATA, SIGNATURE, publicKey)).thenReturn(true);
+
+        assertTrue(cryptoService.verify(DATA, SIGNATURE, publicKey));
+        assertTrue(cryptoService.verify(DATA, SIGNATURE, publicKey));
+
+        verify(delegate, times(1)).verify(DATA, SIGNATURE, publicKey);
+        assertEquals(1, gets("hit"));
+        assertEquals(1, gets("miss"));
+    }
+
+    @Test
+    void shouldNotCacheInvalidSignature() {
+        final PublicKey publicKey = publicKey(7);
+        when(delegate.verify(DATA, SIGNATURE, publicKey)).thenReturn(false);
+
+        assertFalse(cryptoService.verify(DATA, SIGNATURE, publicKey));
+        assertFalse(cryptoService.verify(DATA, SIGNATURE, publicKey));
+
+        verify(delegate, times(2)).verify(DATA, SIGNATURE, publicKey);
+    }
+
+    @Test
+    void shouldNotReuseVerificationForAnotherPublicKey() {
+        final PublicKey signer = publicKey(7);
+        final PublicKey other = publicKey(8);
+        when(delegate.verify(DATA, SIGNATURE, signer)).thenReturn(true);
+        when(delegate.verify(DATA, SIGNATURE, other)).thenReturn(false);
+
+        assertTrue(cryptoService.verify(DATA, SIGNATURE, signer));
+        assertFalse(cryptoService.verify(DATA, SIGNATURE, other));
+    }
+
+    @Test
+    void shouldPassOnlyCacheMissesToDelegateBatch() {
+        final PublicKey publicKey = publicKey(7);
+        final SignedData cached = new SignedData(DATA, SIGNATURE, publicKey);
+        final SignedData fresh = new SignedData(new byte[]{9}, SIGNATURE, publicKey);
+        when(delegate.verify(DATA, SIGNATURE, publicKey)).thenReturn(true);
+        when(delegate.verifyBatch(List.of(fresh))).thenReturn(new boolean[]{true});
+        cryptoService.verify(DATA, SIGNATURE, publicKey);
+
+        final boolean[] results = cryptoService.verifyBatch(List.of(cached, fresh));
+
+        assertArrayEquals(new boolean[]{true, true}, results);
+        verify(delegate).verifyBatch(List.of(fresh));
+        assertTrue(cryptoService.verify(fresh.data(), fresh.signature(), publicKey));
+        verify(delegate, never()).verify(fresh.data(), fresh.signature(), publicKey);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        final PublicKey publicKey = publicKey(7);
+        when(delegate.verify(any(), any(), any())).thenReturn(true);
+
+        for (byte i = 0; i < 3; i++) {
+            cryptoService.verify(new byte[]{i}, SIGNATURE, publicKey);
+        }
+
+        assertEquals(1, meterRegistry.get("cache.evictions").tag("cache", CachingCryptoService.CACHE_NAME).functionCounter().count());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CachingCryptoService.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static PublicKey publicKey(int encoded) {
+        final PublicKey publicKey = mock(PublicKey.class);
+        when(publicKey.getEncoded()).thenReturn(new byte[]{(byte) encoded});
+        return publicKey;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.kata.blockchain.infrastructure.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CryptoInstancePoolTest {
+
+    @Test
+    void shouldReuseReleasedInstance() throws GeneralSecurityException {
+        final AtomicInteger created = new AtomicInteger();
+        final CryptoInstancePool<Object> pool = new CryptoInstancePool<>(2, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        final Object first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void shouldCreateNewInstanceWhenAllAreInUse() throws GeneralSecurityException {
+        final CryptoInstancePool<Object> pool = new CryptoInstancePool<>(2, Object::new);
+
+        final Object first = pool.acquire();
+        final Object second = pool.acquire();
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void shouldDropReleasedInstanceWhenPoolIsFull() throws GeneralSecurityException {
+        final AtomicInteger created = new AtomicInteger();
+        final CryptoInstancePool<Object> pool = new CryptoInstancePool<>(1, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+        final Object first = pool.acquire();
+        final Object second = pool.acquire();
+
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    void shouldPropagateFactoryFailure() {
+        final CryptoInstancePool<Object> pool = new CryptoInstancePool<>(1, () -> {
+            throw new NoSuchAlgorithmException("missing");
+        });
+
+        assertThrows(NoSuchAlgorithmException.class, pool::acquire);
+    }
+}
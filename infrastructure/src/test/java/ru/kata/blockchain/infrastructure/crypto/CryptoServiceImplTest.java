@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
+import ru.kata.blockchain.domain.crypto.SignedData;
 import ru.kata.blockchain.domain.exceptions.DataSignException;
 
 import ru.kata.blockchain.domain.exceptions.KeyGenerationException;
@@ -14,6 +15,11 @@ import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
 import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -89,4 +95,48 @@ class CryptoServiceImplTest {
         assertThrows(VerificationSignatureException.class, () ->
                 cryptoService.verify(data, invalidSignature, keyPair.getPublic()));
     }
+
+    @Test
+    void pooledSignaturesStayCorrectAcrossVirtualThreads() throws Exception {
+        final KeyPair keyPair = cryptoService.generateKeyPair();
+        final List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 64; i++) {
+                final byte[] data = ("payload-" + i).getBytes();
+                results.add(executor.submit(() -> {
+                    final byte[] signature = cryptoService.sign(data, keyPair.getPrivate());
+                    return cryptoService.verify(data, signature, keyPair.getPublic())
+                            && !cryptoService.verify("tampered".getBytes(), signature, keyPair.getPublic());
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+    }
+
+    @Test
+    void verifyBatchReturnsResultsInInputOrder() {
+        final KeyPair keyPair = cryptoService.generateKeyPair();
+        final List<SignedData> batch = new ArrayList<>();
+        final boolean[] expected = new boolean[40];
+        for (int i = 0; i < expected.length; i++) {
+            final byte[] data = ("payload-" + i).getBytes();
+            final byte[] signature = cryptoService.sign(data, keyPair.getPrivate());
+            expected[i] = i % 3 != 0;
+            if (i % 6 == 0) {
+                batch.add(new SignedData(data, new byte[]{1, 2, 3}, keyPair.getPublic()));
+            } else if (i % 3 == 0) {
+                batch.add(new SignedData("tampered".getBytes(), signature, keyPair.getPublic()));
+            } else {
+                batch.add(new SignedData(data, signature, keyPair.getPublic()));
+            }
+        }
+
+        try (CryptoServiceImpl parallel = new CryptoServiceImpl(4)) {
+            assertArrayEquals(expected, parallel.verifyBatch(batch));
+        }
+        assertArrayEquals(new boolean[]{true, false}, cryptoService.verifyBatch(batch.subList(2, 4)));
+        assertEquals(0, cryptoService.verifyBatch(List.of()).length);
+    }
 }
@@ -0,0 +1,87 @@
+package ru.kata.blockchain.infrastructure.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.infrastructure.crypto.CryptoServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setupProvider() {
+        if (Security.getProvider("BC") == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    @Test
+    void bundledProfileShouldEnableAllNodeEvents() throws IOException {
+        final Map<String, String> settings = JfrRecording.profile().getSettings();
+
+        for (String event : List.of("BlockSave", "ChainLoad", "SignatureVerify", "TransactionCheck")) {
+            assertEquals("true", settings.get("ru.kata.blockchain." + event + "#enabled"), event);
+        }
+    }
+
+    @Test
+    void shouldRecordSignatureVerificationWithTxId() throws IOException {
+        final byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+        final List<RecordedEvent> events;
+        try (CryptoServiceImpl cryptoService = new CryptoServiceImpl(1);
+             Recording recording = new Recording(JfrRecording.profile())) {
+            final KeyPair keyPair = cryptoService.generateKeyPair();
+            final byte[] signature = cryptoService.sign(data, keyPair.getPrivate());
+            recording.start();
+            assertTrue(cryptoService.verify(data, signature, keyPair.getPublic()));
+            recording.stop();
+            events = dump(recording);
+        }
+
+        final List<RecordedEvent> verifications = events.stream()
+                .filter(event -> event.getEventType().getName().equals("ru.kata.blockchain.SignatureVerify"))
+                .toList();
+        assertEquals(1, verifications.size());
+        assertEquals(new TxIdCalculatorServiceImpl().calculateTxId(data), verifications.get(0).getString("txId"));
+        assertEquals(data.length, verifications.get(0).getInt("dataSize"));
+        assertTrue(verifications.get(0).getBoolean("valid"));
+    }
+
+    @Test
+    void shouldNotRecordEventsOutsideRecording() throws IOException {
+        final byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+        final List<RecordedEvent> events;
+        try (CryptoServiceImpl cryptoService = new CryptoServiceImpl(1);
+             Recording recording = new Recording(JfrRecording.profile())) {
+            final KeyPair keyPair = cryptoService.generateKeyPair();
+            cryptoService.verify(data, cryptoService.sign(data, keyPair.getPrivate()), keyPair.getPublic());
+            recording.start();
+            recording.stop();
+            events = dump(recording);
+        }
+
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("ru.kata.blockchain.")));
+    }
+
+    private List<RecordedEvent> dump(Recording recording) throws IOException {
+        final Path file = tempDir.resolve("events.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+}
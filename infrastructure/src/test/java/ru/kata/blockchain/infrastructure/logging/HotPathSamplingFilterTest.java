@@ -0,0 +1,93 @@
+package ru.kata.blockchain.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.kata.blockchain.application.logging.HotPathLogging.HOT_PATH;
+
+class HotPathSamplingFilterTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private HotPathSamplingFilter filter;
+    private ListAppender<ILoggingEvent> appender;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        final LoggerContext context = new LoggerContext();
+        filter = new HotPathSamplingFilter(clock::get);
+        filter.setMaxPerSecond(2);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger = context.getLogger("hot-path");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+    }
+
+    @Test
+    void shouldPassAtMostMaxPerSecondEventsPerTemplate() {
+        for (int i = 0; i < 5; i++) {
+            logger.info(HOT_PATH, "Transaction validated: txId={}", i);
+            logger.warn(HOT_PATH, "Transaction rejected: txId={}", i);
+        }
+
+        assertEquals(4, appender.list.size());
+        assertEquals(2, appender.list.stream().filter(e -> e.getMessage().startsWith("Transaction validated")).count());
+        assertEquals("Transaction validated: txId=0", appender.list.get(0).getFormattedMessage());
+        assertEquals(6, filter.getSuppressed());
+    }
+
+    @Test
+    void shouldOpenNewWindowEverySecond() {
+        for (int i = 0; i < 3; i++) {
+            logger.info(HOT_PATH, "Transaction validated");
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        logger.info(HOT_PATH, "Transaction validated");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        logger.info(HOT_PATH, "Transaction validated");
+        logger.info(HOT_PATH, "Transaction validated");
+
+        assertEquals(4, appender.list.size());
+        assertEquals(2, filter.getSuppressed());
+    }
+
+    @Test
+    void shouldNotSampleUnmarkedErrorOrDisabledEvents() {
+        for (int i = 0; i < 5; i++) {
+            logger.info("Block saved");
+            logger.error(HOT_PATH, "Transaction failed");
+            logger.debug(HOT_PATH, "Transaction validated");
+        }
+        logger.info(HOT_PATH, "Transaction validated");
+        logger.info(HOT_PATH, "Transaction validated");
+
+        assertEquals(12, appender.list.size());
+        assertEquals(0, filter.getSuppressed());
+    }
+
+    @Test
+    void shouldPassEveryEventWhenSamplingIsDisabled() {
+        filter.setMaxPerSecond(0);
+
+        for (int i = 0; i < 50; i++) {
+            logger.info(HOT_PATH, "Transaction validated");
+        }
+
+        assertEquals(50, appender.list.size());
+        assertEquals(0, filter.getSuppressed());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.kata.blockchain.infrastructure.mapper;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.adapters.dto.CreateTransactionRequestDto;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrivateKeyModuleTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new PublicKeyModule())
+            .registerModule(new PrivateKeyModule());
+
+    @Test
+    void shouldReadCreateTransactionRequestWithBase64Keys() throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", new BouncyCastleProvider());
+        generator.initialize(new ECGenParameterSpec("secp256k1"));
+        final KeyPair keyPair = generator.generateKeyPair();
+        final String json = """
+                {"transactionDto":{"from":"%s","to":"%s","amount":15,"publicKey":"%s"},"privateKey":"%s"}"""
+                .formatted("1" + "a".repeat(40), "1" + "b".repeat(40),
+                        Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                        Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+
+        final CreateTransactionRequestDto request = objectMapper.readValue(json, CreateTransactionRequestDto.class);
+
+        assertEquals(15, request.transactionDto().amount());
+        assertArrayEquals(keyPair.getPublic().getEncoded(), request.transactionDto().publicKey().getEncoded());
+        assertArrayEquals(keyPair.getPrivate().getEncoded(), request.privateKey().getEncoded());
+    }
+
+    @Test
+    void shouldRejectPrivateKeyThatIsNotString() {
+        final String json = "{\"transactionDto\":null,\"privateKey\":{\"encoded\":\"AAAA\"}}";
+
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue(json, CreateTransactionRequestDto.class));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.kata.blockchain.infrastructure.metrics;
+
+import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChainMetricsTest {
+    @TempDir
+    Path tempDir;
+
+    private BlockRepository blockRepository;
+    private MempoolService mempoolService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        blockRepository = mock(BlockRepository.class);
+        mempoolService = mock(MempoolService.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldReportChainHeightAndMempoolSize() {
+        when(blockRepository.findLatest()).thenReturn(Optional.of(new Block(42, Instant.now(), ImmutableList.of(),
+                new Hash("00".repeat(32)), 0, new Hash("11".repeat(32)))));
+        when(mempoolService.size()).thenReturn(7);
+        when(mempoolService.sizeInBytes()).thenReturn(1024L);
+
+        new ChainMetrics(blockRepository, mempoolService, tempDir.resolve("chain")).bindTo(meterRegistry);
+
+        assertEquals(42.0, meterRegistry.get("blockchain.chain.height").gauge().value());
+        assertEquals(7.0, meterRegistry.get("blockchain.mempool.size").gauge().value());
+        assertEquals(1024.0, meterRegistry.get("blockchain.mempool.bytes").gauge().value());
+    }
+
+    @Test
+    void shouldReportNaNHeightForEmptyChain() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+
+        new ChainMetrics(blockRepository, mempoolService, tempDir.resolve("chain")).bindTo(meterRegistry);
+
+        assertTrue(Double.isNaN(meterRegistry.get("blockchain.chain.height").gauge().value()));
+    }
+
+    @Test
+    void shouldSumFilesOfSegmentedChainDirectory() throws IOException {
+        final Path directory = Files.createDirectories(tempDir.resolve("chain"));
+        Files.write(directory.resolve("00000000000000000000.seg"), new byte[300]);
+        Files.write(directory.resolve("00000000000000000001.seg"), new byte[200]);
+
+        final ChainMetrics chainMetrics = new ChainMetrics(blockRepository, mempoolService, directory);
+
+        assertEquals(500.0, chainMetrics.chainFileSize());
+        Files.write(directory.resolve("00000000000000000001.seg"), new byte[100], StandardOpenOption.APPEND);
+        assertEquals(600.0, chainMetrics.chainFileSize());
+    }
+
+    @Test
+    void shouldReportSizeOfSingleChainFileAndZeroWhenMissing() throws IOException {
+        final Path file = tempDir.resolve("blockchain.json");
+        final ChainMetrics chainMetrics = new ChainMetrics(blockRepository, mempoolService, file);
+
+        assertEquals(0.0, chainMetrics.chainFileSize());
+        Files.write(file, new byte[128]);
+        assertEquals(128.0, chainMetrics.chainFileSize());
+    }
+}
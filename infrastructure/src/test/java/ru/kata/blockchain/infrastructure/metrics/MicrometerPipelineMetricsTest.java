@@ -0,0 +1,64 @@
+package ru.kata.blockchain.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.error.ErrorCodes;
+import ru.kata.blockchain.domain.service.PipelineStage;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicrometerPipelineMetricsTest {
+    private SimpleMeterRegistry meterRegistry;
+    private MicrometerPipelineMetrics pipelineMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipelineMetrics = new MicrometerPipelineMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldRegisterTimerForEveryStageAndCounterForEveryErrorCode() {
+        assertEquals(PipelineStage.values().length, meterRegistry.find(MicrometerPipelineMetrics.STAGE_TIMER).timers().size());
+        assertEquals(ErrorCodes.values().length, meterRegistry.find(MicrometerPipelineMetrics.REJECTION_COUNTER).counters().size());
+    }
+
+    @Test
+    void shouldRecordStageDurationUnderStageTag() {
+        pipelineMetrics.recordStage(PipelineStage.CHECK_SIGNATURE, TimeUnit.MICROSECONDS.toNanos(250));
+        pipelineMetrics.recordStage(PipelineStage.CHECK_SIGNATURE, TimeUnit.MICROSECONDS.toNanos(750));
+
+        final Timer timer = meterRegistry.get(MicrometerPipelineMetrics.STAGE_TIMER).tag("stage", "check.signature").timer();
+        assertEquals(2, timer.count());
+        assertEquals(1.0, timer.totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(0, meterRegistry.get(MicrometerPipelineMetrics.STAGE_TIMER).tag("stage", "sign").timer().count());
+    }
+
+    @Test
+    void shouldCountRejectionsPerErrorCode() {
+        pipelineMetrics.recordRejection(ErrorCodes.INSUFFICIENT_FUNDS);
+        pipelineMetrics.recordRejection(ErrorCodes.INSUFFICIENT_FUNDS);
+        pipelineMetrics.recordRejection(ErrorCodes.MEMPOOL_FULL);
+
+        assertEquals(2, meterRegistry.get(MicrometerPipelineMetrics.REJECTION_COUNTER)
+                .tags("code", "INSUFFICIENT_FUNDS", "error", "1010").counter().count());
+        assertEquals(1, meterRegistry.get(MicrometerPipelineMetrics.REJECTION_COUNTER).tag("code", "MEMPOOL_FULL").counter().count());
+        assertEquals(0, meterRegistry.get(MicrometerPipelineMetrics.REJECTION_COUNTER).tag("code", "TX_TOO_LARGE").counter().count());
+    }
+
+    @Test
+    void shouldRecordTimeSinceStartAndReturnNextStart() {
+        final long start = System.nanoTime();
+
+        final long next = pipelineMetrics.recordSince(PipelineStage.VALIDATE, start);
+
+        assertTrue(next >= start);
+        final Timer timer = meterRegistry.get(MicrometerPipelineMetrics.STAGE_TIMER).tag("stage", "validate").timer();
+        assertEquals(1, timer.count());
+        assertEquals(next - start, (long) timer.totalTime(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,71 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.block.GenesisBlock;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DifficultyAdjusterTest {
+    private BlockRepository blockRepository;
+
+    @BeforeEach
+    void setUp() {
+        blockRepository = mock(BlockRepository.class);
+        when(blockRepository.forEachFrom(anyLong(), anyInt(), any())).thenCallRealMethod();
+    }
+
+    @Test
+    void shouldRaiseDifficultyWhenWindowIsMinedFasterThanTarget() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        final DifficultyAdjuster adjuster = new DifficultyAdjuster(blockRepository, Difficulty.target(8), 4, 1000);
+
+        for (int index = 0; index < 4; index++) {
+            adjuster.onBlockCommitted(block(index, index * 500L));
+            assertEquals(Difficulty.target(8), adjuster.currentTarget(), "block " + index);
+        }
+        adjuster.onBlockCommitted(block(4, 2000));
+
+        assertEquals(Difficulty.target(9), adjuster.currentTarget());
+        verify(blockRepository).addCommitListener(adjuster);
+    }
+
+    @Test
+    void shouldKeepTargetWhenFirstWindowAfterGenesisIsMinedOnTarget() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        final DifficultyAdjuster adjuster = new DifficultyAdjuster(blockRepository, Difficulty.target(8), 4, 1000);
+
+        adjuster.onBlockCommitted(GenesisBlock.create());
+        for (int index = 1; index <= 8; index++) {
+            adjuster.onBlockCommitted(block(index, 1_700_000_000_000L + index * 1000L));
+        }
+
+        assertEquals(Difficulty.target(8), adjuster.currentTarget());
+    }
+
+    @Test
+    void shouldRestoreTargetFromChainTimestampsOnStartup() {
+        final List<Block> chain = List.of(block(0, 0), block(1, 2000), block(2, 4000), block(3, 6000), block(4, 8000));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(chain.get(4)));
+        when(blockRepository.findRange(0, 5)).thenReturn(chain);
+
+        final DifficultyAdjuster adjuster = new DifficultyAdjuster(blockRepository, Difficulty.target(8), 2, 1000);
+
+        assertEquals(64.0, Difficulty.difficulty(adjuster.currentTarget()), 0.001);
+    }
+
+    private static Block block(long index, long epochMillis) {
+        return new Block(index, Instant.ofEpochMilli(epochMillis), ImmutableList.of(), new Hash("0".repeat(64)), 1,
+                new Hash(String.format("%064x", index)));
+    }
+}
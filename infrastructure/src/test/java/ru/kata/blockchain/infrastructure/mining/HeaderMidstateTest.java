@@ -0,0 +1,42 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeaderMidstateTest {
+
+    @Test
+    void shouldMatchFullHeaderHashForAnyNonce() {
+        final BlockHeader template = new BlockHeader(12, Instant.ofEpochSecond(1_700_000_000L, 42),
+                new Hash("0123456789abcdef".repeat(4)), new Hash("fedcba9876543210".repeat(4)), 0);
+        final HeaderMidstate midstate = new HeaderMidstate(template.toBytes());
+
+        for (long nonce : new long[]{0, 1, 255, 1L << 40, -1, Long.MIN_VALUE}) {
+            final BlockHeader header = new BlockHeader(template.index(), template.timestamp(), template.previousHash(),
+                    template.merkleRoot(), nonce);
+
+            assertArrayEquals(HeaderMidstate.words(header.hash()), midstate.hash(nonce), "nonce " + nonce);
+        }
+    }
+
+    @Test
+    void shouldCompareDigestWithTargetAsUnsignedNumber() {
+        final int[] target = HeaderMidstate.words(new Hash("00ff" + "0".repeat(60)));
+
+        assertTrue(HeaderMidstate.meets(HeaderMidstate.words(new Hash("00ff" + "0".repeat(60))), target));
+        assertTrue(HeaderMidstate.meets(HeaderMidstate.words(new Hash("00fe" + "f".repeat(60))), target));
+        assertFalse(HeaderMidstate.meets(HeaderMidstate.words(new Hash("00ff" + "0".repeat(59) + "1")), target));
+        assertFalse(HeaderMidstate.meets(HeaderMidstate.words(new Hash("f" + "0".repeat(63))), target));
+    }
+
+    @Test
+    void shouldRejectHeaderThatDoesNotEndInSecondBlock() {
+        assertThrows(IllegalArgumentException.class, () -> new HeaderMidstate(new byte[64]));
+        assertThrows(IllegalArgumentException.class, () -> new HeaderMidstate(new byte[128]));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.kata.blockchain.infrastructure.mining;
+
+import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockHeader;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ParallelMinerTest {
+    private static final BlockHeader TEMPLATE = new BlockHeader(5, Instant.ofEpochSecond(1_700_000_000L),
+            new Hash("0123456789abcdef".repeat(4)), new Hash("fedcba9876543210".repeat(4)), 0);
+
+    private BlockRepository blockRepository;
+    private DifficultyAdjuster difficultyAdjuster;
+    private SimpleMeterRegistry meterRegistry;
+    private ParallelMiner miner;
+
+    @BeforeEach
+    void setUp() {
+        blockRepository = mock(BlockRepository.class);
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        difficultyAdjuster = mock(DifficultyAdjuster.class);
+        meterRegistry = new SimpleMeterRegistry();
+        miner = new ParallelMiner(blockRepository, difficultyAdjuster, 4, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        miner.close();
+    }
+
+    @Test
+    void shouldFindNonceMeetingTarget() {
+        when(difficultyAdjuster.currentTarget()).thenReturn(Difficulty.target(12));
+
+        final BlockHeader header = miner.mine(TEMPLATE).orElseThrow();
+
+        assertTrue(Difficulty.meets(header.hash(), Difficulty.target(12)), header.hash().value());
+        assertEquals(TEMPLATE.index(), header.index());
+        assertEquals(TEMPLATE.merkleRoot(), header.merkleRoot());
+        assertTrue(meterRegistry.find("blockchain.mining.hashes").functionCounters().stream()
+                .mapToDouble(counter -> counter.count()).sum() >= 1);
+        verify(blockRepository).addCommitListener(miner);
+    }
+
+    @Test
+    void shouldCancelMiningWhenCompetingBlockIsCommitted() throws Exception {
+        when(difficultyAdjuster.currentTarget()).thenReturn(Difficulty.target(200));
+        final CompletableFuture<Optional<BlockHeader>> mining = CompletableFuture.supplyAsync(() -> miner.mine(TEMPLATE));
+
+        while (meterRegistry.find("blockchain.mining.hashes").functionCounters().stream()
+                .mapToDouble(counter -> counter.count()).sum() == 0) {
+            Thread.onSpinWait();
+        }
+        miner.onBlockCommitted(new Block(5, Instant.now(), ImmutableList.of(), TEMPLATE.previousHash(), 1,
+                new Hash("a".repeat(64))));
+
+        assertTrue(mining.get(10, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    void shouldNotMineBlockThatIsAlreadyInChain() {
+        when(difficultyAdjuster.currentTarget()).thenReturn(Difficulty.target(200));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(new Block(5, Instant.now(), ImmutableList.of(),
+                TEMPLATE.previousHash(), 1, new Hash("a".repeat(64)))));
+
+        assertTrue(miner.mine(TEMPLATE).isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+package ru.kata.blockchain.infrastructure.service;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockCommitListener;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.service.MempoolService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.codec.BinaryReader;
+import ru.kata.blockchain.infrastructure.storage.SnapshotFile;
+
+import java.nio.file.Path;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountStateServiceImplTest {
+    private static final WalletAddress ALICE = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress BOB = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+    private static final WalletAddress CAROL = new WalletAddress("1CarolCarolCarolCarolCarolCarolCarol");
+
+    private BlockRepository blockRepository;
+    private MempoolService mempoolService;
+
+    @BeforeEach
+    void setUp() {
+        blockRepository = mock(BlockRepository.class);
+        when(blockRepository.forEachFrom(anyLong(), anyInt(), any())).thenCallRealMethod();
+        mempoolService = mock(MempoolService.class);
+    }
+
+    @Test
+    void shouldRebuildBalancesFromChainOnStartup() {
+        final Block first = block(0, transfer(ALICE, BOB, 300));
+        final Block second = block(1, transfer(BOB, CAROL, 100), transfer(ALICE, CAROL, 50));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(second));
+        when(blockRepository.findRange(0, 2)).thenReturn(List.of(first, second));
+
+        final AccountStateServiceImpl ledger = new AccountStateServiceImpl(blockRepository, mempoolService, 2000);
+
+        assertEquals(1650, ledger.getBalance(ALICE));
+        assertEquals(2200, ledger.getBalance(BOB));
+        assertEquals(2150, ledger.getBalance(CAROL));
+        when(mempoolService.getPendingAmount(ALICE)).thenReturn(70L);
+        assertEquals(70, ledger.getPendingAmount(ALICE));
+        verify(blockRepository).addCommitListener(ledger);
+    }
+
+    @Test
+    void shouldApplyCommittedBlocksIncrementally() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        final AccountStateServiceImpl ledger = new AccountStateServiceImpl(blockRepository, mempoolService, 0);
+        final BlockCommitListener listener = ledger;
+
+        listener.onBlockCommitted(block(0, transfer(ALICE, BOB, 10)));
+        listener.onBlockCommitted(block(0, transfer(ALICE, BOB, 10)));
+        listener.onBlockCommitted(block(1, transfer(BOB, ALICE, 3)));
+
+        assertEquals(-7, ledger.getBalance(ALICE));
+        assertEquals(7, ledger.getBalance(BOB));
+        assertEquals(0, ledger.getBalance(CAROL));
+    }
+
+    @Test
+    void shouldCatchUpWhenCommittedBlockSkipsHeights() {
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        final AccountStateServiceImpl ledger = new AccountStateServiceImpl(blockRepository, mempoolService, 0);
+        final Block first = block(0, transfer(ALICE, BOB, 1));
+        final Block second = block(1, transfer(ALICE, BOB, 2));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(second));
+        when(blockRepository.findRange(0, 2)).thenReturn(List.of(first, second));
+
+        ledger.onBlockCommitted(second);
+
+        assertEquals(-3, ledger.getBalance(ALICE));
+        assertEquals(3, ledger.getBalance(BOB));
+    }
+
+    @Test
+    void shouldRestoreFromSnapshotAndReplayOnlyNewerBlocks(@TempDir Path dir) {
+        final SnapshotFile snapshotFile = new SnapshotFile(dir.resolve("ledger.snap"));
+        final Block first = block(0, transfer(ALICE, BOB, 300));
+        final Block second = block(1, transfer(BOB, CAROL, 100));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(second));
+        when(blockRepository.findRange(0, 2)).thenReturn(List.of(first, second));
+        new AccountStateServiceImpl(blockRepository, mempoolService, 0, snapshotFile, 2).close();
+        assertEquals(1, snapshotFile.read().orElseThrow().height());
+
+        final Block third = block(2, transfer(CAROL, ALICE, 40));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(third));
+        when(blockRepository.findByIndex(1)).thenReturn(Optional.of(second));
+        when(blockRepository.findRange(2, 3)).thenReturn(List.of(third));
+        clearInvocations(blockRepository);
+
+        final AccountStateServiceImpl restored = new AccountStateServiceImpl(blockRepository, mempoolService, 0,
+                new SnapshotFile(dir.resolve("ledger.snap")), 2);
+
+        assertEquals(-260, restored.getBalance(ALICE));
+        assertEquals(200, restored.getBalance(BOB));
+        assertEquals(60, restored.getBalance(CAROL));
+        verify(blockRepository).findRange(2, 3);
+        verify(blockRepository, never()).findRange(eq(0L), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldHandSnapshotOfCopiedStateToBackgroundWriter() {
+        final SnapshotFile snapshotFile = mock(SnapshotFile.class);
+        when(snapshotFile.read()).thenReturn(Optional.empty());
+        when(snapshotFile.writeAsync(any())).thenReturn(new CompletableFuture<>());
+        when(blockRepository.findLatest()).thenReturn(Optional.empty());
+        final AccountStateServiceImpl ledger = new AccountStateServiceImpl(blockRepository, mempoolService, 0, snapshotFile, 1);
+
+        ledger.onBlockCommitted(block(0, transfer(ALICE, BOB, 5)));
+        final ArgumentCaptor<Supplier<SnapshotFile.Snapshot>> snapshot = ArgumentCaptor.forClass(Supplier.class);
+        verify(snapshotFile).writeAsync(snapshot.capture());
+        ledger.onBlockCommitted(block(1, transfer(ALICE, CAROL, 7)));
+
+        verify(snapshotFile, never()).write(any());
+        final SnapshotFile.Snapshot written = snapshot.getAllValues().getFirst().get();
+        assertEquals(0, written.height());
+        final BinaryReader reader = new BinaryReader(written.state());
+        assertEquals(2, reader.readVarLong());
+    }
+
+    @Test
+    void shouldRebuildFromChainWhenSnapshotDoesNotMatchIt(@TempDir Path dir) {
+        final SnapshotFile snapshotFile = new SnapshotFile(dir.resolve("ledger.snap"));
+        snapshotFile.write(new SnapshotFile.Snapshot(0, new Hash("f".repeat(64)), new byte[]{0}));
+        final Block first = block(0, transfer(ALICE, BOB, 5));
+        when(blockRepository.findLatest()).thenReturn(Optional.of(first));
+        when(blockRepository.findByIndex(0)).thenReturn(Optional.of(first));
+        when(blockRepository.findRange(0, 1)).thenReturn(List.of(first));
+
+        final AccountStateServiceImpl ledger = new AccountStateServiceImpl(blockRepository, mempoolService, 0, snapshotFile, 1000);
+
+        assertEquals(-5, ledger.getBalance(ALICE));
+        assertEquals(5, ledger.getBalance(BOB));
+    }
+
+    private static Transaction transfer(WalletAddress from, WalletAddress to, long amount) {
+        return new Transaction(from, to, new Amount(amount), new byte[]{1}, mock(PublicKey.class));
+    }
+
+    private static Block block(long index, Transaction... transactions) {
+        return new Block(index, Instant.EPOCH, ImmutableList.copyOf(transactions),
+                new Hash("0".repeat(64)), 0, new Hash(String.format("%064x", index)));
+    }
+}
@@ -0,0 +1,208 @@
+package ru.kata.blockchain.infrastructure.service;
+
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.service.MempoolAddResult;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MempoolServiceImplTest {
+    private static final WalletAddress ALICE = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress BOB = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+    private static final PublicKey PUBLIC_KEY = publicKey();
+    private static final LongSupplier UNLIMITED = () -> Long.MAX_VALUE;
+
+    private final TxIdCalculatorService txIdCalculatorService = new TxIdCalculatorServiceImpl();
+    private final SerializerService serializerService = new SerializerServiceImpl();
+
+    @Test
+    void shouldTrackTransactionsAndPendingAmountPerSender() {
+        final MempoolServiceImpl mempool = mempool(100, Long.MAX_VALUE);
+        final Transaction first = transfer(ALICE, BOB, 30);
+        final Transaction second = transfer(ALICE, BOB, 12);
+
+        assertEquals(MempoolAddResult.ADDED, mempool.add(txId(first), first, UNLIMITED));
+        assertEquals(MempoolAddResult.ADDED, mempool.add(txId(second), second, UNLIMITED));
+        assertEquals(MempoolAddResult.DUPLICATE, mempool.add(txId(first), first, UNLIMITED));
+
+        assertTrue(mempool.isMempoolContainsTxId(txId(first)));
+        assertEquals(2, mempool.size());
+        assertEquals(42, mempool.getPendingAmount(ALICE));
+        assertEquals(0, mempool.getPendingAmount(BOB));
+
+        assertTrue(mempool.remove(txId(first)));
+        assertFalse(mempool.remove(txId(first)));
+        assertEquals(12, mempool.getPendingAmount(ALICE));
+    }
+
+    @Test
+    void shouldRejectTransactionsOverCountAndByteLimits() {
+        final Transaction first = transfer(ALICE, BOB, 1);
+        final Transaction second = transfer(ALICE, BOB, 2);
+        final int size = serializerService.getSerializedTransaction(first).length;
+
+        final MempoolServiceImpl byCount = mempool(1, Long.MAX_VALUE);
+        assertEquals(MempoolAddResult.ADDED, byCount.add(txId(first), first, UNLIMITED));
+        assertEquals(MempoolAddResult.FULL, byCount.add(txId(second), second, UNLIMITED));
+
+        final MempoolServiceImpl byBytes = mempool(100, size + size / 2);
+        assertEquals(MempoolAddResult.ADDED, byBytes.add(txId(first), first, UNLIMITED));
+        assertEquals(MempoolAddResult.FULL, byBytes.add(txId(second), second, UNLIMITED));
+        assertEquals(1, byBytes.getPendingAmount(ALICE));
+
+        byBytes.remove(txId(first));
+        assertEquals(MempoolAddResult.ADDED, byBytes.add(txId(second), second, UNLIMITED));
+    }
+
+    @Test
+    void shouldSelectPendingTransactionsInAdmissionOrderWithinLimits() {
+        final MempoolServiceImpl mempool = mempool(100, Long.MAX_VALUE);
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int amount = 1; amount <= 5; amount++) {
+            final Transaction transaction = transfer(ALICE, BOB, amount);
+            transactions.add(transaction);
+            mempool.add(txId(transaction), transaction, UNLIMITED);
+        }
+        mempool.remove(txId(transactions.get(1)));
+        final int size = serializerService.getSerializedTransaction(transactions.getFirst()).length;
+
+        assertEquals(List.of(transactions.get(0), transactions.get(2), transactions.get(3)),
+                mempool.getPendingTransactions(3, Long.MAX_VALUE));
+        assertEquals(List.of(transactions.get(0), transactions.get(2)), mempool.getPendingTransactions(10, 2L * size + 1));
+        assertEquals(List.of(transactions.getFirst()), mempool.getPendingTransactions(10, 1));
+        assertEquals(4, mempool.size());
+        assertEquals(4L * size, mempool.sizeInBytes());
+    }
+
+    @Test
+    void shouldRemoveTransactionsOfCommittedBlock() {
+        final MempoolServiceImpl mempool = mempool(100, Long.MAX_VALUE);
+        final Transaction confirmed = transfer(ALICE, BOB, 5);
+        final Transaction pending = transfer(BOB, ALICE, 7);
+        mempool.add(txId(confirmed), confirmed, UNLIMITED);
+        mempool.add(txId(pending), pending, UNLIMITED);
+
+        mempool.removeCommitted(List.of(new Hash(txId(confirmed))));
+
+        assertFalse(mempool.isMempoolContainsTxId(txId(confirmed)));
+        assertTrue(mempool.isMempoolContainsTxId(txId(pending)));
+        assertEquals(0, mempool.getPendingAmount(ALICE));
+        assertEquals(7, mempool.getPendingAmount(BOB));
+    }
+
+    @Test
+    void shouldAdmitEachTransactionOnceUnderConcurrentSubmission() throws Exception {
+        final MempoolServiceImpl mempool = mempool(10_000, Long.MAX_VALUE);
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int amount = 1; amount <= 500; amount++) {
+            transactions.add(transfer(ALICE, BOB, amount));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Integer>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> addAll(mempool, transactions)));
+            }
+            int added = 0;
+            for (Future<Integer> result : results) {
+                added += result.get();
+            }
+            assertEquals(500, added);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(500, mempool.size());
+        assertEquals(500L * 501 / 2, mempool.getPendingAmount(ALICE));
+    }
+
+    @Test
+    void shouldRejectTransactionsOverConfirmedBalanceMinusPending() {
+        final MempoolServiceImpl mempool = mempool(100, Long.MAX_VALUE);
+        final Transaction first = transfer(ALICE, BOB, 60);
+        final Transaction second = transfer(ALICE, BOB, 50);
+        final Transaction third = transfer(ALICE, BOB, 40);
+
+        assertEquals(MempoolAddResult.ADDED, mempool.add(txId(first), first, () -> 100));
+        assertEquals(MempoolAddResult.INSUFFICIENT_FUNDS, mempool.add(txId(second), second, () -> 100));
+        assertEquals(MempoolAddResult.ADDED, mempool.add(txId(third), third, () -> 100));
+
+        assertEquals(2, mempool.size());
+        assertEquals(100, mempool.getPendingAmount(ALICE));
+    }
+
+    @Test
+    void shouldNotOverspendBalanceUnderConcurrentSubmissionFromOneSender() throws Exception {
+        final MempoolServiceImpl mempool = mempool(10_000, Long.MAX_VALUE);
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int amount = 1; amount <= 200; amount++) {
+            transactions.add(transfer(ALICE, BOB, amount));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Integer>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final List<Transaction> slice = transactions.subList(thread * 25, thread * 25 + 25);
+                results.add(executor.submit(() -> addAll(mempool, slice, () -> 1000)));
+            }
+            for (Future<Integer> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long pending = mempool.getPendingAmount(ALICE);
+        assertTrue(pending <= 1000, "pending " + pending + " exceeds the balance");
+        assertEquals(pending, mempool.getPendingTransactions(10_000, Long.MAX_VALUE).stream()
+                .mapToLong(transaction -> transaction.amount().value()).sum());
+    }
+
+    private int addAll(MempoolServiceImpl mempool, List<Transaction> transactions) {
+        return addAll(mempool, transactions, UNLIMITED);
+    }
+
+    private int addAll(MempoolServiceImpl mempool, List<Transaction> transactions, LongSupplier confirmedBalance) {
+        int added = 0;
+        for (Transaction transaction : transactions) {
+            if (mempool.add(txId(transaction), transaction, confirmedBalance) == MempoolAddResult.ADDED) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private MempoolServiceImpl mempool(int maxTransactions, long maxBytes) {
+        return new MempoolServiceImpl(serializerService, maxTransactions, maxBytes);
+    }
+
+    private String txId(Transaction transaction) {
+        return txIdCalculatorService.calculateTxId(
+                serializerService.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount()));
+    }
+
+    private static Transaction transfer(WalletAddress from, WalletAddress to, long amount) {
+        return new Transaction(from, to, new Amount(amount), new byte[]{1, 2, 3}, PUBLIC_KEY);
+    }
+
+    private static PublicKey publicKey() {
+        final PublicKey publicKey = mock(PublicKey.class);
+        when(publicKey.getAlgorithm()).thenReturn("EC");
+        when(publicKey.getEncoded()).thenReturn(new byte[]{4, 5, 6});
+        return publicKey;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.kata.blockchain.infrastructure.service;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Test;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.codec.BinaryReader;
+import ru.kata.blockchain.infrastructure.codec.BinaryTransactionCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializerServiceImplTest {
+    private static final WalletAddress ALICE = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress BOB = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+
+    private final SerializerServiceImpl serializerService = new SerializerServiceImpl();
+
+    @Test
+    void shouldKeepUnassignedPayloadFormat() {
+        final WalletAddress cyrillic = new WalletAddress("1КошелёкКошелёкКошелёкКошелёкКошелёк");
+
+        assertArrayEquals((ALICE.value() + "|" + BOB.value() + "|" + 1234567).getBytes(StandardCharsets.UTF_8),
+                serializerService.getUnassignedPayload(ALICE, BOB, new Amount(1234567)));
+        assertArrayEquals((cyrillic.value() + "|" + BOB.value() + "|" + Long.MAX_VALUE).getBytes(StandardCharsets.UTF_8),
+                serializerService.getUnassignedPayload(cyrillic, BOB, new Amount(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void shouldSerializeTransactionInCanonicalBinaryForm() throws GeneralSecurityException {
+        final PublicKey publicKey = secp256k1Key();
+        final Transaction transaction = new Transaction(ALICE, BOB, new Amount(42), new byte[]{1, 2, 3, 4}, publicKey);
+
+        final byte[] serialized = serializerService.getSerializedTransaction(transaction);
+        final Transaction decoded = BinaryTransactionCodec.read(new BinaryReader(serialized));
+
+        assertEquals(transaction.from(), decoded.from());
+        assertEquals(transaction.to(), decoded.to());
+        assertEquals(transaction.amount(), decoded.amount());
+        assertArrayEquals(transaction.signature(), decoded.signature());
+        assertArrayEquals(publicKey.getEncoded(), decoded.publicKey().getEncoded());
+        assertArrayEquals(serialized, serializerService.getSerializedTransaction(transaction));
+        final byte[] legacy = (ALICE.value() + "|" + BOB.value() + "|42|" + Arrays.toString(transaction.signature())
+                + "|" + publicKey).getBytes(StandardCharsets.UTF_8);
+        assertTrue(serialized.length < legacy.length, "binary=" + serialized.length + ", legacy=" + legacy.length);
+    }
+
+    private static PublicKey secp256k1Key() throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", new BouncyCastleProvider());
+        generator.initialize(new ECGenParameterSpec("secp256k1"));
+        return generator.generateKeyPair().getPublic();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import com.google.common.collect.ImmutableList;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.transaction.TransactionLocation;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.service.SerializerServiceImpl;
+import ru.kata.blockchain.infrastructure.service.TxIdCalculatorServiceImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTransactionIndexTest {
+
+    private static final SerializerServiceImpl SERIALIZER = new SerializerServiceImpl();
+    private static final TxIdCalculatorServiceImpl TX_ID_CALCULATOR = new TxIdCalculatorServiceImpl();
+    private static PublicKey publicKey;
+
+    @BeforeAll
+    static void generateKey() throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", new BouncyCastleProvider());
+        generator.initialize(new ECGenParameterSpec("secp256k1"));
+        publicKey = generator.generateKeyPair().getPublic();
+    }
+
+    @Test
+    void shouldIndexCommittedBlocksAndReloadFromFile(@TempDir Path tempDir) throws IOException {
+        final Path indexFile = tempDir.resolve("txid.idx");
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir.resolve("chain"), 4096);
+             FileTransactionIndex index = new FileTransactionIndex(indexFile, repository, TX_ID_CALCULATOR, SERIALIZER)) {
+            commit(repository, index, block(0, 10, 11));
+            commit(repository, index, block(1, 12));
+
+            assertEquals(Optional.of(new TransactionLocation(0, 1)), index.find(txId(11)));
+            assertEquals(Optional.of(new TransactionLocation(1, 0)), index.find(txId(12)));
+            assertTrue(index.find(txId(13)).isEmpty());
+            assertTrue(index.find("not-a-tx-id").isEmpty());
+        }
+        assertEquals(3L * FileTransactionIndex.ENTRY_SIZE, Files.size(indexFile));
+
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir.resolve("chain"), 4096)) {
+            repository.save(block(2, 13));
+            try (FileTransactionIndex index = new FileTransactionIndex(indexFile, repository, TX_ID_CALCULATOR, SERIALIZER)) {
+                assertEquals(Optional.of(new TransactionLocation(0, 0)), index.find(txId(10)));
+                assertEquals(Optional.of(new TransactionLocation(2, 0)), index.find(txId(13)));
+            }
+        }
+        assertEquals(4L * FileTransactionIndex.ENTRY_SIZE, Files.size(indexFile));
+    }
+
+    @Test
+    void shouldRebuildIndexThatDoesNotMatchChain(@TempDir Path tempDir) throws IOException {
+        final Path indexFile = tempDir.resolve("txid.idx");
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir.resolve("old"), 4096);
+             FileTransactionIndex index = new FileTransactionIndex(indexFile, repository, TX_ID_CALCULATOR, SERIALIZER)) {
+            commit(repository, index, block(0, 20, 21));
+        }
+
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir.resolve("new"), 4096)) {
+            repository.save(block(0, 30));
+            try (FileTransactionIndex index = new FileTransactionIndex(indexFile, repository, TX_ID_CALCULATOR, SERIALIZER)) {
+                assertTrue(index.find(txId(20)).isEmpty());
+                assertEquals(Optional.of(new TransactionLocation(0, 0)), index.find(txId(30)));
+            }
+        }
+    }
+
+    @Test
+    void shouldCatchUpMissedBlocksWhenIndexingBlockAfterGap(@TempDir Path tempDir) throws IOException {
+        final Path indexFile = tempDir.resolve("txid.idx");
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir.resolve("chain"), 4096);
+             FileTransactionIndex index = new FileTransactionIndex(indexFile, repository, TX_ID_CALCULATOR, SERIALIZER)) {
+            repository.save(block(0, 40));
+            commit(repository, index, block(1, 41));
+            index.indexBlock(block(1, 41), txIds(41));
+
+            assertEquals(Optional.of(new TransactionLocation(0, 0)), index.find(txId(40)));
+            assertEquals(Optional.of(new TransactionLocation(1, 0)), index.find(txId(41)));
+        }
+        assertEquals(2L * FileTransactionIndex.ENTRY_SIZE, Files.size(indexFile));
+    }
+
+    /**
+     * Сохраняет блок и индексирует его по TxId, как это делает {@code AddBlockUseCase}.
+     */
+    private static void commit(SegmentedBlockRepository repository, FileTransactionIndex index, Block block) {
+        repository.save(block);
+        index.indexBlock(block, block.transactions().stream()
+                .map(transaction -> new Hash(txId(transaction.amount().value())))
+                .toList());
+    }
+
+    private static List<Hash> txIds(long... amounts) {
+        final List<Hash> txIds = new ArrayList<>();
+        for (long amount : amounts) {
+            txIds.add(new Hash(txId(amount)));
+        }
+        return txIds;
+    }
+
+    private static Block block(long index, long... amounts) {
+        final ImmutableList.Builder<Transaction> transactions = ImmutableList.builder();
+        for (long amount : amounts) {
+            transactions.add(transaction(amount));
+        }
+        return new Block(index, Instant.ofEpochSecond(1_700_000_000L + index), transactions.build(),
+                hash(index - 1), index, hash(index));
+    }
+
+    private static Transaction transaction(long amount) {
+        return new Transaction(
+                new WalletAddress("1BoatSLRHtKNngkdXEeobR76b53LETtpyT"),
+                new WalletAddress("1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa"),
+                new Amount(amount),
+                new byte[]{1, 2, 3},
+                publicKey);
+    }
+
+    private static String txId(long amount) {
+        final Transaction transaction = transaction(amount);
+        return TX_ID_CALCULATOR.calculateTxId(
+                SERIALIZER.getUnassignedPayload(transaction.from(), transaction.to(), transaction.amount()));
+    }
+
+    private static Hash hash(long seed) {
+        return new Hash(String.format("%064x", seed & Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,41 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void shouldStoreAndGrowBeyondInitialCapacity() {
+        final LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(LongLongHashMap.NO_VALUE, map.put(key * 31, key));
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(key, map.get(key * 31));
+        }
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    void shouldReplaceValueAndSupportExtremeKeys() {
+        final LongLongHashMap map = new LongLongHashMap();
+        map.put(Long.MIN_VALUE, 1);
+        map.put(0, 2);
+        map.put(Long.MAX_VALUE, 3);
+
+        assertEquals(2, map.put(0, 20));
+        assertEquals(3, map.size());
+        assertEquals(1, map.get(Long.MIN_VALUE));
+        assertEquals(20, map.get(0));
+        assertEquals(3, map.get(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> map.put(5, LongLongHashMap.NO_VALUE));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(LongLongHashMap.NO_VALUE, map.get(0));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectLongHashMapTest {
+
+    @Test
+    void shouldAccumulateAndGrowBeyondInitialCapacity() {
+        final ObjectLongHashMap<String> map = new ObjectLongHashMap<>(4);
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(key, map.addTo("address-" + key, key));
+        }
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(-key, map.addTo("address-" + key, -2L * key));
+        }
+
+        assertEquals(10_000, map.size());
+        assertEquals(-42, map.getOrDefault("address-42", 7));
+        assertEquals(7, map.getOrDefault("missing", 7));
+        assertFalse(map.containsKey("missing"));
+    }
+
+    @Test
+    void shouldReplaceValueAndClear() {
+        final ObjectLongHashMap<String> map = new ObjectLongHashMap<>();
+        map.put("a", Long.MIN_VALUE);
+        map.put("a", Long.MAX_VALUE);
+        map.put("b", 0);
+
+        assertEquals(2, map.size());
+        assertEquals(Long.MAX_VALUE, map.getOrDefault("a", 1));
+        assertTrue(map.containsKey("b"));
+        assertThrows(NullPointerException.class, () -> map.addTo(null, 1));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(1, map.getOrDefault("a", 1));
+        assertEquals(5, map.addTo("a", 5));
+    }
+
+    @Test
+    void copyShouldBeIndependentOfOriginal() {
+        final ObjectLongHashMap<String> map = new ObjectLongHashMap<>(4);
+        map.put("a", 1);
+        map.put("b", 2);
+
+        final ObjectLongHashMap<String> copy = map.copy();
+        map.addTo("a", 10);
+        copy.addTo("c", 3);
+
+        assertEquals(11, map.getOrDefault("a", 0));
+        assertFalse(map.containsKey("c"));
+        assertEquals(1, copy.getOrDefault("a", 0));
+        assertEquals(3, copy.size());
+        for (int key = 0; key < 100; key++) {
+            copy.addTo("k" + key, key);
+        }
+        assertEquals(2, map.size());
+        assertEquals(99, copy.getOrDefault("k99", 0));
+    }
+}
@@ -0,0 +1,450 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.exceptions.InvalidBlockchainPathException;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.infrastructure.codec.BinaryBlockCodec;
+import ru.kata.blockchain.infrastructure.codec.JsonBlockCodec;
+import ru.kata.blockchain.infrastructure.mapper.BlockMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedBlockRepositoryTest {
+
+    private static final long SMALL_SEGMENT_BYTES = 512;
+
+    @Test
+    void shouldReturnEmptyOptionalWhenLogIsEmpty(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertTrue(repository.findLatest().isEmpty());
+            assertTrue(repository.findAll().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldReloadSavedBlocksInOrder(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            repository.save(block(0));
+            repository.save(block(1));
+            repository.save(block(2));
+        }
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            final List<Block> blocks = reopened.findAll();
+            assertEquals(List.of(block(0), block(1), block(2)), blocks);
+            assertEquals(block(2), reopened.findLatest().orElseThrow());
+        }
+    }
+
+    @Test
+    void shouldRollToNewSegmentWhenActiveSegmentIsFull(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            for (int i = 0; i < 10; i++) {
+                repository.save(block(i));
+            }
+            assertTrue(repository.segmentCount() > 1);
+        }
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(10, reopened.findAll().size());
+            assertEquals(block(9), reopened.findLatest().orElseThrow());
+        }
+    }
+
+    @Test
+    void shouldTruncateTornRecordAtTailOnStartup(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            repository.save(block(0));
+            repository.save(block(1));
+        }
+        final Path lastSegment = lastSegment(tempDir);
+        final long validSize = Files.size(lastSegment);
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(100).putInt(42).putInt(7).flip());
+        }
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(List.of(block(0), block(1)), reopened.findAll());
+            assertEquals(validSize, Files.size(lastSegment));
+            reopened.save(block(2));
+        }
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(List.of(block(0), block(1), block(2)), reopened.findAll());
+        }
+    }
+
+    @Test
+    void shouldDropTailRecordWithBrokenChecksum(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            repository.save(block(0));
+            repository.save(block(1));
+        }
+        final Path lastSegment = lastSegment(tempDir);
+        final byte[] bytes = Files.readAllBytes(lastSegment);
+        bytes[bytes.length - 2] ^= 0x7f;
+        Files.write(lastSegment, bytes);
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(List.of(block(0)), reopened.findAll());
+        }
+    }
+
+    @Test
+    void shouldFailWhenSealedSegmentIsCorrupted(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            for (int i = 0; i < 10; i++) {
+                repository.save(block(i));
+            }
+        }
+        final Path firstSegment = segments(tempDir).getFirst();
+        final byte[] bytes = Files.readAllBytes(firstSegment);
+        bytes[SegmentLog.SEGMENT_HEADER_SIZE + SegmentLog.RECORD_HEADER_SIZE + 1] ^= 0x7f;
+        Files.write(firstSegment, bytes);
+
+        assertThrows(RuntimeException.class, () -> new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES));
+    }
+
+    @Test
+    void shouldNotRecheckSealedSegmentsVerifiedOnPreviousStartup(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES, StorageMode.MAPPED)) {
+            for (int i = 0; i < 10; i++) {
+                repository.save(block(i));
+            }
+        }
+        new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES, StorageMode.MAPPED).close();
+        assertTrue(Files.exists(tempDir.resolve(SegmentLog.VERIFIED_FILE_NAME)));
+        final Path firstSegment = segments(tempDir).getFirst();
+        final byte[] bytes = Files.readAllBytes(firstSegment);
+        bytes[SegmentLog.SEGMENT_HEADER_SIZE + SegmentLog.RECORD_HEADER_SIZE + 1] ^= 0x7f;
+        Files.write(firstSegment, bytes);
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES, StorageMode.MAPPED)) {
+            assertEquals(10, reopened.findAll().size());
+            assertEquals(block(9), reopened.findLatest().orElseThrow());
+        }
+        Files.delete(tempDir.resolve(SegmentLog.VERIFIED_FILE_NAME));
+        assertThrows(RuntimeException.class, () -> new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES, StorageMode.MAPPED));
+    }
+
+    @Test
+    void shouldRecheckVerifiedSealedSegmentWhoseSizeChanged(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            for (int i = 0; i < 10; i++) {
+                repository.save(block(i));
+            }
+        }
+        new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES).close();
+        try (FileChannel channel = FileChannel.open(segments(tempDir).getFirst(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(100).putInt(42).putInt(7).flip());
+        }
+
+        assertThrows(RuntimeException.class, () -> new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES));
+    }
+
+    @Test
+    void shouldDefaultToMappedModeWhenSnapshotsAreEnabled() {
+        assertEquals(StorageMode.MAPPED, StorageMode.of("", true));
+        assertEquals(StorageMode.HEAP, StorageMode.of(null, false));
+        assertEquals(StorageMode.HEAP, StorageMode.of("heap", true));
+        assertThrows(IllegalArgumentException.class, () -> StorageMode.of("disk", true));
+    }
+
+    @Test
+    void shouldGroupConcurrentSavesIntoFewerFsyncs(@TempDir Path tempDir) throws Exception {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final int threads = 8;
+        final int blocksPerThread = 25;
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SegmentedBlockRepository.DEFAULT_MAX_SEGMENT_BYTES,
+                new BinaryBlockCodec(), StorageMode.HEAP, FsyncPolicy.everyMillis(5), meterRegistry)) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < blocksPerThread; i++) {
+                        repository.save(block(thread * blocksPerThread + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            assertEquals(threads * blocksPerThread, repository.findAll().size());
+        }
+
+        final DistributionSummary batchSize = meterRegistry.get("blockchain.storage.commit.batch.size").summary();
+        assertEquals(threads * blocksPerThread, (long) batchSize.totalAmount());
+        assertEquals(batchSize.count(), meterRegistry.get("blockchain.storage.flush.latency").timer().count());
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SegmentedBlockRepository.DEFAULT_MAX_SEGMENT_BYTES)) {
+            assertEquals(threads * blocksPerThread, reopened.findAll().size());
+        }
+    }
+
+    @Test
+    void shouldAppendOnlyBlocksThatExtendTheTip(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertTrue(repository.saveIfNext(block(0)));
+            assertTrue(repository.saveIfNext(block(1)));
+
+            assertFalse(repository.saveIfNext(fork(1, hash(0), 7)));
+            assertFalse(repository.saveIfNext(block(3)));
+            assertEquals(block(1), repository.findLatest().orElseThrow());
+        }
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertFalse(reopened.saveIfNext(fork(1, hash(0), 7)));
+            assertTrue(reopened.saveIfNext(block(2)));
+            assertEquals(3, reopened.findAll().size());
+        }
+    }
+
+    @Test
+    void shouldLetExactlyOneConcurrentBlockExtendEachHeight(@TempDir Path tempDir) throws Exception {
+        final int threads = 8;
+        final int height = 50;
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SegmentedBlockRepository.DEFAULT_MAX_SEGMENT_BYTES,
+                new BinaryBlockCodec(), StorageMode.HEAP, FsyncPolicy.perWrite(), new SimpleMeterRegistry())) {
+            repository.save(block(0));
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    int appended = 0;
+                    Block latest = repository.findLatest().orElseThrow();
+                    while (latest.index() < height) {
+                        if (repository.saveIfNext(fork(latest.index() + 1, latest.hash(), thread))) {
+                            appended++;
+                        }
+                        latest = repository.findLatest().orElseThrow();
+                    }
+                    return appended;
+                }));
+            }
+            int appended = 0;
+            for (Future<Integer> future : futures) {
+                appended += future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            final List<Block> chain = repository.findAll();
+            assertEquals(height + 1, chain.size());
+            assertEquals(height, appended);
+            for (int i = 1; i < chain.size(); i++) {
+                assertEquals(i, chain.get(i).index());
+                assertEquals(chain.get(i - 1).hash(), chain.get(i).previousHash());
+            }
+        }
+    }
+
+    @Test
+    void shouldReturnChainAsOfTheCallFromHeapStore(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            repository.save(block(0));
+            final List<Block> snapshot = repository.findAll();
+
+            repository.save(block(1));
+
+            assertEquals(List.of(block(0)), snapshot);
+            assertThrows(UnsupportedOperationException.class, () -> snapshot.add(block(2)));
+        }
+    }
+
+    @Test
+    void shouldServeBlocksFromMappedSegments(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            for (int i = 0; i < 10; i++) {
+                repository.save(block(i));
+            }
+        }
+
+        try (SegmentedBlockRepository mapped = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES, StorageMode.MAPPED)) {
+            final List<Block> snapshot = mapped.findAll();
+            assertEquals(10, snapshot.size());
+            assertEquals(block(9), mapped.findLatest().orElseThrow());
+
+            mapped.save(block(10));
+            mapped.save(block(11));
+
+            assertEquals(10, snapshot.size());
+            final List<Block> expected = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                expected.add(block(i));
+            }
+            assertEquals(expected, mapped.findAll());
+            assertEquals(block(11), mapped.findLatest().orElseThrow());
+            assertThrows(UnsupportedOperationException.class, () -> mapped.findAll().add(block(12)));
+        }
+    }
+
+    @Test
+    void shouldFindBlocksByIndexHashAndRange(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES, StorageMode.MAPPED)) {
+            for (int i = 0; i < 5; i++) {
+                repository.save(block(i));
+            }
+
+            assertEquals(block(3), repository.findByIndex(3).orElseThrow());
+            assertEquals(block(1), repository.findByHash(hash(1)).orElseThrow());
+            assertTrue(repository.findByIndex(5).isEmpty());
+            assertTrue(repository.findByHash(hash(99)).isEmpty());
+            assertEquals(List.of(block(1), block(2)), repository.findRange(1, 3));
+            assertEquals(List.of(block(3), block(4)), repository.findRange(3, Long.MAX_VALUE));
+            assertTrue(repository.findRange(10, 20).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> repository.findRange(3, 1));
+        }
+    }
+
+    @Test
+    void shouldVisitBlocksFromHeightInBatches(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            for (int i = 0; i < 5; i++) {
+                repository.save(block(i));
+            }
+            final List<Block> visited = new ArrayList<>();
+
+            assertEquals(4, repository.forEachFrom(1, 2, visited::add));
+            assertEquals(List.of(block(1), block(2), block(3), block(4)), visited);
+            assertEquals(6, repository.forEachFrom(7, 2, visited::add));
+            assertEquals(4, visited.size());
+            assertThrows(IllegalArgumentException.class, () -> repository.forEachFrom(0, 0, visited::add));
+        }
+    }
+
+    @Test
+    void shouldCatchUpAndTruncateBlockIndexOnStartup(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            for (int i = 0; i < 4; i++) {
+                repository.save(block(i));
+            }
+        }
+        final Path indexFile = tempDir.resolve(BlockIndex.FILE_NAME);
+        assertEquals(4L * BlockIndex.ENTRY_SIZE, Files.size(indexFile));
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            channel.truncate(2L * BlockIndex.ENTRY_SIZE + 5);
+        }
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(block(3), reopened.findByHash(hash(3)).orElseThrow());
+            assertEquals(block(2), reopened.findByIndex(2).orElseThrow());
+        }
+        assertEquals(4L * BlockIndex.ENTRY_SIZE, Files.size(indexFile));
+
+        final byte[] index = Files.readAllBytes(indexFile);
+        index[index.length - 1] ^= 0x7f;
+        Files.write(indexFile, index);
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(block(3), reopened.findByHash(hash(3)).orElseThrow());
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidChainName() {
+        assertThrows(InvalidBlockchainPathException.class,
+                () -> new SegmentedBlockRepository("../../etc", new BinaryBlockCodec(), StorageMode.HEAP, FsyncPolicy.perWrite(),
+                        new SimpleMeterRegistry()));
+        assertThrows(InvalidBlockchainPathException.class,
+                () -> new SegmentedBlockRepository(null, new BinaryBlockCodec(), StorageMode.HEAP, FsyncPolicy.perWrite(),
+                        new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void shouldReadSegmentsWrittenByPreviousCodec(@TempDir Path tempDir) throws IOException {
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES,
+                new JsonBlockCodec(), StorageMode.HEAP, FsyncPolicy.perWrite(), new SimpleMeterRegistry())) {
+            repository.save(block(0));
+            repository.save(block(1));
+        }
+        final int jsonSegments = segments(tempDir).size();
+
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            repository.save(block(2));
+            assertEquals(jsonSegments + 1, repository.segmentCount());
+        }
+
+        try (SegmentedBlockRepository reopened = new SegmentedBlockRepository(tempDir, SMALL_SEGMENT_BYTES)) {
+            assertEquals(List.of(block(0), block(1), block(2)), reopened.findAll());
+        }
+    }
+
+    @Test
+    void shouldConvertJsonChainFileToSegmentLog(@TempDir Path tempDir) throws IOException {
+        final List<Block> blocks = List.of(block(0), block(1), block(2));
+        final Path source = tempDir.resolve("blockchain.json");
+        new BlockMapper().writeToFile(source, blocks);
+        final Path target = tempDir.resolve("segments");
+
+        assertEquals(blocks.size(), ChainFileConverter.convert(source, target, new BinaryBlockCodec()));
+        assertThrows(IllegalStateException.class, () -> ChainFileConverter.convert(source, target, new BinaryBlockCodec()));
+
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(target, SMALL_SEGMENT_BYTES)) {
+            assertEquals(blocks, repository.findAll());
+        }
+    }
+
+    @Test
+    void shouldRefuseEmptySegmentLogWhileJsonChainIsNotConverted(@TempDir Path tempDir) throws IOException {
+        final Path source = tempDir.resolve("blockchain.json");
+        final Path target = tempDir.resolve("segments");
+        try (SegmentedBlockRepository repository = new SegmentedBlockRepository(target, SMALL_SEGMENT_BYTES)) {
+            ChainFileConverter.checkMigrated(source, repository);
+            new BlockMapper().writeToFile(source, List.of());
+            ChainFileConverter.checkMigrated(source, repository);
+            new BlockMapper().writeToFile(source, List.of(block(0), block(1)));
+            assertThrows(IllegalStateException.class, () -> ChainFileConverter.checkMigrated(source, repository));
+        }
+
+        ChainFileConverter.convert(source, tempDir.resolve("converted"), new BinaryBlockCodec());
+        try (SegmentedBlockRepository converted = new SegmentedBlockRepository(tempDir.resolve("converted"), SMALL_SEGMENT_BYTES)) {
+            ChainFileConverter.checkMigrated(source, converted);
+        }
+    }
+
+    private static Block block(long index) {
+        return new Block(index, Instant.ofEpochSecond(1_700_000_000L + index), ImmutableList.of(),
+                hash(index - 1), index, hash(index));
+    }
+
+    /**
+     * Блок {@code index} поверх {@code previousHash}, хэш которого различается у разных {@code author}.
+     */
+    private static Block fork(long index, Hash previousHash, int author) {
+        return new Block(index, Instant.ofEpochSecond(1_700_000_000L + index), ImmutableList.of(),
+                previousHash, author, hash(index << 8 | author + 1));
+    }
+
+    private static Hash hash(long seed) {
+        return new Hash(String.format("%064x", seed & Long.MAX_VALUE));
+    }
+
+    private static Path lastSegment(Path directory) throws IOException {
+        return segments(directory).getLast();
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
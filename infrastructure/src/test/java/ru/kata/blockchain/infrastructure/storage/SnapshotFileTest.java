@@ -0,0 +1,94 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SnapshotFileTest {
+    private static final Hash TIP = new Hash("0123456789abcdef".repeat(4));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRoundTripSnapshot() {
+        final SnapshotFile snapshotFile = new SnapshotFile(dir.resolve("nested").resolve("state.snap"));
+
+        assertTrue(snapshotFile.write(new SnapshotFile.Snapshot(41, TIP, new byte[]{1, 2, 3})));
+        final SnapshotFile.Snapshot snapshot = snapshotFile.read().orElseThrow();
+
+        assertEquals(41, snapshot.height());
+        assertEquals(TIP, snapshot.tipHash());
+        assertArrayEquals(new byte[]{1, 2, 3}, snapshot.state());
+        assertFalse(Files.exists(dir.resolve("nested").resolve("state.snap.tmp")));
+    }
+
+    @Test
+    void shouldWriteQueuedSnapshotsInOrderOnWriterThread() {
+        final SnapshotFile snapshotFile = new SnapshotFile(dir.resolve("state.snap"));
+        final Thread caller = Thread.currentThread();
+        final AtomicReference<Thread> writerThread = new AtomicReference<>();
+
+        snapshotFile.writeAsync(() -> new SnapshotFile.Snapshot(1, TIP, new byte[]{1}));
+        snapshotFile.writeAsync(() -> {
+            writerThread.set(Thread.currentThread());
+            return new SnapshotFile.Snapshot(2, TIP, new byte[]{2});
+        });
+        snapshotFile.close();
+
+        assertNotSame(caller, writerThread.get());
+        assertEquals(2, snapshotFile.read().orElseThrow().height());
+        assertFalse(snapshotFile.writeAsync(() -> new SnapshotFile.Snapshot(3, TIP, new byte[0])).join());
+    }
+
+    @Test
+    void shouldReplacePreviousSnapshot() {
+        final SnapshotFile snapshotFile = new SnapshotFile(dir.resolve("state.snap"));
+        snapshotFile.write(new SnapshotFile.Snapshot(1, TIP, new byte[100]));
+        snapshotFile.write(new SnapshotFile.Snapshot(2, TIP, new byte[]{7}));
+
+        assertEquals(2, snapshotFile.read().orElseThrow().height());
+        assertArrayEquals(new byte[]{7}, snapshotFile.read().orElseThrow().state());
+    }
+
+    @Test
+    void shouldIgnoreMissingOrCorruptedSnapshot() throws IOException {
+        final Path path = dir.resolve("state.snap");
+        final SnapshotFile snapshotFile = new SnapshotFile(path);
+        assertTrue(snapshotFile.read().isEmpty());
+
+        snapshotFile.write(new SnapshotFile.Snapshot(3, TIP, new byte[]{1, 2, 3}));
+        final byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 6] ^= 1;
+        Files.write(path, bytes);
+        assertTrue(snapshotFile.read().isEmpty());
+
+        Files.write(path, new byte[]{1, 2, 3});
+        assertTrue(snapshotFile.read().isEmpty());
+    }
+
+    @Test
+    void shouldMatchChainOnlyWhenTipHashIsAtSnapshotHeight() {
+        final BlockRepository blockRepository = mock(BlockRepository.class);
+        final Block tip = new Block(5, Instant.EPOCH, ImmutableList.of(), new Hash("0".repeat(64)), 1, TIP);
+        when(blockRepository.findByIndex(5)).thenReturn(Optional.of(tip));
+        when(blockRepository.findByIndex(6)).thenReturn(Optional.empty());
+
+        assertTrue(new SnapshotFile.Snapshot(5, TIP, new byte[0]).matches(blockRepository));
+        assertFalse(new SnapshotFile.Snapshot(5, new Hash("f".repeat(64)), new byte[0]).matches(blockRepository));
+        assertFalse(new SnapshotFile.Snapshot(6, TIP, new byte[0]).matches(blockRepository));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.kata.blockchain.infrastructure.storage;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.vo.Hash;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SnapshotScheduleTest {
+    private static final Hash TIP = new Hash("0123456789abcdef".repeat(4));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldWriteOnceIntervalHasPassedAndRestoreMatchingSnapshot() {
+        final BlockRepository blockRepository = chainWithTipAt(10);
+        try (SnapshotSchedule schedule = new SnapshotSchedule(new SnapshotFile(dir.resolve("state.snap")), 10, "Test state")) {
+            assertFalse(schedule.isDue(8));
+            assertTrue(schedule.isDue(9));
+            assertTrue(schedule.write(10, TIP, () -> new byte[]{7}).join());
+            assertFalse(schedule.isDue(19));
+            assertTrue(schedule.isDue(20));
+        }
+
+        final AtomicReference<byte[]> restored = new AtomicReference<>();
+        final SnapshotSchedule schedule = new SnapshotSchedule(new SnapshotFile(dir.resolve("state.snap")), 10, "Test state");
+        final SnapshotFile.Snapshot snapshot = schedule.restore(blockRepository, restored::set).orElseThrow();
+
+        assertEquals(10, snapshot.height());
+        assertArrayEquals(new byte[]{7}, restored.get());
+        assertFalse(schedule.isDue(19));
+    }
+
+    @Test
+    void shouldIgnoreSnapshotOfAnotherChainOrWithMalformedState() {
+        final SnapshotFile snapshotFile = new SnapshotFile(dir.resolve("state.snap"));
+        snapshotFile.write(new SnapshotFile.Snapshot(10, TIP, new byte[]{7}));
+        final SnapshotSchedule schedule = new SnapshotSchedule(snapshotFile, 10, "Test state");
+
+        assertTrue(schedule.restore(chainWithTipAt(11), state -> fail("state of another chain must not be decoded")).isEmpty());
+        assertTrue(schedule.restore(chainWithTipAt(10), state -> {
+            throw new IllegalArgumentException("malformed");
+        }).isEmpty());
+        assertTrue(schedule.isDue(9));
+    }
+
+    @Test
+    void shouldDoNothingWithoutSnapshotFile() {
+        final SnapshotSchedule schedule = new SnapshotSchedule(null, 10, "Test state");
+
+        assertTrue(schedule.restore(mock(BlockRepository.class), state -> fail("no snapshot to decode")).isEmpty());
+        assertFalse(schedule.isDue(100));
+        assertFalse(schedule.write(100, TIP, () -> new byte[0]).join());
+        schedule.close();
+    }
+
+    private static BlockRepository chainWithTipAt(long height) {
+        final BlockRepository blockRepository = mock(BlockRepository.class);
+        when(blockRepository.findByIndex(anyLong())).thenReturn(Optional.empty());
+        when(blockRepository.findByIndex(height))
+                .thenReturn(Optional.of(new Block(height, Instant.EPOCH, ImmutableList.of(), new Hash("0".repeat(64)), 0, TIP)));
+        return blockRepository;
+    }
+}
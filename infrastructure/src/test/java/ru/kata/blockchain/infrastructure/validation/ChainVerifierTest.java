@@ -0,0 +1,182 @@
+package ru.kata.blockchain.infrastructure.validation;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.kata.blockchain.adapters.factory.HashFactory;
+import ru.kata.blockchain.domain.block.Block;
+import ru.kata.blockchain.domain.block.BlockRepository;
+import ru.kata.blockchain.domain.block.Difficulty;
+import ru.kata.blockchain.domain.crypto.CryptoService;
+import ru.kata.blockchain.domain.exceptions.ChainVerificationException;
+import ru.kata.blockchain.domain.service.SerializerService;
+import ru.kata.blockchain.domain.service.TxIdCalculatorService;
+import ru.kata.blockchain.domain.transaction.Transaction;
+import ru.kata.blockchain.domain.vo.Amount;
+import ru.kata.blockchain.domain.vo.Hash;
+import ru.kata.blockchain.domain.vo.WalletAddress;
+import ru.kata.blockchain.infrastructure.storage.SnapshotFile;
+
+import java.nio.file.Path;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChainVerifierTest {
+    private static final WalletAddress FROM = new WalletAddress("1AliceAliceAliceAliceAliceAliceAlice");
+    private static final WalletAddress TO = new WalletAddress("1BobBobBobBobBobBobBobBobBobBobBobBob");
+    private static final byte[] VALID_SIGNATURE = {1};
+    private static final byte[] INVALID_SIGNATURE = {2};
+    private static final int CHAIN_LENGTH = ChainVerifier.CHUNK_BLOCKS * 3 + 5;
+    private static final Hash TARGET = Difficulty.target(4);
+
+    private BlockRepository blockRepository;
+    private HashFactory hashFactory;
+    private CryptoService cryptoService;
+    private SerializerService serializerService;
+    private List<Block> chain;
+
+    @BeforeEach
+    void setUp() {
+        serializerService = mock(SerializerService.class);
+        when(serializerService.getUnassignedPayload(any(), any(), any()))
+                .thenAnswer(invocation -> new byte[]{(byte) invocation.<Amount>getArgument(2).value()});
+        when(serializerService.getSerializedTransaction(any()))
+                .thenAnswer(invocation -> invocation.<Transaction>getArgument(0).signature());
+        final TxIdCalculatorService txIdCalculatorService = mock(TxIdCalculatorService.class);
+        when(txIdCalculatorService.calculateTxId(any()))
+                .thenAnswer(invocation -> String.format("%064x", invocation.<byte[]>getArgument(0)[0]));
+        hashFactory = new HashFactory(txIdCalculatorService, serializerService);
+        cryptoService = mock(CryptoService.class);
+        when(cryptoService.verify(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<byte[]>getArgument(1)[0] == VALID_SIGNATURE[0]);
+        blockRepository = mock(BlockRepository.class);
+        chain = new ArrayList<>();
+        Hash previousHash = new Hash("0".repeat(64));
+        for (int index = 0; index < CHAIN_LENGTH; index++) {
+            chain.add(block(index, previousHash, VALID_SIGNATURE));
+            previousHash = chain.get(index).hash();
+        }
+        when(blockRepository.findLatest()).thenAnswer(invocation -> Optional.of(chain.get(chain.size() - 1)));
+        when(blockRepository.findRange(anyLong(), anyLong())).thenAnswer(invocation -> chain.subList(
+                (int) invocation.<Long>getArgument(0).longValue(), (int) invocation.<Long>getArgument(1).longValue()));
+        when(blockRepository.findByIndex(anyLong()))
+                .thenAnswer(invocation -> Optional.of(chain.get((int) invocation.<Long>getArgument(0).longValue())));
+    }
+
+    @Test
+    void shouldVerifyIntactChain() {
+        assertEquals(CHAIN_LENGTH, verifier(-1, null).verify());
+    }
+
+    @Test
+    void shouldRejectBrokenLinkage() {
+        chain.set(70, block(70, new Hash("f".repeat(64)), VALID_SIGNATURE));
+
+        final ChainVerificationException exception = assertThrows(ChainVerificationException.class, () -> verifier(-1, null).verify());
+
+        assertTrue(exception.getMessage().contains("Block 70"), exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectBlockWhoseHashDoesNotMatchHeader() {
+        final Block original = chain.get(100);
+        chain.set(100, new Block(original.index(), original.timestamp(), original.transactions(), original.previousHash(),
+                original.nonce() + 1, original.hash()));
+
+        final ChainVerificationException exception = assertThrows(ChainVerificationException.class, () -> verifier(-1, null).verify());
+
+        assertTrue(exception.getMessage().contains("Block 100 hash"), exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectInvalidSignature() {
+        chain.set(CHAIN_LENGTH - 1, block(CHAIN_LENGTH - 1, chain.get(CHAIN_LENGTH - 2).hash(), INVALID_SIGNATURE));
+
+        final ChainVerificationException exception = assertThrows(ChainVerificationException.class, () -> verifier(-1, null).verify());
+
+        assertTrue(exception.getMessage().contains("invalid signature"), exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectBlockThatDoesNotMeetMiningTarget() {
+        final long index = CHAIN_LENGTH - 1;
+        chain.set((int) index, sealedBlock(index, chain.get(CHAIN_LENGTH - 2).hash(), VALID_SIGNATURE, false));
+
+        final ChainVerificationException exception = assertThrows(ChainVerificationException.class, () -> verifier(-1, null).verify());
+
+        assertTrue(exception.getMessage().contains("Block " + index + " hash does not meet the mining target"), exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectBlockBelowTargetAfterCheckpoint() {
+        chain.set(20, sealedBlock(20, chain.get(19).hash(), VALID_SIGNATURE, false));
+        for (int index = 21; index < CHAIN_LENGTH; index++) {
+            chain.set(index, block(index, chain.get(index - 1).hash(), VALID_SIGNATURE));
+        }
+
+        assertThrows(ChainVerificationException.class, () -> verifier(10, chain.get(10).hash()).verify());
+    }
+
+    @Test
+    void shouldTrustBlocksUpToCheckpoint() {
+        chain.set(5, block(5, chain.get(4).hash(), INVALID_SIGNATURE));
+        clearInvocations(cryptoService);
+
+        assertEquals(CHAIN_LENGTH - 11, verifier(10, chain.get(10).hash()).verify());
+        verify(cryptoService, times(CHAIN_LENGTH - 11)).verify(any(), any(), any());
+    }
+
+    @Test
+    void shouldRestoreCheckpointTargetFromSnapshotWithoutReadingTrustedBlocks(@TempDir Path tempDir) {
+        try (SnapshotFile snapshotFile = new SnapshotFile(tempDir.resolve("checkpoint.snap"))) {
+            assertEquals(CHAIN_LENGTH - 101, checkpointVerifier(snapshotFile).verify());
+            verify(blockRepository).findRange(0, 101);
+            clearInvocations(blockRepository);
+
+            assertEquals(CHAIN_LENGTH - 101, checkpointVerifier(snapshotFile).verify());
+            verify(blockRepository, never()).findRange(eq(0L), anyLong());
+        }
+    }
+
+    @Test
+    void shouldRejectCheckpointWithUnexpectedHash() {
+        assertThrows(ChainVerificationException.class, () -> verifier(10, new Hash("f".repeat(64))).verify());
+    }
+
+    private ChainVerifier checkpointVerifier(SnapshotFile checkpointSnapshot) {
+        return new ChainVerifier(blockRepository, hashFactory, cryptoService, serializerService, 4, 100, null,
+                TARGET, 16, 1000, checkpointSnapshot);
+    }
+
+    private ChainVerifier verifier(long checkpointHeight, Hash checkpointHash) {
+        return new ChainVerifier(blockRepository, hashFactory, cryptoService, serializerService, 4, checkpointHeight, checkpointHash,
+                TARGET, 16, 1000);
+    }
+
+    private Block block(long index, Hash previousHash, byte[] signature) {
+        return sealedBlock(index, previousHash, signature, true);
+    }
+
+    /**
+     * Блок с первым {@code nonce}, при котором хэш заголовка удовлетворяет цели ({@code meetsTarget})
+     * или не удовлетворяет ей.
+     */
+    private Block sealedBlock(long index, Hash previousHash, byte[] signature, boolean meetsTarget) {
+        final ImmutableList<Transaction> transactions = ImmutableList.of(
+                new Transaction(FROM, TO, new Amount(index % 100 + 1), signature, mock(PublicKey.class)));
+        final Instant timestamp = Instant.ofEpochSecond(1_700_000_000L + index);
+        for (long nonce = 0; ; nonce++) {
+            final Hash hash = hashFactory.createHash(new Block(index, timestamp, transactions, previousHash, nonce, previousHash));
+            if (Difficulty.meets(hash, TARGET) == meetsTarget) {
+                return new Block(index, timestamp, transactions, previousHash, nonce, hash);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.kata.blockchain.loadgen;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Расписание поступления запросов в открытой модели нагрузки: моменты отправки задаются заранее
+ * и не зависят от того, как быстро узел отвечает на предыдущие запросы.
+ */
+enum Arrivals {
+    /**
+     * Запросы через равные интервалы {@code 1 / rate}.
+     */
+    UNIFORM,
+    /**
+     * Пуассоновский поток: интервалы распределены экспоненциально со средним {@code 1 / rate}.
+     */
+    POISSON;
+
+    static Arrivals of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown arrivals: " + name + ", expected uniform or poisson", e);
+        }
+    }
+
+    /**
+     * Интервал до следующего запроса в наносекундах при среднем интервале {@code meanNanos}.
+     */
+    long nextGapNanos(double meanNanos, Random random) {
+        if (this == UNIFORM) {
+            return Math.round(meanNanos);
+        }
+        return Math.round(-meanNanos * Math.log(1.0 - random.nextDouble()));
+    }
+}
@@ -0,0 +1,29 @@
+package ru.kata.blockchain.loadgen;
+
+/**
+ * Эндпоинты REST API узла, на которые подаётся нагрузка, в порядке весов {@code --mix}.
+ */
+enum Endpoint {
+    CREATE_TRANSACTION("POST /api/transaction", "transaction"),
+    GET_BALANCE("GET /api/balance/{address}", "balance"),
+    GET_BLOCKCHAIN("GET /api/blockchain", "blockchain");
+
+    private final String title;
+    private final String reportName;
+
+    Endpoint(String title, String reportName) {
+        this.title = title;
+        this.reportName = reportName;
+    }
+
+    String title() {
+        return title;
+    }
+
+    /**
+     * Имя файла гистограммы задержек эндпоинта без расширения.
+     */
+    String reportName() {
+        return reportName;
+    }
+}
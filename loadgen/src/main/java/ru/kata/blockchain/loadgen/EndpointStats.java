@@ -0,0 +1,102 @@
+package ru.kata.blockchain.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты одного эндпоинта: гистограмма задержек в микросекундах и счётчики ответов по классам статусов.
+ * <p>
+ * Задержка считается от запланированного момента отправки, а не от фактического, поэтому отставание
+ * клиента или очередь соединений учитываются в задержке (без coordinated omission).
+ * Запись потокобезопасна: ответы приходят в потоках {@code HttpClient}.
+ */
+final class EndpointStats {
+    /**
+     * Верхняя граница гистограммы — 1 час, большие задержки записываются как 1 час.
+     */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder successful = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    static Map<Endpoint, EndpointStats> forAllEndpoints() {
+        final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Ответ узла со статусом {@code status}.
+     */
+    void recordResponse(int status, long latencyNanos) {
+        recordLatency(latencyNanos);
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            successful.increment();
+        }
+    }
+
+    /**
+     * Запрос завершился без ответа: ошибка соединения или таймаут.
+     */
+    void recordFailure(long latencyNanos) {
+        recordLatency(latencyNanos);
+        failed.increment();
+    }
+
+    /**
+     * Запрос не отправлен: достигнут предел одновременно ожидающих запросов. В гистограмму он записывается
+     * как истёкший по таймауту с задержкой {@code timeoutNanos}.
+     */
+    void recordSkipped(long timeoutNanos) {
+        recordLatency(timeoutNanos);
+        skipped.increment();
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long completed() {
+        return successful.sum() + clientErrors.sum() + serverErrors.sum() + failed.sum();
+    }
+
+    long successful() {
+        return successful.sum();
+    }
+
+    long clientErrors() {
+        return clientErrors.sum();
+    }
+
+    long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long skipped() {
+        return skipped.sum();
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencies.recordValue(Math.min(MAX_LATENCY_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+    }
+}
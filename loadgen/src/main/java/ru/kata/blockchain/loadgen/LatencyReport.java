@@ -0,0 +1,101 @@
+package ru.kata.blockchain.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Отчёт о прогоне: таблица пропускной способности и перцентилей задержки по эндпоинтам
+ * и файлы {@code <endpoint>.hgrm} с полным распределением HdrHistogram в миллисекундах,
+ * которые можно построить, например, в HdrHistogram Plotter.
+ * <p>
+ * Перцентили включают неотправленные запросы (столбец {@code skipped}) с задержкой, равной таймауту запроса.
+ */
+final class LatencyReport {
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final String ROW_FORMAT = "%-28s %9s %9s %7s %7s %7s %7s %9s %9s %9s %9s %9s %9s%n";
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private LatencyReport() {
+    }
+
+    static void print(LoadProfile profile, LoadResult result, PrintStream out) {
+        final double seconds = result.duration().toNanos() / 1e9;
+        out.printf(Locale.ROOT, "Target %s: %d req/s (%s arrivals), measured %.1f s, max scheduler lag %.3f ms%s%n",
+                profile.target(), profile.rate(), profile.arrivals().name().toLowerCase(Locale.ROOT), seconds,
+                result.maxSchedulerLag().toNanos() / 1e6, drainWarning(result));
+        out.printf(ROW_FORMAT, "endpoint", "requests", "req/s", "2xx", "4xx", "5xx", "failed", "skipped",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        final Histogram total = new Histogram(3);
+        final long[] totals = new long[6];
+        for (Map.Entry<Endpoint, EndpointStats> entry : result.stats().entrySet()) {
+            final EndpointStats stats = entry.getValue();
+            if (stats.completed() == 0 && stats.skipped() == 0) {
+                continue;
+            }
+            final long[] counters = counters(stats);
+            printRow(out, entry.getKey().title(), stats.latencies(), seconds, counters);
+            total.add(stats.latencies());
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counters[i];
+            }
+        }
+        printRow(out, "total", total, seconds, totals);
+    }
+
+    /**
+     * Пишет распределение задержек каждого эндпоинта в {@code directory/<endpoint>.hgrm}.
+     */
+    static void writeHistograms(LoadResult result, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Endpoint, EndpointStats> entry : result.stats().entrySet()) {
+            final Histogram latencies = entry.getValue().latencies();
+            if (latencies.getTotalCount() == 0) {
+                continue;
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey().reportName() + ".hgrm")),
+                    false, StandardCharsets.UTF_8)) {
+                latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    /**
+     * Счётчики строки: выполнено, 2xx, 4xx, 5xx, без ответа, не отправлено.
+     */
+    private static long[] counters(EndpointStats stats) {
+        return new long[]{stats.completed(), stats.successful(), stats.clientErrors(), stats.serverErrors(), stats.failed(), stats.skipped()};
+    }
+
+    private static void printRow(PrintStream out, String title, Histogram latencies, double seconds, long[] counters) {
+        final Object[] row = new Object[13];
+        row[0] = title;
+        row[1] = Long.toString(counters[0]);
+        row[2] = String.format(Locale.ROOT, "%.1f", counters[0] / seconds);
+        for (int i = 1; i < counters.length; i++) {
+            row[2 + i] = Long.toString(counters[i]);
+        }
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            row[8 + i] = millis(latencies.getValueAtPercentile(PERCENTILES[i]));
+        }
+        row[12] = millis(latencies.getMaxValue());
+        out.printf(ROW_FORMAT, row);
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / MICROS_PER_MILLI);
+    }
+
+    private static String drainWarning(LoadResult result) {
+        if (result.drained()) {
+            return "";
+        }
+        return " (some requests were still in flight, their latencies are missing)";
+    }
+}
@@ -0,0 +1,48 @@
+package ru.kata.blockchain.loadgen;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный клиент REST API узла блокчейна.
+ * <p>
+ * До начала прогона создаёт кошельки с ключами secp256k1 и всё расписание запросов ({@link RequestPlanner}),
+ * затем подаёт нагрузку в открытой модели ({@link OpenLoopRunner}) на {@code POST /api/transaction},
+ * {@code GET /api/balance/{address}} и {@code GET /api/blockchain} и печатает отчёт ({@link LatencyReport}).
+ * Параметры прогона описаны в {@link LoadProfile}.
+ * <p>
+ * Узел запускается отдельно на этой же машине ({@code ./gradlew :infrastructure:bootRun}), клиент —
+ * {@code ./gradlew :loadgen:run --args="--rate=500 --duration=60"}.
+ */
+@Slf4j
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final LoadProfile profile = LoadProfile.parse(args);
+        final long planStart = System.nanoTime();
+        final List<Wallet> wallets = Wallet.generate(profile.accounts());
+        final RequestPlan plan = new RequestPlanner(profile, wallets).plan();
+        log.info("Generated {} wallet(s) and {} request(s) in {} ms", wallets.size(), plan.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - planStart));
+
+        final LoadResult result;
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(profile.timeout())
+                .build()) {
+            log.info("Running {} req/s against {} for {} s after {} s of warmup", profile.rate(), profile.target(),
+                    profile.duration().toSeconds(), profile.warmup().toSeconds());
+            result = new OpenLoopRunner(httpClient, profile.maxInFlight(), profile.timeout()).run(plan);
+        }
+        LatencyReport.print(profile, result, System.out);
+        LatencyReport.writeHistograms(result, profile.reportDir());
+        log.info("Latency histograms written to {}", profile.reportDir().toAbsolutePath());
+    }
+}
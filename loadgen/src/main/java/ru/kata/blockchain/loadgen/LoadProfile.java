@@ -0,0 +1,128 @@
+package ru.kata.blockchain.loadgen;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Параметры прогона нагрузки.
+ * <p>
+ * Задаются аргументами вида {@code --key=value}; непереданные параметры берутся по умолчанию:
+ * <ul>
+ *     <li>{@code --target=http://localhost:8080} — адрес узла;</li>
+ *     <li>{@code --rate=200} — целевая интенсивность, запросов в секунду по всем эндпоинтам;</li>
+ *     <li>{@code --duration=60} и {@code --warmup=10} — длительность замера и прогрева в секундах;</li>
+ *     <li>{@code --arrivals=poisson} — расписание поступления запросов: {@code poisson} или {@code uniform};</li>
+ *     <li>{@code --mix=8:1:1} — веса {@code POST /api/transaction}, {@code GET /api/balance/{address}}
+ *     и {@code GET /api/blockchain};</li>
+ *     <li>{@code --accounts=100} — число заранее созданных кошельков (ключей secp256k1);</li>
+ *     <li>{@code --page-size=10} — {@code limit} запроса страницы цепочки;</li>
+ *     <li>{@code --max-in-flight=10000} — предел одновременно ожидающих ответа запросов;</li>
+ *     <li>{@code --timeout=10} — таймаут запроса в секундах;</li>
+ *     <li>{@code --seed=42} — зерно генератора расписания и выбора эндпоинтов;</li>
+ *     <li>{@code --report-dir=build/reports/loadgen} — каталог для гистограмм задержек.</li>
+ * </ul>
+ */
+record LoadProfile(URI target,
+                   int rate,
+                   Duration duration,
+                   Duration warmup,
+                   Arrivals arrivals,
+                   int[] mix,
+                   int accounts,
+                   int pageSize,
+                   int maxInFlight,
+                   Duration timeout,
+                   long seed,
+                   Path reportDir) {
+    private static final Set<String> OPTIONS = Set.of("target", "rate", "duration", "warmup", "arrivals", "mix", "accounts",
+            "page-size", "max-in-flight", "timeout", "seed", "report-dir");
+
+    LoadProfile {
+        if (rate <= 0 || accounts < 2 || pageSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("rate, page-size and max-in-flight must be positive and accounts must be at least 2");
+        }
+        if (duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+            throw new IllegalArgumentException("duration must be positive and warmup must not be negative");
+        }
+        if (mix.length != Endpoint.values().length) {
+            throw new IllegalArgumentException("mix must have " + Endpoint.values().length + " weights: " + mix.length);
+        }
+        int totalWeight = 0;
+        for (int weight : mix) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("mix weights must not be negative");
+            }
+            totalWeight += weight;
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("at least one mix weight must be positive");
+        }
+        mix = mix.clone();
+    }
+
+    /**
+     * Разбирает аргументы командной строки.
+     *
+     * @throws IllegalArgumentException если аргумент не в формате {@code --key=value}, параметр неизвестен
+     *                                  или значение некорректно
+     */
+    static LoadProfile parse(String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value argument: " + arg);
+            }
+            final String key = arg.substring(2, separator);
+            if (!OPTIONS.contains(key)) {
+                throw new IllegalArgumentException("Unknown option --" + key + ", supported: " + OPTIONS);
+            }
+            options.put(key, arg.substring(separator + 1));
+        }
+        try {
+            return new LoadProfile(
+                    URI.create(options.getOrDefault("target", "http://localhost:8080")),
+                    Integer.parseInt(options.getOrDefault("rate", "200")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+                    Arrivals.of(options.getOrDefault("arrivals", "poisson")),
+                    parseMix(options.getOrDefault("mix", "8:1:1")),
+                    Integer.parseInt(options.getOrDefault("accounts", "100")),
+                    Integer.parseInt(options.getOrDefault("page-size", "10")),
+                    Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "10"))),
+                    Long.parseLong(options.getOrDefault("seed", "42")),
+                    Paths.get(options.getOrDefault("report-dir", "build/reports/loadgen")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric option: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Вес эндпоинта в смеси запросов.
+     */
+    int weight(Endpoint endpoint) {
+        return mix[endpoint.ordinal()];
+    }
+
+    /**
+     * Полная длительность расписания: прогрев и замер.
+     */
+    Duration total() {
+        return warmup.plus(duration);
+    }
+
+    private static int[] parseMix(String value) {
+        final String[] parts = value.split(":");
+        final int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return weights;
+    }
+}
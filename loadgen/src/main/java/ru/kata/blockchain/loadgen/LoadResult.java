@@ -0,0 +1,16 @@
+package ru.kata.blockchain.loadgen;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Итог прогона без прогрева.
+ *
+ * @param stats            результаты по эндпоинтам
+ * @param duration         длительность замера по часам планировщика
+ * @param maxSchedulerLag  наибольшее опоздание планировщика к моменту отправки; если оно сравнимо с задержками,
+ *                         клиент не успевал держать заданную интенсивность
+ * @param drained          дождались ли ответов на все отправленные запросы
+ */
+record LoadResult(Map<Endpoint, EndpointStats> stats, Duration duration, Duration maxSchedulerLag, boolean drained) {
+}
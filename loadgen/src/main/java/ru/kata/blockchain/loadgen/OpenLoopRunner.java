@@ -0,0 +1,100 @@
+package ru.kata.blockchain.loadgen;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Отправляет запросы по расписанию {@link RequestPlan} в открытой модели нагрузки.
+ * <p>
+ * Поток планировщика дожидается момента отправки каждого запроса и отправляет его асинхронно, не дожидаясь
+ * ответов на предыдущие. Задержка считается от запланированного момента, поэтому медленный узел не снижает
+ * интенсивность нагрузки и не прячет свои задержки (coordinated omission).
+ * <p>
+ * Число ожидающих ответа запросов ограничено {@code maxInFlight}: запросы сверх предела не отправляются,
+ * чтобы клиент не исчерпал память и сокеты при «зависшем» узле. Такой запрос считается истёкшим по таймауту,
+ * отсчитанному от запланированного момента: в гистограмму попадает его таймаут, иначе перцентили
+ * занижались бы ровно тогда, когда узел не справляется с нагрузкой.
+ */
+@Slf4j
+final class OpenLoopRunner {
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+    private final Duration drainTimeout;
+
+    OpenLoopRunner(HttpClient httpClient, int maxInFlight, Duration drainTimeout) {
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+        this.drainTimeout = drainTimeout;
+    }
+
+    LoadResult run(RequestPlan plan) throws InterruptedException {
+        final Map<Endpoint, EndpointStats> warmup = EndpointStats.forAllEndpoints();
+        final Map<Endpoint, EndpointStats> measured = EndpointStats.forAllEndpoints();
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final long start = System.nanoTime() + START_DELAY_NANOS;
+        long maxLagNanos = 0;
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        for (int i = 0; i < plan.size(); i++) {
+            final RequestPlan.PlannedRequest planned = plan.get(i);
+            final long intended = start + planned.offsetNanos();
+            maxLagNanos = Math.max(maxLagNanos, waitUntil(intended));
+            Map<Endpoint, EndpointStats> stats = measured;
+            if (plan.isWarmup(planned)) {
+                stats = warmup;
+            }
+            send(planned.request(), intended, stats.get(planned.endpoint()), inFlight);
+            if (intended >= nextProgress) {
+                log.info("Sent {} of {} request(s), in flight: {}", i + 1, plan.size(), maxInFlight - inFlight.availablePermits());
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+            }
+        }
+        final long sendEnd = System.nanoTime();
+        final boolean drained = inFlight.tryAcquire(maxInFlight, drainTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        if (!drained) {
+            log.warn("{} request(s) still in flight after {}", maxInFlight - inFlight.availablePermits(), drainTimeout);
+        }
+        final Duration measuredDuration = Duration.ofNanos(Math.max(1, sendEnd - start - plan.warmupNanos()));
+        return new LoadResult(measured, measuredDuration, Duration.ofNanos(maxLagNanos), drained);
+    }
+
+    private void send(HttpRequest request, long intended, EndpointStats stats, Semaphore inFlight) {
+        if (!inFlight.tryAcquire()) {
+            stats.recordSkipped(request.timeout().orElse(drainTimeout).toNanos());
+            return;
+        }
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            final long latency = System.nanoTime() - intended;
+            if (error == null) {
+                stats.recordResponse(response.statusCode(), latency);
+            } else {
+                stats.recordFailure(latency);
+            }
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Ждёт момента {@code deadline} по {@link System#nanoTime()}.
+     *
+     * @return насколько планировщик опоздал к этому моменту, наносекунды
+     */
+    private static long waitUntil(long deadline) {
+        long now = System.nanoTime();
+        while (now < deadline) {
+            LockSupport.parkNanos(deadline - now);
+            now = System.nanoTime();
+        }
+        return now - deadline;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.kata.blockchain.loadgen;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+
+/**
+ * Заранее построенное расписание запросов в порядке отправки.
+ * <p>
+ * Запросы со смещением меньше {@code warmupNanos} относятся к прогреву и в отчёт не попадают.
+ */
+final class RequestPlan {
+    private final List<PlannedRequest> requests;
+    private final long warmupNanos;
+
+    RequestPlan(List<PlannedRequest> requests, long warmupNanos) {
+        this.requests = List.copyOf(requests);
+        this.warmupNanos = warmupNanos;
+    }
+
+    int size() {
+        return requests.size();
+    }
+
+    PlannedRequest get(int i) {
+        return requests.get(i);
+    }
+
+    boolean isWarmup(PlannedRequest request) {
+        return request.offsetNanos() < warmupNanos;
+    }
+
+    long warmupNanos() {
+        return warmupNanos;
+    }
+
+    /**
+     * Запрос расписания.
+     *
+     * @param offsetNanos момент отправки от начала прогона, наносекунды
+     */
+    record PlannedRequest(long offsetNanos, Endpoint endpoint, HttpRequest request) {
+    }
+}
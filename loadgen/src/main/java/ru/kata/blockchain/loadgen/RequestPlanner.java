@@ -0,0 +1,94 @@
+package ru.kata.blockchain.loadgen;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Строит расписание запросов до начала прогона, чтобы генерация ключей, тел запросов и {@link HttpRequest}
+ * не отнимала время у отправки.
+ * <p>
+ * Моменты отправки задаёт {@link Arrivals} с интенсивностью {@code rate}, эндпоинт выбирается случайно
+ * с весами {@code --mix}. Переводы идут по кругу кошельков: {@code k}-й перевод отправляет кошелёк {@code k mod N}
+ * одному из остальных, а сумма растёт на единицу после каждых {@code N·(N-1)} переводов. Поэтому тройки
+ * (отправитель, получатель, сумма), а с ними и TxId, не повторяются, а балансы кошельков в среднем не меняются.
+ */
+final class RequestPlanner {
+    /**
+     * Сумма перевода не превышает лимит политики проверки узла.
+     */
+    static final long MAX_AMOUNT = 1000;
+    private static final String JSON = "application/json";
+
+    private final LoadProfile profile;
+    private final List<Wallet> wallets;
+    private final Random random;
+    private long transfers;
+
+    RequestPlanner(LoadProfile profile, List<Wallet> wallets) {
+        this.profile = profile;
+        this.wallets = List.copyOf(wallets);
+        this.random = new Random(profile.seed());
+    }
+
+    RequestPlan plan() {
+        final double meanGapNanos = 1_000_000_000.0 / profile.rate();
+        final long totalNanos = profile.total().toNanos();
+        final List<RequestPlan.PlannedRequest> requests = new ArrayList<>((int) Math.min(Integer.MAX_VALUE,
+                profile.total().toSeconds() * profile.rate() + 1));
+        long offset = 0;
+        while (offset < totalNanos) {
+            final Endpoint endpoint = nextEndpoint();
+            requests.add(new RequestPlan.PlannedRequest(offset, endpoint, request(endpoint)));
+            offset += profile.arrivals().nextGapNanos(meanGapNanos, random);
+        }
+        return new RequestPlan(requests, profile.warmup().toNanos());
+    }
+
+    /**
+     * Тело {@code POST /api/transaction} для {@code k}-го перевода.
+     */
+    String transferBody(long k) {
+        final int accounts = wallets.size();
+        final int from = (int) (k % accounts);
+        final long round = k / accounts;
+        final int to = (int) ((from + 1 + round % (accounts - 1)) % accounts);
+        final long amount = 1 + (round / (accounts - 1)) % MAX_AMOUNT;
+        final Wallet sender = wallets.get(from);
+        return "{\"transactionDto\":{\"from\":\"" + sender.address() + "\",\"to\":\"" + wallets.get(to).address()
+                + "\",\"amount\":" + amount + ",\"publicKey\":\"" + sender.publicKey() + "\"},\"privateKey\":\"" + sender.privateKey() + "\"}";
+    }
+
+    private Endpoint nextEndpoint() {
+        int totalWeight = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            totalWeight += profile.weight(endpoint);
+        }
+        int choice = random.nextInt(totalWeight);
+        for (Endpoint endpoint : Endpoint.values()) {
+            choice -= profile.weight(endpoint);
+            if (choice < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("Endpoint weights changed while planning");
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        return switch (endpoint) {
+            case CREATE_TRANSACTION -> builder("/api/transaction")
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofString(transferBody(transfers++)))
+                    .build();
+            case GET_BALANCE -> builder("/api/balance/" + wallets.get(random.nextInt(wallets.size())).address()).GET().build();
+            case GET_BLOCKCHAIN -> builder("/api/blockchain?fromIndex=0&limit=" + profile.pageSize()).GET().build();
+        };
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(profile.target().resolve(path))
+                .timeout(profile.timeout())
+                .header("Accept", JSON);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.kata.blockchain.loadgen;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Кошелёк нагрузочного клиента: адрес и ключи secp256k1 в том виде, в каком их принимает
+ * {@code POST /api/transaction} — Base64 от X.509 (публичный) и PKCS#8 (приватный) кодировок.
+ * <p>
+ * Адрес — {@code 1} и первые 20 байт SHA-256 публичного ключа в hex: узел проверяет только длину адреса.
+ */
+record Wallet(String address, String publicKey, String privateKey) {
+    private static final BouncyCastleProvider PROVIDER = new BouncyCastleProvider();
+    private static final int ADDRESS_BYTES = 20;
+
+    /**
+     * Создаёт {@code count} кошельков с новыми ключами.
+     */
+    static List<Wallet> generate(int count) {
+        try {
+            final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", PROVIDER);
+            generator.initialize(new ECGenParameterSpec("secp256k1"));
+            final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            final Base64.Encoder base64 = Base64.getEncoder();
+            final List<Wallet> wallets = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final KeyPair keyPair = generator.generateKeyPair();
+                final byte[] publicKey = keyPair.getPublic().getEncoded();
+                final String address = "1" + HexFormat.of().formatHex(sha256.digest(publicKey), 0, ADDRESS_BYTES);
+                wallets.add(new Wallet(address, base64.encodeToString(publicKey), base64.encodeToString(keyPair.getPrivate().getEncoded())));
+            }
+            return wallets;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("secp256k1 key generation is not available", e);
+        }
+    }
+}
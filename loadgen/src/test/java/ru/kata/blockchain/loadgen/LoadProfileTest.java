@@ -0,0 +1,48 @@
+package ru.kata.blockchain.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadProfileTest {
+
+    @Test
+    void shouldUseDefaultsForMissingOptions() {
+        final LoadProfile profile = LoadProfile.parse(new String[0]);
+
+        assertEquals(URI.create("http://localhost:8080"), profile.target());
+        assertEquals(200, profile.rate());
+        assertEquals(Duration.ofSeconds(70), profile.total());
+        assertEquals(Arrivals.POISSON, profile.arrivals());
+        assertEquals(8, profile.weight(Endpoint.CREATE_TRANSACTION));
+        assertEquals(1, profile.weight(Endpoint.GET_BLOCKCHAIN));
+    }
+
+    @Test
+    void shouldParseOptions() {
+        final LoadProfile profile = LoadProfile.parse(new String[]{"--target=http://127.0.0.1:9090", "--rate=1500", "--duration=30",
+                "--warmup=0", "--arrivals=uniform", "--mix=1:0:2", "--accounts=10"});
+
+        assertEquals(URI.create("http://127.0.0.1:9090"), profile.target());
+        assertEquals(1500, profile.rate());
+        assertEquals(Duration.ofSeconds(30), profile.total());
+        assertEquals(Arrivals.UNIFORM, profile.arrivals());
+        assertEquals(0, profile.weight(Endpoint.GET_BALANCE));
+        assertEquals(2, profile.weight(Endpoint.GET_BLOCKCHAIN));
+        assertEquals(10, profile.accounts());
+    }
+
+    @Test
+    void shouldRejectInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"--unknown=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"rate=10"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"--rate=fast"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"--mix=1:1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"--mix=0:0:0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"--accounts=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse(new String[]{"--arrivals=bursty"}));
+    }
+}
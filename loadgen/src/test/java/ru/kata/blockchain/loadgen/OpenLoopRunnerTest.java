@@ -0,0 +1,89 @@
+package ru.kata.blockchain.loadgen;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenLoopRunnerTest {
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/transaction", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(202, -1);
+            exchange.close();
+        });
+        server.createContext("/api/balance", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldSendWholePlanAndCountResponsesByStatus() throws InterruptedException {
+        final LoadProfile profile = LoadProfile.parse(new String[]{"--target=http://127.0.0.1:" + server.getAddress().getPort(),
+                "--rate=200", "--duration=1", "--warmup=0", "--arrivals=uniform", "--mix=1:1:0"});
+        final RequestPlan plan = new RequestPlanner(profile, Wallet.generate(2)).plan();
+
+        final LoadResult result;
+        try (HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            result = new OpenLoopRunner(httpClient, 1000, Duration.ofSeconds(10)).run(plan);
+        }
+
+        assertTrue(result.drained());
+        final EndpointStats transactions = result.stats().get(Endpoint.CREATE_TRANSACTION);
+        final EndpointStats balances = result.stats().get(Endpoint.GET_BALANCE);
+        assertEquals(plan.size(), transactions.completed() + balances.completed());
+        assertEquals(transactions.completed(), transactions.successful());
+        assertEquals(balances.completed(), balances.clientErrors());
+        assertEquals(transactions.completed(), transactions.latencies().getTotalCount());
+        assertEquals(0, result.stats().get(Endpoint.GET_BLOCKCHAIN).completed());
+    }
+
+    @Test
+    void shouldSkipRequestsAboveInFlightLimit() throws InterruptedException {
+        server.createContext("/api/blockchain", exchange -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        final LoadProfile profile = LoadProfile.parse(new String[]{"--target=http://127.0.0.1:" + server.getAddress().getPort(),
+                "--rate=50", "--duration=1", "--warmup=0", "--arrivals=uniform", "--mix=0:0:1"});
+        final RequestPlan plan = new RequestPlanner(profile, Wallet.generate(2)).plan();
+
+        final LoadResult result;
+        try (HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            result = new OpenLoopRunner(httpClient, 2, Duration.ofSeconds(10)).run(plan);
+        }
+
+        final EndpointStats blockchain = result.stats().get(Endpoint.GET_BLOCKCHAIN);
+        assertEquals(plan.size(), blockchain.completed() + blockchain.skipped());
+        assertTrue(blockchain.skipped() > 0);
+        assertTrue(blockchain.latencies().getMinValue() >= 500_000);
+        assertEquals(plan.size(), blockchain.latencies().getTotalCount());
+        assertEquals(blockchain.skipped(), blockchain.latencies().getCountBetweenValues(9_000_000, 11_000_000));
+    }
+}
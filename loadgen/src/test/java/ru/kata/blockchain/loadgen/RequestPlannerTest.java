@@ -0,0 +1,61 @@
+package ru.kata.blockchain.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPlannerTest {
+    private static final List<Wallet> WALLETS = Wallet.generate(3);
+
+    @Test
+    void shouldScheduleUniformArrivalsAtTargetRate() {
+        final LoadProfile profile = LoadProfile.parse(new String[]{"--rate=100", "--duration=2", "--warmup=1", "--arrivals=uniform"});
+
+        final RequestPlan plan = new RequestPlanner(profile, WALLETS).plan();
+
+        assertEquals(300, plan.size());
+        assertEquals(0, plan.get(0).offsetNanos());
+        assertEquals(10_000_000, plan.get(1).offsetNanos());
+        int warmup = 0;
+        for (int i = 0; i < plan.size(); i++) {
+            if (plan.isWarmup(plan.get(i))) {
+                warmup++;
+            }
+        }
+        assertEquals(100, warmup);
+    }
+
+    @Test
+    void shouldKeepPoissonRateAndMix() {
+        final LoadProfile profile = LoadProfile.parse(new String[]{"--rate=1000", "--duration=10", "--warmup=0", "--mix=1:0:1"});
+
+        final RequestPlan plan = new RequestPlanner(profile, WALLETS).plan();
+
+        assertEquals(10_000, plan.size(), 500);
+        int transactions = 0;
+        for (int i = 0; i < plan.size(); i++) {
+            assertNotEquals(Endpoint.GET_BALANCE, plan.get(i).endpoint());
+            if (plan.get(i).endpoint() == Endpoint.CREATE_TRANSACTION) {
+                transactions++;
+                assertEquals("POST", plan.get(i).request().method());
+            }
+        }
+        assertEquals(plan.size() / 2.0, transactions, plan.size() * 0.05);
+    }
+
+    @Test
+    void shouldNeverRepeatTransfer() {
+        final RequestPlanner planner = new RequestPlanner(LoadProfile.parse(new String[0]), WALLETS);
+        final Set<String> bodies = new HashSet<>();
+
+        for (long k = 0; k < 3 * 2 * 5; k++) {
+            assertTrue(bodies.add(planner.transferBody(k)), "transfer " + k + " repeats an earlier one");
+        }
+        assertTrue(planner.transferBody(0).contains("\"amount\":1,"));
+        assertTrue(planner.transferBody(6).contains("\"amount\":2,"));
+    }
+}